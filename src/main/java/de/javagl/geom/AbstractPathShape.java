@@ -0,0 +1,127 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Abstract base class for lightweight shapes that are only defined 
+ * by their {@link #getPathIterator(AffineTransform)} method. All other
+ * methods of the <code>Shape</code> interface are implemented based 
+ * on this path iterator.
+ */
+abstract class AbstractPathShape implements Shape
+{
+    @Override
+    public Rectangle getBounds()
+    {
+        return getBounds2D().getBounds();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The default implementation returns the bounds of all end points
+     * and control points of the path.
+     */
+    @Override
+    public Rectangle2D getBounds2D()
+    {
+        PathIterator pi = getPathIterator(null);
+        double coords[] = new double[6];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        while (!pi.isDone())
+        {
+            int n = PathIterators.getNumCoordinates(pi.currentSegment(coords));
+            for (int i = 0; i < n; i += 2)
+            {
+                minX = Math.min(minX, coords[i + 0]);
+                minY = Math.min(minY, coords[i + 1]);
+                maxX = Math.max(maxX, coords[i + 0]);
+                maxY = Math.max(maxY, coords[i + 1]);
+            }
+            pi.next();
+        }
+        if (minX > maxX)
+        {
+            return new Rectangle2D.Double();
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+    
+    @Override
+    public boolean contains(double x, double y)
+    {
+        return Path2D.contains(getPathIterator(null), x, y);
+    }
+
+    @Override
+    public boolean contains(Point2D p)
+    {
+        return Path2D.contains(getPathIterator(null), p);
+    }
+
+    @Override
+    public boolean intersects(double x, double y, double w, double h)
+    {
+        return Path2D.intersects(getPathIterator(null), x, y, w, h);
+    }
+
+    @Override
+    public boolean intersects(Rectangle2D r)
+    {
+        return Path2D.intersects(getPathIterator(null), r);
+    }
+
+    @Override
+    public boolean contains(double x, double y, double w, double h)
+    {
+        return Path2D.contains(getPathIterator(null), x, y, w, h);
+    }
+
+    @Override
+    public boolean contains(Rectangle2D r)
+    {
+        return Path2D.contains(getPathIterator(null), r);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at, double flatness)
+    {
+        return new FlatteningPathIterator(getPathIterator(at), flatness);
+    }
+}
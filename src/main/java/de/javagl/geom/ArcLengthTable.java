@@ -0,0 +1,400 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+
+/**
+ * A table that allows fast, repeated queries for the point and the 
+ * tangent at a certain distance along a shape.<br>
+ * <br>
+ * Instances of this class are created from a flattened version of a 
+ * shape. The cumulative lengths of all line segments are stored in an
+ * array, so that the segment that contains a certain distance can be 
+ * found with a binary search, instead of iterating over the path from 
+ * its beginning. For many distances that are given in ascending order,
+ * the batch methods find the segments with a single forward pass.<br>
+ * <br>
+ * The distances are measured along all sub-paths of the shape, in the
+ * order in which they appear. Closed sub-paths include their closing 
+ * segment. The gaps between the sub-paths do not contribute to the 
+ * length. Distances that are smaller than 0 or larger than the 
+ * {@link #getLength() total length} are clamped to this range.<br>
+ * <br>
+ * Instances of this class are immutable, and may be used by multiple
+ * threads concurrently.
+ */
+public final class ArcLengthTable
+{
+    /**
+     * Creates a new arc length table for the given shape
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @return The arc length table
+     */
+    public static ArcLengthTable create(Shape shape, double flatness)
+    {
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        return new ArcLengthTable(path);
+    }
+
+    /**
+     * Creates a new arc length table for the given path
+     * 
+     * @param path The path
+     * @return The arc length table
+     */
+    public static ArcLengthTable create(PackedPath path)
+    {
+        return new ArcLengthTable(path);
+    }
+    
+    /**
+     * The coordinates of the points of the path
+     */
+    private final double coordinates[];
+    
+    /**
+     * The number of segments with a positive length
+     */
+    private final int numSegments;
+    
+    /**
+     * The indices of the start points of the segments
+     */
+    private final int segmentStarts[];
+
+    /**
+     * The indices of the end points of the segments
+     */
+    private final int segmentEnds[];
+    
+    /**
+     * The cumulative lengths. Element <code>i</code> is the sum of the 
+     * lengths of all segments before segment <code>i</code>. The last
+     * element is the total length.
+     */
+    private final double cumulativeLengths[];
+    
+    /**
+     * Creates a new arc length table for the given path
+     * 
+     * @param path The path
+     */
+    private ArcLengthTable(PackedPath path)
+    {
+        this.coordinates = path.toCoordinates();
+        IntArray starts = new IntArray(path.getNumPoints());
+        IntArray ends = new IntArray(path.getNumPoints());
+        DoubleArray lengths = new DoubleArray(path.getNumPoints() + 1);
+        double length = 0;
+        lengths.add(length);
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            int last = path.isSubPathClosed(s) ? end : end - 1;
+            for (int i = start; i < last; i++)
+            {
+                int j = i + 1 < end ? i + 1 : start;
+                double segmentLength = Math.hypot(
+                    coordinates[j * 2 + 0] - coordinates[i * 2 + 0], 
+                    coordinates[j * 2 + 1] - coordinates[i * 2 + 1]);
+                if (segmentLength > 0)
+                {
+                    starts.add(i);
+                    ends.add(j);
+                    length += segmentLength;
+                    lengths.add(length);
+                }
+            }
+        }
+        this.numSegments = starts.size();
+        this.segmentStarts = starts.toArray();
+        this.segmentEnds = ends.toArray();
+        this.cumulativeLengths = lengths.toArray();
+    }
+    
+    /**
+     * Returns the total length of the shape
+     * 
+     * @return The length
+     */
+    public double getLength()
+    {
+        return cumulativeLengths[numSegments];
+    }
+    
+    /**
+     * Computes the point at the given distance along the shape.<br>
+     * <br>
+     * If the shape does not have a positive length, then the result will
+     * be its first point, or <code>(0,0)</code> if it has no points.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new point will be
+     * created and returned.
+     * 
+     * @param distance The distance
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computePoint(double distance, Point2D result)
+    {
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        if (numSegments == 0)
+        {
+            if (coordinates.length == 0)
+            {
+                result.setLocation(0, 0);
+            }
+            else
+            {
+                result.setLocation(coordinates[0], coordinates[1]);
+            }
+            return result;
+        }
+        int segment = findSegment(distance, 0);
+        int i = segmentStarts[segment];
+        int j = segmentEnds[segment];
+        double alpha = computeAlpha(segment, distance);
+        double x0 = coordinates[i * 2 + 0];
+        double y0 = coordinates[i * 2 + 1];
+        double x1 = coordinates[j * 2 + 0];
+        double y1 = coordinates[j * 2 + 1];
+        result.setLocation(x0 + alpha * (x1 - x0), y0 + alpha * (y1 - y0));
+        return result;
+    }
+    
+    /**
+     * Computes the tangent at the given distance along the shape. This 
+     * is the normalized direction of the line segment that contains the
+     * given distance. At the boundary between two segments, this is the
+     * direction of the first one.<br>
+     * <br>
+     * If the shape does not have a positive length, then the result will
+     * be <code>(0,0)</code>.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new point will be
+     * created and returned.
+     * 
+     * @param distance The distance
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeTangent(double distance, Point2D result)
+    {
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        if (numSegments == 0)
+        {
+            result.setLocation(0, 0);
+            return result;
+        }
+        int segment = findSegment(distance, 0);
+        int i = segmentStarts[segment];
+        int j = segmentEnds[segment];
+        double invLength = 1.0 / 
+            (cumulativeLengths[segment + 1] - cumulativeLengths[segment]);
+        result.setLocation(
+            (coordinates[j * 2 + 0] - coordinates[i * 2 + 0]) * invLength, 
+            (coordinates[j * 2 + 1] - coordinates[i * 2 + 1]) * invLength);
+        return result;
+    }
+    
+    /**
+     * Computes the points at the given distances along the shape. The 
+     * given distances must be sorted in ascending order. The segments 
+     * that contain the distances will then be found in a single pass.
+     * <br>
+     * <br>
+     * The result will contain the coordinates of the points, as 
+     * consecutive <code>(x,y)</code> pairs. If the given result is 
+     * <code>null</code>, or has a length that is smaller than twice the
+     * number of distances, then a new array will be created and returned.
+     * 
+     * @param distances The distances
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the distances are not sorted
+     */
+    public double[] computePoints(double distances[], double result[])
+    {
+        return compute(distances, false, result);
+    }
+
+    /**
+     * Computes the tangents at the given distances along the shape, as
+     * described in {@link #computeTangent(double, Point2D)}. The given 
+     * distances must be sorted in ascending order. The segments that 
+     * contain the distances will then be found in a single pass.<br>
+     * <br>
+     * The result will contain the tangents, as consecutive 
+     * <code>(x,y)</code> pairs. If the given result is <code>null</code>,
+     * or has a length that is smaller than twice the number of distances,
+     * then a new array will be created and returned.
+     * 
+     * @param distances The distances
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the distances are not sorted
+     */
+    public double[] computeTangents(double distances[], double result[])
+    {
+        return compute(distances, true, result);
+    }
+    
+    /**
+     * Implementation of the batch methods
+     * 
+     * @param distances The distances
+     * @param tangents Whether tangents should be computed, instead of 
+     * points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the distances are not sorted
+     */
+    private double[] compute(
+        double distances[], boolean tangents, double result[])
+    {
+        int n = distances.length;
+        if (result == null || result.length < n * 2)
+        {
+            result = new double[n * 2];
+        }
+        Point2D.Double point = new Point2D.Double();
+        int segment = 0;
+        for (int k = 0; k < n; k++)
+        {
+            double distance = distances[k];
+            if (k > 0 && distance < distances[k - 1])
+            {
+                throw new IllegalArgumentException(
+                    "The distances are not sorted: Distance " + k + " is " 
+                    + distance + ", but the previous one is " 
+                    + distances[k - 1]);
+            }
+            if (numSegments == 0)
+            {
+                if (tangents)
+                {
+                    computeTangent(distance, point);
+                }
+                else
+                {
+                    computePoint(distance, point);
+                }
+                result[k * 2 + 0] = point.x;
+                result[k * 2 + 1] = point.y;
+                continue;
+            }
+            segment = findSegment(distance, segment);
+            int i = segmentStarts[segment];
+            int j = segmentEnds[segment];
+            double x0 = coordinates[i * 2 + 0];
+            double y0 = coordinates[i * 2 + 1];
+            double dx = coordinates[j * 2 + 0] - x0;
+            double dy = coordinates[j * 2 + 1] - y0;
+            if (tangents)
+            {
+                double invLength = 1.0 / (cumulativeLengths[segment + 1] 
+                    - cumulativeLengths[segment]);
+                result[k * 2 + 0] = dx * invLength;
+                result[k * 2 + 1] = dy * invLength;
+            }
+            else
+            {
+                double alpha = computeAlpha(segment, distance);
+                result[k * 2 + 0] = x0 + alpha * dx;
+                result[k * 2 + 1] = y0 + alpha * dy;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the index of the segment that contains the given distance,
+     * which is the first segment whose end is not smaller than the given
+     * distance. The search starts at the given segment, which must not be
+     * behind the result. Starting from there, the search range is doubled
+     * until it contains the result, which is then found with a binary 
+     * search. So for distances that are close to each other, the next 
+     * segment is found quickly.
+     * 
+     * @param distance The distance
+     * @param startSegment The segment to start the search at
+     * @return The segment index
+     */
+    private int findSegment(double distance, int startSegment)
+    {
+        int low = startSegment;
+        int step = 1;
+        int high = low;
+        while (high < numSegments - 1 && 
+            cumulativeLengths[high + 1] < distance)
+        {
+            low = high + 1;
+            high = Math.min(high + step, numSegments - 1);
+            step *= 2;
+        }
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (cumulativeLengths[mid + 1] < distance)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Computes the relative position of the given distance on the given
+     * segment, clamped to [0,1]
+     * 
+     * @param segment The segment index
+     * @param distance The distance
+     * @return The relative position
+     */
+    private double computeAlpha(int segment, double distance)
+    {
+        double start = cumulativeLengths[segment];
+        double end = cumulativeLengths[segment + 1];
+        double alpha = (distance - start) / (end - start);
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+}
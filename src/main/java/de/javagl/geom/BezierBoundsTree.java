@@ -0,0 +1,398 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+/**
+ * A bounding volume hierarchy for a sequence of cubic B&eacute;zier 
+ * curves, used for finding the point on the curves that is closest to
+ * a given point.<br>
+ * <br>
+ * Each curve is bounded by the bounding box of its control points, which
+ * contains the convex hull of the control points, and thus, the curve.
+ * The hierarchy is a binary tree over ranges of consecutive curves. 
+ * Since consecutive curves are usually close to each other, the boxes 
+ * of the inner nodes are tight enough to prune most of the curves in a 
+ * query. For the remaining curves, the closest point is found by 
+ * sampling the curve, and refining the best sample with a golden 
+ * section search and Newton iterations.
+ */
+final class BezierBoundsTree
+{
+    /**
+     * The maximum number of curves in a leaf node
+     */
+    private static final int LEAF_SIZE = 4;
+    
+    /**
+     * The number of intervals for the initial sampling of a curve
+     */
+    private static final int NUM_SAMPLES = 8;
+    
+    /**
+     * The maximum number of Newton iterations
+     */
+    private static final int MAX_NEWTON_STEPS = 4;
+    
+    /**
+     * The number of golden section search steps
+     */
+    private static final int MAX_GOLDEN_SECTION_STEPS = 30;
+    
+    /**
+     * The inverse of the golden ratio
+     */
+    private static final double GOLDEN_RATIO = (Math.sqrt(5.0) - 1.0) / 2.0;
+    
+    /**
+     * The control points of the curves, as 8 coordinates per curve
+     */
+    private final double curves[];
+    
+    /**
+     * The bounds of the nodes, as (minX, minY, maxX, maxY) 
+     */
+    private final double bounds[];
+    
+    /**
+     * The index of the first curve of each node
+     */
+    private final int starts[];
+    
+    /**
+     * The index after the last curve of each node
+     */
+    private final int ends[];
+    
+    /**
+     * The index of the second child of each inner node. The first child
+     * of an inner node always directly follows the node. For leaf nodes,
+     * this is -1.
+     */
+    private final int secondChildren[];
+    
+    /**
+     * The number of nodes
+     */
+    private int numNodes;
+    
+    /**
+     * Creates a new tree for the given curves
+     * 
+     * @param curves The control points of the curves, as 8 coordinates
+     * per curve. A reference to this array will be stored.
+     * @param numCurves The number of curves
+     */
+    BezierBoundsTree(double curves[], int numCurves)
+    {
+        this.curves = curves;
+        int maxNodes = Math.max(1, 2 * numCurves);
+        this.bounds = new double[maxNodes * 4];
+        this.starts = new int[maxNodes];
+        this.ends = new int[maxNodes];
+        this.secondChildren = new int[maxNodes];
+        if (numCurves > 0)
+        {
+            build(0, numCurves);
+        }
+    }
+    
+    /**
+     * Build the node for the given range of curves, and all its children
+     * 
+     * @param start The first curve, inclusive
+     * @param end The last curve, exclusive
+     * @return The index of the node
+     */
+    private int build(int start, int end)
+    {
+        int node = numNodes++;
+        starts[node] = start;
+        ends[node] = end;
+        if (end - start <= LEAF_SIZE)
+        {
+            secondChildren[node] = -1;
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = start * 8; i < end * 8; i += 2)
+            {
+                minX = Math.min(minX, curves[i + 0]);
+                minY = Math.min(minY, curves[i + 1]);
+                maxX = Math.max(maxX, curves[i + 0]);
+                maxY = Math.max(maxY, curves[i + 1]);
+            }
+            bounds[node * 4 + 0] = minX;
+            bounds[node * 4 + 1] = minY;
+            bounds[node * 4 + 2] = maxX;
+            bounds[node * 4 + 3] = maxY;
+            return node;
+        }
+        int mid = (start + end) >>> 1;
+        int first = build(start, mid);
+        int second = build(mid, end);
+        secondChildren[node] = second;
+        bounds[node * 4 + 0] = 
+            Math.min(bounds[first * 4 + 0], bounds[second * 4 + 0]);
+        bounds[node * 4 + 1] = 
+            Math.min(bounds[first * 4 + 1], bounds[second * 4 + 1]);
+        bounds[node * 4 + 2] = 
+            Math.max(bounds[first * 4 + 2], bounds[second * 4 + 2]);
+        bounds[node * 4 + 3] = 
+            Math.max(bounds[first * 4 + 3], bounds[second * 4 + 3]);
+        return node;
+    }
+    
+    /**
+     * Computes the parameter of the point on the curves that is closest 
+     * to the given point. The integral part of the result is the index 
+     * of the curve, and the fractional part is the parameter on this 
+     * curve. If there are no curves, then 0.0 is returned.
+     * 
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return The parameter
+     */
+    double computeClosestParameter(double x, double y)
+    {
+        if (numNodes == 0)
+        {
+            return 0.0;
+        }
+        // The squared distance and parameter of the closest point so far
+        double best[] = { Double.POSITIVE_INFINITY, 0.0 };
+        query(0, x, y, best);
+        return best[1];
+    }
+    
+    /**
+     * Find the closest point to the given point in the given node and
+     * its children, updating the given best result
+     * 
+     * @param node The node
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @param best The squared distance and parameter of the closest 
+     * point that was found so far
+     */
+    private void query(int node, double x, double y, double best[])
+    {
+        int second = secondChildren[node];
+        if (second == -1)
+        {
+            for (int i = starts[node]; i < ends[node]; i++)
+            {
+                computeClosest(i, x, y, best);
+            }
+            return;
+        }
+        int first = node + 1;
+        double distanceSqFirst = computeDistanceSq(first, x, y);
+        double distanceSqSecond = computeDistanceSq(second, x, y);
+        if (distanceSqSecond < distanceSqFirst)
+        {
+            if (distanceSqSecond < best[0])
+            {
+                query(second, x, y, best);
+            }
+            if (distanceSqFirst < best[0])
+            {
+                query(first, x, y, best);
+            }
+        }
+        else
+        {
+            if (distanceSqFirst < best[0])
+            {
+                query(first, x, y, best);
+            }
+            if (distanceSqSecond < best[0])
+            {
+                query(second, x, y, best);
+            }
+        }
+    }
+    
+    /**
+     * Computes the squared distance of the given point to the bounds
+     * of the given node
+     * 
+     * @param node The node
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The squared distance
+     */
+    private double computeDistanceSq(int node, double x, double y)
+    {
+        double dx = Math.max(0.0, Math.max(
+            bounds[node * 4 + 0] - x, x - bounds[node * 4 + 2]));
+        double dy = Math.max(0.0, Math.max(
+            bounds[node * 4 + 1] - y, y - bounds[node * 4 + 3]));
+        return dx * dx + dy * dy;
+    }
+    
+    /**
+     * Computes the squared distance between the given point and the point
+     * of a cubic curve in power basis form, at the given parameter
+     * 
+     * @param ax The x-coordinate of the cubic coefficient
+     * @param ay The y-coordinate of the cubic coefficient
+     * @param bx The x-coordinate of the quadratic coefficient
+     * @param by The y-coordinate of the quadratic coefficient
+     * @param cx The x-coordinate of the linear coefficient
+     * @param cy The y-coordinate of the linear coefficient
+     * @param dx The x-coordinate of the constant coefficient
+     * @param dy The y-coordinate of the constant coefficient
+     * @param u The parameter
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return The squared distance
+     */
+    private static double computeDistanceSq(
+        double ax, double ay, double bx, double by, 
+        double cx, double cy, double dx, double dy, 
+        double u, double x, double y)
+    {
+        double ex = ((ax * u + bx) * u + cx) * u + dx - x;
+        double ey = ((ay * u + by) * u + cy) * u + dy - y;
+        return ex * ex + ey * ey;
+    }
+    
+    /**
+     * Computes the closest point on the given curve to the given point,
+     * and updates the given best result if it is closer than the best 
+     * point that was found so far
+     * 
+     * @param curve The curve index
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @param best The squared distance and parameter of the closest 
+     * point that was found so far
+     */
+    private void computeClosest(int curve, double x, double y, double best[])
+    {
+        int o = curve * 8;
+        double x0 = curves[o + 0];
+        double y0 = curves[o + 1];
+        double x1 = curves[o + 2];
+        double y1 = curves[o + 3];
+        double x2 = curves[o + 4];
+        double y2 = curves[o + 5];
+        double x3 = curves[o + 6];
+        double y3 = curves[o + 7];
+        
+        // Power basis coefficients: p(u) = a*u^3 + b*u^2 + c*u + d
+        double ax = x3 - x0 + 3 * (x1 - x2);
+        double ay = y3 - y0 + 3 * (y1 - y2);
+        double bx = 3 * (x0 - 2 * x1 + x2);
+        double by = 3 * (y0 - 2 * y1 + y2);
+        double cx = 3 * (x1 - x0);
+        double cy = 3 * (y1 - y0);
+        
+        double bestU = 0;
+        double bestDistanceSq = Double.POSITIVE_INFINITY;
+        for (int i = 0; i <= NUM_SAMPLES; i++)
+        {
+            double u = (double)i / NUM_SAMPLES;
+            double distanceSq = 
+                computeDistanceSq(ax, ay, bx, by, cx, cy, x0, y0, u, x, y);
+            if (distanceSq < bestDistanceSq)
+            {
+                bestDistanceSq = distanceSq;
+                bestU = u;
+            }
+        }
+        
+        // Narrow down the interval around the best sample with a golden 
+        // section search, which also works where the squared distance 
+        // is not convex
+        double lo = Math.max(0.0, bestU - 1.0 / NUM_SAMPLES);
+        double hi = Math.min(1.0, bestU + 1.0 / NUM_SAMPLES);
+        double m0 = hi - GOLDEN_RATIO * (hi - lo);
+        double m1 = lo + GOLDEN_RATIO * (hi - lo);
+        double f0 = computeDistanceSq(ax, ay, bx, by, cx, cy, x0, y0, m0, x, y);
+        double f1 = computeDistanceSq(ax, ay, bx, by, cx, cy, x0, y0, m1, x, y);
+        for (int i = 0; i < MAX_GOLDEN_SECTION_STEPS; i++)
+        {
+            if (f0 < f1)
+            {
+                hi = m1;
+                m1 = m0;
+                f1 = f0;
+                m0 = hi - GOLDEN_RATIO * (hi - lo);
+                f0 = computeDistanceSq(
+                    ax, ay, bx, by, cx, cy, x0, y0, m0, x, y);
+            }
+            else
+            {
+                lo = m0;
+                m0 = m1;
+                f0 = f1;
+                m1 = lo + GOLDEN_RATIO * (hi - lo);
+                f1 = computeDistanceSq(
+                    ax, ay, bx, by, cx, cy, x0, y0, m1, x, y);
+            }
+        }
+        
+        // Newton iterations for a root of f(u) = (p(u)-q) dot p'(u),
+        // to refine the result of the golden section search
+        double u = (lo + hi) * 0.5;
+        for (int i = 0; i < MAX_NEWTON_STEPS; i++)
+        {
+            double dx = ((ax * u + bx) * u + cx) * u + x0 - x;
+            double dy = ((ay * u + by) * u + cy) * u + y0 - y;
+            double d1x = (3 * ax * u + 2 * bx) * u + cx;
+            double d1y = (3 * ay * u + 2 * by) * u + cy;
+            double d2x = 6 * ax * u + 2 * bx;
+            double d2y = 6 * ay * u + 2 * by;
+            double f = dx * d1x + dy * d1y;
+            double df = d1x * d1x + d1y * d1y + dx * d2x + dy * d2y;
+            if (df <= 0.0)
+            {
+                break;
+            }
+            double next = u - f / df;
+            if (!(next >= lo && next <= hi))
+            {
+                break;
+            }
+            u = next;
+        }
+        double distanceSq = 
+            computeDistanceSq(ax, ay, bx, by, cx, cy, x0, y0, u, x, y);
+        if (distanceSq < bestDistanceSq)
+        {
+            bestDistanceSq = distanceSq;
+            bestU = u;
+        }
+        if (bestDistanceSq < best[0])
+        {
+            best[0] = bestDistanceSq;
+            best[1] = curve + bestU;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A class for reading shapes that have been written with a 
+ * {@link BinaryShapeWriter}.<br>
+ * <br>
+ * The shapes are not deserialized. Instead, the shapes that are 
+ * returned by {@link #getShape(int)} are lightweight views whose path
+ * iterators read the segments directly from the underlying buffer. 
+ * Creating a reader only reads the header and the trailer of the data, 
+ * so that it takes constant time, regardless of the number of shapes.
+ * Since a <code>ByteBuffer</code> is indexed with <code>int</code> 
+ * values, the data may not be larger than 2 GB.<br>
+ * <br>
+ * Instances of this class may be used by multiple threads concurrently,
+ * because they only use absolute read operations on the buffer.
+ */
+public final class BinaryShapeReader
+{
+    /**
+     * Creates a new reader for the given file, which is mapped into 
+     * memory
+     * 
+     * @param file The file
+     * @return The reader
+     * @throws IOException If an IO error occurs, or the file does not
+     * contain valid data
+     */
+    public static BinaryShapeReader open(File file) throws IOException
+    {
+        try (RandomAccessFile randomAccessFile = 
+            new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return create(buffer);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Creates a new reader for the given buffer. The data is read from 
+     * the position of the buffer up to its limit. The buffer should 
+     * not be modified while the reader is used.
+     * 
+     * @param buffer The buffer
+     * @return The reader
+     * @throws IllegalArgumentException If the buffer does not contain
+     * valid data
+     */
+    public static BinaryShapeReader create(ByteBuffer buffer)
+    {
+        ByteBuffer b = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        int size = b.capacity();
+        if (size < BinaryShapeWriter.HEADER_SIZE + 
+            BinaryShapeWriter.TRAILER_SIZE)
+        {
+            throw new IllegalArgumentException(
+                "Invalid data: Only " + size + " bytes");
+        }
+        if (b.getInt(0) != BinaryShapeWriter.MAGIC || 
+            b.getInt(size - 4) != BinaryShapeWriter.MAGIC)
+        {
+            throw new IllegalArgumentException(
+                "Invalid data: Magic number not found");
+        }
+        int version = b.getInt(4);
+        if (version != BinaryShapeWriter.VERSION)
+        {
+            throw new IllegalArgumentException(
+                "Invalid data: Unsupported version " + version);
+        }
+        int encoding = b.getInt(8);
+        if (encoding != BinaryShapeWriter.DOUBLE && 
+            encoding != BinaryShapeWriter.FLOAT &&
+            encoding != BinaryShapeWriter.QUANTIZED)
+        {
+            throw new IllegalArgumentException(
+                "Invalid data: Unknown encoding " + encoding);
+        }
+        double resolution = b.getDouble(16);
+        long tableOffset = b.getLong(size - 16);
+        int numShapes = b.getInt(size - 8);
+        if (numShapes < 0 || tableOffset < BinaryShapeWriter.HEADER_SIZE ||
+            tableOffset + numShapes * 8L != size - 16)
+        {
+            throw new IllegalArgumentException(
+                "Invalid data: Invalid offset table");
+        }
+        return new BinaryShapeReader(
+            b, encoding, resolution, (int) tableOffset, numShapes);
+    }
+    
+    /**
+     * The buffer
+     */
+    private final ByteBuffer buffer;
+    
+    /**
+     * The encoding
+     */
+    private final int encoding;
+    
+    /**
+     * The resolution for the quantized encoding
+     */
+    private final double resolution;
+    
+    /**
+     * The offset of the table of record offsets
+     */
+    private final int tableOffset;
+    
+    /**
+     * The number of shapes
+     */
+    private final int numShapes;
+    
+    /**
+     * Creates a new reader
+     * 
+     * @param buffer The buffer
+     * @param encoding The encoding
+     * @param resolution The resolution
+     * @param tableOffset The table offset
+     * @param numShapes The number of shapes
+     */
+    private BinaryShapeReader(ByteBuffer buffer, int encoding, 
+        double resolution, int tableOffset, int numShapes)
+    {
+        this.buffer = buffer;
+        this.encoding = encoding;
+        this.resolution = resolution;
+        this.tableOffset = tableOffset;
+        this.numShapes = numShapes;
+    }
+    
+    /**
+     * Returns the number of shapes
+     * 
+     * @return The number of shapes
+     */
+    public int getNumShapes()
+    {
+        return numShapes;
+    }
+    
+    /**
+     * Returns a view on the specified shape. The returned shape does 
+     * not store any segments, but reads them from the underlying buffer
+     * whenever its path iterator is used. It can be copied explicitly,
+     * for example, with <code>new Path2D.Double(shape)</code>. 
+     * 
+     * @param index The index of the shape
+     * @return The shape
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumShapes() number of shapes}
+     */
+    public Shape getShape(int index)
+    {
+        final int offset = getRecordOffset(index);
+        return new AbstractPathShape()
+        {
+            @Override
+            public PathIterator getPathIterator(AffineTransform at)
+            {
+                return new BinaryShapeIterator(offset, at);
+            }
+        };
+    }
+    
+    /**
+     * Returns a path iterator for the specified shape, which reads the
+     * segments directly from the underlying buffer
+     * 
+     * @param index The index of the shape
+     * @param at The optional transform that should be applied to the
+     * coordinates
+     * @return The path iterator
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumShapes() number of shapes}
+     */
+    public PathIterator getPathIterator(int index, AffineTransform at)
+    {
+        return new BinaryShapeIterator(getRecordOffset(index), at);
+    }
+    
+    /**
+     * Returns the offset of the record of the specified shape
+     * 
+     * @param index The index of the shape
+     * @return The offset
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    private int getRecordOffset(int index)
+    {
+        if (index < 0 || index >= numShapes)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of shapes is "
+                + numShapes);
+        }
+        return (int) buffer.getLong(tableOffset + index * 8);
+    }
+    
+    /**
+     * A path iterator that reads the segments of one record from the
+     * buffer
+     */
+    private final class BinaryShapeIterator implements PathIterator
+    {
+        /**
+         * The optional transform
+         */
+        private final AffineTransform at;
+        
+        /**
+         * The winding rule
+         */
+        private final int windingRule;
+        
+        /**
+         * The number of segments
+         */
+        private final int numSegments;
+        
+        /**
+         * The offset of the segment types
+         */
+        private final int typesOffset;
+        
+        /**
+         * The current segment index
+         */
+        private int segment;
+        
+        /**
+         * The offset of the coordinates of the current segment
+         */
+        private int coordinatesOffset;
+        
+        /**
+         * The coordinates of the current segment
+         */
+        private final double current[] = new double[6];
+        
+        /**
+         * The previous quantized x-coordinate
+         */
+        private long previousX;
+
+        /**
+         * The previous quantized y-coordinate
+         */
+        private long previousY;
+        
+        /**
+         * Creates a new iterator for the record at the given offset
+         * 
+         * @param offset The offset
+         * @param at The optional transform
+         */
+        BinaryShapeIterator(int offset, AffineTransform at)
+        {
+            this.at = at;
+            this.windingRule = buffer.getInt(offset);
+            this.numSegments = buffer.getInt(offset + 4);
+            this.typesOffset = offset + 12;
+            int end = typesOffset + numSegments;
+            if (encoding != BinaryShapeWriter.QUANTIZED)
+            {
+                end = (end + 7) & ~7;
+            }
+            this.coordinatesOffset = end;
+            this.segment = 0;
+            decode();
+        }
+        
+        /**
+         * Decode the coordinates of the current segment into the 
+         * {@link #current} array, and advance the coordinates offset
+         */
+        private void decode()
+        {
+            if (segment >= numSegments)
+            {
+                return;
+            }
+            int type = buffer.get(typesOffset + segment);
+            int n = PathIterators.getNumCoordinates(type);
+            for (int i = 0; i < n; i++)
+            {
+                if (encoding == BinaryShapeWriter.DOUBLE)
+                {
+                    current[i] = buffer.getDouble(coordinatesOffset);
+                    coordinatesOffset += 8;
+                }
+                else if (encoding == BinaryShapeWriter.FLOAT)
+                {
+                    current[i] = buffer.getFloat(coordinatesOffset);
+                    coordinatesOffset += 4;
+                }
+                else
+                {
+                    current[i] = decodeQuantized(i % 2 == 0);
+                }
+            }
+            if (at != null && n > 0)
+            {
+                at.transform(current, 0, current, 0, n / 2);
+            }
+        }
+        
+        /**
+         * Decode the next quantized coordinate
+         * 
+         * @param isX Whether the coordinate is an x-coordinate
+         * @return The coordinate
+         */
+        private double decodeQuantized(boolean isX)
+        {
+            long zigZag = 0;
+            int shift = 0;
+            while (true)
+            {
+                byte b = buffer.get(coordinatesOffset++);
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    break;
+                }
+                shift += 7;
+            }
+            long delta = (zigZag >>> 1) ^ -(zigZag & 1);
+            long value;
+            if (isX)
+            {
+                previousX += delta;
+                value = previousX;
+            }
+            else
+            {
+                previousY += delta;
+                value = previousY;
+            }
+            return value * resolution;
+        }
+
+        @Override
+        public int getWindingRule()
+        {
+            return windingRule;
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return segment >= numSegments;
+        }
+
+        @Override
+        public void next()
+        {
+            segment++;
+            decode();
+        }
+
+        @Override
+        public int currentSegment(float[] coords)
+        {
+            int type = buffer.get(typesOffset + segment);
+            int n = PathIterators.getNumCoordinates(type);
+            for (int i = 0; i < n; i++)
+            {
+                coords[i] = (float) current[i];
+            }
+            return type;
+        }
+
+        @Override
+        public int currentSegment(double[] coords)
+        {
+            int type = buffer.get(typesOffset + segment);
+            int n = PathIterators.getNumCoordinates(type);
+            System.arraycopy(current, 0, coords, 0, n);
+            return type;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A class for writing shapes in a compact binary format, which can be
+ * read with a {@link BinaryShapeReader}.<br>
+ * <br>
+ * The format consists of a header, one record for each shape, and a 
+ * table that contains the offsets of all records. All values are 
+ * stored in big-endian byte order:
+ * <pre><code>
+ * Header:
+ *   int    magic         (0x4753484B, "GSHK")
+ *   int    version       (1)
+ *   int    encoding      ({@link #DOUBLE}, {@link #FLOAT} or 
+ *                         {@link #QUANTIZED})
+ *   int    (unused)
+ *   double resolution    (only used for QUANTIZED)
+ * Record:
+ *   int    windingRule
+ *   int    numSegments
+ *   int    coordinateSize  (number of coordinates, or number of 
+ *                           bytes for QUANTIZED)
+ *   byte   types[numSegments]
+ *   (padding to a multiple of 8 bytes, except for QUANTIZED)
+ *   coordinates
+ * Table:
+ *   long   offsets[numShapes]
+ * Trailer:
+ *   long   tableOffset
+ *   int    numShapes
+ *   int    magic
+ * </code></pre>
+ * For the {@link #QUANTIZED} encoding, each coordinate is rounded to
+ * an integer multiple of the resolution. The difference of this integer
+ * to the previous integer of the same axis (starting at 0 for each 
+ * shape) is stored as a zig-zag encoded variable-length integer, with 
+ * 7 bits per byte.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public final class BinaryShapeWriter implements Closeable
+{
+    /**
+     * The magic number that is written at the start and at the end of 
+     * the data
+     */
+    static final int MAGIC = 0x4753484B;
+    
+    /**
+     * The version of the format
+     */
+    static final int VERSION = 1;
+    
+    /**
+     * The size of the header, in bytes
+     */
+    static final int HEADER_SIZE = 24;
+    
+    /**
+     * The size of the trailer, in bytes
+     */
+    static final int TRAILER_SIZE = 16;
+    
+    /**
+     * The encoding that stores the coordinates as <code>double</code> 
+     * values
+     */
+    public static final int DOUBLE = 0;
+
+    /**
+     * The encoding that stores the coordinates as <code>float</code> 
+     * values
+     */
+    public static final int FLOAT = 1;
+    
+    /**
+     * The encoding that stores the coordinates as quantized, delta
+     * encoded variable-length integers
+     */
+    public static final int QUANTIZED = 2;
+    
+    /**
+     * The output stream
+     */
+    private final DataOutputStream output;
+    
+    /**
+     * The encoding
+     */
+    private final int encoding;
+    
+    /**
+     * The resolution for the {@link #QUANTIZED} encoding
+     */
+    private final double resolution;
+    
+    /**
+     * The current position in the output, in bytes
+     */
+    private long position;
+    
+    /**
+     * The offsets of the records that have been written
+     */
+    private long offsets[];
+    
+    /**
+     * The number of shapes that have been written
+     */
+    private int numShapes;
+    
+    /**
+     * The segment types of the current shape
+     */
+    private byte types[];
+    
+    /**
+     * The coordinates of the current shape
+     */
+    private double coordinates[];
+    
+    /**
+     * The buffer for variable-length integers
+     */
+    private byte bytes[];
+    
+    /**
+     * Creates a new writer that writes to the given stream, using the
+     * {@link #DOUBLE} encoding
+     * 
+     * @param outputStream The output stream
+     * @throws IOException If an IO error occurs
+     */
+    public BinaryShapeWriter(OutputStream outputStream) throws IOException
+    {
+        this(outputStream, DOUBLE, 0.0);
+    }
+    
+    /**
+     * Creates a new writer that writes to the given stream, using the
+     * given encoding. The header will be written immediately. 
+     * 
+     * @param outputStream The output stream
+     * @param encoding The encoding, one of {@link #DOUBLE}, 
+     * {@link #FLOAT} or {@link #QUANTIZED}
+     * @param resolution The resolution for the {@link #QUANTIZED} 
+     * encoding. This is ignored for the other encodings.
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the encoding is not valid, or
+     * the encoding is {@link #QUANTIZED} and the resolution is not 
+     * positive
+     */
+    public BinaryShapeWriter(OutputStream outputStream, 
+        int encoding, double resolution) throws IOException
+    {
+        if (encoding != DOUBLE && encoding != FLOAT && encoding != QUANTIZED)
+        {
+            throw new IllegalArgumentException(
+                "Invalid encoding: " + encoding);
+        }
+        if (encoding == QUANTIZED && !(resolution > 0))
+        {
+            throw new IllegalArgumentException(
+                "The resolution must be positive, but is " + resolution);
+        }
+        this.output = new DataOutputStream(
+            new BufferedOutputStream(outputStream));
+        this.encoding = encoding;
+        this.resolution = resolution;
+        this.offsets = new long[16];
+        this.types = new byte[16];
+        this.coordinates = new double[32];
+        this.bytes = new byte[64];
+        
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(encoding);
+        output.writeInt(0);
+        output.writeDouble(resolution);
+        position = HEADER_SIZE;
+    }
+    
+    /**
+     * Write the given shape
+     * 
+     * @param shape The shape
+     * @throws IOException If an IO error occurs
+     */
+    public void write(Shape shape) throws IOException
+    {
+        PathIterator pi = shape.getPathIterator(null);
+        int numSegments = 0;
+        int numCoordinates = 0;
+        double coords[] = new double[6];
+        while (!pi.isDone())
+        {
+            int segment = pi.currentSegment(coords);
+            if (numSegments == types.length)
+            {
+                types = Arrays.copyOf(types, numSegments * 2);
+            }
+            types[numSegments++] = (byte) segment;
+            int n = PathIterators.getNumCoordinates(segment);
+            if (numCoordinates + n > coordinates.length)
+            {
+                coordinates = Arrays.copyOf(coordinates, 
+                    Math.max(numCoordinates + n, coordinates.length * 2));
+            }
+            System.arraycopy(coords, 0, coordinates, numCoordinates, n);
+            numCoordinates += n;
+            pi.next();
+        }
+        
+        if (numShapes == offsets.length)
+        {
+            offsets = Arrays.copyOf(offsets, numShapes * 2);
+        }
+        offsets[numShapes++] = position;
+        
+        int numBytes = 0;
+        if (encoding == QUANTIZED)
+        {
+            numBytes = encodeQuantized(numCoordinates);
+        }
+        output.writeInt(pi.getWindingRule());
+        output.writeInt(numSegments);
+        output.writeInt(encoding == QUANTIZED ? numBytes : numCoordinates);
+        output.write(types, 0, numSegments);
+        position += 12 + numSegments;
+        if (encoding == QUANTIZED)
+        {
+            output.write(bytes, 0, numBytes);
+            position += numBytes;
+            return;
+        }
+        while (position % 8 != 0)
+        {
+            output.writeByte(0);
+            position++;
+        }
+        for (int i = 0; i < numCoordinates; i++)
+        {
+            if (encoding == DOUBLE)
+            {
+                output.writeDouble(coordinates[i]);
+            }
+            else
+            {
+                output.writeFloat((float) coordinates[i]);
+            }
+        }
+        position += (long) numCoordinates * (encoding == DOUBLE ? 8 : 4);
+    }
+    
+    /**
+     * Encode the given number of coordinates into the {@link #bytes}, 
+     * using the {@link #QUANTIZED} encoding
+     * 
+     * @param numCoordinates The number of coordinates
+     * @return The number of bytes
+     */
+    private int encodeQuantized(int numCoordinates)
+    {
+        int numBytes = 0;
+        long previousX = 0;
+        long previousY = 0;
+        for (int i = 0; i < numCoordinates; i++)
+        {
+            long value = Math.round(coordinates[i] / resolution);
+            long delta;
+            if (i % 2 == 0)
+            {
+                delta = value - previousX;
+                previousX = value;
+            }
+            else
+            {
+                delta = value - previousY;
+                previousY = value;
+            }
+            long zigZag = (delta << 1) ^ (delta >> 63);
+            if (numBytes + 10 > bytes.length)
+            {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((zigZag & ~0x7FL) != 0)
+            {
+                bytes[numBytes++] = (byte) ((zigZag & 0x7F) | 0x80);
+                zigZag >>>= 7;
+            }
+            bytes[numBytes++] = (byte) zigZag;
+        }
+        return numBytes;
+    }
+    
+    /**
+     * Write the table of record offsets and the trailer, and close
+     * the underlying stream
+     * 
+     * @throws IOException If an IO error occurs
+     */
+    @Override
+    public void close() throws IOException
+    {
+        long tableOffset = position;
+        for (int i = 0; i < numShapes; i++)
+        {
+            output.writeLong(offsets[i]);
+        }
+        output.writeLong(tableOffset);
+        output.writeInt(numShapes);
+        output.writeInt(MAGIC);
+        output.close();
+    }
+}
@@ -26,13 +26,35 @@
  */
 package de.javagl.geom;
 
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Simple implementation of an open Catmull-Rom-Spline
+ * Simple implementation of an open Catmull-Rom-Spline.<br>
+ * <br>
+ * The control points and the interpolated points are stored in packed 
+ * arrays of coordinates. The interpolated points may be obtained without
+ * creating <code>Point2D</code> objects, via 
+ * {@link #getInterpolatedCoordinates(double[])}, 
+ * {@link #getInterpolatedPoint(int, Point2D)} or 
+ * {@link #getInterpolatedCoordinatesView()}. The list that is returned by
+ * {@link #getInterpolatedPoints()} is only created when this method is 
+ * called for the first time.<br>
+ * <br>
+ * This class is not thread-safe: The interpolated points and other 
+ * derived data are updated lazily, when they are accessed. In order to
+ * share the current state of a spline with other threads, an immutable
+ * {@link CatmullRomSplineSnapshot} may be published with
+ * {@link #publishSnapshot()} by the thread that modifies the spline. 
+ * Other threads may obtain the most recently published snapshot with
+ * {@link #getPublishedSnapshot()}, without any locking.
  */
 public class CatmullRomSpline
 {
@@ -87,12 +109,17 @@ public class CatmullRomSpline
     private double alpha;
     
     /**
-     * The list of control points. This list contains copies of
-     * the points that are given in the constructor, as well
-     * as the additional points that are inserted before the
+     * The coordinates of the control points, as (x,y) pairs. This array 
+     * contains copies of the points that are given in the constructor, 
+     * as well as the additional points that are inserted before the
      * first and after the last point.
      */
-    private final List<Point2D> controlPoints;
+    private final double controlCoordinates[];
+    
+    /**
+     * The number of control points, including the additional points
+     */
+    private final int numControlPoints;
     
     /**
      * The number of interpolation points between two control points
@@ -100,22 +127,76 @@ public class CatmullRomSpline
     private final int stepsPerSegment;
     
     /**
-     * The list of interpolated points
+     * The basis weights for the interpolation of uniform splines, as
+     * computed with {@link #computeUniformWeights(int)}
+     */
+    private final double uniformWeights[];
+    
+    /**
+     * The coordinates of the interpolated points, as (x,y) pairs
+     */
+    private final double interpolatedCoordinates[];
+    
+    /**
+     * The number of interpolated points
+     */
+    private final int numInterpolatedPoints;
+    
+    /**
+     * The list of interpolated points. This is only created when
+     * {@link #getInterpolatedPoints()} is called for the first time.
      */
-    private final List<Point2D> interpolatedPoints;
+    private List<Point2D> interpolatedPoints;
     
     /**
-     * Whether the control points have been modified, and the 
-     * derived control points and the interpolated points have 
-     * to be updated
+     * The indices of the segments whose interpolated points have to be
+     * updated, because one of the four control points that they are 
+     * based on has been modified
      */
-    private boolean updateRequired = true;
+    private final BitSet dirtySegments;
     
     /**
      * Whether this spline is closed
      */
     private final boolean closed;
     
+    /**
+     * The arc lengths from the start of the spline to the start of each
+     * segment, with the total length at the end. This is computed on 
+     * demand, and set to <code>null</code> when the spline is modified.
+     */
+    private double cumulativeLengths[];
+    
+    /**
+     * The sampler for the arc length computations
+     */
+    private CurveSampler sampler;
+    
+    /**
+     * The segment that the sampler currently refers to, or -1 if
+     * the sampler does not refer to a valid segment
+     */
+    private int samplerSegment = -1;
+    
+    /**
+     * The bounding volume hierarchy for closest point queries. This is 
+     * computed on demand, and set to <code>null</code> when the spline 
+     * is modified.
+     */
+    private BezierBoundsTree boundsTree;
+    
+    /**
+     * The snapshot of the current state of this spline. This is created
+     * on demand, and set to <code>null</code> when the spline is 
+     * modified.
+     */
+    private CatmullRomSplineSnapshot snapshot;
+    
+    /**
+     * The snapshot that was most recently published
+     */
+    private volatile CatmullRomSplineSnapshot publishedSnapshot;
+    
     /**
      * Creates a new Catmull-Rom-Spline with the given points. 
      * 
@@ -133,21 +214,23 @@ public class CatmullRomSpline
         int stepsPerSegment, double alpha, boolean closed)
     {
         this.stepsPerSegment = stepsPerSegment;
+        this.uniformWeights = computeUniformWeights(stepsPerSegment);
         this.alpha = alpha;
-        int numInterpolatedPoints = (points.size() - 1) * stepsPerSegment + 1;
+        int n = (points.size() - 1) * stepsPerSegment + 1;
         if (closed)
         {
-            numInterpolatedPoints += stepsPerSegment;
-            this.controlPoints = createPoints(points.size() + 3);
-            this.controlPoints.set(1,
-                controlPoints.get(controlPoints.size() - 2));
+            n += stepsPerSegment;
+            this.numControlPoints = points.size() + 3;
         }
         else
         {
-            this.controlPoints = createPoints(points.size() + 2);
+            this.numControlPoints = points.size() + 2;
         }
-        this.interpolatedPoints = createPoints(numInterpolatedPoints);
+        this.controlCoordinates = new double[numControlPoints * 2];
+        this.numInterpolatedPoints = n;
+        this.interpolatedCoordinates = new double[n * 2];
         this.closed = closed;
+        this.dirtySegments = new BitSet(getNumSegments());
         updateControlPoints(points);
     }
 
@@ -177,7 +260,20 @@ public class CatmullRomSpline
     public void setInterpolation(double alpha)
     {
         this.alpha = alpha;
-        updateRequired = true;
+        dirtySegments.set(0, getNumSegments());
+        invalidateDerivedData();
+    }
+    
+    /**
+     * Returns the number of segments of this spline. This is the number
+     * of segments between the control points, plus one for the segment
+     * from the last to the first point of a closed spline.
+     * 
+     * @return The number of segments
+     */
+    public int getNumSegments()
+    {
+        return numControlPoints - 3;
     }
     
     
@@ -189,21 +285,113 @@ public class CatmullRomSpline
      */
     void updateControlPoint(int index, Point2D point)
     {
-        int numPoints = controlPoints.size() - (closed ? 3 : 2);
+        int numPoints = numControlPoints - (closed ? 3 : 2);
         if (index < 0)
         {
             throw new IndexOutOfBoundsException(
                 "Index "+index+" must be positive");
         }
-        if (index >= controlPoints.size() - 1)
+        if (index >= numControlPoints - 1)
         {
             throw new IndexOutOfBoundsException(
                 "Index was "+index+", but number of control " + 
                 "points was "+numPoints);
         }
-        Point2D cp = controlPoints.get(index+1);
-        cp.setLocation(point);
-        updateRequired = true;
+        setControlPoint(index+1, point.getX(), point.getY());
+        markDirty(index+1);
+    }
+    
+    /**
+     * Set the coordinates of the control point with the given index in
+     * the array of control points. For closed splines, the point at 
+     * index 1 is the same as the one at <code>numControlPoints-2</code>,
+     * so setting one of them will set both.
+     * 
+     * @param controlPointIndex The index in the array of control points
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void setControlPoint(int controlPointIndex, double x, double y)
+    {
+        controlCoordinates[controlPointIndex * 2 + 0] = x;
+        controlCoordinates[controlPointIndex * 2 + 1] = y;
+        if (closed)
+        {
+            int alias = -1;
+            if (controlPointIndex == 1)
+            {
+                alias = numControlPoints - 2;
+            }
+            else if (controlPointIndex == numControlPoints - 2)
+            {
+                alias = 1;
+            }
+            if (alias != -1)
+            {
+                controlCoordinates[alias * 2 + 0] = x;
+                controlCoordinates[alias * 2 + 1] = y;
+            }
+        }
+    }
+    
+    /**
+     * Mark all segments as dirty whose interpolated points depend on the
+     * control point with the given index in the list of control points. 
+     * This includes the segments that depend on one of the additional
+     * control points which are derived from the given one, or which are
+     * identical to the given one (for closed splines).
+     * 
+     * @param controlPointIndex The index in the list of control points
+     */
+    private void markDirty(int controlPointIndex)
+    {
+        int n = numControlPoints;
+        markDirtyWindows(controlPointIndex);
+        if (closed)
+        {
+            // The point at index 1 is the same as the one at n-2, and
+            // the first and last points are copies of the ones at 
+            // n-3 and 2, respectively
+            if (controlPointIndex == 1)
+            {
+                markDirtyWindows(n - 2);
+            }
+            if (controlPointIndex == n - 2)
+            {
+                markDirtyWindows(1);
+            }
+            if (controlPointIndex == n - 3)
+            {
+                markDirtyWindows(0);
+            }
+            if (controlPointIndex == 2)
+            {
+                markDirtyWindows(n - 1);
+            }
+        }
+        
+        // For open splines, the first and last control points are 
+        // derived from the two succeeding or preceding points. The
+        // windows of these points already contain the first or last
+        // segment, which is the only one that depends on the derived
+        // points.
+    }
+    
+    /**
+     * Mark all segments as dirty whose window of four control points
+     * contains the control point with the given index
+     * 
+     * @param controlPointIndex The index in the list of control points
+     */
+    private void markDirtyWindows(int controlPointIndex)
+    {
+        int min = Math.max(0, controlPointIndex - 3);
+        int max = Math.min(getNumSegments() - 1, controlPointIndex);
+        if (min <= max)
+        {
+            dirtySegments.set(min, max + 1);
+            invalidateDerivedData();
+        }
     }
     
     
@@ -220,7 +408,7 @@ public class CatmullRomSpline
      */
     public void updateControlPoints(List<? extends Point2D> points)
     {
-        int numPoints = controlPoints.size() - (closed ? 3 : 2);
+        int numPoints = numControlPoints - (closed ? 3 : 2);
         if (points.size() != numPoints)
         {
             throw new IllegalArgumentException(
@@ -230,10 +418,79 @@ public class CatmullRomSpline
         for (int j=0; j<points.size(); j++)
         {
             Point2D p = points.get(j);
-            Point2D cp = controlPoints.get(j+1);
-            cp.setLocation(p);
+            setControlPoint(j+1, p.getX(), p.getY());
         }
-        updateRequired = true;
+        dirtySegments.set(0, getNumSegments());
+        invalidateDerivedData();
+    }
+    
+    /**
+     * Invalidate the arc length information, the bounds tree and the 
+     * snapshot, so that they are recomputed when they are required the 
+     * next time
+     */
+    private void invalidateDerivedData()
+    {
+        cumulativeLengths = null;
+        samplerSegment = -1;
+        boundsTree = null;
+        snapshot = null;
+    }
+    
+    /**
+     * Returns an immutable snapshot of the current state of this spline.
+     * The snapshot contains copies of the control points and the 
+     * interpolated points, and is not affected by later modifications
+     * of this spline. As long as this spline is not modified, the same
+     * snapshot instance will be returned.
+     * 
+     * @return The snapshot
+     */
+    public CatmullRomSplineSnapshot getSnapshot()
+    {
+        validatePoints();
+        if (snapshot == null)
+        {
+            updateAdditionalControlPoints();
+            snapshot = new CatmullRomSplineSnapshot(
+                Arrays.copyOf(controlCoordinates, numControlPoints * 2),
+                stepsPerSegment, alpha, closed,
+                Arrays.copyOf(interpolatedCoordinates, 
+                    numInterpolatedPoints * 2));
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Publishes the snapshot of the current state of this spline, as it
+     * is returned by {@link #getSnapshot()}, so that it will be returned 
+     * by {@link #getPublishedSnapshot()}.<br>
+     * <br>
+     * This method should only be called by the thread that modifies 
+     * this spline.
+     * 
+     * @return The published snapshot
+     */
+    public CatmullRomSplineSnapshot publishSnapshot()
+    {
+        CatmullRomSplineSnapshot s = getSnapshot();
+        publishedSnapshot = s;
+        return s;
+    }
+    
+    /**
+     * Returns the snapshot that was most recently published with 
+     * {@link #publishSnapshot()}, or <code>null</code> if no snapshot 
+     * has been published yet.<br>
+     * <br>
+     * This method may be called by any thread, without synchronization,
+     * also while this spline is modified by another thread.
+     * 
+     * @return The published snapshot
+     */
+    public CatmullRomSplineSnapshot getPublishedSnapshot()
+    {
+        return publishedSnapshot;
     }
     
 
@@ -242,43 +499,499 @@ public class CatmullRomSpline
      * Note that although the list itself is unmodifiable, the contained
      * points are still modifiable. Changes in these points will be
      * overwritten by this class, although the exact conditions under
-     * which they will be overwritten are not specified. 
+     * which they will be overwritten are not specified.<br>
+     * <br>
+     * The points of this list are only created when this method is 
+     * called for the first time. Afterwards, they are updated together 
+     * with the internal coordinates.
      * 
      * @return The interpolated points
      */
     public List<Point2D> getInterpolatedPoints()
     {
         validatePoints();
+        if (interpolatedPoints == null)
+        {
+            interpolatedPoints = createPoints(numInterpolatedPoints);
+            for (int i = 0; i < numInterpolatedPoints; i++)
+            {
+                interpolatedPoints.get(i).setLocation(
+                    interpolatedCoordinates[i * 2 + 0], 
+                    interpolatedCoordinates[i * 2 + 1]);
+            }
+        }
         return Collections.unmodifiableList(interpolatedPoints);
     }
     
+    /**
+     * Returns the number of interpolated points
+     * 
+     * @return The number of interpolated points
+     */
+    public int getNumInterpolatedPoints()
+    {
+        return numInterpolatedPoints;
+    }
+    
+    /**
+     * Returns the specified interpolated point. If the given result is
+     * <code>null</code>, then a new point will be created and returned.
+     * 
+     * @param index The index of the point
+     * @param result The optional result
+     * @return The result
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than {@link #getNumInterpolatedPoints()}
+     */
+    public Point2D getInterpolatedPoint(int index, Point2D result)
+    {
+        if (index < 0 || index >= numInterpolatedPoints)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of interpolated "
+                + "points is " + numInterpolatedPoints);
+        }
+        validatePoints();
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        result.setLocation(
+            interpolatedCoordinates[index * 2 + 0], 
+            interpolatedCoordinates[index * 2 + 1]);
+        return result;
+    }
+    
+    /**
+     * Copies the coordinates of the interpolated points into the given
+     * array, as consecutive <code>(x,y)</code> pairs. If the given result
+     * is <code>null</code>, then a new array will be created and 
+     * returned.
+     * 
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given array is not 
+     * <code>null</code> and has a length that is smaller than
+     * <code>2*getNumInterpolatedPoints()</code>
+     */
+    public double[] getInterpolatedCoordinates(double result[])
+    {
+        int length = numInterpolatedPoints * 2;
+        if (result == null)
+        {
+            result = new double[length];
+        }
+        else if (result.length < length)
+        {
+            throw new IllegalArgumentException(
+                "The array must have a length of at least " + length
+                + ", but has a length of " + result.length);
+        }
+        validatePoints();
+        System.arraycopy(interpolatedCoordinates, 0, result, 0, length);
+        return result;
+    }
+    
+    /**
+     * Returns a read-only view on the coordinates of the interpolated 
+     * points, as consecutive <code>(x,y)</code> pairs.<br>
+     * <br>
+     * The returned buffer is backed by the internal coordinates of this
+     * spline. When the spline is modified, then the contents of the 
+     * buffer are updated as soon as the interpolated points are 
+     * accessed again, for example, by calling this method.
+     * 
+     * @return The view on the coordinates
+     */
+    public DoubleBuffer getInterpolatedCoordinatesView()
+    {
+        validatePoints();
+        return DoubleBuffer.wrap(interpolatedCoordinates, 
+            0, numInterpolatedPoints * 2).asReadOnlyBuffer();
+    }
+    
+    
+    /**
+     * Creates a new path that contains one cubic B&eacute;zier curve for
+     * each segment of this spline. Each segment of a Catmull-Rom-Spline
+     * is a cubic polynomial curve, regardless of the alpha value, so the
+     * path describes exactly the same curve as this spline, and the
+     * interpolated points of this spline are points on the path. The
+     * path will be closed if this spline is closed.<br>
+     * <br>
+     * The <code>stepsPerSegment</code> of this spline are not used for 
+     * the path. When the path is painted or flattened, then the curves
+     * are subdivided as necessary.
+     * 
+     * @return The path
+     */
+    public Path2D toPath()
+    {
+        updateAdditionalControlPoints();
+        return createPath(controlCoordinates, getNumSegments(), 
+            alpha, closed);
+    }
+    
+    /**
+     * Creates a path that contains one cubic B&eacute;zier curve for
+     * each segment of the spline with the given control points
+     * 
+     * @param c The control point coordinates, including the additional
+     * points
+     * @param numSegments The number of segments
+     * @param alpha The alpha value determining the interpolation
+     * @param closed Whether the spline is closed
+     * @return The path
+     */
+    static Path2D createPath(
+        double c[], int numSegments, double alpha, boolean closed)
+    {
+        Path2D path = new Path2D.Double(
+            Path2D.WIND_NON_ZERO, numSegments + 2);
+        path.moveTo(c[2], c[3]);
+        double b[] = new double[8];
+        for (int i = 0; i < numSegments; i++)
+        {
+            computeBezierSegment(c, i * 2, alpha, b);
+            path.curveTo(b[2], b[3], b[4], b[5], b[6], b[7]);
+        }
+        if (closed)
+        {
+            path.closePath();
+        }
+        return path;
+    }
+    
+    /**
+     * Computes the point on this spline at the given parameter.<br>
+     * <br>
+     * The parameter ranges from 0 to {@link #getNumSegments()}. The 
+     * integral part of the parameter is the index of the segment, and the
+     * fractional part is the parameter within the segment. So the 
+     * parameter <code>i</code> corresponds to the control point 
+     * <code>i</code>. Parameters outside of the valid range will be
+     * clamped.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new point will be 
+     * created and returned.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computePoint(double parameter, Point2D result)
+    {
+        return evaluate(parameter, 0, result);
+    }
+    
+    /**
+     * Computes the first derivative of this spline at the given parameter.
+     * This is a tangent vector of the spline, with a length that is the 
+     * speed of the spline with respect to the parameter. See 
+     * {@link #computePoint(double, Point2D)} for the parameter range.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new point will be 
+     * created and returned.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeFirstDerivative(double parameter, Point2D result)
+    {
+        return evaluate(parameter, 1, result);
+    }
+    
+    /**
+     * Computes the second derivative of this spline at the given 
+     * parameter. See {@link #computePoint(double, Point2D)} for the 
+     * parameter range. Note that the second derivative is in general not
+     * continuous at the control points.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new point will be 
+     * created and returned.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeSecondDerivative(double parameter, Point2D result)
+    {
+        return evaluate(parameter, 2, result);
+    }
+    
+    /**
+     * Evaluate this spline or one of its derivatives at the given 
+     * parameter
+     * 
+     * @param parameter The parameter
+     * @param order The order of the derivative, 0, 1 or 2
+     * @param result The optional result
+     * @return The result
+     */
+    private Point2D evaluate(double parameter, int order, Point2D result)
+    {
+        updateAdditionalControlPoints();
+        return evaluate(controlCoordinates, getNumSegments(), alpha, 
+            parameter, order, result);
+    }
+    
+    /**
+     * Computes the point or the specified derivative of the spline with
+     * the given control points at the given parameter. See 
+     * {@link #evaluate(double, int, Point2D)}.
+     * 
+     * @param c The control point coordinates, including the additional
+     * points
+     * @param numSegments The number of segments
+     * @param alpha The alpha value determining the interpolation
+     * @param parameter The parameter
+     * @param order The order of the derivative, 0, 1 or 2
+     * @param result The optional result
+     * @return The result
+     */
+    static Point2D evaluate(double c[], int numSegments, double alpha, 
+        double parameter, int order, Point2D result)
+    {
+        double p = Math.min(Math.max(parameter, 0.0), numSegments);
+        int segment = Math.min((int)p, numSegments - 1);
+        double values[] = new double[6];
+        evaluateSegment(c, segment * 2, alpha, p - segment, values);
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        result.setLocation(values[order * 2 + 0], values[order * 2 + 1]);
+        return result;
+    }
+    
+    /**
+     * Computes the arc length of this spline. The length is computed 
+     * with an adaptive numerical integration of the exact curve, and 
+     * does not depend on the <code>stepsPerSegment</code>.
+     * 
+     * @return The length
+     */
+    public double computeLength()
+    {
+        validateArcLengths();
+        return cumulativeLengths[cumulativeLengths.length - 1];
+    }
+    
+    /**
+     * Computes the parameter of the point that has the given arc length 
+     * from the start of this spline. The given arc length will be clamped
+     * to the range [0, {@link #computeLength()}]. The result may be 
+     * passed to {@link #computePoint(double, Point2D)} and the methods 
+     * for computing the derivatives.<br>
+     * <br>
+     * The arc lengths of the segments are computed once, and are then 
+     * stored until the spline is modified. Consecutive calls with 
+     * increasing arc lengths, like when sampling the spline at uniform
+     * distances, are particularly efficient.
+     * 
+     * @param arcLength The arc length
+     * @return The parameter
+     */
+    public double computeParameter(double arcLength)
+    {
+        validateArcLengths();
+        double lengths[] = cumulativeLengths;
+        int numSegments = lengths.length - 1;
+        double s = Math.min(Math.max(arcLength, 0.0), lengths[numSegments]);
+        int segment;
+        if (samplerSegment != -1 && 
+            s >= lengths[samplerSegment] && s <= lengths[samplerSegment + 1])
+        {
+            segment = samplerSegment;
+        }
+        else
+        {
+            int index = Arrays.binarySearch(lengths, 0, numSegments, s);
+            segment = index >= 0 ? index : -index - 2;
+            segment = Math.min(Math.max(segment, 0), numSegments - 1);
+        }
+        if (segment != samplerSegment)
+        {
+            setSamplerSegment(segment);
+        }
+        double u = sampler.computeParameter(s - lengths[segment]);
+        return segment + u;
+    }
+    
+    /**
+     * Make sure that the cumulative arc lengths of the segments are 
+     * computed
+     */
+    private void validateArcLengths()
+    {
+        if (cumulativeLengths != null)
+        {
+            return;
+        }
+        updateAdditionalControlPoints();
+        int numSegments = getNumSegments();
+        double lengths[] = new double[numSegments + 1];
+        for (int i = 0; i < numSegments; i++)
+        {
+            setSamplerSegment(i);
+            lengths[i + 1] = lengths[i] + sampler.getLength();
+        }
+        cumulativeLengths = lengths;
+    }
+    
+    /**
+     * Set the given segment as the segment for the arc length sampler
+     * 
+     * @param segment The segment index
+     */
+    private void setSamplerSegment(int segment)
+    {
+        if (sampler == null)
+        {
+            sampler = new CurveSampler();
+        }
+        double b[] = new double[8];
+        computeBezierSegment(controlCoordinates, segment * 2, alpha, b);
+        double coords[] = { b[2], b[3], b[4], b[5], b[6], b[7] };
+        sampler.set(b[0], b[1], PathIterator.SEG_CUBICTO, coords);
+        samplerSegment = segment;
+    }
+    
+    /**
+     * Computes the parameter of the point on this spline that is closest
+     * to the given point. The result may be passed to 
+     * {@link #computePoint(double, Point2D)}.<br>
+     * <br>
+     * The segments of the spline are stored in a bounding volume 
+     * hierarchy, which is built when this method is called for the first
+     * time, and reused until the spline is modified. Only the segments
+     * whose bounds are closer to the given point than the closest point
+     * that was found so far are examined. On these segments, the closest
+     * point is refined with Newton iterations. So the result does not 
+     * depend on the <code>stepsPerSegment</code>.
+     * 
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return The parameter of the closest point
+     */
+    public double computeClosestParameter(double x, double y)
+    {
+        if (boundsTree == null)
+        {
+            updateAdditionalControlPoints();
+            int numSegments = getNumSegments();
+            double curves[] = new double[numSegments * 8];
+            double b[] = new double[8];
+            for (int i = 0; i < numSegments; i++)
+            {
+                computeBezierSegment(controlCoordinates, i * 2, alpha, b);
+                System.arraycopy(b, 0, curves, i * 8, 8);
+            }
+            boundsTree = new BezierBoundsTree(curves, numSegments);
+        }
+        return boundsTree.computeClosestParameter(x, y);
+    }
+    
+    /**
+     * Computes the point on this spline that is closest to the given 
+     * point. See {@link #computeClosestParameter(double, double)} for 
+     * details. If the given result is <code>null</code>, then a new 
+     * point will be created and returned.
+     * 
+     * @param point The point
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeClosestPoint(Point2D point, Point2D result)
+    {
+        double parameter = 
+            computeClosestParameter(point.getX(), point.getY());
+        return computePoint(parameter, result);
+    }
+    
+    /**
+     * Computes a flattened representation of this spline, where the number
+     * of points is adapted to the curvature: Each segment of the spline
+     * is converted into a cubic B&eacute;zier curve, which is subdivided
+     * recursively until the control points of each part deviate by at 
+     * most the given flatness from the line between its end points, in 
+     * the same way as for a flattening <code>PathIterator</code>. So 
+     * straight parts of the spline are represented with few points, 
+     * and more points are inserted in tight bends.<br>
+     * <br>
+     * The result will contain a single sub-path, which is closed if this
+     * spline is closed. The points of this sub-path include the control
+     * points of this spline. The <code>stepsPerSegment</code> of this 
+     * spline are not used for the flattened path.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param flatness The maximum distance that the control points of 
+     * the subdivided curves may deviate from the line between their
+     * end points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the flatness is negative
+     */
+    public PackedPath computeFlattenedPath(double flatness, PackedPath result)
+    {
+        if (flatness < 0.0)
+        {
+            throw new IllegalArgumentException(
+                "The flatness may not be negative, but is " + flatness);
+        }
+        result = PackedPath.prepare(result);
+        updateAdditionalControlPoints();
+        PathSink sink = PathSink.create(result, flatness);
+        sink.moveTo(controlCoordinates[2], controlCoordinates[3]);
+        double b[] = new double[8];
+        int numSegments = getNumSegments();
+        for (int i = 0; i < numSegments; i++)
+        {
+            computeBezierSegment(controlCoordinates, i * 2, alpha, b);
+            sink.curveTo(b[2], b[3], b[4], b[5], b[6], b[7]);
+        }
+        if (closed)
+        {
+            // The last segment ended at the first point, which is 
+            // removed when closing the path
+            sink.closePath();
+        }
+        return result;
+    }
     
     /**
      * Make sure that the derived control points and the interpolated points 
-     * are up to date referring to the current positions of the control points
+     * are up to date referring to the current positions of the control points.
+     * Only the interpolated points of the segments that have been marked
+     * as dirty will be updated.
      */
     private void validatePoints()
     {
-        if (updateRequired)
+        if (!dirtySegments.isEmpty())
         {
             updateAdditionalControlPoints();
             updateInterpolatedPoints();
-            updateRequired = false;
+            dirtySegments.clear();
         }
     }
 
     /**
-     * Update the positions of the interpolated points, based on the
-     * current positions of the control points
+     * Update the positions of the interpolated points of all dirty 
+     * segments, based on the current positions of the control points
      */
     private void updateInterpolatedPoints()
     {
-        int numPoints = controlPoints.size() - 2;
-        for (int i=0; i<numPoints - 1; i++)
+        int numSegments = getNumSegments();
+        for (int i = dirtySegments.nextSetBit(0); i >= 0; 
+            i = dirtySegments.nextSetBit(i + 1))
         {
             int stepsInCurrentSegment = stepsPerSegment;
             int lastStepInSegment = stepsInCurrentSegment;
-            if (i == numPoints - 2)
+            if (i == numSegments - 1)
             {
                 stepsInCurrentSegment++;
                 lastStepInSegment = stepsInCurrentSegment-1;
@@ -294,60 +1007,25 @@ public class CatmullRomSpline
      */
     private void updateAdditionalControlPoints()
     {
+        double c[] = controlCoordinates;
+        int z = (numControlPoints - 1) * 2;
         if (closed)
         {
-            Point2D py = controlPoints.get(controlPoints.size()-3);
-            Point2D cp0 = controlPoints.get(0);
-            cp0.setLocation(py);
-            
-            Point2D p1 = controlPoints.get(2);
-            Point2D cpz = controlPoints.get(controlPoints.size()-1);
-            cpz.setLocation(p1);
+            c[0] = c[z - 4];
+            c[1] = c[z - 3];
+            c[z + 0] = c[4];
+            c[z + 1] = c[5];
         }
         else
         {
-            Point2D p0 = controlPoints.get(1);
-            Point2D p1 = controlPoints.get(2);
-            Point2D cp0 = controlPoints.get(0);
-            sub(p1, p0, cp0);
-            sub(p0, cp0, cp0);
-
-            Point2D py = controlPoints.get(controlPoints.size()-3);
-            Point2D pz = controlPoints.get(controlPoints.size()-2);
-            Point2D cpz = controlPoints.get(controlPoints.size()-1);
-            sub(pz, py, cpz);
-            add(pz, cpz, cpz);
+            c[0] = c[2] - (c[4] - c[2]);
+            c[1] = c[3] - (c[5] - c[3]);
+            c[z + 0] = c[z - 2] + (c[z - 2] - c[z - 4]);
+            c[z + 1] = c[z - 1] + (c[z - 1] - c[z - 3]);
         }
         
     }
     
-    /**
-     * Computes the difference between the given points and stores
-     * it in the given result 
-     * 
-     * @param p0 The first point
-     * @param p1 The second point
-     * @param result The result
-     */
-    private static void sub(Point2D p0, Point2D p1, Point2D result)
-    {
-        result.setLocation(p0.getX()-p1.getX(), p0.getY()-p1.getY());
-    }
-    
-    /**
-     * Computes the difference between the given points and stores
-     * it in the given result 
-     * 
-     * @param p0 The first point
-     * @param p1 The second point
-     * @param result The result
-     */
-    private static void add(Point2D p0, Point2D p1, Point2D result)
-    {
-        result.setLocation(p0.getX()+p1.getX(), p0.getY()+p1.getY());
-    }
-    
-    
     /**
      * Update the positions of the interpolated points based on the
      * four control points starting at the given index
@@ -360,31 +1038,87 @@ public class CatmullRomSpline
     private void updateInterpolatedPoints(int index, 
         int stepsInCurrentSegment, int lastStepInSegment)
     {
-        Point2D p0 = controlPoints.get(index + 0);
-        Point2D p1 = controlPoints.get(index + 1);
-        Point2D p2 = controlPoints.get(index + 2);
-        Point2D p3 = controlPoints.get(index + 3);
+        int firstIndex = index * stepsPerSegment;
+        interpolateSegment(controlCoordinates, index * 2, alpha, 
+            stepsInCurrentSegment, lastStepInSegment, uniformWeights,
+            interpolatedCoordinates, firstIndex * 2);
+        if (interpolatedPoints != null)
+        {
+            for (int i = 0; i < stepsInCurrentSegment; i++)
+            {
+                int interpolatedPointIndex = firstIndex + i;
+                Point2D interpolatedPoint =
+                    interpolatedPoints.get(interpolatedPointIndex);
+                interpolatedPoint.setLocation(
+                    interpolatedCoordinates[interpolatedPointIndex * 2 + 0],
+                    interpolatedCoordinates[interpolatedPointIndex * 2 + 1]);
+            }
+        }
+    }
+    
+    /**
+     * Compute the interpolated points of the segment that is defined by
+     * the four control points whose coordinates are stored in the given
+     * array, starting at the given offset, and store them in the given
+     * result array, starting at the given result offset.<br>
+     * <br>
+     * When the alpha value is 0.0 and the given uniform weights are not
+     * <code>null</code>, then each point is computed as a weighted sum
+     * of the control points. Otherwise, the knot intervals are computed
+     * from the control points, and each point is computed with the 
+     * general interpolation.
+     *  
+     * @param c The control point coordinates
+     * @param offset The offset of the first control point coordinate
+     * @param alpha The alpha value determining the interpolation
+     * @param stepsInCurrentSegment The number of steps in the current
+     * segment
+     * @param lastStepInSegment The last step in the current segment.
+     * @param uniformWeights The weights for uniform splines, as computed
+     * with {@link #computeUniformWeights(int)} for the given last step. 
+     * This may be <code>null</code>.
+     * @param result The array that will store the result
+     * @param resultOffset The index where the first x-coordinate will 
+     * be stored
+     */
+    static void interpolateSegment(double c[], int offset, double alpha,
+        int stepsInCurrentSegment, int lastStepInSegment, 
+        double uniformWeights[], double result[], int resultOffset)
+    {
+        if (alpha == 0.0 && uniformWeights != null)
+        {
+            interpolateUniformSegment(c, offset, stepsInCurrentSegment,
+                uniformWeights, result, resultOffset);
+            return;
+        }
+        double x0 = c[offset + 0];
+        double y0 = c[offset + 1];
+        double x1 = c[offset + 2];
+        double y1 = c[offset + 3];
+        double x2 = c[offset + 4];
+        double y2 = c[offset + 5];
+        double x3 = c[offset + 6];
+        double y3 = c[offset + 7];
         double t0 = 0;
         double t1 = 1;
         double t2 = 2;
         double t3 = 3;
         if (alpha != 0.0)
         {
-            double exponent = alpha * 0.5;
-            double dx01 = p1.getX() - p0.getX();
-            double dy01 = p1.getY() - p0.getY();
+            double dx01 = x1 - x0;
+            double dy01 = y1 - y0;
             double d01 = dx01 * dx01 + dy01 * dy01;
-            t1 = t0 + Math.pow(d01, exponent);
+            t1 = t0 + computeKnotInterval(d01, alpha);
 
-            double dx12 = p2.getX() - p1.getX();
-            double dy12 = p2.getY() - p1.getY();
+            double dx12 = x2 - x1;
+            double dy12 = y2 - y1;
             double d12 = dx12 * dx12 + dy12 * dy12;
-            t2 = t1 + Math.pow(d12, exponent);
+            t2 = t1 + computeKnotInterval(d12, alpha);
 
-            double dx23 = p3.getX() - p2.getX();
-            double dy23 = p3.getY() - p2.getY();
+            double dx23 = x3 - x2;
+            double dy23 = y3 - y2;
             double d23 = dx23 * dx23 + dy23 * dy23;
-            t3 = t2 + Math.pow(d23, exponent);
+            t3 = t2 + computeKnotInterval(d23, alpha);
 
             // System.out.println("Times "+t0+" "+t1+" "+t2+" "+t3);
         }
@@ -392,42 +1126,299 @@ public class CatmullRomSpline
         for (int i = 0; i < stepsInCurrentSegment; i++)
         {
             double t = i * invStep;
-            int interpolatedPointIndex = index * stepsPerSegment + i;
-            Point2D interpolatedPoint =
-                interpolatedPoints.get(interpolatedPointIndex);
-            interpolate(p0, p1, p2, p3, t0, t1, t2, t3, t1 + t * (t2 - t1),
-                interpolatedPoint);
+            interpolate(x0, y0, x1, y1, x2, y2, x3, y3, 
+                t0, t1, t2, t3, t1 + t * (t2 - t1),
+                result, resultOffset + i * 2);
+        }
+    }
+    
+    /**
+     * Compute the interpolated points of the uniform segment that is 
+     * defined by the four control points whose coordinates are stored 
+     * in the given array, starting at the given offset, using the given
+     * precomputed weights, and store them in the given result array, 
+     * starting at the given result offset.
+     * 
+     * @param c The control point coordinates
+     * @param offset The offset of the first control point coordinate
+     * @param stepsInCurrentSegment The number of steps in the current
+     * segment
+     * @param w The weights, as computed with 
+     * {@link #computeUniformWeights(int)}
+     * @param result The array that will store the result
+     * @param resultOffset The index where the first x-coordinate will 
+     * be stored
+     */
+    private static void interpolateUniformSegment(double c[], int offset, 
+        int stepsInCurrentSegment, double w[], 
+        double result[], int resultOffset)
+    {
+        double x0 = c[offset + 0];
+        double y0 = c[offset + 1];
+        double x1 = c[offset + 2];
+        double y1 = c[offset + 3];
+        double x2 = c[offset + 4];
+        double y2 = c[offset + 5];
+        double x3 = c[offset + 6];
+        double y3 = c[offset + 7];
+        for (int i = 0; i < stepsInCurrentSegment; i++)
+        {
+            double w0 = w[i * 4 + 0];
+            double w1 = w[i * 4 + 1];
+            double w2 = w[i * 4 + 2];
+            double w3 = w[i * 4 + 3];
+            int r = resultOffset + i * 2;
+            result[r + 0] = w0 * x0 + w1 * x1 + w2 * x2 + w3 * x3;
+            result[r + 1] = w0 * y0 + w1 * y1 + w2 * y2 + w3 * y3;
+        }
+    }
+    
+    /**
+     * Computes the weights of the four control points of a segment of 
+     * a uniform spline, for the parameters <code>i/lastStep</code>, 
+     * for <code>i</code> in <code>[0, lastStep]</code>. The result 
+     * will contain four consecutive weights for each parameter. 
+     * 
+     * @param lastStep The last step in a segment
+     * @return The weights
+     */
+    static double[] computeUniformWeights(int lastStep)
+    {
+        double w[] = new double[(lastStep + 1) * 4];
+        double invStep = 1.0 / lastStep;
+        for (int i = 0; i <= lastStep; i++)
+        {
+            double u = i * invStep;
+            double u2 = u * u;
+            double u3 = u2 * u;
+            w[i * 4 + 0] = 0.5 * (-u3 + 2 * u2 - u);
+            w[i * 4 + 1] = 0.5 * (3 * u3 - 5 * u2 + 2);
+            w[i * 4 + 2] = 0.5 * (-3 * u3 + 4 * u2 + u);
+            w[i * 4 + 3] = 0.5 * (u3 - u2);
         }
+        return w;
+    }
+    
+    /**
+     * Compute the control points of the cubic B&eacute;zier curve that 
+     * is equal to the segment that is defined by the four control points 
+     * whose coordinates are stored in the given array, starting at the 
+     * given offset. The result will be the coordinates of the four 
+     * B&eacute;zier control points, as (x,y) pairs. The first and last
+     * of these points are the second and third given control point.
+     * 
+     * @param c The control point coordinates
+     * @param offset The offset of the first control point coordinate
+     * @param alpha The alpha value determining the interpolation
+     * @param result The array that will store the result
+     */
+    static void computeBezierSegment(
+        double c[], int offset, double alpha, double result[])
+    {
+        double x0 = c[offset + 0];
+        double y0 = c[offset + 1];
+        double x1 = c[offset + 2];
+        double y1 = c[offset + 3];
+        double x2 = c[offset + 4];
+        double y2 = c[offset + 5];
+        double x3 = c[offset + 6];
+        double y3 = c[offset + 7];
+        double dt01 = 1;
+        double dt12 = 1;
+        double dt23 = 1;
+        if (alpha != 0.0)
+        {
+            double dx01 = x1 - x0;
+            double dy01 = y1 - y0;
+            dt01 = computeKnotInterval(dx01 * dx01 + dy01 * dy01, alpha);
+            double dx12 = x2 - x1;
+            double dy12 = y2 - y1;
+            dt12 = computeKnotInterval(dx12 * dx12 + dy12 * dy12, alpha);
+            double dx23 = x3 - x2;
+            double dy23 = y3 - y2;
+            dt23 = computeKnotInterval(dx23 * dx23 + dy23 * dy23, alpha);
+        }
+        
+        // The tangents at the start and end of the segment, with respect
+        // to a parameter in [0,1] for the segment
+        double invDt01 = 1.0 / dt01;
+        double invDt02 = 1.0 / (dt01 + dt12);
+        double invDt12 = 1.0 / dt12;
+        double invDt13 = 1.0 / (dt12 + dt23);
+        double invDt23 = 1.0 / dt23;
+        double mx1 = dt12 * ((x1 - x0) * invDt01 - 
+            (x2 - x0) * invDt02 + (x2 - x1) * invDt12);
+        double my1 = dt12 * ((y1 - y0) * invDt01 - 
+            (y2 - y0) * invDt02 + (y2 - y1) * invDt12);
+        double mx2 = dt12 * ((x2 - x1) * invDt12 - 
+            (x3 - x1) * invDt13 + (x3 - x2) * invDt23);
+        double my2 = dt12 * ((y2 - y1) * invDt12 - 
+            (y3 - y1) * invDt13 + (y3 - y2) * invDt23);
+        
+        result[0] = x1;
+        result[1] = y1;
+        result[2] = x1 + mx1 / 3.0;
+        result[3] = y1 + my1 / 3.0;
+        result[4] = x2 - mx2 / 3.0;
+        result[5] = y2 - my2 / 3.0;
+        result[6] = x2;
+        result[7] = y2;
+    }
+    
+    /**
+     * Evaluate the segment that is defined by the four control points 
+     * whose coordinates are stored in the given array, starting at the 
+     * given offset, at the given parameter, using the pyramidal 
+     * formulation of Barry and Goldman. The result will contain the 
+     * point, the first derivative and the second derivative, as (x,y) 
+     * pairs. The derivatives refer to the parameter within the segment,
+     * which ranges from 0 to 1.
+     * 
+     * @param c The control point coordinates
+     * @param offset The offset of the first control point coordinate
+     * @param alpha The alpha value determining the interpolation
+     * @param u The parameter within the segment
+     * @param result The array that will store the result
+     */
+    static void evaluateSegment(double c[], int offset, double alpha, 
+        double u, double result[])
+    {
+        double x0 = c[offset + 0];
+        double y0 = c[offset + 1];
+        double x1 = c[offset + 2];
+        double y1 = c[offset + 3];
+        double x2 = c[offset + 4];
+        double y2 = c[offset + 5];
+        double x3 = c[offset + 6];
+        double y3 = c[offset + 7];
+        double t0 = 0;
+        double t1 = 1;
+        double t2 = 2;
+        double t3 = 3;
+        if (alpha != 0.0)
+        {
+            double dx01 = x1 - x0;
+            double dy01 = y1 - y0;
+            t1 = t0 + computeKnotInterval(dx01 * dx01 + dy01 * dy01, alpha);
+            double dx12 = x2 - x1;
+            double dy12 = y2 - y1;
+            t2 = t1 + computeKnotInterval(dx12 * dx12 + dy12 * dy12, alpha);
+            double dx23 = x3 - x2;
+            double dy23 = y3 - y2;
+            t3 = t2 + computeKnotInterval(dx23 * dx23 + dy23 * dy23, alpha);
+        }
+        double t = t1 + u * (t2 - t1);
+        
+        // First level: Linear interpolations between the control points,
+        // with their (constant) derivatives
+        double invDt01 = 1.0 / (t1 - t0);
+        double invDt12 = 1.0 / (t2 - t1);
+        double invDt23 = 1.0 / (t3 - t2);
+        double x01 = ((t1 - t) * x0 + (t - t0) * x1) * invDt01;
+        double y01 = ((t1 - t) * y0 + (t - t0) * y1) * invDt01;
+        double x12 = ((t2 - t) * x1 + (t - t1) * x2) * invDt12;
+        double y12 = ((t2 - t) * y1 + (t - t1) * y2) * invDt12;
+        double x23 = ((t3 - t) * x2 + (t - t2) * x3) * invDt23;
+        double y23 = ((t3 - t) * y2 + (t - t2) * y3) * invDt23;
+        double dx01 = (x1 - x0) * invDt01;
+        double dy01 = (y1 - y0) * invDt01;
+        double dx12 = (x2 - x1) * invDt12;
+        double dy12 = (y2 - y1) * invDt12;
+        double dx23 = (x3 - x2) * invDt23;
+        double dy23 = (y3 - y2) * invDt23;
+        
+        // Second level, with first and second derivatives
+        double invDt02 = 1.0 / (t2 - t0);
+        double invDt13 = 1.0 / (t3 - t1);
+        double x012 = ((t2 - t) * x01 + (t - t0) * x12) * invDt02;
+        double y012 = ((t2 - t) * y01 + (t - t0) * y12) * invDt02;
+        double x123 = ((t3 - t) * x12 + (t - t1) * x23) * invDt13;
+        double y123 = ((t3 - t) * y12 + (t - t1) * y23) * invDt13;
+        double dx012 = (x12 - x01 + (t2 - t) * dx01 + (t - t0) * dx12) 
+            * invDt02;
+        double dy012 = (y12 - y01 + (t2 - t) * dy01 + (t - t0) * dy12) 
+            * invDt02;
+        double dx123 = (x23 - x12 + (t3 - t) * dx12 + (t - t1) * dx23) 
+            * invDt13;
+        double dy123 = (y23 - y12 + (t3 - t) * dy12 + (t - t1) * dy23) 
+            * invDt13;
+        double ddx012 = 2 * (dx12 - dx01) * invDt02;
+        double ddy012 = 2 * (dy12 - dy01) * invDt02;
+        double ddx123 = 2 * (dx23 - dx12) * invDt13;
+        double ddy123 = 2 * (dy23 - dy12) * invDt13;
+        
+        // Third level
+        double x = ((t2 - t) * x012 + (t - t1) * x123) * invDt12;
+        double y = ((t2 - t) * y012 + (t - t1) * y123) * invDt12;
+        double dx = (x123 - x012 + (t2 - t) * dx012 + (t - t1) * dx123) 
+            * invDt12;
+        double dy = (y123 - y012 + (t2 - t) * dy012 + (t - t1) * dy123) 
+            * invDt12;
+        double ddx = (2 * (dx123 - dx012) 
+            + (t2 - t) * ddx012 + (t - t1) * ddx123) * invDt12;
+        double ddy = (2 * (dy123 - dy012) 
+            + (t2 - t) * ddy012 + (t - t1) * ddy123) * invDt12;
+        
+        // Convert the derivatives with respect to t into derivatives 
+        // with respect to the parameter u within the segment
+        double dt = t2 - t1;
+        result[0] = x;
+        result[1] = y;
+        result[2] = dx * dt;
+        result[3] = dy * dt;
+        result[4] = ddx * dt * dt;
+        result[5] = ddy * dt * dt;
+    }
+    
+    /**
+     * Computes the knot interval between two control points with the 
+     * given squared distance, which is the squared distance raised to
+     * the power of <code>alpha/2</code>. For the common centripetal and
+     * chordal parameterizations, this avoids calling <code>Math.pow</code>.
+     * 
+     * @param distanceSq The squared distance
+     * @param alpha The alpha value determining the interpolation
+     * @return The knot interval
+     */
+    static double computeKnotInterval(double distanceSq, double alpha)
+    {
+        if (alpha == 0.5)
+        {
+            return Math.sqrt(Math.sqrt(distanceSq));
+        }
+        if (alpha == 1.0)
+        {
+            return Math.sqrt(distanceSq);
+        }
+        return Math.pow(distanceSq, alpha * 0.5);
     }
     
     /**
      * Perform the cubic Catmull-Rom-interpolation for the given control 
      * points and times
      * 
-     * @param p0 The first point
-     * @param p1 The second point
-     * @param p2 The third point
-     * @param p3 The fourth point
+     * @param x0 The x-coordinate of the first point
+     * @param y0 The y-coordinate of the first point
+     * @param x1 The x-coordinate of the second point
+     * @param y1 The y-coordinate of the second point
+     * @param x2 The x-coordinate of the third point
+     * @param y2 The y-coordinate of the third point
+     * @param x3 The x-coordinate of the fourth point
+     * @param y3 The y-coordinate of the fourth point
      * @param t0 The first time
      * @param t1 The second time
      * @param t2 The third time
      * @param t3 The fourth time
      * @param t The current time
-     * @param result The point that will store the result
+     * @param result The array that will store the result
+     * @param offset The index where the x-coordinate will be stored
      */
     private static void interpolate(
-        Point2D p0, Point2D p1, Point2D p2, Point2D p3, 
+        double x0, double y0, double x1, double y1, 
+        double x2, double y2, double x3, double y3, 
         double t0, double t1, double t2, double t3, 
-        double t, Point2D result)
-    {
-        double x0 = p0.getX();
-        double y0 = p0.getY();
-        double x1 = p1.getX();
-        double y1 = p1.getY();
-        double x2 = p2.getX();
-        double y2 = p2.getY();
-        double x3 = p3.getX();
-        double y3 = p3.getY();
+        double t, double result[], int offset)
+    {
         double invDt01 = 1.0 / (t1 - t0);
         double invDt12 = 1.0 / (t2 - t1);
         double invDt23 = 1.0 / (t3 - t2);
@@ -456,7 +1447,8 @@ public class CatmullRomSpline
         double resultX = f12a * x012 + f12b * x123;
         double resultY = f12a * y012 + f12b * y123;
         // (Problem? :-D)
-        result.setLocation(resultX, resultY);
+        result[offset + 0] = resultX;
+        result[offset + 1] = resultY;
     }
 
     
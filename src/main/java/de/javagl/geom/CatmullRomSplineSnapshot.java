@@ -0,0 +1,268 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.nio.DoubleBuffer;
+
+/**
+ * An immutable snapshot of the state of a {@link CatmullRomSpline}, as 
+ * it is returned by {@link CatmullRomSpline#getSnapshot()}.<br>
+ * <br>
+ * The snapshot contains copies of the control points and the 
+ * interpolated points of the spline at the time when the snapshot was
+ * created. It is not affected by later modifications of the spline. 
+ * Instances of this class are thread-safe, and may be accessed by 
+ * multiple threads concurrently, without synchronization.
+ */
+public final class CatmullRomSplineSnapshot
+{
+    /**
+     * The coordinates of the control points, as (x,y) pairs, including
+     * the additional points before the first and after the last point
+     */
+    private final double controlCoordinates[];
+    
+    /**
+     * The number of interpolation points between two control points
+     */
+    private final int stepsPerSegment;
+    
+    /**
+     * The alpha value determining the interpolation
+     */
+    private final double alpha;
+    
+    /**
+     * Whether the spline is closed
+     */
+    private final boolean closed;
+    
+    /**
+     * The coordinates of the interpolated points, as (x,y) pairs
+     */
+    private final double interpolatedCoordinates[];
+    
+    /**
+     * Creates a new snapshot. The given arrays will be stored directly,
+     * and must not be modified afterwards.
+     * 
+     * @param controlCoordinates The control point coordinates, including
+     * the additional points
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The alpha value determining the interpolation
+     * @param closed Whether the spline is closed
+     * @param interpolatedCoordinates The interpolated coordinates
+     */
+    CatmullRomSplineSnapshot(double controlCoordinates[], 
+        int stepsPerSegment, double alpha, boolean closed, 
+        double interpolatedCoordinates[])
+    {
+        this.controlCoordinates = controlCoordinates;
+        this.stepsPerSegment = stepsPerSegment;
+        this.alpha = alpha;
+        this.closed = closed;
+        this.interpolatedCoordinates = interpolatedCoordinates;
+    }
+    
+    /**
+     * Returns the number of interpolation steps per segment
+     * 
+     * @return The number of steps per segment
+     */
+    public int getStepsPerSegment()
+    {
+        return stepsPerSegment;
+    }
+    
+    /**
+     * Returns the alpha value determining the interpolation
+     * 
+     * @return The alpha value
+     */
+    public double getInterpolation()
+    {
+        return alpha;
+    }
+    
+    /**
+     * Returns whether the spline is closed
+     * 
+     * @return Whether the spline is closed
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+    
+    /**
+     * Returns the number of segments of the spline. See
+     * {@link CatmullRomSpline#getNumSegments()}.
+     * 
+     * @return The number of segments
+     */
+    public int getNumSegments()
+    {
+        return controlCoordinates.length / 2 - 3;
+    }
+    
+    /**
+     * Returns the number of interpolated points
+     * 
+     * @return The number of interpolated points
+     */
+    public int getNumInterpolatedPoints()
+    {
+        return interpolatedCoordinates.length / 2;
+    }
+    
+    /**
+     * Returns the specified interpolated point. If the given result is
+     * <code>null</code>, then a new point will be created and returned.
+     * 
+     * @param index The index of the point
+     * @param result The optional result
+     * @return The result
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than {@link #getNumInterpolatedPoints()}
+     */
+    public Point2D getInterpolatedPoint(int index, Point2D result)
+    {
+        int n = getNumInterpolatedPoints();
+        if (index < 0 || index >= n)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of interpolated "
+                + "points is " + n);
+        }
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        result.setLocation(
+            interpolatedCoordinates[index * 2 + 0], 
+            interpolatedCoordinates[index * 2 + 1]);
+        return result;
+    }
+    
+    /**
+     * Copies the coordinates of the interpolated points into the given
+     * array, as consecutive <code>(x,y)</code> pairs. If the given result
+     * is <code>null</code>, then a new array will be created and 
+     * returned.
+     * 
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given array is not 
+     * <code>null</code> and has a length that is smaller than
+     * <code>2*getNumInterpolatedPoints()</code>
+     */
+    public double[] getInterpolatedCoordinates(double result[])
+    {
+        int length = interpolatedCoordinates.length;
+        if (result == null)
+        {
+            result = new double[length];
+        }
+        else if (result.length < length)
+        {
+            throw new IllegalArgumentException(
+                "The array must have a length of at least " + length
+                + ", but has a length of " + result.length);
+        }
+        System.arraycopy(interpolatedCoordinates, 0, result, 0, length);
+        return result;
+    }
+    
+    /**
+     * Returns a read-only view on the coordinates of the interpolated 
+     * points, as consecutive <code>(x,y)</code> pairs. Each call creates 
+     * a new buffer, so that each thread may use its own buffer without
+     * affecting the position of the buffers of other threads.
+     * 
+     * @return The view on the coordinates
+     */
+    public DoubleBuffer getInterpolatedCoordinatesView()
+    {
+        return DoubleBuffer.wrap(interpolatedCoordinates).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Computes the point on the spline at the given parameter. See
+     * {@link CatmullRomSpline#computePoint(double, Point2D)}.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computePoint(double parameter, Point2D result)
+    {
+        return CatmullRomSpline.evaluate(controlCoordinates, 
+            getNumSegments(), alpha, parameter, 0, result);
+    }
+    
+    /**
+     * Computes the first derivative of the spline at the given parameter. 
+     * See {@link CatmullRomSpline#computeFirstDerivative(double, Point2D)}.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeFirstDerivative(double parameter, Point2D result)
+    {
+        return CatmullRomSpline.evaluate(controlCoordinates, 
+            getNumSegments(), alpha, parameter, 1, result);
+    }
+    
+    /**
+     * Computes the second derivative of the spline at the given parameter. 
+     * See {@link CatmullRomSpline#computeSecondDerivative(double, Point2D)}.
+     * 
+     * @param parameter The parameter
+     * @param result The optional result
+     * @return The result
+     */
+    public Point2D computeSecondDerivative(double parameter, Point2D result)
+    {
+        return CatmullRomSpline.evaluate(controlCoordinates, 
+            getNumSegments(), alpha, parameter, 2, result);
+    }
+    
+    /**
+     * Creates a new path that contains one cubic B&eacute;zier curve for
+     * each segment of the spline. See {@link CatmullRomSpline#toPath()}.
+     * 
+     * @return The path
+     */
+    public Path2D toPath()
+    {
+        return CatmullRomSpline.createPath(
+            controlCoordinates, getNumSegments(), alpha, closed);
+    }
+}
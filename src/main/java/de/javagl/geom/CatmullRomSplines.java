@@ -0,0 +1,329 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Methods for computing the interpolated points of many Catmull-Rom-Splines
+ * at once.<br>
+ * <br>
+ * The control points of all splines are given in a single packed array
+ * of coordinates, as consecutive <code>(x,y)</code> pairs, together with
+ * an array of offsets: The control points of spline <code>i</code> are 
+ * the points with the indices from <code>offsets[i]</code> (inclusive) 
+ * to <code>offsets[i+1]</code> (exclusive). So for <code>n</code> 
+ * splines, the offsets array has a length of <code>n+1</code>. The 
+ * interpolated points of all splines are written into a single packed 
+ * array, at the offsets that are computed with 
+ * {@link #computeInterpolatedOffsets(int[], int, boolean)}.<br>
+ * <br>
+ * For each spline, the interpolated points are the same as the ones of a
+ * {@link CatmullRomSpline} that is created with the same control points,
+ * steps, alpha value and closed flag.
+ */
+public class CatmullRomSplines
+{
+    /**
+     * The number of splines that are processed by one task in the 
+     * parallel computation
+     */
+    private static final int SPLINES_PER_TASK = 256;
+    
+    /**
+     * Computes the offsets of the interpolated points of the splines that
+     * are described by the given control point offsets. The interpolated
+     * points of spline <code>i</code> are the points with indices from 
+     * <code>result[i]</code> (inclusive) to <code>result[i+1]</code>
+     * (exclusive), and the last element of the result is the total number
+     * of interpolated points.
+     * 
+     * @param offsets The control point offsets
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param closed Whether the splines are closed
+     * @return The offsets of the interpolated points
+     * @throws IllegalArgumentException If one of the splines has less 
+     * than two control points, or the number of steps is not positive
+     */
+    public static int[] computeInterpolatedOffsets(
+        int offsets[], int stepsPerSegment, boolean closed)
+    {
+        if (stepsPerSegment <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of steps must be positive, but is "
+                + stepsPerSegment);
+        }
+        int numSplines = offsets.length - 1;
+        int result[] = new int[numSplines + 1];
+        for (int i = 0; i < numSplines; i++)
+        {
+            int n = offsets[i + 1] - offsets[i];
+            if (n < 2)
+            {
+                throw new IllegalArgumentException(
+                    "Spline " + i + " has " + n + " control points, " 
+                    + "but must have at least 2");
+            }
+            int numSegments = closed ? n : n - 1;
+            result[i + 1] = result[i] + numSegments * stepsPerSegment + 1;
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the interpolated points of all given splines.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new array will be 
+     * created and returned.
+     * 
+     * @param coordinates The control point coordinates of all splines
+     * @param offsets The control point offsets
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value. For 0.0, the
+     * splines are uniform. For 0.5, the splines are centripetal. For
+     * 1.0, the splines are chordal.
+     * @param closed Whether the splines are closed
+     * @param result The optional result
+     * @return The coordinates of the interpolated points of all splines
+     * @throws IllegalArgumentException If one of the splines has less 
+     * than two control points, the number of steps is not positive, or
+     * the given result array is too small
+     */
+    public static double[] interpolate(double coordinates[], int offsets[],
+        int stepsPerSegment, double alpha, boolean closed, double result[])
+    {
+        int resultOffsets[] = 
+            computeInterpolatedOffsets(offsets, stepsPerSegment, closed);
+        double output[] = prepareResult(resultOffsets, result);
+        double uniformWeights[] = 
+            computeUniformWeights(stepsPerSegment, alpha);
+        interpolate(coordinates, offsets, 0, offsets.length - 1,
+            stepsPerSegment, alpha, uniformWeights, closed, 
+            output, resultOffsets);
+        return output;
+    }
+
+    /**
+     * Computes the interpolated points of all given splines, in parallel.
+     * The result will be the same as for 
+     * {@link #interpolate(double[], int[], int, double, boolean, double[])}.
+     * <br>
+     * If the given result is <code>null</code>, then a new array will be 
+     * created and returned.
+     * 
+     * @param coordinates The control point coordinates of all splines
+     * @param offsets The control point offsets
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value. For 0.0, the
+     * splines are uniform. For 0.5, the splines are centripetal. For
+     * 1.0, the splines are chordal.
+     * @param closed Whether the splines are closed
+     * @param result The optional result
+     * @return The coordinates of the interpolated points of all splines
+     * @throws IllegalArgumentException If one of the splines has less 
+     * than two control points, the number of steps is not positive, or
+     * the given result array is too small
+     */
+    public static double[] interpolateParallel(
+        final double coordinates[], final int offsets[],
+        final int stepsPerSegment, final double alpha, final boolean closed, 
+        double result[])
+    {
+        final int resultOffsets[] = 
+            computeInterpolatedOffsets(offsets, stepsPerSegment, closed);
+        final double output[] = prepareResult(resultOffsets, result);
+        final double uniformWeights[] = 
+            computeUniformWeights(stepsPerSegment, alpha);
+        final int numSplines = offsets.length - 1;
+        int numTasks = (numSplines + SPLINES_PER_TASK - 1) / SPLINES_PER_TASK;
+        IntStream.range(0, numTasks).parallel().forEach(new IntConsumer()
+        {
+            @Override
+            public void accept(int task)
+            {
+                int start = task * SPLINES_PER_TASK;
+                int end = Math.min(numSplines, start + SPLINES_PER_TASK);
+                interpolate(coordinates, offsets, start, end,
+                    stepsPerSegment, alpha, uniformWeights, closed, 
+                    output, resultOffsets);
+            }
+        });
+        return output;
+    }
+    
+    /**
+     * Returns the given result array, or a new one if it is 
+     * <code>null</code>
+     * 
+     * @param resultOffsets The offsets of the interpolated points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given result array is 
+     * too small
+     */
+    private static double[] prepareResult(
+        int resultOffsets[], double result[])
+    {
+        int length = resultOffsets[resultOffsets.length - 1] * 2;
+        if (result == null)
+        {
+            return new double[length];
+        }
+        if (result.length < length)
+        {
+            throw new IllegalArgumentException(
+                "The array must have a length of at least " + length
+                + ", but has a length of " + result.length);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the weights for the interpolation of uniform splines, as
+     * computed with {@link CatmullRomSpline#computeUniformWeights(int)},
+     * or <code>null</code> if the given alpha value is not 0.0
+     * 
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value
+     * @return The weights
+     */
+    private static double[] computeUniformWeights(
+        int stepsPerSegment, double alpha)
+    {
+        if (alpha != 0.0)
+        {
+            return null;
+        }
+        return CatmullRomSpline.computeUniformWeights(stepsPerSegment);
+    }
+    
+    /**
+     * Computes the interpolated points of the specified range of splines
+     * 
+     * @param coordinates The control point coordinates of all splines
+     * @param offsets The control point offsets
+     * @param startSpline The first spline, inclusive
+     * @param endSpline The last spline, exclusive
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value
+     * @param uniformWeights The weights for uniform splines, or 
+     * <code>null</code>
+     * @param closed Whether the splines are closed
+     * @param result The result
+     * @param resultOffsets The offsets of the interpolated points
+     */
+    private static void interpolate(double coordinates[], int offsets[], 
+        int startSpline, int endSpline, int stepsPerSegment, double alpha, 
+        double uniformWeights[], boolean closed, double result[], 
+        int resultOffsets[])
+    {
+        double window[] = new double[8];
+        for (int s = startSpline; s < endSpline; s++)
+        {
+            int first = offsets[s];
+            int n = offsets[s + 1] - first;
+            int numSegments = closed ? n : n - 1;
+            int resultOffset = resultOffsets[s] * 2;
+            for (int i = 0; i < numSegments; i++)
+            {
+                for (int k = 0; k < 4; k++)
+                {
+                    fetchControlPoint(coordinates, first, n, 
+                        i + k - 1, closed, window, k * 2);
+                }
+                int stepsInCurrentSegment = stepsPerSegment;
+                if (i == numSegments - 1)
+                {
+                    stepsInCurrentSegment++;
+                }
+                CatmullRomSpline.interpolateSegment(window, 0, alpha, 
+                    stepsInCurrentSegment, stepsPerSegment, 
+                    uniformWeights, result, resultOffset);
+                resultOffset += stepsPerSegment * 2;
+            }
+        }
+    }
+    
+    /**
+     * Fetch the specified control point of a spline into the given 
+     * array. For closed splines, the index will be wrapped around. For 
+     * open splines, the indices -1 and n refer to the additional points
+     * before the first and after the last point, which are computed in 
+     * the same way as in {@link CatmullRomSpline}.
+     * 
+     * @param coordinates The control point coordinates of all splines
+     * @param first The index of the first control point of the spline
+     * @param n The number of control points of the spline
+     * @param index The index of the control point, between -1 and n+1
+     * @param closed Whether the spline is closed
+     * @param target The target array
+     * @param targetOffset The offset in the target array
+     */
+    private static void fetchControlPoint(double coordinates[], 
+        int first, int n, int index, boolean closed, 
+        double target[], int targetOffset)
+    {
+        if (closed)
+        {
+            int i = (first + (index + n) % n) * 2;
+            target[targetOffset + 0] = coordinates[i + 0];
+            target[targetOffset + 1] = coordinates[i + 1];
+        }
+        else if (index == -1)
+        {
+            int i = first * 2;
+            target[targetOffset + 0] = coordinates[i + 0] 
+                - (coordinates[i + 2] - coordinates[i + 0]);
+            target[targetOffset + 1] = coordinates[i + 1] 
+                - (coordinates[i + 3] - coordinates[i + 1]);
+        }
+        else if (index == n)
+        {
+            int i = (first + n - 1) * 2;
+            target[targetOffset + 0] = coordinates[i + 0] 
+                + (coordinates[i + 0] - coordinates[i - 2]);
+            target[targetOffset + 1] = coordinates[i + 1] 
+                + (coordinates[i + 1] - coordinates[i - 1]);
+        }
+        else
+        {
+            int i = (first + index) * 2;
+            target[targetOffset + 0] = coordinates[i + 0];
+            target[targetOffset + 1] = coordinates[i + 1];
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private CatmullRomSplines()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
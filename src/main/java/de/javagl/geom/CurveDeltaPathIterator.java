@@ -0,0 +1,270 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+
+/**
+ * A path iterator that iterates over a delegate that may contain curves,
+ * and provides only line segments, ensuring that the maximum distance 
+ * between two consecutive points is not larger than a certain delta.<br>
+ * <br>
+ * In contrast to the {@link DeltaPathIterator}, this iterator does not
+ * require a flattened delegate. Each segment of the delegate, including 
+ * quadratic and cubic curves, is divided into the smallest number of 
+ * steps that have an equal arc length that is not larger than the 
+ * maximum delta. The points at these arc lengths are computed directly
+ * on the curve, using a {@link CurveSampler}.
+ */
+class CurveDeltaPathIterator implements PathIterator
+{
+    /**
+     * The delegate path iterator
+     */
+    private final PathIterator delegate;
+    
+    /**
+     * The maximum arc length between two points
+     */
+    private final double maxDelta;
+    
+    /**
+     * The sampler for the current segment
+     */
+    private final CurveSampler sampler;
+    
+    /**
+     * Whether this iterator is done
+     */
+    private boolean done;
+
+    /**
+     * Internal storage for the coordinates provided by the delegate
+     */
+    private final double delegateCoords[] = new double[6];
+    
+    /**
+     * The coordinates that will be used for the next call to 
+     * <code>currentSegment</code>
+     */
+    private final double currentCoords[] = new double[6];
+    
+    /**
+     * The return value for the next call to <code>currentSegment</code>
+     */
+    private int currentSegment;
+    
+    /**
+     * The x-coordinate of the previous SEG_MOVETO of the delegate
+     */
+    private double moveX;
+
+    /**
+     * The y-coordinate of the previous SEG_MOVETO of the delegate
+     */
+    private double moveY;
+    
+    /**
+     * The x-coordinate of the end point of the current delegate segment
+     */
+    private double endX;
+    
+    /**
+     * The y-coordinate of the end point of the current delegate segment
+     */
+    private double endY;
+    
+    /**
+     * The number of steps for the current delegate segment
+     */
+    private int numSteps;
+    
+    /**
+     * The index of the current step of the current delegate segment
+     */
+    private int step;
+    
+    /**
+     * Whether the last step of the current segment should be a SEG_CLOSE
+     */
+    private boolean closeAtEnd;
+    
+    /**
+     * Creates a new curve delta path iterator with the given delegate and
+     * the given maximum step size. 
+     * 
+     * @param delegate The delegate
+     * @param maxDelta The maximum delta
+     */
+    CurveDeltaPathIterator(PathIterator delegate, double maxDelta)
+    {
+        this.delegate = delegate;
+        this.maxDelta = maxDelta;
+        this.sampler = new CurveSampler();
+        this.done = false;
+        next();
+    }
+    
+    @Override
+    public int getWindingRule()
+    {
+        return delegate.getWindingRule();
+    }
+
+    @Override
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    @Override
+    public void next()
+    {
+        Arrays.fill(currentCoords, 0.0);
+        if (done)
+        {
+            return;
+        }
+        if (step < numSteps)
+        {
+            advance();
+            return;
+        }
+        if (delegate.isDone())
+        {
+            done = true;
+            return;
+        }
+        int delegateSegment = delegate.currentSegment(delegateCoords);
+        delegate.next();
+        
+        // Starting points, and the points that result from 
+        // intermediate SEG_MOVETO segments, are passed through
+        if (delegateSegment == PathIterator.SEG_MOVETO)
+        {
+            currentSegment = PathIterator.SEG_MOVETO;
+            currentCoords[0] = delegateCoords[0];
+            currentCoords[1] = delegateCoords[1];
+            moveX = delegateCoords[0];
+            moveY = delegateCoords[1];
+            endX = moveX;
+            endY = moveY;
+            return;
+        }
+        closeAtEnd = false;
+        double startX = endX;
+        double startY = endY;
+        switch (delegateSegment)
+        {
+            case PathIterator.SEG_CLOSE:
+                sampler.setLine(startX, startY, moveX, moveY);
+                endX = moveX;
+                endY = moveY;
+                closeAtEnd = true;
+                break;
+
+            case PathIterator.SEG_LINETO:
+                sampler.setLine(startX, startY, 
+                    delegateCoords[0], delegateCoords[1]);
+                endX = delegateCoords[0];
+                endY = delegateCoords[1];
+                break;
+
+            case PathIterator.SEG_QUADTO:
+                sampler.set(startX, startY, delegateSegment, delegateCoords);
+                endX = delegateCoords[2];
+                endY = delegateCoords[3];
+                break;
+                
+            case PathIterator.SEG_CUBICTO:
+                sampler.set(startX, startY, delegateSegment, delegateCoords);
+                endX = delegateCoords[4];
+                endY = delegateCoords[5];
+                break;
+
+            default:
+                throw new IllegalStateException(
+                    "Found invalid segment type in path iterator");
+        }
+        double length = sampler.getLength();
+        numSteps = 1;
+        if (length > Geom.DOUBLE_EPSILON)
+        {
+            numSteps = (int)Math.ceil(length / maxDelta);
+        }
+        step = 0;
+        advance();
+    }
+    
+    /**
+     * Advance to the next step on the current segment, and provide the 
+     * information to be returned for the next currentSegment call
+     */
+    private void advance()
+    {
+        step++;
+        if (step >= numSteps)
+        {
+            currentCoords[0] = endX;
+            currentCoords[1] = endY;
+            if (closeAtEnd)
+            {
+                currentSegment = PathIterator.SEG_CLOSE;
+            }
+            else
+            {
+                currentSegment = PathIterator.SEG_LINETO;
+            }
+            return;
+        }
+        double s = sampler.getLength() * step / numSteps;
+        double t = sampler.computeParameter(s);
+        sampler.computePoint(t, currentCoords, 0);
+        currentSegment = PathIterator.SEG_LINETO;
+    }
+
+    @Override
+    public int currentSegment(float coords[])
+    {
+        for (int i=0; i<coords.length; i++)
+        {
+            coords[i] = (float) currentCoords[i];
+        }
+        return currentSegment;
+    }
+
+    @Override
+    public int currentSegment(double coords[])
+    {
+        for (int i=0; i<coords.length; i++)
+        {
+            coords[i] = currentCoords[i];
+        }
+        return currentSegment;
+    }
+}
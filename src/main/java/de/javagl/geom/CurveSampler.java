@@ -0,0 +1,467 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.PathIterator;
+
+/**
+ * Package-private class for computing the arc length of a single line,
+ * quadratic or cubic curve segment, and for finding the parameters of
+ * points at certain arc lengths on the segment.<br>
+ * <br>
+ * The arc length is computed with an adaptive Gauss-Legendre quadrature
+ * of the speed of the curve. The parameter for a certain arc length is 
+ * found with Newton steps, starting at the parameter that was found in 
+ * the previous call. So when the parameters for increasing arc lengths
+ * are computed, each call only has to integrate over the short distance
+ * from the previous point.<br>
+ * <br>
+ * Instances of this class are mutable and reused for multiple segments,
+ * and may not be used by multiple threads concurrently.
+ */
+final class CurveSampler
+{
+    /**
+     * The nodes of the 3-point Gauss-Legendre quadrature on [-1,1]
+     */
+    private static final double SHORT_GAUSS_NODES[] = 
+    {
+        -0.7745966692414834, 0.0, 0.7745966692414834
+    };
+
+    /**
+     * The weights of the 3-point Gauss-Legendre quadrature
+     */
+    private static final double SHORT_GAUSS_WEIGHTS[] = 
+    {
+        0.5555555555555556, 0.8888888888888889, 0.5555555555555556
+    };
+    
+    /**
+     * The nodes of the 5-point Gauss-Legendre quadrature on [-1,1]
+     */
+    private static final double GAUSS_NODES[] = 
+    {
+        -0.9061798459386640, -0.5384693101056831, 0.0, 
+        0.5384693101056831, 0.9061798459386640
+    };
+
+    /**
+     * The weights of the 5-point Gauss-Legendre quadrature
+     */
+    private static final double GAUSS_WEIGHTS[] = 
+    {
+        0.2369268850561891, 0.4786286704993665, 0.5688888888888889, 
+        0.4786286704993665, 0.2369268850561891
+    };
+    
+    /**
+     * The length of parameter intervals for which the arc length is 
+     * computed with a single quadrature, without subdivision
+     */
+    private static final double SHORT_INTERVAL = 1.0 / 32;
+    
+    /**
+     * The maximum recursion depth of the adaptive quadrature
+     */
+    private static final int MAX_DEPTH = 10;
+    
+    /**
+     * The maximum number of Newton steps for computing a parameter
+     */
+    private static final int MAX_NEWTON_STEPS = 20;
+    
+    /**
+     * The relative tolerance for arc lengths
+     */
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+    
+    /**
+     * The degree of the current segment: 1 for lines, 2 for quadratic
+     * and 3 for cubic curves
+     */
+    private int degree;
+    
+    /**
+     * The x-coordinates of the control points
+     */
+    private final double xs[] = new double[4];
+
+    /**
+     * The y-coordinates of the control points
+     */
+    private final double ys[] = new double[4];
+    
+    /**
+     * The arc length of the current segment
+     */
+    private double length;
+    
+    /**
+     * The parameter that was computed in the previous call to 
+     * {@link #computeParameter(double)}
+     */
+    private double previousParameter;
+    
+    /**
+     * The arc length that was passed to the previous call to 
+     * {@link #computeParameter(double)}
+     */
+    private double previousArcLength;
+    
+    /**
+     * The absolute tolerance for arc lengths of the current segment
+     */
+    private double tolerance;
+    
+    /**
+     * Set the segment that is described by the given start point, and 
+     * the given segment type and coordinates, as they are provided by a
+     * <code>PathIterator</code>. 
+     * 
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param type The segment type, <code>SEG_LINETO</code>, 
+     * <code>SEG_QUADTO</code> or <code>SEG_CUBICTO</code>
+     * @param coords The coordinates
+     * @throws IllegalArgumentException If the segment type is not valid
+     */
+    void set(double x0, double y0, int type, double coords[])
+    {
+        xs[0] = x0;
+        ys[0] = y0;
+        switch (type)
+        {
+            case PathIterator.SEG_LINETO:
+                degree = 1;
+                break;
+
+            case PathIterator.SEG_QUADTO:
+                degree = 2;
+                break;
+                
+            case PathIterator.SEG_CUBICTO:
+                degree = 3;
+                break;
+                
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid segment type: " + type);
+        }
+        double polygonLength = 0;
+        for (int i = 1; i <= degree; i++)
+        {
+            xs[i] = coords[(i - 1) * 2 + 0];
+            ys[i] = coords[(i - 1) * 2 + 1];
+            polygonLength += Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+        }
+        tolerance = polygonLength * RELATIVE_TOLERANCE;
+        previousParameter = 0;
+        previousArcLength = 0;
+        if (degree == 1)
+        {
+            length = polygonLength;
+        }
+        else
+        {
+            length = integrate(0.0, 1.0, tolerance);
+        }
+    }
+    
+    /**
+     * Set the line segment between the given points
+     * 
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param x1 The x-coordinate of the end point
+     * @param y1 The y-coordinate of the end point
+     */
+    void setLine(double x0, double y0, double x1, double y1)
+    {
+        xs[0] = x0;
+        ys[0] = y0;
+        xs[1] = x1;
+        ys[1] = y1;
+        degree = 1;
+        length = Math.hypot(x1 - x0, y1 - y0);
+        tolerance = length * RELATIVE_TOLERANCE;
+        previousParameter = 0;
+        previousArcLength = 0;
+    }
+    
+    /**
+     * Returns the arc length of the current segment
+     * 
+     * @return The length
+     */
+    double getLength()
+    {
+        return length;
+    }
+    
+    /**
+     * Computes the parameter of the point at the given arc length on the
+     * current segment. The arc length will be clamped to the valid range.
+     * If the given arc length is not smaller than the one that was given
+     * in the previous call, then the search starts at the parameter that
+     * was found in the previous call.
+     * 
+     * @param s The arc length
+     * @return The parameter, in [0,1]
+     */
+    double computeParameter(double s)
+    {
+        if (s <= 0 || length <= 0)
+        {
+            return 0.0;
+        }
+        if (s >= length)
+        {
+            return 1.0;
+        }
+        if (degree == 1)
+        {
+            return s / length;
+        }
+        if (s < previousArcLength)
+        {
+            previousParameter = 0;
+            previousArcLength = 0;
+        }
+        double a = previousParameter;
+        double sa = previousArcLength;
+        double lo = a;
+        double hi = 1.0;
+        double speed = computeSpeed(a);
+        double t = speed > 0 ? a + (s - sa) / speed : (a + hi) * 0.5;
+        if (!(t > lo && t < hi))
+        {
+            t = (lo + hi) * 0.5;
+        }
+        for (int i = 0; i < MAX_NEWTON_STEPS; i++)
+        {
+            double f = sa + integrate(a, t) - s;
+            if (Math.abs(f) <= tolerance)
+            {
+                break;
+            }
+            if (f > 0)
+            {
+                hi = t;
+            }
+            else
+            {
+                lo = t;
+            }
+            speed = computeSpeed(t);
+            double next = speed > 0 ? t - f / speed : Double.NaN;
+            if (!(next > lo && next < hi))
+            {
+                next = (lo + hi) * 0.5;
+            }
+            t = next;
+        }
+        previousParameter = t;
+        previousArcLength = s;
+        return t;
+    }
+    
+    /**
+     * Computes the point at the given parameter of the current segment, 
+     * and stores it in the given array at the given index
+     * 
+     * @param t The parameter
+     * @param result The array that stores the result
+     * @param offset The index where the x-coordinate will be stored
+     */
+    void computePoint(double t, double result[], int offset)
+    {
+        double u = 1.0 - t;
+        switch (degree)
+        {
+            case 1:
+                result[offset + 0] = u * xs[0] + t * xs[1];
+                result[offset + 1] = u * ys[0] + t * ys[1];
+                break;
+                
+            case 2:
+            {
+                double b0 = u * u;
+                double b1 = 2 * u * t;
+                double b2 = t * t;
+                result[offset + 0] = b0 * xs[0] + b1 * xs[1] + b2 * xs[2];
+                result[offset + 1] = b0 * ys[0] + b1 * ys[1] + b2 * ys[2];
+                break;
+            }
+                
+            default:
+            {
+                double b0 = u * u * u;
+                double b1 = 3 * u * u * t;
+                double b2 = 3 * u * t * t;
+                double b3 = t * t * t;
+                result[offset + 0] = 
+                    b0 * xs[0] + b1 * xs[1] + b2 * xs[2] + b3 * xs[3];
+                result[offset + 1] = 
+                    b0 * ys[0] + b1 * ys[1] + b2 * ys[2] + b3 * ys[3];
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Computes the speed, that is, the length of the derivative, of the 
+     * current segment at the given parameter
+     * 
+     * @param t The parameter
+     * @return The speed
+     */
+    double computeSpeed(double t)
+    {
+        double u = 1.0 - t;
+        double dx;
+        double dy;
+        switch (degree)
+        {
+            case 1:
+                dx = xs[1] - xs[0];
+                dy = ys[1] - ys[0];
+                break;
+                
+            case 2:
+                dx = 2 * (u * (xs[1] - xs[0]) + t * (xs[2] - xs[1]));
+                dy = 2 * (u * (ys[1] - ys[0]) + t * (ys[2] - ys[1]));
+                break;
+                
+            default:
+                dx = 3 * (u * u * (xs[1] - xs[0]) + 
+                    2 * u * t * (xs[2] - xs[1]) + t * t * (xs[3] - xs[2]));
+                dy = 3 * (u * u * (ys[1] - ys[0]) + 
+                    2 * u * t * (ys[2] - ys[1]) + t * t * (ys[3] - ys[2]));
+                break;
+        }
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    /**
+     * Computes the arc length of the current segment between the given
+     * parameters. If the parameters are close to each other, then this
+     * is done with a single 3-point quadrature. Otherwise, an adaptive 
+     * quadrature is used.
+     * 
+     * @param a The start parameter
+     * @param b The end parameter
+     * @return The arc length
+     */
+    private double integrate(double a, double b)
+    {
+        if (b - a <= SHORT_INTERVAL)
+        {
+            return gauss(a, b, SHORT_GAUSS_NODES, SHORT_GAUSS_WEIGHTS);
+        }
+        return integrate(a, b, tolerance);
+    }
+    
+    /**
+     * Computes the arc length of the current segment between the given
+     * parameters, with an adaptive quadrature
+     * 
+     * @param a The start parameter
+     * @param b The end parameter
+     * @param tolerance The absolute tolerance
+     * @return The arc length
+     */
+    private double integrate(double a, double b, double tolerance)
+    {
+        return integrate(a, b, gauss(a, b), tolerance, 0);
+    }
+    
+    /**
+     * Recursive implementation of the adaptive quadrature. The interval
+     * is halved as long as the sum of the results for both halves differs
+     * from the result for the whole interval by more than the tolerance.
+     * 
+     * @param a The start parameter
+     * @param b The end parameter
+     * @param whole The result of the quadrature for the whole interval
+     * @param tolerance The absolute tolerance
+     * @param depth The recursion depth
+     * @return The arc length
+     */
+    private double integrate(
+        double a, double b, double whole, double tolerance, int depth)
+    {
+        double m = (a + b) * 0.5;
+        double left = gauss(a, m);
+        double right = gauss(m, b);
+        double sum = left + right;
+        if (depth >= MAX_DEPTH || Math.abs(sum - whole) <= tolerance)
+        {
+            return sum;
+        }
+        double halfTolerance = tolerance * 0.5;
+        return integrate(a, m, left, halfTolerance, depth + 1) 
+            + integrate(m, b, right, halfTolerance, depth + 1);
+    }
+    
+    /**
+     * Computes the arc length of the current segment between the given
+     * parameters, with a 5-point Gauss-Legendre quadrature
+     * 
+     * @param a The start parameter
+     * @param b The end parameter
+     * @return The arc length
+     */
+    private double gauss(double a, double b)
+    {
+        return gauss(a, b, GAUSS_NODES, GAUSS_WEIGHTS);
+    }
+    
+    /**
+     * Computes the arc length of the current segment between the given
+     * parameters, with a Gauss-Legendre quadrature with the given nodes
+     * and weights
+     * 
+     * @param a The start parameter
+     * @param b The end parameter
+     * @param nodes The nodes
+     * @param weights The weights
+     * @return The arc length
+     */
+    private double gauss(double a, double b, 
+        double nodes[], double weights[])
+    {
+        double halfWidth = (b - a) * 0.5;
+        double center = (a + b) * 0.5;
+        double sum = 0;
+        for (int i = 0; i < nodes.length; i++)
+        {
+            sum += weights[i] * computeSpeed(center + halfWidth * nodes[i]);
+        }
+        return sum * halfWidth;
+    }
+}
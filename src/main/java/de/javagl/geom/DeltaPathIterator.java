@@ -141,7 +141,7 @@ class DeltaPathIterator implements PathIterator
         this.delegate = delegate;
         this.maxDelta = maxDelta;
         this.done = false;
-        this.currentSegmentFinished = false;
+        this.currentSegmentFinished = true;
         this.closeAtEnd = false;
         next();
     }
@@ -0,0 +1,1177 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of a polygon triangulation based on ear clipping.<br>
+ * <br>
+ * The implementation is roughly based on the "earcut" algorithm, see
+ * https://github.com/mapbox/earcut : Holes are eliminated by connecting
+ * them to the outer ring with bridges, and for larger inputs, the search
+ * for points inside of a candidate ear is accelerated by sorting the
+ * vertices along a z-order curve. If the polygon can not be triangulated
+ * by clipping ears (because it is degenerate or self-intersecting),
+ * local intersections are removed, and finally, the polygon is split
+ * into smaller parts.
+ */
+class EarClipping
+{
+    /**
+     * The minimum number of vertices for which the z-order hashing
+     * will be used
+     */
+    private static final int MIN_HASHED_VERTICES = 80;
+
+    /**
+     * A vertex in a doubly linked list that represents a polygon ring
+     */
+    private static final class Node
+    {
+        /**
+         * The index of the vertex in the input coordinates
+         */
+        final int i;
+
+        /**
+         * The x-coordinate of the vertex
+         */
+        final double x;
+
+        /**
+         * The y-coordinate of the vertex
+         */
+        final double y;
+
+        /**
+         * The previous vertex in the polygon ring
+         */
+        Node prev;
+
+        /**
+         * The next vertex in the polygon ring
+         */
+        Node next;
+
+        /**
+         * The z-order curve value of this vertex
+         */
+        int z;
+
+        /**
+         * The previous vertex in the z-order
+         */
+        Node prevZ;
+
+        /**
+         * The next vertex in the z-order
+         */
+        Node nextZ;
+
+        /**
+         * Whether this vertex is a degenerate hole that may not be
+         * removed during filtering
+         */
+        boolean steiner;
+
+        /**
+         * Creates a new node
+         *
+         * @param i The vertex index
+         * @param x The x-coordinate
+         * @param y The y-coordinate
+         */
+        Node(int i, double x, double y)
+        {
+            this.i = i;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Triangulate the polygon that is given by the specified coordinates.
+     *
+     * @param coordinates The coordinates of the vertices, as consecutive
+     * <code>(x,y)</code> pairs
+     * @param numVertices The number of vertices
+     * @param holeIndices The (vertex) indices where the holes start in
+     * the coordinates array. May be <code>null</code> or empty if the
+     * polygon has no holes.
+     * @param numHoles The number of holes
+     * @param triangles The array that will store the vertex indices of
+     * the triangles
+     * @return The number of indices that have been written into the
+     * array. This is three times the number of triangles.
+     */
+    static int triangulate(double coordinates[], int numVertices,
+        int holeIndices[], int numHoles, IntArray triangles)
+    {
+        int sizeBefore = triangles.size();
+        int outerEnd = numHoles > 0 ? holeIndices[0] : numVertices;
+        Node outerNode = linkedList(coordinates, 0, outerEnd, true);
+        if (outerNode == null || outerNode.next == outerNode.prev)
+        {
+            return 0;
+        }
+        if (numHoles > 0)
+        {
+            outerNode = eliminateHoles(
+                coordinates, numVertices, holeIndices, numHoles, outerNode);
+        }
+        double minX = 0;
+        double minY = 0;
+        double invSize = 0;
+        if (numVertices > MIN_HASHED_VERTICES)
+        {
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < outerEnd; i++)
+            {
+                double x = coordinates[i * 2 + 0];
+                double y = coordinates[i * 2 + 1];
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            invSize = Math.max(maxX - minX, maxY - minY);
+            invSize = invSize != 0 ? 32767 / invSize : 0;
+        }
+        earcutLinked(outerNode, triangles, minX, minY, invSize, 0);
+        return triangles.size() - sizeBefore;
+    }
+
+    /**
+     * Create a circular doubly linked list from the specified vertices,
+     * with the specified winding order.
+     *
+     * @param coordinates The coordinates
+     * @param start The start vertex index, inclusive
+     * @param end The end vertex index, exclusive
+     * @param clockwise The desired winding order
+     * @return The last node of the list, or <code>null</code> if the
+     * list was empty
+     */
+    private static Node linkedList(
+        double coordinates[], int start, int end, boolean clockwise)
+    {
+        Node last = null;
+        if (clockwise == (signedArea(coordinates, start, end) > 0))
+        {
+            for (int i = start; i < end; i++)
+            {
+                last = insertNode(i,
+                    coordinates[i * 2 + 0], coordinates[i * 2 + 1], last);
+            }
+        }
+        else
+        {
+            for (int i = end - 1; i >= start; i--)
+            {
+                last = insertNode(i,
+                    coordinates[i * 2 + 0], coordinates[i * 2 + 1], last);
+            }
+        }
+        if (last != null && equals(last, last.next))
+        {
+            removeNode(last);
+            last = last.next;
+        }
+        return last;
+    }
+
+    /**
+     * Eliminate colinear or duplicate points in the given list
+     *
+     * @param start The start node
+     * @param end The end node. If this is <code>null</code>, then the
+     * start node will be used.
+     * @return The new end node
+     */
+    private static Node filterPoints(Node start, Node end)
+    {
+        if (start == null)
+        {
+            return start;
+        }
+        if (end == null)
+        {
+            end = start;
+        }
+        Node p = start;
+        boolean again;
+        do
+        {
+            again = false;
+            if (!p.steiner &&
+                (equals(p, p.next) || area(p.prev, p, p.next) == 0))
+            {
+                removeNode(p);
+                p = p.prev;
+                end = p;
+                if (p == p.next)
+                {
+                    break;
+                }
+                again = true;
+            }
+            else
+            {
+                p = p.next;
+            }
+        }
+        while (again || p != end);
+        return end;
+    }
+
+    /**
+     * The main ear slicing loop, which triangulates a polygon that is
+     * given as a linked list
+     *
+     * @param ear The start node
+     * @param triangles The triangle indices
+     * @param minX The minimum x-coordinate, for the z-order
+     * @param minY The minimum y-coordinate, for the z-order
+     * @param invSize The inverse size, for the z-order. If this is 0,
+     * then no z-order hashing will be used.
+     * @param pass The pass: 0 is the initial pass, 1 is the pass after
+     * filtering points, 2 is the pass after curing local intersections
+     */
+    private static void earcutLinked(Node ear, IntArray triangles,
+        double minX, double minY, double invSize, int pass)
+    {
+        if (ear == null)
+        {
+            return;
+        }
+        if (pass == 0 && invSize != 0)
+        {
+            indexCurve(ear, minX, minY, invSize);
+        }
+        Node stop = ear;
+        while (ear.prev != ear.next)
+        {
+            Node prev = ear.prev;
+            Node next = ear.next;
+            boolean isEar = invSize != 0 ?
+                isEarHashed(ear, minX, minY, invSize) : isEar(ear);
+            if (isEar)
+            {
+                triangles.add(prev.i);
+                triangles.add(ear.i);
+                triangles.add(next.i);
+                removeNode(ear);
+
+                // Skipping the next vertex leads to less sliver triangles
+                ear = next.next;
+                stop = next.next;
+                continue;
+            }
+            ear = next;
+
+            // If the whole polygon was traversed without finding an ear
+            if (ear == stop)
+            {
+                if (pass == 0)
+                {
+                    earcutLinked(filterPoints(ear, null), triangles,
+                        minX, minY, invSize, 1);
+                }
+                else if (pass == 1)
+                {
+                    ear = cureLocalIntersections(
+                        filterPoints(ear, null), triangles);
+                    earcutLinked(ear, triangles, minX, minY, invSize, 2);
+                }
+                else if (pass == 2)
+                {
+                    splitEarcut(ear, triangles, minX, minY, invSize);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Check whether the given node forms a valid ear with its neighbors
+     *
+     * @param ear The node
+     * @return Whether the node is an ear
+     */
+    private static boolean isEar(Node ear)
+    {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+        if (area(a, b, c) >= 0)
+        {
+            // Reflex, can't be an ear
+            return false;
+        }
+        double ax = a.x;
+        double ay = a.y;
+        double bx = b.x;
+        double by = b.y;
+        double cx = c.x;
+        double cy = c.y;
+        double x0 = Math.min(ax, Math.min(bx, cx));
+        double y0 = Math.min(ay, Math.min(by, cy));
+        double x1 = Math.max(ax, Math.max(bx, cx));
+        double y1 = Math.max(ay, Math.max(by, cy));
+        Node p = c.next;
+        while (p != a)
+        {
+            if (p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1
+                && pointInTriangleExceptFirst(
+                    ax, ay, bx, by, cx, cy, p.x, p.y)
+                && area(p.prev, p, p.next) >= 0)
+            {
+                return false;
+            }
+            p = p.next;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the given node forms a valid ear with its neighbors,
+     * using the z-order to only check the nodes that are close to the ear
+     *
+     * @param ear The node
+     * @param minX The minimum x-coordinate, for the z-order
+     * @param minY The minimum y-coordinate, for the z-order
+     * @param invSize The inverse size, for the z-order
+     * @return Whether the node is an ear
+     */
+    private static boolean isEarHashed(
+        Node ear, double minX, double minY, double invSize)
+    {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+        if (area(a, b, c) >= 0)
+        {
+            // Reflex, can't be an ear
+            return false;
+        }
+        double ax = a.x;
+        double ay = a.y;
+        double bx = b.x;
+        double by = b.y;
+        double cx = c.x;
+        double cy = c.y;
+        double x0 = Math.min(ax, Math.min(bx, cx));
+        double y0 = Math.min(ay, Math.min(by, cy));
+        double x1 = Math.max(ax, Math.max(bx, cx));
+        double y1 = Math.max(ay, Math.max(by, cy));
+
+        // The z-order range for the bounding box of the triangle
+        int minZ = zOrder(x0, y0, minX, minY, invSize);
+        int maxZ = zOrder(x1, y1, minX, minY, invSize);
+
+        // Look for points inside the triangle in both directions
+        Node p = ear.prevZ;
+        Node n = ear.nextZ;
+        while (p != null && p.z >= minZ && n != null && n.z <= maxZ)
+        {
+            if (isBlocking(p, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+            {
+                return false;
+            }
+            p = p.prevZ;
+            if (isBlocking(n, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+            {
+                return false;
+            }
+            n = n.nextZ;
+        }
+        while (p != null && p.z >= minZ)
+        {
+            if (isBlocking(p, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+            {
+                return false;
+            }
+            p = p.prevZ;
+        }
+        while (n != null && n.z <= maxZ)
+        {
+            if (isBlocking(n, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+            {
+                return false;
+            }
+            n = n.nextZ;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given node is a (non-reflex) vertex inside of
+     * the given candidate ear, which prevents it from being clipped
+     *
+     * @param p The node to check
+     * @param a The first node of the ear
+     * @param c The last node of the ear
+     * @param ax The x-coordinate of the first ear node
+     * @param ay The y-coordinate of the first ear node
+     * @param bx The x-coordinate of the second ear node
+     * @param by The y-coordinate of the second ear node
+     * @param cx The x-coordinate of the third ear node
+     * @param cy The y-coordinate of the third ear node
+     * @param x0 The minimum x-coordinate of the ear
+     * @param y0 The minimum y-coordinate of the ear
+     * @param x1 The maximum x-coordinate of the ear
+     * @param y1 The maximum y-coordinate of the ear
+     * @return Whether the node blocks the ear
+     */
+    private static boolean isBlocking(Node p, Node a, Node c,
+        double ax, double ay, double bx, double by, double cx, double cy,
+        double x0, double y0, double x1, double y1)
+    {
+        return p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1
+            && p != a && p != c
+            && pointInTriangleExceptFirst(ax, ay, bx, by, cx, cy, p.x, p.y)
+            && area(p.prev, p, p.next) >= 0;
+    }
+
+    /**
+     * Go through all polygon nodes and cure small local
+     * self-intersections
+     *
+     * @param start The start node
+     * @param triangles The triangle indices
+     * @return The new start node
+     */
+    private static Node cureLocalIntersections(
+        Node start, IntArray triangles)
+    {
+        Node p = start;
+        do
+        {
+            Node a = p.prev;
+            Node b = p.next.next;
+            if (!equals(a, b) && intersects(a, p, p.next, b)
+                && locallyInside(a, b) && locallyInside(b, a))
+            {
+                triangles.add(a.i);
+                triangles.add(p.i);
+                triangles.add(b.i);
+
+                // Remove two nodes involved
+                removeNode(p);
+                removeNode(p.next);
+                p = b;
+                start = b;
+            }
+            p = p.next;
+        }
+        while (p != start);
+        return filterPoints(p, null);
+    }
+
+    /**
+     * Try splitting the polygon into two, and triangulate them
+     * independently
+     *
+     * @param start The start node
+     * @param triangles The triangle indices
+     * @param minX The minimum x-coordinate, for the z-order
+     * @param minY The minimum y-coordinate, for the z-order
+     * @param invSize The inverse size, for the z-order
+     */
+    private static void splitEarcut(Node start, IntArray triangles,
+        double minX, double minY, double invSize)
+    {
+        // Look for a valid diagonal that divides the polygon into two
+        Node a = start;
+        do
+        {
+            Node b = a.next.next;
+            while (b != a.prev)
+            {
+                if (a.i != b.i && isValidDiagonal(a, b))
+                {
+                    Node c = splitPolygon(a, b);
+                    a = filterPoints(a, a.next);
+                    c = filterPoints(c, c.next);
+                    earcutLinked(a, triangles, minX, minY, invSize, 0);
+                    earcutLinked(c, triangles, minX, minY, invSize, 0);
+                    return;
+                }
+                b = b.next;
+            }
+            a = a.next;
+        }
+        while (a != start);
+    }
+
+    /**
+     * Link all holes into the outer ring, to create a single ring
+     *
+     * @param coordinates The coordinates
+     * @param numVertices The number of vertices
+     * @param holeIndices The hole indices
+     * @param numHoles The number of holes
+     * @param outerNode The outer node
+     * @return The new outer node
+     */
+    private static Node eliminateHoles(double coordinates[],
+        int numVertices, int holeIndices[], int numHoles, Node outerNode)
+    {
+        List<Node> queue = new ArrayList<Node>(numHoles);
+        for (int i = 0; i < numHoles; i++)
+        {
+            int start = holeIndices[i];
+            int end = i < numHoles - 1 ? holeIndices[i + 1] : numVertices;
+            Node list = linkedList(coordinates, start, end, false);
+            if (list == null)
+            {
+                continue;
+            }
+            if (list == list.next)
+            {
+                list.steiner = true;
+            }
+            queue.add(getLeftmost(list));
+        }
+        Collections.sort(queue, LEFTMOST_COMPARATOR);
+
+        // Process holes from left to right
+        for (int i = 0; i < queue.size(); i++)
+        {
+            outerNode = eliminateHole(queue.get(i), outerNode);
+        }
+        return outerNode;
+    }
+
+    /**
+     * A comparator for nodes, comparing them by their x-coordinate,
+     * and then by their y-coordinate
+     */
+    private static final Comparator<Node> LEFTMOST_COMPARATOR =
+        new Comparator<Node>()
+    {
+        @Override
+        public int compare(Node a, Node b)
+        {
+            int result = Double.compare(a.x, b.x);
+            if (result != 0)
+            {
+                return result;
+            }
+            return Double.compare(a.y, b.y);
+        }
+    };
+
+    /**
+     * Find a bridge between the given hole and the outer polygon, and
+     * link it
+     *
+     * @param hole The hole node
+     * @param outerNode The outer node
+     * @return The new outer node
+     */
+    private static Node eliminateHole(Node hole, Node outerNode)
+    {
+        Node bridge = findHoleBridge(hole, outerNode);
+        if (bridge == null)
+        {
+            return outerNode;
+        }
+        Node bridgeReverse = splitPolygon(bridge, hole);
+
+        // Filter collinear points around the cuts
+        filterPoints(bridgeReverse, bridgeReverse.next);
+        return filterPoints(bridge, bridge.next);
+    }
+
+    /**
+     * Use David Eberly's algorithm for finding a bridge between the
+     * given hole and the outer polygon
+     *
+     * @param hole The hole node
+     * @param outerNode The outer node
+     * @return The bridge node, or <code>null</code> if no bridge
+     * could be found
+     */
+    private static Node findHoleBridge(Node hole, Node outerNode)
+    {
+        Node p = outerNode;
+        double hx = hole.x;
+        double hy = hole.y;
+        double qx = Double.NEGATIVE_INFINITY;
+        Node m = null;
+
+        // Find a segment intersected by a ray from the hole's leftmost
+        // point to the left. The segment's endpoint with lesser x will
+        // be the potential connection point
+        if (equals(hole, p))
+        {
+            return p;
+        }
+        do
+        {
+            if (equals(hole, p.next))
+            {
+                return p.next;
+            }
+            else if (hy <= p.y && hy >= p.next.y && p.next.y != p.y)
+            {
+                double x = p.x + (hy - p.y) * (p.next.x - p.x)
+                    / (p.next.y - p.y);
+                if (x <= hx && x > qx)
+                {
+                    qx = x;
+                    m = p.x < p.next.x ? p : p.next;
+                    if (x == hx)
+                    {
+                        // The hole touches the outer segment
+                        return m;
+                    }
+                }
+            }
+            p = p.next;
+        }
+        while (p != outerNode);
+        if (m == null)
+        {
+            return null;
+        }
+
+        // Look for points inside the triangle of hole point, segment
+        // intersection and endpoint. If there are no points found, then
+        // there is a valid connection. Otherwise choose the point with
+        // the minimum angle with the ray as the connection point
+        Node stop = m;
+        double mx = m.x;
+        double my = m.y;
+        double tanMin = Double.POSITIVE_INFINITY;
+        p = m;
+        do
+        {
+            if (hx >= p.x && p.x >= mx && hx != p.x
+                && pointInTriangle(hy < my ? hx : qx, hy, mx, my,
+                    hy < my ? qx : hx, hy, p.x, p.y))
+            {
+                double tan = Math.abs(hy - p.y) / (hx - p.x);
+                if (locallyInside(p, hole) && (tan < tanMin
+                    || (tan == tanMin && (p.x > m.x
+                    || (p.x == m.x && sectorContainsSector(m, p))))))
+                {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = p.next;
+        }
+        while (p != stop);
+        return m;
+    }
+
+    /**
+     * Whether the sector in vertex m contains the sector in vertex p
+     * in the same coordinates
+     *
+     * @param m The first node
+     * @param p The second node
+     * @return The result
+     */
+    private static boolean sectorContainsSector(Node m, Node p)
+    {
+        return area(m.prev, m, p.prev) < 0 && area(p.next, m, m.next) < 0;
+    }
+
+    /**
+     * Interlink polygon nodes in z-order
+     *
+     * @param start The start node
+     * @param minX The minimum x-coordinate, for the z-order
+     * @param minY The minimum y-coordinate, for the z-order
+     * @param invSize The inverse size, for the z-order
+     */
+    private static void indexCurve(
+        Node start, double minX, double minY, double invSize)
+    {
+        Node p = start;
+        do
+        {
+            if (p.z == 0)
+            {
+                p.z = zOrder(p.x, p.y, minX, minY, invSize);
+            }
+            p.prevZ = p.prev;
+            p.nextZ = p.next;
+            p = p.next;
+        }
+        while (p != start);
+        p.prevZ.nextZ = null;
+        p.prevZ = null;
+        sortLinked(p);
+    }
+
+    /**
+     * Sort the given linked list of nodes by their z-order values. This
+     * uses Simon Tatham's linked list merge sort algorithm, see
+     * http://www.chiark.greenend.org.uk/~sgtatham/algorithms/listsort.html
+     *
+     * @param list The list
+     * @return The new head of the list
+     */
+    private static Node sortLinked(Node list)
+    {
+        int numMerges;
+        int inSize = 1;
+        do
+        {
+            Node p = list;
+            Node e;
+            Node tail = null;
+            list = null;
+            numMerges = 0;
+            while (p != null)
+            {
+                numMerges++;
+                Node q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++)
+                {
+                    pSize++;
+                    q = q.nextZ;
+                    if (q == null)
+                    {
+                        break;
+                    }
+                }
+                int qSize = inSize;
+                while (pSize > 0 || (qSize > 0 && q != null))
+                {
+                    if (pSize != 0 && (qSize == 0 || q == null || p.z <= q.z))
+                    {
+                        e = p;
+                        p = p.nextZ;
+                        pSize--;
+                    }
+                    else
+                    {
+                        e = q;
+                        q = q.nextZ;
+                        qSize--;
+                    }
+                    if (tail != null)
+                    {
+                        tail.nextZ = e;
+                    }
+                    else
+                    {
+                        list = e;
+                    }
+                    e.prevZ = tail;
+                    tail = e;
+                }
+                p = q;
+            }
+            tail.nextZ = null;
+            inSize *= 2;
+        }
+        while (numMerges > 1);
+        return list;
+    }
+
+    /**
+     * Compute the z-order of a point, given the coordinates and the
+     * inverse of the size of the bounding box
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param minX The minimum x-coordinate
+     * @param minY The minimum y-coordinate
+     * @param invSize The inverse size
+     * @return The z-order value
+     */
+    private static int zOrder(
+        double x, double y, double minX, double minY, double invSize)
+    {
+        // Coordinates are transformed into non-negative 15-bit integers
+        int ix = (int) ((x - minX) * invSize);
+        int iy = (int) ((y - minY) * invSize);
+        ix = (ix | (ix << 8)) & 0x00FF00FF;
+        ix = (ix | (ix << 4)) & 0x0F0F0F0F;
+        ix = (ix | (ix << 2)) & 0x33333333;
+        ix = (ix | (ix << 1)) & 0x55555555;
+        iy = (iy | (iy << 8)) & 0x00FF00FF;
+        iy = (iy | (iy << 4)) & 0x0F0F0F0F;
+        iy = (iy | (iy << 2)) & 0x33333333;
+        iy = (iy | (iy << 1)) & 0x55555555;
+        return ix | (iy << 1);
+    }
+
+    /**
+     * Find the leftmost node of a polygon ring
+     *
+     * @param start The start node
+     * @return The leftmost node
+     */
+    private static Node getLeftmost(Node start)
+    {
+        Node p = start;
+        Node leftmost = start;
+        do
+        {
+            if (p.x < leftmost.x || (p.x == leftmost.x && p.y < leftmost.y))
+            {
+                leftmost = p;
+            }
+            p = p.next;
+        }
+        while (p != start);
+        return leftmost;
+    }
+
+    /**
+     * Check whether a point lies within a convex triangle
+     *
+     * @param ax The x-coordinate of the first triangle vertex
+     * @param ay The y-coordinate of the first triangle vertex
+     * @param bx The x-coordinate of the second triangle vertex
+     * @param by The y-coordinate of the second triangle vertex
+     * @param cx The x-coordinate of the third triangle vertex
+     * @param cy The y-coordinate of the third triangle vertex
+     * @param px The x-coordinate of the point
+     * @param py The y-coordinate of the point
+     * @return Whether the point is in the triangle
+     */
+    private static boolean pointInTriangle(double ax, double ay,
+        double bx, double by, double cx, double cy, double px, double py)
+    {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+            && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+            && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    /**
+     * Check whether a point lies within a convex triangle, but is not
+     * equal to its first vertex
+     *
+     * @param ax The x-coordinate of the first triangle vertex
+     * @param ay The y-coordinate of the first triangle vertex
+     * @param bx The x-coordinate of the second triangle vertex
+     * @param by The y-coordinate of the second triangle vertex
+     * @param cx The x-coordinate of the third triangle vertex
+     * @param cy The y-coordinate of the third triangle vertex
+     * @param px The x-coordinate of the point
+     * @param py The y-coordinate of the point
+     * @return Whether the point is in the triangle
+     */
+    private static boolean pointInTriangleExceptFirst(double ax, double ay,
+        double bx, double by, double cx, double cy, double px, double py)
+    {
+        return !(ax == px && ay == py)
+            && pointInTriangle(ax, ay, bx, by, cx, cy, px, py);
+    }
+
+    /**
+     * Check whether a diagonal between two polygon nodes is valid,
+     * meaning that it lies in the polygon interior
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return Whether the diagonal is valid
+     */
+    private static boolean isValidDiagonal(Node a, Node b)
+    {
+        // The diagonal may not intersect other edges
+        if (a.next.i == b.i || a.prev.i == b.i || intersectsPolygon(a, b))
+        {
+            return false;
+        }
+        // Locally visible, and not opposite-facing sectors
+        if (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b)
+            && (area(a.prev, a, b.prev) != 0 || area(a, b.prev, b) != 0))
+        {
+            return true;
+        }
+        // Special zero-length case
+        return equals(a, b) && area(a.prev, a, a.next) > 0
+            && area(b.prev, b, b.next) > 0;
+    }
+
+    /**
+     * Compute the signed area of a triangle
+     *
+     * @param p The first node
+     * @param q The second node
+     * @param r The third node
+     * @return The signed area
+     */
+    private static double area(Node p, Node q, Node r)
+    {
+        return (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+    }
+
+    /**
+     * Check whether the given nodes have equal coordinates
+     *
+     * @param p1 The first node
+     * @param p2 The second node
+     * @return Whether the nodes are equal
+     */
+    private static boolean equals(Node p1, Node p2)
+    {
+        return p1.x == p2.x && p1.y == p2.y;
+    }
+
+    /**
+     * Check whether two segments intersect
+     *
+     * @param p1 The start of the first segment
+     * @param q1 The end of the first segment
+     * @param p2 The start of the second segment
+     * @param q2 The end of the second segment
+     * @return Whether the segments intersect
+     */
+    private static boolean intersects(Node p1, Node q1, Node p2, Node q2)
+    {
+        double o1 = Math.signum(area(p1, q1, p2));
+        double o2 = Math.signum(area(p1, q1, q2));
+        double o3 = Math.signum(area(p2, q2, p1));
+        double o4 = Math.signum(area(p2, q2, q1));
+        if (o1 != o2 && o3 != o4)
+        {
+            // General case
+            return true;
+        }
+        // Collinear cases
+        if (o1 == 0 && onSegment(p1, p2, q1))
+        {
+            return true;
+        }
+        if (o2 == 0 && onSegment(p1, q2, q1))
+        {
+            return true;
+        }
+        if (o3 == 0 && onSegment(p2, p1, q2))
+        {
+            return true;
+        }
+        if (o4 == 0 && onSegment(p2, q1, q2))
+        {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * For collinear points p, q, r, check whether point q lies on the
+     * segment pr
+     *
+     * @param p The first node
+     * @param q The second node
+     * @param r The third node
+     * @return Whether q lies on pr
+     */
+    private static boolean onSegment(Node p, Node q, Node r)
+    {
+        return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x)
+            && q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+    }
+
+    /**
+     * Check whether a polygon diagonal intersects any polygon segments
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return Whether the diagonal intersects the polygon
+     */
+    private static boolean intersectsPolygon(Node a, Node b)
+    {
+        Node p = a;
+        do
+        {
+            if (p.i != a.i && p.next.i != a.i && p.i != b.i
+                && p.next.i != b.i && intersects(p, p.next, a, b))
+            {
+                return true;
+            }
+            p = p.next;
+        }
+        while (p != a);
+        return false;
+    }
+
+    /**
+     * Check whether a polygon diagonal is locally inside the polygon
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return Whether the diagonal is locally inside
+     */
+    private static boolean locallyInside(Node a, Node b)
+    {
+        if (area(a.prev, a, a.next) < 0)
+        {
+            return area(a, b, a.next) >= 0 && area(a, a.prev, b) >= 0;
+        }
+        return area(a, b, a.prev) < 0 || area(a, a.next, b) < 0;
+    }
+
+    /**
+     * Check whether the middle point of a polygon diagonal is inside
+     * the polygon
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return Whether the middle point is inside
+     */
+    private static boolean middleInside(Node a, Node b)
+    {
+        Node p = a;
+        boolean inside = false;
+        double px = (a.x + b.x) / 2;
+        double py = (a.y + b.y) / 2;
+        do
+        {
+            if (((p.y > py) != (p.next.y > py)) && p.next.y != p.y
+                && (px < (p.next.x - p.x) * (py - p.y)
+                    / (p.next.y - p.y) + p.x))
+            {
+                inside = !inside;
+            }
+            p = p.next;
+        }
+        while (p != a);
+        return inside;
+    }
+
+    /**
+     * Link two polygon vertices with a bridge. If the vertices belong
+     * to the same ring, it splits the polygon into two. If one belongs
+     * to the outer ring and another to a hole, it merges it into a
+     * single ring.
+     *
+     * @param a The first node
+     * @param b The second node
+     * @return The node that was created for b
+     */
+    private static Node splitPolygon(Node a, Node b)
+    {
+        Node a2 = new Node(a.i, a.x, a.y);
+        Node b2 = new Node(b.i, b.x, b.y);
+        Node an = a.next;
+        Node bp = b.prev;
+        a.next = b;
+        b.prev = a;
+        a2.next = an;
+        an.prev = a2;
+        b2.next = a2;
+        a2.prev = b2;
+        bp.next = b2;
+        b2.prev = bp;
+        return b2;
+    }
+
+    /**
+     * Create a node and insert it after the given node, if present
+     *
+     * @param i The vertex index
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param last The node to insert after. May be <code>null</code>.
+     * @return The new node
+     */
+    private static Node insertNode(int i, double x, double y, Node last)
+    {
+        Node p = new Node(i, x, y);
+        if (last == null)
+        {
+            p.prev = p;
+            p.next = p;
+        }
+        else
+        {
+            p.next = last.next;
+            p.prev = last;
+            last.next.prev = p;
+            last.next = p;
+        }
+        return p;
+    }
+
+    /**
+     * Remove the given node from its lists
+     *
+     * @param p The node
+     */
+    private static void removeNode(Node p)
+    {
+        p.next.prev = p.prev;
+        p.prev.next = p.next;
+        if (p.prevZ != null)
+        {
+            p.prevZ.nextZ = p.nextZ;
+        }
+        if (p.nextZ != null)
+        {
+            p.nextZ.prevZ = p.prevZ;
+        }
+    }
+
+    /**
+     * Compute the signed area of the specified polygon ring, in the
+     * orientation that is used by this class
+     *
+     * @param coordinates The coordinates
+     * @param start The start vertex index, inclusive
+     * @param end The end vertex index, exclusive
+     * @return The signed area
+     */
+    private static double signedArea(
+        double coordinates[], int start, int end)
+    {
+        double sum = 0;
+        for (int i = start, j = end - 1; i < end; i++)
+        {
+            sum += (coordinates[j * 2 + 0] - coordinates[i * 2 + 0])
+                * (coordinates[i * 2 + 1] + coordinates[j * 2 + 1]);
+            j = i;
+        }
+        return sum;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private EarClipping()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
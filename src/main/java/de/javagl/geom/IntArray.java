@@ -0,0 +1,120 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.util.Arrays;
+
+/**
+ * A simple growable array of <code>int</code> values
+ */
+final class IntArray
+{
+    /**
+     * The values
+     */
+    private int values[];
+
+    /**
+     * The number of values
+     */
+    private int size;
+
+    /**
+     * Creates a new array with the given initial capacity
+     *
+     * @param capacity The initial capacity
+     */
+    IntArray(int capacity)
+    {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Add the given value to this array
+     *
+     * @param value The value
+     */
+    void add(int value)
+    {
+        if (size == values.length)
+        {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Returns the value at the given index
+     *
+     * @param index The index
+     * @return The value
+     */
+    int get(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Set the value at the given index
+     *
+     * @param index The index
+     * @param value The value
+     */
+    void set(int index, int value)
+    {
+        values[index] = value;
+    }
+
+    /**
+     * Returns the number of values in this array
+     *
+     * @return The size
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remove all values from this array
+     */
+    void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Returns a new array containing the values of this array
+     *
+     * @return The array
+     */
+    int[] toArray()
+    {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.IllegalPathStateException;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+
+/**
+ * A path that only consists of line segments, stored in packed arrays.<br>
+ * <br>
+ * The coordinates of all points are stored in a single
+ * <code>double[]</code> array, as consecutive <code>(x,y)</code> pairs.
+ * The path is divided into sub-paths, each starting with a
+ * {@link #moveTo(double, double)} call, and each of them optionally
+ * being closed with {@link #closePath()}. The first and the last point
+ * of a closed sub-path are <b>not</b> stored twice: When a sub-path 
+ * is closed, and its last point is equal to its first point (as it is
+ * the case for the explicit closing segments that are emitted by
+ * many <code>Shape</code> implementations), then the last point is
+ * removed.<br>
+ * <br>
+ * This class is intended as a lightweight representation of flattened
+ * shapes, polylines and polygon rings, that does not require a
+ * <code>Point2D</code> object for each point. Instances of this class
+ * can be re-used by calling {@link #clear()}, which will keep the
+ * internal arrays.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public final class PackedPath
+{
+    /**
+     * The default initial number of points
+     */
+    private static final int DEFAULT_POINT_CAPACITY = 16;
+
+    /**
+     * The default initial number of sub-paths
+     */
+    private static final int DEFAULT_SUB_PATH_CAPACITY = 4;
+
+    /**
+     * The coordinates, as consecutive (x,y) pairs
+     */
+    private double coordinates[];
+
+    /**
+     * The number of points
+     */
+    private int numPoints;
+
+    /**
+     * The indices of the points where the sub-paths start
+     */
+    private int subPathStarts[];
+
+    /**
+     * The flags indicating whether the sub-paths are closed
+     */
+    private boolean subPathClosed[];
+
+    /**
+     * The number of sub-paths
+     */
+    private int numSubPaths;
+
+    /**
+     * Creates a new, empty packed path
+     */
+    public PackedPath()
+    {
+        this(DEFAULT_POINT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty packed path that can store the given number
+     * of points before its internal storage has to be resized
+     *
+     * @param pointCapacity The initial point capacity
+     * @throws IllegalArgumentException If the given capacity is negative
+     */
+    public PackedPath(int pointCapacity)
+    {
+        if (pointCapacity < 0)
+        {
+            throw new IllegalArgumentException(
+                "The capacity may not be negative, but is " + pointCapacity);
+        }
+        this.coordinates = new double[pointCapacity * 2];
+        this.subPathStarts = new int[DEFAULT_SUB_PATH_CAPACITY];
+        this.subPathClosed = new boolean[DEFAULT_SUB_PATH_CAPACITY];
+    }
+
+    /**
+     * Remove all points and sub-paths from this path. The internal
+     * storage will be kept, so that this instance can be re-used
+     * without new allocations.
+     */
+    public void clear()
+    {
+        numPoints = 0;
+        numSubPaths = 0;
+    }
+
+    /**
+     * Returns the given path after {@link #clear() clearing} it, or a 
+     * new path if the given path is <code>null</code>. This is intended 
+     * for methods that receive an optional result path.
+     * 
+     * @param result The optional result
+     * @return The path
+     */
+    static PackedPath prepare(PackedPath result)
+    {
+        if (result == null)
+        {
+            return new PackedPath();
+        }
+        result.clear();
+        return result;
+    }
+
+    /**
+     * Start a new sub-path at the given point
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    public void moveTo(double x, double y)
+    {
+        ensureSubPathCapacity(numSubPaths + 1);
+        subPathStarts[numSubPaths] = numPoints;
+        subPathClosed[numSubPaths] = false;
+        numSubPaths++;
+        addPoint(x, y);
+    }
+
+    /**
+     * Add the given point to the current sub-path. If the current
+     * sub-path was already closed, then a new sub-path will be started
+     * at the first point of the closed sub-path, as it is done in
+     * <code>Path2D</code>
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @throws IllegalPathStateException If there is no current sub-path
+     */
+    public void lineTo(double x, double y)
+    {
+        if (numSubPaths == 0)
+        {
+            throw new IllegalPathStateException("missing initial moveto");
+        }
+        int current = numSubPaths - 1;
+        if (subPathClosed[current])
+        {
+            int start = subPathStarts[current];
+            moveTo(coordinates[start * 2 + 0], coordinates[start * 2 + 1]);
+        }
+        addPoint(x, y);
+    }
+
+    /**
+     * Close the current sub-path. If the last point of the sub-path is
+     * equal to its first point, then the last point will be removed.
+     * If there is no current sub-path, or it already was closed, then 
+     * this call has no effect.
+     */
+    public void closePath()
+    {
+        if (numSubPaths == 0)
+        {
+            return;
+        }
+        int current = numSubPaths - 1;
+        if (subPathClosed[current])
+        {
+            return;
+        }
+        int start = subPathStarts[current];
+        int last = numPoints - 1;
+        if (last > start && 
+            coordinates[last * 2 + 0] == coordinates[start * 2 + 0] &&
+            coordinates[last * 2 + 1] == coordinates[start * 2 + 1])
+        {
+            numPoints--;
+        }
+        subPathClosed[current] = true;
+    }
+
+    /**
+     * Append all points and sub-paths of the given path to this path. 
+     * The sub-paths keep their closed state. 
+     *
+     * @param path The path to append
+     * @throws IllegalArgumentException If the given path is this path
+     */
+    public void append(PackedPath path)
+    {
+        if (path == this)
+        {
+            throw new IllegalArgumentException(
+                "Can not append a path to itself");
+        }
+        int offset = numPoints;
+        ensurePointCapacity(numPoints + path.numPoints);
+        System.arraycopy(path.coordinates, 0, 
+            coordinates, numPoints * 2, path.numPoints * 2);
+        numPoints += path.numPoints;
+        ensureSubPathCapacity(numSubPaths + path.numSubPaths);
+        for (int s = 0; s < path.numSubPaths; s++)
+        {
+            subPathStarts[numSubPaths] = path.subPathStarts[s] + offset;
+            subPathClosed[numSubPaths] = path.subPathClosed[s];
+            numSubPaths++;
+        }
+    }
+
+    /**
+     * Add the given point to the coordinates array
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void addPoint(double x, double y)
+    {
+        ensurePointCapacity(numPoints + 1);
+        coordinates[numPoints * 2 + 0] = x;
+        coordinates[numPoints * 2 + 1] = y;
+        numPoints++;
+    }
+
+    /**
+     * Make sure that the coordinates array can store the given number
+     * of points
+     *
+     * @param n The number of points
+     */
+    private void ensurePointCapacity(int n)
+    {
+        if (n * 2 > coordinates.length)
+        {
+            int newLength = Math.max(n * 2, coordinates.length * 2);
+            coordinates = Arrays.copyOf(coordinates, newLength);
+        }
+    }
+
+    /**
+     * Make sure that the sub-path arrays can store the given number
+     * of sub-paths
+     *
+     * @param n The number of sub-paths
+     */
+    private void ensureSubPathCapacity(int n)
+    {
+        if (n > subPathStarts.length)
+        {
+            int newLength = Math.max(n, subPathStarts.length * 2);
+            subPathStarts = Arrays.copyOf(subPathStarts, newLength);
+            subPathClosed = Arrays.copyOf(subPathClosed, newLength);
+        }
+    }
+
+    /**
+     * Returns the number of points in this path
+     *
+     * @return The number of points
+     */
+    public int getNumPoints()
+    {
+        return numPoints;
+    }
+
+    /**
+     * Returns the x-coordinate of the specified point
+     *
+     * @param index The index of the point
+     * @return The x-coordinate
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumPoints() number of points}
+     */
+    public double getX(int index)
+    {
+        checkPointIndex(index);
+        return coordinates[index * 2 + 0];
+    }
+
+    /**
+     * Returns the y-coordinate of the specified point
+     *
+     * @param index The index of the point
+     * @return The y-coordinate
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumPoints() number of points}
+     */
+    public double getY(int index)
+    {
+        checkPointIndex(index);
+        return coordinates[index * 2 + 1];
+    }
+
+    /**
+     * Make sure that the given index is a valid point index
+     *
+     * @param index The index
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    private void checkPointIndex(int index)
+    {
+        if (index < 0 || index >= numPoints)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of points is "
+                + numPoints);
+        }
+    }
+
+    /**
+     * Returns a direct reference to the internal coordinates array.
+     * This array contains the coordinates of the points as consecutive
+     * <code>(x,y)</code> pairs. The array may be <i>larger</i> than
+     * <code>2 * getNumPoints()</code>. The contents of the array beyond
+     * this range are unspecified.<br>
+     * <br>
+     * The returned array is only valid until this path is modified
+     * the next time.
+     *
+     * @return The coordinates array
+     */
+    public double[] getCoordinates()
+    {
+        return coordinates;
+    }
+
+    /**
+     * Returns a new array containing the coordinates of all points
+     * of this path, as consecutive <code>(x,y)</code> pairs
+     *
+     * @return The coordinates
+     */
+    public double[] toCoordinates()
+    {
+        return Arrays.copyOf(coordinates, numPoints * 2);
+    }
+
+    /**
+     * Returns the number of sub-paths in this path
+     *
+     * @return The number of sub-paths
+     */
+    public int getNumSubPaths()
+    {
+        return numSubPaths;
+    }
+
+    /**
+     * Returns the index of the first point of the specified sub-path
+     *
+     * @param subPathIndex The index of the sub-path
+     * @return The index of the first point (inclusive)
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumSubPaths() number of sub-paths}
+     */
+    public int getSubPathStart(int subPathIndex)
+    {
+        checkSubPathIndex(subPathIndex);
+        return subPathStarts[subPathIndex];
+    }
+
+    /**
+     * Returns the index of the point after the last point of the
+     * specified sub-path
+     *
+     * @param subPathIndex The index of the sub-path
+     * @return The index of the last point (exclusive)
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumSubPaths() number of sub-paths}
+     */
+    public int getSubPathEnd(int subPathIndex)
+    {
+        checkSubPathIndex(subPathIndex);
+        if (subPathIndex == numSubPaths - 1)
+        {
+            return numPoints;
+        }
+        return subPathStarts[subPathIndex + 1];
+    }
+
+    /**
+     * Returns whether the specified sub-path is closed
+     *
+     * @param subPathIndex The index of the sub-path
+     * @return Whether the sub-path is closed
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumSubPaths() number of sub-paths}
+     */
+    public boolean isSubPathClosed(int subPathIndex)
+    {
+        checkSubPathIndex(subPathIndex);
+        return subPathClosed[subPathIndex];
+    }
+
+    /**
+     * Make sure that the given index is a valid sub-path index
+     *
+     * @param subPathIndex The index
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    private void checkSubPathIndex(int subPathIndex)
+    {
+        if (subPathIndex < 0 || subPathIndex >= numSubPaths)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + subPathIndex + ", but number of sub-paths is "
+                + numSubPaths);
+        }
+    }
+
+    /**
+     * Creates a new path that contains the line segments of this path
+     *
+     * @return The path
+     */
+    public Path2D toPath()
+    {
+        Path2D path = new Path2D.Double(
+            Path2D.WIND_NON_ZERO, numPoints + numSubPaths);
+        for (int s = 0; s < numSubPaths; s++)
+        {
+            int start = subPathStarts[s];
+            int end = getSubPathEnd(s);
+            path.moveTo(coordinates[start * 2 + 0], coordinates[start * 2 + 1]);
+            for (int i = start + 1; i < end; i++)
+            {
+                path.lineTo(coordinates[i * 2 + 0], coordinates[i * 2 + 1]);
+            }
+            if (subPathClosed[s])
+            {
+                path.closePath();
+            }
+        }
+        return path;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PackedPath[numPoints=" + numPoints
+            + ",numSubPaths=" + numSubPaths + "]";
+    }
+}
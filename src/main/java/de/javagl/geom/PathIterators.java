@@ -55,6 +55,62 @@ public class PathIterators
         return new DeltaPathIterator(delegate, maxDelta);
     }
     
+    /**
+     * Creates a path iterator over the given shape that only consists of
+     * line segments, and ensures that no two consecutive points have a 
+     * distance that is larger than the given delta.<br>
+     * <br>
+     * In contrast to {@link #createDeltaPathIterator(Shape, double, double)},
+     * this does not flatten the shape first. Instead, each segment of the
+     * shape, including quadratic and cubic curves, is divided into the 
+     * smallest number of steps with equal arc length that are not longer
+     * than the given delta. The resulting points are computed directly on
+     * the curves, so they are equidistant along each segment.
+     * 
+     * @param shape The shape
+     * @param maxDelta The maximum arc length between two points
+     * @return The path iterator
+     * @throws IllegalArgumentException If the given delta is not positive
+     */
+    public static PathIterator createCurveDeltaPathIterator(
+        Shape shape, double maxDelta)
+    {
+        if (!(maxDelta > 0))
+        {
+            throw new IllegalArgumentException(
+                "The delta must be positive, but is " + maxDelta);
+        }
+        PathIterator delegate = shape.getPathIterator(null);
+        return new CurveDeltaPathIterator(delegate, maxDelta);
+    }
+    
+    /**
+     * Returns the number of coordinates that are stored for the given
+     * segment type by <code>PathIterator#currentSegment</code>. For 
+     * <code>SEG_CLOSE</code> and invalid segment types, this is 0.
+     * 
+     * @param segment The segment type
+     * @return The number of coordinates
+     */
+    static int getNumCoordinates(int segment)
+    {
+        switch (segment)
+        {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                return 2;
+                
+            case PathIterator.SEG_QUADTO:
+                return 4;
+                
+            case PathIterator.SEG_CUBICTO:
+                return 6;
+                
+            default:
+                return 0;
+        }
+    }
+    
     /**
      * Private constructor to prevent instantiation
      */
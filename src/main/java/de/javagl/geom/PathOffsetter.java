@@ -0,0 +1,460 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.BasicStroke;
+import java.util.Arrays;
+
+/**
+ * Package-private class for building the raw offset curves of polygon
+ * rings and polylines.<br>
+ * <br>
+ * The raw offset curve of a ring is built in a single pass over its 
+ * vertices: Each edge is moved by the offset distance along its normal. 
+ * At corners where the moved edges do not meet, a join is inserted. 
+ * At the other corners, the moved edges are connected via the original
+ * vertex. The resulting curves may intersect themselves, but the 
+ * region where their winding number is positive is the offset region.
+ */
+final class PathOffsetter
+{
+    /**
+     * The threshold for the sine of the angle between two edges, below 
+     * which the edges are considered to be collinear
+     */
+    private static final double COLLINEAR_EPSILON = 1e-12;
+    
+    /**
+     * The offset distance
+     */
+    private final double distance;
+    
+    /**
+     * The join type, one of the <code>BasicStroke.JOIN_*</code> constants
+     */
+    private final int join;
+    
+    /**
+     * The cap type, one of the <code>BasicStroke.CAP_*</code> constants
+     */
+    private final int cap;
+    
+    /**
+     * The miter limit, relative to the distance
+     */
+    private final double miterLimit;
+    
+    /**
+     * The maximum angle step for approximating arcs
+     */
+    private final double arcStep;
+    
+    /**
+     * The path that receives the raw offset curves
+     */
+    private final PackedPath output;
+    
+    /**
+     * The points of the current ring or polyline, without consecutive
+     * duplicates, as (x,y) pairs
+     */
+    private double points[];
+    
+    /**
+     * The number of points of the current ring or polyline
+     */
+    private int numPoints;
+    
+    /**
+     * Whether a sub-path has already been started in the output
+     */
+    private boolean started;
+    
+    /**
+     * The x-coordinate of the last point that was added to the output
+     */
+    private double lastX;
+
+    /**
+     * The y-coordinate of the last point that was added to the output
+     */
+    private double lastY;
+    
+    /**
+     * Creates a new offsetter
+     * 
+     * @param distance The offset distance
+     * @param join The join type
+     * @param cap The cap type
+     * @param miterLimit The miter limit
+     * @param flatness The maximum distance between arcs and the line
+     * segments that approximate them
+     * @param output The path that will receive the raw offset curves
+     */
+    PathOffsetter(double distance, int join, int cap, 
+        double miterLimit, double flatness, PackedPath output)
+    {
+        this.distance = distance;
+        this.join = join;
+        this.cap = cap;
+        this.miterLimit = miterLimit;
+        this.arcStep = computeArcStep(Math.abs(distance), flatness);
+        this.output = output;
+        this.points = new double[32];
+    }
+    
+    /**
+     * Compute the maximum angle step for approximating an arc with the
+     * given radius with line segments, so that the distance between 
+     * the arc and the segments is at most the given flatness
+     * 
+     * @param radius The radius
+     * @param flatness The flatness
+     * @return The angle step
+     */
+    private static double computeArcStep(double radius, double flatness)
+    {
+        double maxStep = Math.PI / 2;
+        if (flatness >= radius)
+        {
+            return maxStep;
+        }
+        double step = 2 * Math.acos(1 - flatness / radius);
+        return Math.max(1e-3, Math.min(maxStep, step));
+    }
+    
+    /**
+     * Add the raw offset curve of the specified ring to the output.
+     * Positive distances move the edges to their right side, which 
+     * is the outside of counterclockwise rings.
+     * 
+     * @param coordinates The coordinates, as (x,y) pairs
+     * @param start The index of the first point of the ring
+     * @param end The index after the last point of the ring
+     * @param reverse Whether the ring should be traversed in reverse
+     */
+    void offsetRing(double coordinates[], int start, int end, 
+        boolean reverse)
+    {
+        offsetRing(coordinates, start, end, reverse, distance);
+    }
+    
+    /**
+     * Add the raw offset curve of the specified ring to the output,
+     * using the given distance
+     * 
+     * @param coordinates The coordinates, as (x,y) pairs
+     * @param start The index of the first point of the ring
+     * @param end The index after the last point of the ring
+     * @param reverse Whether the ring should be traversed in reverse
+     * @param d The distance
+     */
+    private void offsetRing(double coordinates[], int start, int end, 
+        boolean reverse, double d)
+    {
+        collectPoints(coordinates, start, end, reverse, true);
+        if (numPoints < 3)
+        {
+            return;
+        }
+        started = false;
+        for (int i = 0; i < numPoints; i++)
+        {
+            int prev = (i + numPoints - 1) % numPoints;
+            int next = (i + 1) % numPoints;
+            addVertex(prev, i, next, d);
+        }
+        output.closePath();
+    }
+    
+    /**
+     * Add the raw outline of the region that is covered by a stroke 
+     * with half of the width given by the absolute distance along the 
+     * specified polyline to the output.
+     * 
+     * @param coordinates The coordinates, as (x,y) pairs
+     * @param start The index of the first point of the polyline
+     * @param end The index after the last point of the polyline
+     * @param closed Whether the polyline is closed
+     */
+    void bufferPolyline(double coordinates[], int start, int end, 
+        boolean closed)
+    {
+        double d = Math.abs(distance);
+        collectPoints(coordinates, start, end, false, closed);
+        if (closed && numPoints >= 3)
+        {
+            double area = Rings.computeSignedArea(points, 0, numPoints);
+            boolean reverse = area < 0;
+            offsetRing(coordinates, start, end, reverse, d);
+            offsetRing(coordinates, start, end, !reverse, d);
+            return;
+        }
+        if (numPoints == 1)
+        {
+            addSinglePointCap(d);
+            return;
+        }
+        started = false;
+        int n = numPoints;
+        addCap(n - 2, n - 1, d);
+        for (int i = n - 2; i > 0; i--)
+        {
+            addVertex(i + 1, i, i - 1, d);
+        }
+        addCap(1, 0, d);
+        for (int i = 1; i < n - 1; i++)
+        {
+            addVertex(i - 1, i, i + 1, d);
+        }
+        output.closePath();
+    }
+    
+    /**
+     * Collect the specified points in the {@link #points} array, 
+     * omitting consecutive duplicates
+     * 
+     * @param coordinates The coordinates, as (x,y) pairs
+     * @param start The index of the first point
+     * @param end The index after the last point
+     * @param reverse Whether the points should be collected in 
+     * reverse order
+     * @param closed Whether the last point should be omitted if it is
+     * equal to the first point
+     */
+    private void collectPoints(double coordinates[], int start, int end,
+        boolean reverse, boolean closed)
+    {
+        int n = end - start;
+        if (points.length < n * 2)
+        {
+            points = Arrays.copyOf(points, n * 2);
+        }
+        numPoints = 0;
+        for (int k = 0; k < n; k++)
+        {
+            int i = reverse ? end - 1 - k : start + k;
+            double x = coordinates[i * 2 + 0];
+            double y = coordinates[i * 2 + 1];
+            if (numPoints > 0 && 
+                x == points[numPoints * 2 - 2] && 
+                y == points[numPoints * 2 - 1])
+            {
+                continue;
+            }
+            points[numPoints * 2 + 0] = x;
+            points[numPoints * 2 + 1] = y;
+            numPoints++;
+        }
+        if (closed && numPoints > 1 && 
+            points[0] == points[numPoints * 2 - 2] && 
+            points[1] == points[numPoints * 2 - 1])
+        {
+            numPoints--;
+        }
+    }
+    
+    /**
+     * Add the offset points for the specified vertex to the output
+     * 
+     * @param prev The index of the previous point
+     * @param current The index of the vertex
+     * @param next The index of the next point
+     * @param d The distance
+     */
+    private void addVertex(int prev, int current, int next, double d)
+    {
+        double cx = points[current * 2 + 0];
+        double cy = points[current * 2 + 1];
+        double ux0 = cx - points[prev * 2 + 0];
+        double uy0 = cy - points[prev * 2 + 1];
+        double ux1 = points[next * 2 + 0] - cx;
+        double uy1 = points[next * 2 + 1] - cy;
+        double len0 = Math.hypot(ux0, uy0);
+        double len1 = Math.hypot(ux1, uy1);
+        ux0 /= len0;
+        uy0 /= len0;
+        ux1 /= len1;
+        uy1 /= len1;
+        
+        // The right normals of the edges, scaled with the distance
+        double ax = uy0 * d;
+        double ay = -ux0 * d;
+        double bx = uy1 * d;
+        double by = -ux1 * d;
+        
+        double cross = ux0 * uy1 - uy0 * ux1;
+        double dot = ux0 * ux1 + uy0 * uy1;
+        if (Math.abs(cross) < COLLINEAR_EPSILON && dot > 0)
+        {
+            add(cx + ax, cy + ay);
+            return;
+        }
+        boolean reversal = Math.abs(cross) < COLLINEAR_EPSILON;
+        if (!reversal && cross * d < 0)
+        {
+            // The moved edges overlap: Connect them via the vertex
+            add(cx + ax, cy + ay);
+            add(cx, cy);
+            add(cx + bx, cy + by);
+            return;
+        }
+        if (join == BasicStroke.JOIN_ROUND)
+        {
+            double angle = reversal ? 
+                Math.copySign(Math.PI, d) : Math.atan2(cross, dot);
+            addArc(cx, cy, ax, ay, bx, by, angle);
+        }
+        else if (join == BasicStroke.JOIN_MITER && !reversal && 
+            Math.sqrt(2 / (1 + dot)) <= miterLimit)
+        {
+            double s = 1 / (1 + dot);
+            add(cx + (ax + bx) * s, cy + (ay + by) * s);
+        }
+        else
+        {
+            add(cx + ax, cy + ay);
+            add(cx + bx, cy + by);
+        }
+    }
+    
+    /**
+     * Add the cap at the end of the specified segment to the output
+     * 
+     * @param prev The index of the start point of the segment
+     * @param current The index of the end point of the segment
+     * @param d The (positive) distance
+     */
+    private void addCap(int prev, int current, double d)
+    {
+        double cx = points[current * 2 + 0];
+        double cy = points[current * 2 + 1];
+        double ux = cx - points[prev * 2 + 0];
+        double uy = cy - points[prev * 2 + 1];
+        double len = Math.hypot(ux, uy);
+        ux = ux * d / len;
+        uy = uy * d / len;
+        
+        // The right normal, scaled with the distance
+        double nx = uy;
+        double ny = -ux;
+        if (cap == BasicStroke.CAP_ROUND)
+        {
+            addArc(cx, cy, nx, ny, -nx, -ny, Math.PI);
+        }
+        else if (cap == BasicStroke.CAP_SQUARE)
+        {
+            add(cx + nx, cy + ny);
+            add(cx + nx + ux, cy + ny + uy);
+            add(cx - nx + ux, cy - ny + uy);
+            add(cx - nx, cy - ny);
+        }
+        else
+        {
+            add(cx + nx, cy + ny);
+            add(cx - nx, cy - ny);
+        }
+    }
+    
+    /**
+     * Add the cap for a polyline that consists of a single point 
+     * to the output
+     * 
+     * @param d The (positive) distance
+     */
+    private void addSinglePointCap(double d)
+    {
+        double cx = points[0];
+        double cy = points[1];
+        if (cap == BasicStroke.CAP_ROUND)
+        {
+            started = false;
+            addArc(cx, cy, d, 0, -d, 0, Math.PI);
+            addArc(cx, cy, -d, 0, d, 0, Math.PI);
+            output.closePath();
+        }
+        else if (cap == BasicStroke.CAP_SQUARE)
+        {
+            started = false;
+            add(cx - d, cy - d);
+            add(cx + d, cy - d);
+            add(cx + d, cy + d);
+            add(cx - d, cy + d);
+            output.closePath();
+        }
+    }
+    
+    /**
+     * Add an arc around the given center to the output. The arc starts 
+     * at the center plus the given start vector, and is rotated by the 
+     * given angle until it ends at the center plus the given end vector.
+     * 
+     * @param cx The x-coordinate of the center
+     * @param cy The y-coordinate of the center
+     * @param sx The x-component of the start vector
+     * @param sy The y-component of the start vector
+     * @param ex The x-component of the end vector
+     * @param ey The y-component of the end vector
+     * @param angle The angle, in radians
+     */
+    private void addArc(double cx, double cy, 
+        double sx, double sy, double ex, double ey, double angle)
+    {
+        add(cx + sx, cy + sy);
+        int steps = (int) Math.ceil(Math.abs(angle) / arcStep);
+        for (int i = 1; i < steps; i++)
+        {
+            double a = angle * i / steps;
+            double cos = Math.cos(a);
+            double sin = Math.sin(a);
+            add(cx + sx * cos - sy * sin, cy + sx * sin + sy * cos);
+        }
+        add(cx + ex, cy + ey);
+    }
+    
+    /**
+     * Add the given point to the output, starting a new sub-path if
+     * necessary, and omitting it if it is equal to the previous point
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void add(double x, double y)
+    {
+        if (!started)
+        {
+            output.moveTo(x, y);
+            started = true;
+        }
+        else if (x != lastX || y != lastY)
+        {
+            output.lineTo(x, y);
+        }
+        lastX = x;
+        lastY = y;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+
+/**
+ * A single segment of a path, as it is provided by the streams that are
+ * created with {@link Shapes#createSegmentStream(Shape, boolean)}.<br>
+ * <br>
+ * A segment consists of a start point, an end point and, for quadratic
+ * and cubic segments, the control points between them. Unlike the 
+ * <code>PathIterator</code> protocol, the start point is always 
+ * available. A <code>SEG_CLOSE</code> segment is the line from the 
+ * current point back to the start point of the sub-path.<br>
+ * <br>
+ * Instances of this class are <b>reused</b>: A stream or spliterator 
+ * passes the same instance to the consumer for each segment, and 
+ * updates it with the data of the next segment afterwards. This allows
+ * operations like computing the total area or length of a shape without
+ * any per-segment allocations, but it also means that an instance may 
+ * not be stored or collected. Only the primitive values that are 
+ * obtained from an instance may be used after the consumer returned.
+ */
+public final class PathSegment
+{
+    /**
+     * The nodes of the 3-point Gauss-Legendre quadrature, mapped to [0,1]
+     */
+    private static final double GAUSS_NODES[] = 
+    {
+        0.5 - 0.5 * Math.sqrt(0.6), 
+        0.5, 
+        0.5 + 0.5 * Math.sqrt(0.6)
+    };
+    
+    /**
+     * The weights of the 3-point Gauss-Legendre quadrature, mapped to [0,1]
+     */
+    private static final double GAUSS_WEIGHTS[] = 
+    {
+        5.0 / 18.0, 
+        8.0 / 18.0, 
+        5.0 / 18.0
+    };
+    
+    /**
+     * The index of the sub-path that this segment belongs to
+     */
+    private int subPathIndex;
+    
+    /**
+     * The segment type
+     */
+    private int type;
+    
+    /**
+     * The number of points, including the start and end point
+     */
+    private int numPoints;
+    
+    /**
+     * The x-coordinates of the points
+     */
+    private final double xs[] = new double[4];
+    
+    /**
+     * The y-coordinates of the points
+     */
+    private final double ys[] = new double[4];
+    
+    /**
+     * Whether this is the last segment of a sub-path that was not 
+     * closed explicitly
+     */
+    private boolean closesImplicitly;
+    
+    /**
+     * The x-coordinate of the start point of the sub-path
+     */
+    private double subPathStartX;
+    
+    /**
+     * The y-coordinate of the start point of the sub-path
+     */
+    private double subPathStartY;
+    
+    /**
+     * The sampler for the length computation, created on demand
+     */
+    private CurveSampler sampler;
+    
+    /**
+     * The coordinates that are passed to the sampler
+     */
+    private double samplerCoords[];
+    
+    /**
+     * Creates a new, uninitialized segment
+     */
+    PathSegment()
+    {
+        // Package-private constructor
+    }
+    
+    /**
+     * Set the data of this segment
+     * 
+     * @param subPathIndex The sub-path index
+     * @param subPathStartX The x-coordinate of the sub-path start point
+     * @param subPathStartY The y-coordinate of the sub-path start point
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param type The segment type
+     * @param coords The coordinates of the segment, as they are provided
+     * by a <code>PathIterator</code>
+     * @param closesImplicitly Whether this is the last segment of a 
+     * sub-path that was not closed explicitly
+     */
+    void set(int subPathIndex, double subPathStartX, double subPathStartY,
+        double x0, double y0, int type, double coords[], 
+        boolean closesImplicitly)
+    {
+        this.subPathIndex = subPathIndex;
+        this.subPathStartX = subPathStartX;
+        this.subPathStartY = subPathStartY;
+        this.type = type;
+        this.closesImplicitly = closesImplicitly;
+        xs[0] = x0;
+        ys[0] = y0;
+        if (type == PathIterator.SEG_CLOSE)
+        {
+            numPoints = 2;
+            xs[1] = subPathStartX;
+            ys[1] = subPathStartY;
+        }
+        else
+        {
+            int n = PathIterators.getNumCoordinates(type) / 2;
+            for (int i = 0; i < n; i++)
+            {
+                xs[i + 1] = coords[i * 2 + 0];
+                ys[i + 1] = coords[i * 2 + 1];
+            }
+            numPoints = n + 1;
+        }
+    }
+    
+    /**
+     * Returns the index of the sub-path that this segment belongs to.
+     * The sub-paths are counted in the same way as in 
+     * {@link Shapes#computeSubShapeViews(Shape)}.
+     * 
+     * @return The sub-path index
+     */
+    public int getSubPathIndex()
+    {
+        return subPathIndex;
+    }
+    
+    /**
+     * Returns the type of this segment. This is one of the 
+     * <code>PathIterator</code> constants <code>SEG_LINETO</code>,
+     * <code>SEG_QUADTO</code>, <code>SEG_CUBICTO</code> or 
+     * <code>SEG_CLOSE</code>.
+     * 
+     * @return The type
+     */
+    public int getType()
+    {
+        return type;
+    }
+    
+    /**
+     * Returns the number of points of this segment. This is 2 for lines
+     * and closing segments, 3 for quadratic and 4 for cubic segments.
+     * 
+     * @return The number of points
+     */
+    public int getNumPoints()
+    {
+        return numPoints;
+    }
+    
+    /**
+     * Returns the x-coordinate of the specified point. Point 0 is the 
+     * start point, and point <code>getNumPoints()-1</code> is the end
+     * point. The points between them are the control points.
+     * 
+     * @param index The point index
+     * @return The x-coordinate
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than {@link #getNumPoints()}
+     */
+    public double getX(int index)
+    {
+        validateIndex(index);
+        return xs[index];
+    }
+    
+    /**
+     * Returns the y-coordinate of the specified point. Point 0 is the 
+     * start point, and point <code>getNumPoints()-1</code> is the end
+     * point. The points between them are the control points.
+     * 
+     * @param index The point index
+     * @return The y-coordinate
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than {@link #getNumPoints()}
+     */
+    public double getY(int index)
+    {
+        validateIndex(index);
+        return ys[index];
+    }
+    
+    /**
+     * Make sure that the given index is a valid point index
+     * 
+     * @param index The index
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    private void validateIndex(int index)
+    {
+        if (index < 0 || index >= numPoints)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of points is "
+                + numPoints);
+        }
+    }
+    
+    /**
+     * Returns whether this is the last segment of a sub-path that was 
+     * not closed with a <code>SEG_CLOSE</code> segment
+     * 
+     * @return Whether the sub-path is closed implicitly after this segment
+     */
+    public boolean isClosingImplicitly()
+    {
+        return closesImplicitly;
+    }
+    
+    /**
+     * Computes the contribution of this segment to the signed area of 
+     * the shape. If this is the last segment of a sub-path that was 
+     * not closed explicitly, then the contribution of the implicit 
+     * line back to the start point of the sub-path is included. So the
+     * sum of the results for all segments is the signed area that is
+     * enclosed by the shape, which is positive for regions where the 
+     * points are ordered counterclockwise, in the same way as in
+     * {@link Shapes#computeSignedArea(Shape, double)}. For curves, the
+     * result is exact, and does not depend on a flatness.
+     * 
+     * @return The signed area contribution
+     */
+    public double computeSignedArea()
+    {
+        double area = 0;
+        if (numPoints == 2)
+        {
+            area = 0.5 * (xs[0] * ys[1] - xs[1] * ys[0]);
+        }
+        else
+        {
+            // The integrand x*dy-y*dx of a curve with a degree of at 
+            // most 3 is a polynomial with a degree of at most 5, so the 
+            // 3-point Gauss-Legendre quadrature is exact
+            for (int i = 0; i < GAUSS_NODES.length; i++)
+            {
+                double t = GAUSS_NODES[i];
+                double u = 1.0 - t;
+                double x;
+                double y;
+                double dx;
+                double dy;
+                if (numPoints == 3)
+                {
+                    x = u * u * xs[0] + 2 * u * t * xs[1] + t * t * xs[2];
+                    y = u * u * ys[0] + 2 * u * t * ys[1] + t * t * ys[2];
+                    dx = 2 * (u * (xs[1] - xs[0]) + t * (xs[2] - xs[1]));
+                    dy = 2 * (u * (ys[1] - ys[0]) + t * (ys[2] - ys[1]));
+                }
+                else
+                {
+                    double b0 = u * u * u;
+                    double b1 = 3 * u * u * t;
+                    double b2 = 3 * u * t * t;
+                    double b3 = t * t * t;
+                    x = b0 * xs[0] + b1 * xs[1] + b2 * xs[2] + b3 * xs[3];
+                    y = b0 * ys[0] + b1 * ys[1] + b2 * ys[2] + b3 * ys[3];
+                    dx = 3 * (u * u * (xs[1] - xs[0]) + 
+                        2 * u * t * (xs[2] - xs[1]) + 
+                        t * t * (xs[3] - xs[2]));
+                    dy = 3 * (u * u * (ys[1] - ys[0]) + 
+                        2 * u * t * (ys[2] - ys[1]) + 
+                        t * t * (ys[3] - ys[2]));
+                }
+                area += GAUSS_WEIGHTS[i] * 0.5 * (x * dy - y * dx);
+            }
+        }
+        if (closesImplicitly)
+        {
+            int n = numPoints - 1;
+            area += 0.5 * (xs[n] * subPathStartY - subPathStartX * ys[n]);
+        }
+        return area;
+    }
+    
+    /**
+     * Computes the arc length of this segment. For curves, the length
+     * is computed with an adaptive numerical integration, and does not
+     * depend on a flatness. The implicit closing line of a sub-path 
+     * that was not closed explicitly is <i>not</i> included.
+     * 
+     * @return The length
+     */
+    public double computeLength()
+    {
+        if (numPoints == 2)
+        {
+            double dx = xs[1] - xs[0];
+            double dy = ys[1] - ys[0];
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+        if (sampler == null)
+        {
+            sampler = new CurveSampler();
+            samplerCoords = new double[6];
+        }
+        for (int i = 1; i < numPoints; i++)
+        {
+            samplerCoords[(i - 1) * 2 + 0] = xs[i];
+            samplerCoords[(i - 1) * 2 + 1] = ys[i];
+        }
+        sampler.set(xs[0], ys[0], type, samplerCoords);
+        return sampler.getLength();
+    }
+    
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PathSegment[subPath=").append(subPathIndex);
+        sb.append(",type=").append(type).append(",points=");
+        for (int i = 0; i < numPoints; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(",");
+            }
+            sb.append("(").append(xs[i]).append(",").append(ys[i]);
+            sb.append(")");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
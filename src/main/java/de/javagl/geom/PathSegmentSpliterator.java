@@ -0,0 +1,193 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.PathIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of a spliterator over the segments of the sub-shapes in 
+ * a {@link SubShapeList}. The spliterator is only split at the boundaries
+ * of sub-shapes, so that each sub-shape is processed completely by a 
+ * single spliterator. The same {@link PathSegment} instance is passed to
+ * the consumer for all segments.
+ */
+final class PathSegmentSpliterator implements Spliterator<PathSegment>
+{
+    /**
+     * The sub-shapes
+     */
+    private final SubShapeList subShapes;
+    
+    /**
+     * The index of the current sub-shape
+     */
+    private int subShape;
+    
+    /**
+     * The index after the last sub-shape that is covered by this 
+     * spliterator
+     */
+    private int subShapeEnd;
+    
+    /**
+     * The index of the next segment
+     */
+    private int segment;
+    
+    /**
+     * The index of the first coordinate of the next segment
+     */
+    private int coordinate;
+    
+    /**
+     * The x-coordinate of the current point
+     */
+    private double x;
+    
+    /**
+     * The y-coordinate of the current point
+     */
+    private double y;
+    
+    /**
+     * The coordinates of the current segment
+     */
+    private final double coords[];
+    
+    /**
+     * The segment that is passed to the consumers
+     */
+    private final PathSegment pathSegment;
+    
+    /**
+     * Creates a new spliterator over the specified range of sub-shapes
+     * 
+     * @param subShapes The sub-shapes
+     * @param subShapeStart The index of the first sub-shape, inclusive
+     * @param subShapeEnd The index of the last sub-shape, exclusive
+     */
+    PathSegmentSpliterator(
+        SubShapeList subShapes, int subShapeStart, int subShapeEnd)
+    {
+        this.subShapes = subShapes;
+        this.subShapeEnd = subShapeEnd;
+        this.coords = new double[6];
+        this.pathSegment = new PathSegment();
+        enter(subShapeStart);
+    }
+    
+    /**
+     * Move to the start of the given sub-shape
+     * 
+     * @param newSubShape The sub-shape index
+     */
+    private void enter(int newSubShape)
+    {
+        subShape = newSubShape;
+        segment = subShapes.getSegmentStart(newSubShape);
+        if (newSubShape < subShapeEnd)
+        {
+            coordinate = subShapes.getCoordinateStart(newSubShape);
+            x = subShapes.getStartX(newSubShape);
+            y = subShapes.getStartY(newSubShape);
+        }
+    }
+    
+    @Override
+    public boolean tryAdvance(Consumer<? super PathSegment> action)
+    {
+        if (subShape >= subShapeEnd)
+        {
+            return false;
+        }
+        int type = subShapes.getType(segment);
+        int n = PathIterators.getNumCoordinates(type);
+        for (int i = 0; i < n; i++)
+        {
+            coords[i] = subShapes.getCoordinate(coordinate + i);
+        }
+        boolean last = segment + 1 == subShapes.getSegmentEnd(subShape);
+        boolean closesImplicitly = last && type != PathIterator.SEG_CLOSE;
+        double startX = subShapes.getStartX(subShape);
+        double startY = subShapes.getStartY(subShape);
+        pathSegment.set(subShape, startX, startY, 
+            x, y, type, coords, closesImplicitly);
+        if (type == PathIterator.SEG_CLOSE)
+        {
+            x = startX;
+            y = startY;
+        }
+        else
+        {
+            x = coords[n - 2];
+            y = coords[n - 1];
+        }
+        coordinate += n;
+        segment++;
+        if (last)
+        {
+            enter(subShape + 1);
+        }
+        action.accept(pathSegment);
+        return true;
+    }
+    
+    @Override
+    public Spliterator<PathSegment> trySplit()
+    {
+        int mid = (subShape + subShapeEnd + 1) >>> 1;
+        if (mid <= subShape || mid >= subShapeEnd)
+        {
+            return null;
+        }
+        
+        // The prefix, including the current position in the current 
+        // sub-shape, is passed to the new spliterator
+        PathSegmentSpliterator prefix = 
+            new PathSegmentSpliterator(subShapes, subShape, mid);
+        prefix.segment = segment;
+        prefix.coordinate = coordinate;
+        prefix.x = x;
+        prefix.y = y;
+        enter(mid);
+        return prefix;
+    }
+    
+    @Override
+    public long estimateSize()
+    {
+        return subShapes.getSegmentStart(subShapeEnd) - segment;
+    }
+    
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
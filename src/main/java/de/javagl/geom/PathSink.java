@@ -0,0 +1,292 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.QuadCurve2D;
+
+/**
+ * Package-private abstract base class for the receivers of the segments
+ * of decoded paths. This allows the decoders to write their results 
+ * directly into a <code>Path2D</code> or a {@link PackedPath}, without 
+ * creating intermediate objects.
+ */
+abstract class PathSink
+{
+    /**
+     * The maximum recursion depth for flattening curves, as it is also
+     * used in <code>FlatteningPathIterator</code>
+     */
+    private static final int FLATTENING_LIMIT = 10;
+    
+    /**
+     * Creates a sink that writes into the given path
+     * 
+     * @param path The path
+     * @return The sink
+     */
+    static PathSink create(final Path2D path)
+    {
+        return new PathSink()
+        {
+            @Override
+            void moveTo(double x, double y)
+            {
+                path.moveTo(x, y);
+            }
+
+            @Override
+            void lineTo(double x, double y)
+            {
+                path.lineTo(x, y);
+            }
+
+            @Override
+            void quadTo(double x1, double y1, double x2, double y2)
+            {
+                path.quadTo(x1, y1, x2, y2);
+            }
+
+            @Override
+            void curveTo(double x1, double y1, double x2, double y2,
+                double x3, double y3)
+            {
+                path.curveTo(x1, y1, x2, y2, x3, y3);
+            }
+            
+            @Override
+            void closePath()
+            {
+                path.closePath();
+            }
+        };
+    }
+    
+    /**
+     * Creates a sink that writes into the given packed path. This should
+     * only be used for sources that do not contain curves. Curves that
+     * are passed to this sink will be subdivided up to the maximum 
+     * recursion depth.
+     * 
+     * @param path The packed path
+     * @return The sink
+     */
+    static PathSink create(PackedPath path)
+    {
+        return create(path, 0.0);
+    }
+    
+    /**
+     * Creates a sink that writes into the given packed path, flattening 
+     * curves with the given flatness
+     * 
+     * @param path The packed path
+     * @param flatness The maximum distance that the line segments are 
+     * allowed to deviate from the curves
+     * @return The sink
+     */
+    static PathSink create(final PackedPath path, double flatness)
+    {
+        final double flatnessSq = flatness * flatness;
+        return new PathSink()
+        {
+            /**
+             * The x-coordinate of the current point
+             */
+            private double currentX;
+
+            /**
+             * The y-coordinate of the current point
+             */
+            private double currentY;
+
+            /**
+             * The x-coordinate of the start of the current sub-path
+             */
+            private double startX;
+            
+            /**
+             * The y-coordinate of the start of the current sub-path
+             */
+            private double startY;
+            
+            @Override
+            void moveTo(double x, double y)
+            {
+                path.moveTo(x, y);
+                currentX = x;
+                currentY = y;
+                startX = x;
+                startY = y;
+            }
+
+            @Override
+            void lineTo(double x, double y)
+            {
+                path.lineTo(x, y);
+                currentX = x;
+                currentY = y;
+            }
+
+            @Override
+            void quadTo(double x1, double y1, double x2, double y2)
+            {
+                flattenQuad(currentX, currentY, x1, y1, x2, y2, 0);
+            }
+
+            @Override
+            void curveTo(double x1, double y1, double x2, double y2,
+                double x3, double y3)
+            {
+                flattenCubic(
+                    currentX, currentY, x1, y1, x2, y2, x3, y3, 0);
+            }
+            
+            @Override
+            void closePath()
+            {
+                path.closePath();
+                currentX = startX;
+                currentY = startY;
+            }
+            
+            /**
+             * Flatten the given quadratic curve by recursive subdivision
+             * 
+             * @param x0 The x-coordinate of the start point
+             * @param y0 The y-coordinate of the start point
+             * @param x1 The x-coordinate of the control point
+             * @param y1 The y-coordinate of the control point
+             * @param x2 The x-coordinate of the end point
+             * @param y2 The y-coordinate of the end point
+             * @param depth The recursion depth
+             */
+            private void flattenQuad(double x0, double y0, 
+                double x1, double y1, double x2, double y2, int depth)
+            {
+                if (depth >= FLATTENING_LIMIT || QuadCurve2D.getFlatnessSq(
+                    x0, y0, x1, y1, x2, y2) <= flatnessSq)
+                {
+                    lineTo(x2, y2);
+                    return;
+                }
+                double x01 = (x0 + x1) * 0.5;
+                double y01 = (y0 + y1) * 0.5;
+                double x12 = (x1 + x2) * 0.5;
+                double y12 = (y1 + y2) * 0.5;
+                double xm = (x01 + x12) * 0.5;
+                double ym = (y01 + y12) * 0.5;
+                flattenQuad(x0, y0, x01, y01, xm, ym, depth + 1);
+                flattenQuad(xm, ym, x12, y12, x2, y2, depth + 1);
+            }
+
+            /**
+             * Flatten the given cubic curve by recursive subdivision
+             * 
+             * @param x0 The x-coordinate of the start point
+             * @param y0 The y-coordinate of the start point
+             * @param x1 The x-coordinate of the first control point
+             * @param y1 The y-coordinate of the first control point
+             * @param x2 The x-coordinate of the second control point
+             * @param y2 The y-coordinate of the second control point
+             * @param x3 The x-coordinate of the end point
+             * @param y3 The y-coordinate of the end point
+             * @param depth The recursion depth
+             */
+            private void flattenCubic(double x0, double y0, 
+                double x1, double y1, double x2, double y2, 
+                double x3, double y3, int depth)
+            {
+                if (depth >= FLATTENING_LIMIT || CubicCurve2D.getFlatnessSq(
+                    x0, y0, x1, y1, x2, y2, x3, y3) <= flatnessSq)
+                {
+                    lineTo(x3, y3);
+                    return;
+                }
+                double x01 = (x0 + x1) * 0.5;
+                double y01 = (y0 + y1) * 0.5;
+                double x12 = (x1 + x2) * 0.5;
+                double y12 = (y1 + y2) * 0.5;
+                double x23 = (x2 + x3) * 0.5;
+                double y23 = (y2 + y3) * 0.5;
+                double xa = (x01 + x12) * 0.5;
+                double ya = (y01 + y12) * 0.5;
+                double xb = (x12 + x23) * 0.5;
+                double yb = (y12 + y23) * 0.5;
+                double xm = (xa + xb) * 0.5;
+                double ym = (ya + yb) * 0.5;
+                flattenCubic(x0, y0, x01, y01, xa, ya, xm, ym, depth + 1);
+                flattenCubic(xm, ym, xb, yb, x23, y23, x3, y3, depth + 1);
+            }
+        };
+    }
+    
+    /**
+     * Start a new sub-path at the given point
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    abstract void moveTo(double x, double y);
+
+    /**
+     * Add a line from the current point to the given point
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    abstract void lineTo(double x, double y);
+    
+    /**
+     * Add a quadratic curve from the current point to the given point
+     * 
+     * @param x1 The x-coordinate of the control point
+     * @param y1 The y-coordinate of the control point
+     * @param x2 The x-coordinate of the end point
+     * @param y2 The y-coordinate of the end point
+     */
+    abstract void quadTo(double x1, double y1, double x2, double y2);
+
+    /**
+     * Add a cubic curve from the current point to the given point
+     * 
+     * @param x1 The x-coordinate of the first control point
+     * @param y1 The y-coordinate of the first control point
+     * @param x2 The x-coordinate of the second control point
+     * @param y2 The y-coordinate of the second control point
+     * @param x3 The x-coordinate of the end point
+     * @param y3 The y-coordinate of the end point
+     */
+    abstract void curveTo(double x1, double y1, double x2, double y2,
+        double x3, double y3);
+    
+    /**
+     * Close the current sub-path
+     */
+    abstract void closePath();
+}
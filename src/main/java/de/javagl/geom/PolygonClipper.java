@@ -0,0 +1,1049 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.PathIterator;
+
+/**
+ * Implementation of boolean operations on polygons.<br>
+ * <br>
+ * The input polygons are given as {@link PackedPath} instances, 
+ * together with a winding rule. The polygons may be self-intersecting,
+ * and their rings may have any orientation. The edges of both polygons
+ * are split at all points where they intersect or touch other edges, 
+ * using a sweep over the x-axis. Coincident pieces are combined into 
+ * a single piece. For each piece, the winding numbers of both polygons
+ * are computed at a point on its right side (using a 
+ * {@link PreparedShape}), and derived for its left side. Based on the
+ * winding rules, this determines whether the left and the right side
+ * of the piece are inside of the result of the operation. The pieces 
+ * where exactly one side is inside are selected, oriented so that the 
+ * inside is on their left side, and linked to form the rings of the 
+ * result. So outer rings of the result are oriented counterclockwise, 
+ * and holes are oriented clockwise.<br>
+ * <br>
+ * The same approach is used for computing the region that is covered
+ * by a single polygon.
+ */
+class PolygonClipper
+{
+    /**
+     * The union operation
+     */
+    static final int UNION = 0;
+    
+    /**
+     * The intersection operation
+     */
+    static final int INTERSECTION = 1;
+    
+    /**
+     * The difference operation
+     */
+    static final int DIFFERENCE = 2;
+    
+    /**
+     * The exclusive-or operation
+     */
+    static final int EXCLUSIVE_OR = 3;
+    
+    /**
+     * The tolerance for the parameters of intersection points, below 
+     * which an intersection is considered to be at the end point of 
+     * an edge
+     */
+    private static final double PARAMETER_EPSILON = 1e-10;
+    
+    /**
+     * The offset, relative to the length of a piece, of the point that
+     * is used for computing the winding number on the right side of 
+     * the piece
+     */
+    private static final double RIGHT_SIDE_OFFSET = 1e-7;
+    
+    /**
+     * The tolerance, relative to the size of the polygons, below which
+     * split points are considered to be equal
+     */
+    private static final double SNAP_EPSILON = 1e-10;
+    
+    /**
+     * A winding rule, in addition to <code>PathIterator.WIND_EVEN_ODD</code>
+     * and <code>PathIterator.WIND_NON_ZERO</code>, under which a point is
+     * inside when its winding number is positive
+     */
+    private static final int WIND_POSITIVE = -1;
+    
+    /**
+     * Interface for classes that can compare two elements, given
+     * by their indices
+     */
+    private interface IndexComparator
+    {
+        /**
+         * Compare the specified elements
+         * 
+         * @param i0 The first index
+         * @param i1 The second index
+         * @return The comparison result
+         */
+        int compare(int i0, int i1);
+    }
+    
+    /**
+     * Compute the result of applying the given boolean operation to the
+     * given polygons, and store it in the given result.
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param operation The operation
+     * @param result The result
+     * @throws IllegalArgumentException If one of the winding rules is
+     * not valid
+     */
+    static void compute(PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, int operation, 
+        PackedPath result)
+    {
+        validateWindingRule(windingRule0);
+        validateWindingRule(windingRule1);
+        PolygonClipper clipper = new PolygonClipper(path0, path1);
+        clipper.findIntersections();
+        clipper.createPieces();
+        clipper.selectPieces(operation, 
+            windingRule0, 
+            PreparedShape.create(path0, PathIterator.WIND_NON_ZERO),
+            windingRule1, 
+            PreparedShape.create(path1, PathIterator.WIND_NON_ZERO));
+        clipper.link(result);
+    }
+    
+    /**
+     * Compute the boundary of the region where the winding number of 
+     * the given (closed, possibly self-intersecting) rings is positive, 
+     * and store it in the given result.
+     * 
+     * @param path The path
+     * @param result The result
+     */
+    static void computePositive(PackedPath path, PackedPath result)
+    {
+        computeRegion(path, WIND_POSITIVE, result);
+    }
+    
+    /**
+     * Create a normalized version of the given polygon, where all outer
+     * rings are counterclockwise and closed, all holes are clockwise and
+     * closed, and no rings intersect each other. The given polygon may
+     * be self-intersecting.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule
+     * @return The normalized path
+     * @throws IllegalArgumentException If the winding rule is not valid
+     */
+    static PackedPath normalize(PackedPath path, int windingRule)
+    {
+        validateWindingRule(windingRule);
+        PackedPath normalized = new PackedPath(path.getNumPoints());
+        computeRegion(path, windingRule, normalized);
+        return normalized;
+    }
+    
+    /**
+     * Make sure that the given winding rule is valid
+     * 
+     * @param windingRule The winding rule
+     * @throws IllegalArgumentException If the winding rule is neither
+     * <code>PathIterator.WIND_EVEN_ODD</code> nor
+     * <code>PathIterator.WIND_NON_ZERO</code>
+     */
+    private static void validateWindingRule(int windingRule)
+    {
+        if (windingRule != PathIterator.WIND_EVEN_ODD &&
+            windingRule != PathIterator.WIND_NON_ZERO)
+        {
+            throw new IllegalArgumentException(
+                "Invalid winding rule: " + windingRule);
+        }
+    }
+    
+    /**
+     * Compute the boundary of the region that is inside of the given 
+     * (closed, possibly self-intersecting) rings according to the given
+     * winding rule, and store it in the given result.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule
+     * @param result The result
+     */
+    private static void computeRegion(
+        PackedPath path, int windingRule, PackedPath result)
+    {
+        PolygonClipper clipper = new PolygonClipper(path, null);
+        clipper.findIntersections();
+        clipper.createPieces();
+        clipper.selectPieces(UNION, windingRule,
+            PreparedShape.create(path, PathIterator.WIND_NON_ZERO),
+            PathIterator.WIND_NON_ZERO, null);
+        clipper.link(result);
+    }
+    
+    /**
+     * The edges of both polygons, as (x0, y0, x1, y1) quadruples
+     */
+    private final DoubleArray edges;
+    
+    /**
+     * The owner of each edge (0 or 1)
+     */
+    private final IntArray edgeOwners;
+    
+    /**
+     * The indices of the edges that a split point belongs to
+     */
+    private final IntArray splitEdges;
+    
+    /**
+     * The parameters of the split points on their edges
+     */
+    private final DoubleArray splitParameters;
+
+    /**
+     * The coordinates of the split points, as (x,y) pairs
+     */
+    private final DoubleArray splitPoints;
+    
+    /**
+     * The pieces of the edges, as (x0, y0, x1, y1) quadruples
+     */
+    private final DoubleArray pieces;
+    
+    /**
+     * The owner of each piece (0 or 1)
+     */
+    private final IntArray pieceOwners;
+    
+    /**
+     * The selected, directed pieces, as (x0, y0, x1, y1) quadruples
+     */
+    private final DoubleArray selected;
+    
+    /**
+     * Creates a new clipper for the given polygons
+     * 
+     * @param path0 The first polygon
+     * @param path1 The second polygon. This may be <code>null</code> 
+     * when only a single polygon is processed.
+     */
+    private PolygonClipper(PackedPath path0, PackedPath path1)
+    {
+        int n = path0.getNumPoints();
+        if (path1 != null)
+        {
+            n += path1.getNumPoints();
+        }
+        this.edges = new DoubleArray(n * 4);
+        this.edgeOwners = new IntArray(n);
+        addEdges(path0, 0);
+        if (path1 != null)
+        {
+            addEdges(path1, 1);
+        }
+        this.splitEdges = new IntArray(16);
+        this.splitParameters = new DoubleArray(16);
+        this.splitPoints = new DoubleArray(32);
+        this.pieces = new DoubleArray(n * 4);
+        this.pieceOwners = new IntArray(n);
+        this.selected = new DoubleArray(n * 4);
+    }
+    
+    /**
+     * Add the edges of all (closed) rings of the given path
+     * 
+     * @param path The path
+     * @param owner The owner
+     */
+    private void addEdges(PackedPath path, int owner)
+    {
+        double c[] = path.getCoordinates();
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            for (int i = start; i < end; i++)
+            {
+                int j = (i + 1 < end) ? i + 1 : start;
+                
+                // Adding 0.0 turns -0.0 into 0.0, so that the sorting
+                // of the points (with Double.compare) is consistent 
+                // with comparing them with '=='
+                double x0 = c[i * 2 + 0] + 0.0;
+                double y0 = c[i * 2 + 1] + 0.0;
+                double x1 = c[j * 2 + 0] + 0.0;
+                double y1 = c[j * 2 + 1] + 0.0;
+                if (x0 != x1 || y0 != y1)
+                {
+                    edges.add(x0);
+                    edges.add(y0);
+                    edges.add(x1);
+                    edges.add(y1);
+                    edgeOwners.add(owner);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find all points where edges intersect or touch other edges, 
+     * using a sweep over the x-axis.
+     */
+    private void findIntersections()
+    {
+        int numEdges = edgeOwners.size();
+        final double minXs[] = new double[numEdges];
+        double maxXs[] = new double[numEdges];
+        int order[] = new int[numEdges];
+        for (int e = 0; e < numEdges; e++)
+        {
+            minXs[e] = Math.min(edges.get(e * 4 + 0), edges.get(e * 4 + 2));
+            maxXs[e] = Math.max(edges.get(e * 4 + 0), edges.get(e * 4 + 2));
+            order[e] = e;
+        }
+        sort(order, new IndexComparator()
+        {
+            @Override
+            public int compare(int i0, int i1)
+            {
+                return Double.compare(minXs[i0], minXs[i1]);
+            }
+        });
+        int active[] = new int[numEdges];
+        int numActive = 0;
+        for (int k = 0; k < numEdges; k++)
+        {
+            int e = order[k];
+            double minX = minXs[e];
+            double ey0 = edges.get(e * 4 + 1);
+            double ey1 = edges.get(e * 4 + 3);
+            double minY = Math.min(ey0, ey1);
+            double maxY = Math.max(ey0, ey1);
+            int newNumActive = 0;
+            for (int i = 0; i < numActive; i++)
+            {
+                int a = active[i];
+                if (maxXs[a] < minX)
+                {
+                    continue;
+                }
+                active[newNumActive++] = a;
+                double ay0 = edges.get(a * 4 + 1);
+                double ay1 = edges.get(a * 4 + 3);
+                if (Math.max(ay0, ay1) < minY || Math.min(ay0, ay1) > maxY)
+                {
+                    continue;
+                }
+                intersect(a, e);
+            }
+            numActive = newNumActive;
+            active[numActive++] = e;
+        }
+    }
+    
+    /**
+     * Compute the intersection of the given edges, and add the 
+     * resulting split points
+     * 
+     * @param a The first edge
+     * @param b The second edge
+     */
+    private void intersect(int a, int b)
+    {
+        double ax0 = edges.get(a * 4 + 0);
+        double ay0 = edges.get(a * 4 + 1);
+        double ax1 = edges.get(a * 4 + 2);
+        double ay1 = edges.get(a * 4 + 3);
+        double bx0 = edges.get(b * 4 + 0);
+        double by0 = edges.get(b * 4 + 1);
+        double bx1 = edges.get(b * 4 + 2);
+        double by1 = edges.get(b * 4 + 3);
+        double rx = ax1 - ax0;
+        double ry = ay1 - ay0;
+        double sx = bx1 - bx0;
+        double sy = by1 - by0;
+        double qpx = bx0 - ax0;
+        double qpy = by0 - ay0;
+        double denominator = rx * sy - ry * sx;
+        if (denominator == 0)
+        {
+            if (qpx * ry - qpy * rx != 0)
+            {
+                // Parallel, but not collinear
+                return;
+            }
+            // Collinear: Split each edge at the end points of the 
+            // other edge that are inside of the edge
+            double rr = rx * rx + ry * ry;
+            double ss = sx * sx + sy * sy;
+            addCollinearSplit(a, (qpx * rx + qpy * ry) / rr, bx0, by0);
+            addCollinearSplit(a, 
+                ((bx1 - ax0) * rx + (by1 - ay0) * ry) / rr, bx1, by1);
+            addCollinearSplit(b, (-qpx * sx - qpy * sy) / ss, ax0, ay0);
+            addCollinearSplit(b, 
+                ((ax1 - bx0) * sx + (ay1 - by0) * sy) / ss, ax1, ay1);
+            return;
+        }
+        double t = (qpx * sy - qpy * sx) / denominator;
+        double u = (qpx * ry - qpy * rx) / denominator;
+        double e = PARAMETER_EPSILON;
+        if (t < -e || t > 1 + e || u < -e || u > 1 + e)
+        {
+            return;
+        }
+        
+        // Snap intersections that are close to end points to these
+        // end points, so that the same point is used for both edges
+        boolean tAtEnd = t <= e || t >= 1 - e;
+        boolean uAtEnd = u <= e || u >= 1 - e;
+        if (tAtEnd && uAtEnd)
+        {
+            return;
+        }
+        if (uAtEnd)
+        {
+            double x = u <= e ? bx0 : bx1;
+            double y = u <= e ? by0 : by1;
+            addSplit(a, t, x, y);
+        }
+        else if (tAtEnd)
+        {
+            double x = t <= e ? ax0 : ax1;
+            double y = t <= e ? ay0 : ay1;
+            addSplit(b, u, x, y);
+        }
+        else
+        {
+            double x = ax0 + t * rx;
+            double y = ay0 + t * ry;
+            addSplit(a, t, x, y);
+            addSplit(b, u, x, y);
+        }
+    }
+    
+    /**
+     * Add the specified split point for a collinear overlap, if the
+     * given parameter is strictly inside of the edge
+     * 
+     * @param edge The edge
+     * @param t The parameter on the edge
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void addCollinearSplit(int edge, double t, double x, double y)
+    {
+        if (t > 0 && t < 1)
+        {
+            addSplit(edge, t, x, y);
+        }
+    }
+    
+    /**
+     * Add the given split point
+     * 
+     * @param edge The edge
+     * @param t The parameter on the edge
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void addSplit(int edge, double t, double x, double y)
+    {
+        splitEdges.add(edge);
+        splitParameters.add(t);
+        splitPoints.add(x);
+        splitPoints.add(y);
+    }
+    
+    /**
+     * Merge split points that are (numerically) equal. When more than
+     * two edges intersect at the same point, then the intersection 
+     * points that are computed for the different pairs of edges may 
+     * differ slightly. These points are replaced by a single point, so
+     * that the pieces that end at these points can be linked.
+     */
+    private void snapSplitPoints()
+    {
+        int numSplits = splitEdges.size();
+        double scale = 0;
+        for (int i = 0; i < edges.size(); i++)
+        {
+            scale = Math.max(scale, Math.abs(edges.get(i)));
+        }
+        double epsilon = Math.max(scale, 1.0) * SNAP_EPSILON;
+        int order[] = new int[numSplits];
+        for (int i = 0; i < numSplits; i++)
+        {
+            order[i] = i;
+        }
+        sort(order, new IndexComparator()
+        {
+            @Override
+            public int compare(int i0, int i1)
+            {
+                return Double.compare(
+                    splitPoints.get(i0 * 2), splitPoints.get(i1 * 2));
+            }
+        });
+        boolean snapped[] = new boolean[numSplits];
+        for (int k = 0; k < numSplits; k++)
+        {
+            int s = order[k];
+            if (snapped[s])
+            {
+                continue;
+            }
+            double x = splitPoints.get(s * 2 + 0);
+            double y = splitPoints.get(s * 2 + 1);
+            for (int j = k + 1; j < numSplits; j++)
+            {
+                int t = order[j];
+                if (splitPoints.get(t * 2 + 0) - x > epsilon)
+                {
+                    break;
+                }
+                if (!snapped[t] && 
+                    Math.abs(splitPoints.get(t * 2 + 1) - y) <= epsilon)
+                {
+                    splitPoints.set(t * 2 + 0, x);
+                    splitPoints.set(t * 2 + 1, y);
+                    snapped[t] = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Create the pieces of all edges, by splitting them at their
+     * split points
+     */
+    private void createPieces()
+    {
+        snapSplitPoints();
+        int numEdges = edgeOwners.size();
+        int numSplits = splitEdges.size();
+        
+        // Sort the splits by their edges
+        int starts[] = new int[numEdges + 1];
+        for (int i = 0; i < numSplits; i++)
+        {
+            starts[splitEdges.get(i) + 1]++;
+        }
+        for (int e = 0; e < numEdges; e++)
+        {
+            starts[e + 1] += starts[e];
+        }
+        int fill[] = new int[numEdges];
+        System.arraycopy(starts, 0, fill, 0, numEdges);
+        int sorted[] = new int[numSplits];
+        for (int i = 0; i < numSplits; i++)
+        {
+            sorted[fill[splitEdges.get(i)]++] = i;
+        }
+        
+        for (int e = 0; e < numEdges; e++)
+        {
+            // Sort the splits of the edge by their parameter
+            for (int i = starts[e] + 1; i < starts[e + 1]; i++)
+            {
+                int s = sorted[i];
+                double t = splitParameters.get(s);
+                int j = i - 1;
+                while (j >= starts[e] && splitParameters.get(sorted[j]) > t)
+                {
+                    sorted[j + 1] = sorted[j];
+                    j--;
+                }
+                sorted[j + 1] = s;
+            }
+            
+            int owner = edgeOwners.get(e);
+            double prevX = edges.get(e * 4 + 0);
+            double prevY = edges.get(e * 4 + 1);
+            for (int i = starts[e]; i < starts[e + 1]; i++)
+            {
+                int s = sorted[i];
+                double x = splitPoints.get(s * 2 + 0);
+                double y = splitPoints.get(s * 2 + 1);
+                if (x != prevX || y != prevY)
+                {
+                    addPiece(prevX, prevY, x, y, owner);
+                    prevX = x;
+                    prevY = y;
+                }
+            }
+            double x = edges.get(e * 4 + 2);
+            double y = edges.get(e * 4 + 3);
+            if (x != prevX || y != prevY)
+            {
+                addPiece(prevX, prevY, x, y, owner);
+            }
+        }
+    }
+    
+    /**
+     * Add the given piece
+     * 
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param x1 The x-coordinate of the end point
+     * @param y1 The y-coordinate of the end point
+     * @param owner The owner
+     */
+    private void addPiece(
+        double x0, double y0, double x1, double y1, int owner)
+    {
+        pieces.add(x0);
+        pieces.add(y0);
+        pieces.add(x1);
+        pieces.add(y1);
+        pieceOwners.add(owner);
+    }
+    
+    /**
+     * Compare the specified pieces, regardless of their direction, 
+     * lexicographically by their smaller point and their larger point
+     * 
+     * @param i0 The first piece
+     * @param i1 The second piece
+     * @return The comparison result
+     */
+    private int compareUndirected(int i0, int i1)
+    {
+        boolean swap0 = compareStartEnd(i0) > 0;
+        boolean swap1 = compareStartEnd(i1) > 0;
+        int o0 = swap0 ? 2 : 0;
+        int o1 = swap1 ? 2 : 0;
+        int c = comparePoints(i0, o0, i1, o1);
+        if (c != 0)
+        {
+            return c;
+        }
+        return comparePoints(i0, 2 - o0, i1, 2 - o1);
+    }
+    
+    /**
+     * Compare the start point of the given piece to its end point
+     * 
+     * @param i The piece
+     * @return The comparison result
+     */
+    private int compareStartEnd(int i)
+    {
+        return comparePoints(i, 0, i, 2);
+    }
+    
+    /**
+     * Compare the specified points of the given pieces lexicographically
+     * 
+     * @param i0 The first piece
+     * @param o0 The offset of the point in the first piece
+     * @param i1 The second piece
+     * @param o1 The offset of the point in the second piece
+     * @return The comparison result
+     */
+    private int comparePoints(int i0, int o0, int i1, int o1)
+    {
+        int c = Double.compare(
+            pieces.get(i0 * 4 + o0 + 0), pieces.get(i1 * 4 + o1 + 0));
+        if (c != 0)
+        {
+            return c;
+        }
+        return Double.compare(
+            pieces.get(i0 * 4 + o0 + 1), pieces.get(i1 * 4 + o1 + 1));
+    }
+    
+    /**
+     * Select the pieces that separate a region that is inside of the 
+     * result of the given operation from a region that is outside, and
+     * store them in the {@link #selected} array, oriented so that the 
+     * inside is on their left side.<br>
+     * <br>
+     * Coincident pieces are combined into a single piece. The winding
+     * numbers on the left side of this piece are derived from the 
+     * winding numbers on its right side, and the multiplicity that 
+     * results from the directions of the individual pieces of each
+     * polygon.
+     * 
+     * @param operation The operation
+     * @param windingRule0 The winding rule of the first polygon
+     * @param preparedShape0 The prepared shape of the first polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param preparedShape1 The prepared shape of the second polygon. 
+     * This may be <code>null</code> when only a single polygon is 
+     * processed.
+     */
+    private void selectPieces(int operation, 
+        int windingRule0, PreparedShape preparedShape0, 
+        int windingRule1, PreparedShape preparedShape1)
+    {
+        int numPieces = pieceOwners.size();
+        int order[] = new int[numPieces];
+        for (int i = 0; i < numPieces; i++)
+        {
+            order[i] = i;
+        }
+        IndexComparator comparator = new IndexComparator()
+        {
+            @Override
+            public int compare(int i0, int i1)
+            {
+                return compareUndirected(i0, i1);
+            }
+        };
+        sort(order, comparator);
+        int runStart = 0;
+        while (runStart < numPieces)
+        {
+            // Compute the multiplicities of the coincident pieces of 
+            // both polygons, relative to the direction of the first one
+            int first = order[runStart];
+            boolean firstForward = compareStartEnd(first) < 0;
+            int multiplicity0 = 0;
+            int multiplicity1 = 0;
+            int runEnd = runStart;
+            while (runEnd < numPieces && 
+                comparator.compare(first, order[runEnd]) == 0)
+            {
+                int p = order[runEnd];
+                boolean forward = compareStartEnd(p) < 0;
+                int m = (forward == firstForward) ? 1 : -1;
+                if (pieceOwners.get(p) == 0)
+                {
+                    multiplicity0 += m;
+                }
+                else
+                {
+                    multiplicity1 += m;
+                }
+                runEnd++;
+            }
+            runStart = runEnd;
+            if (multiplicity0 == 0 && multiplicity1 == 0)
+            {
+                continue;
+            }
+            double x0 = pieces.get(first * 4 + 0);
+            double y0 = pieces.get(first * 4 + 1);
+            double x1 = pieces.get(first * 4 + 2);
+            double y1 = pieces.get(first * 4 + 3);
+            
+            // Compute the winding numbers at a point that is slightly
+            // on the right side of the piece
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double h = RIGHT_SIDE_OFFSET;
+            double px = (x0 + x1) * 0.5 + dy * h;
+            double py = (y0 + y1) * 0.5 - dx * h;
+            int right0 = preparedShape0.computeWindingNumber(px, py);
+            int left0 = right0 + multiplicity0;
+            boolean rightInside0 = isInside(right0, windingRule0);
+            boolean leftInside0 = isInside(left0, windingRule0);
+            boolean rightInside1 = false;
+            boolean leftInside1 = false;
+            if (preparedShape1 != null)
+            {
+                int right1 = preparedShape1.computeWindingNumber(px, py);
+                int left1 = right1 + multiplicity1;
+                rightInside1 = isInside(right1, windingRule1);
+                leftInside1 = isInside(left1, windingRule1);
+            }
+            boolean rightInside = 
+                apply(operation, rightInside0, rightInside1);
+            boolean leftInside = 
+                apply(operation, leftInside0, leftInside1);
+            if (leftInside && !rightInside)
+            {
+                select(x0, y0, x1, y1);
+            }
+            else if (rightInside && !leftInside)
+            {
+                select(x1, y1, x0, y0);
+            }
+        }
+    }
+    
+    /**
+     * Apply the given operation to the given flags that indicate whether
+     * a point is inside of the first and the second polygon
+     * 
+     * @param operation The operation
+     * @param inside0 Whether the point is inside of the first polygon
+     * @param inside1 Whether the point is inside of the second polygon
+     * @return Whether the point is inside of the result
+     * @throws IllegalArgumentException If the operation is not valid
+     */
+    private static boolean apply(
+        int operation, boolean inside0, boolean inside1)
+    {
+        switch (operation)
+        {
+            case UNION:
+                return inside0 || inside1;
+                
+            case INTERSECTION:
+                return inside0 && inside1;
+                
+            case DIFFERENCE:
+                return inside0 && !inside1;
+                
+            case EXCLUSIVE_OR:
+                return inside0 != inside1;
+                
+            default:
+                throw new IllegalArgumentException(
+                    "Invalid operation: " + operation);
+        }
+    }
+    
+    /**
+     * Returns whether a point with the given winding number is inside
+     * according to the given winding rule
+     * 
+     * @param winding The winding number
+     * @param windingRule The winding rule
+     * @return Whether the point is inside
+     */
+    private static boolean isInside(int winding, int windingRule)
+    {
+        if (windingRule == PathIterator.WIND_EVEN_ODD)
+        {
+            return (winding & 1) != 0;
+        }
+        if (windingRule == PathIterator.WIND_NON_ZERO)
+        {
+            return winding != 0;
+        }
+        return winding > 0;
+    }
+    
+    /**
+     * Add the given directed piece to the selected pieces
+     * 
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param x1 The x-coordinate of the end point
+     * @param y1 The y-coordinate of the end point
+     */
+    private void select(double x0, double y0, double x1, double y1)
+    {
+        selected.add(x0);
+        selected.add(y0);
+        selected.add(x1);
+        selected.add(y1);
+    }
+    
+    /**
+     * Link the selected pieces into closed rings, and store them in 
+     * the given result.<br>
+     * <br>
+     * At points where more than one unused piece starts, the piece 
+     * that makes the sharpest left turn is chosen, so that touching 
+     * rings are separated.
+     * 
+     * @param result The result
+     */
+    private void link(PackedPath result)
+    {
+        final int n = selected.size() / 4;
+        final int order[] = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = i;
+        }
+        sort(order, new IndexComparator()
+        {
+            @Override
+            public int compare(int i0, int i1)
+            {
+                int c = Double.compare(
+                    selected.get(i0 * 4 + 0), selected.get(i1 * 4 + 0));
+                if (c != 0)
+                {
+                    return c;
+                }
+                return Double.compare(
+                    selected.get(i0 * 4 + 1), selected.get(i1 * 4 + 1));
+            }
+        });
+        boolean used[] = new boolean[n];
+        for (int k = 0; k < n; k++)
+        {
+            int current = order[k];
+            if (used[current])
+            {
+                continue;
+            }
+            double startX = selected.get(current * 4 + 0);
+            double startY = selected.get(current * 4 + 1);
+            result.moveTo(startX, startY);
+            while (true)
+            {
+                used[current] = true;
+                double x0 = selected.get(current * 4 + 0);
+                double y0 = selected.get(current * 4 + 1);
+                double x1 = selected.get(current * 4 + 2);
+                double y1 = selected.get(current * 4 + 3);
+                if (x1 == startX && y1 == startY)
+                {
+                    break;
+                }
+                result.lineTo(x1, y1);
+                int next = findNext(order, used, x0, y0, x1, y1);
+                if (next == -1)
+                {
+                    break;
+                }
+                current = next;
+            }
+            result.closePath();
+        }
+    }
+    
+    /**
+     * Find the unused selected piece that starts at the end of the 
+     * given piece and makes the sharpest left turn
+     * 
+     * @param order The indices of the selected pieces, sorted by their
+     * start points
+     * @param used Which pieces have already been used
+     * @param x0 The x-coordinate of the start of the current piece
+     * @param y0 The y-coordinate of the start of the current piece
+     * @param x1 The x-coordinate of the end of the current piece
+     * @param y1 The y-coordinate of the end of the current piece
+     * @return The next piece, or -1 if there is no unused piece
+     */
+    private int findNext(int order[], boolean used[], 
+        double x0, double y0, double x1, double y1)
+    {
+        // Binary search for the first piece starting at (x1,y1)
+        int lo = 0;
+        int hi = order.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            int m = order[mid];
+            double mx = selected.get(m * 4 + 0);
+            double my = selected.get(m * 4 + 1);
+            if (mx < x1 || (mx == x1 && my < y1))
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int best = -1;
+        double bestAngle = Double.NEGATIVE_INFINITY;
+        for (int k = lo; k < order.length; k++)
+        {
+            int c = order[k];
+            if (selected.get(c * 4 + 0) != x1 || selected.get(c * 4 + 1) != y1)
+            {
+                break;
+            }
+            if (used[c])
+            {
+                continue;
+            }
+            double ox = selected.get(c * 4 + 2) - x1;
+            double oy = selected.get(c * 4 + 3) - y1;
+            double angle = Math.atan2(dx * oy - dy * ox, dx * ox + dy * oy);
+            if (angle > bestAngle)
+            {
+                bestAngle = angle;
+                best = c;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Sort the given indices with the given comparator, using a 
+     * stable merge sort
+     * 
+     * @param indices The indices
+     * @param comparator The comparator
+     */
+    private static void sort(int indices[], IndexComparator comparator)
+    {
+        int n = indices.length;
+        int source[] = indices;
+        int target[] = new int[n];
+        for (int width = 1; width < n; width *= 2)
+        {
+            for (int lo = 0; lo < n; lo += 2 * width)
+            {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi)
+                {
+                    if (comparator.compare(source[j], source[i]) < 0)
+                    {
+                        target[k++] = source[j++];
+                    }
+                    else
+                    {
+                        target[k++] = source[i++];
+                    }
+                }
+                while (i < mid)
+                {
+                    target[k++] = source[i++];
+                }
+                while (j < hi)
+                {
+                    target[k++] = source[j++];
+                }
+            }
+            int temp[] = source;
+            source = target;
+            target = temp;
+        }
+        if (source != indices)
+        {
+            System.arraycopy(source, 0, indices, 0, n);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+
+/**
+ * Methods for computing boolean operations on polygons and shapes.<br>
+ * <br>
+ * These methods offer an alternative to the operations of the
+ * <code>java.awt.geom.Area</code> class, for the case that the
+ * inputs consist of line segments (or are flattened into line 
+ * segments), which is usually considerably faster for polygons with 
+ * many vertices.<br>
+ * <br>
+ * The results are closed polygon rings, where outer boundaries are
+ * oriented counterclockwise and holes are oriented clockwise (in a 
+ * coordinate system where the y-axis points up), to be interpreted 
+ * with the <code>WIND_NON_ZERO</code> winding rule.<br>
+ * <br>
+ * Each sub-path of an input is treated as a closed ring, regardless 
+ * of whether it was explicitly closed or not. The rings may intersect
+ * themself or each other. The area that is covered by an input is 
+ * determined by its winding rule, in the same way as for a 
+ * <code>Path2D</code>.
+ */
+public class PolygonClipping
+{
+    /**
+     * Compute the union of the given shapes. The shapes will be 
+     * flattened with the given flatness.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @return The union
+     */
+    public static Path2D union(Shape shape0, Shape shape1, double flatness)
+    {
+        return compute(shape0, shape1, flatness, PolygonClipper.UNION);
+    }
+    
+    /**
+     * Compute the intersection of the given shapes. The shapes will be 
+     * flattened with the given flatness.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @return The intersection
+     */
+    public static Path2D intersection(
+        Shape shape0, Shape shape1, double flatness)
+    {
+        return compute(shape0, shape1, flatness, PolygonClipper.INTERSECTION);
+    }
+    
+    /**
+     * Compute the difference of the given shapes, namely the area that
+     * is covered by the first shape, but not by the second. The shapes 
+     * will be flattened with the given flatness.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @return The difference
+     */
+    public static Path2D difference(
+        Shape shape0, Shape shape1, double flatness)
+    {
+        return compute(shape0, shape1, flatness, PolygonClipper.DIFFERENCE);
+    }
+    
+    /**
+     * Compute the exclusive or of the given shapes, namely the area that
+     * is covered by exactly one of the shapes. The shapes will be 
+     * flattened with the given flatness.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @return The exclusive or
+     */
+    public static Path2D exclusiveOr(
+        Shape shape0, Shape shape1, double flatness)
+    {
+        return compute(shape0, shape1, flatness, PolygonClipper.EXCLUSIVE_OR);
+    }
+    
+    /**
+     * Compute the union of the given polygons.
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If one of the winding rules is 
+     * not valid, or the result is identical to one of the inputs
+     */
+    public static PackedPath union(
+        PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, PackedPath result)
+    {
+        return compute(path0, windingRule0, path1, windingRule1, 
+            PolygonClipper.UNION, result);
+    }
+    
+    /**
+     * Compute the intersection of the given polygons.
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If one of the winding rules is 
+     * not valid, or the result is identical to one of the inputs
+     */
+    public static PackedPath intersection(
+        PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, PackedPath result)
+    {
+        return compute(path0, windingRule0, path1, windingRule1, 
+            PolygonClipper.INTERSECTION, result);
+    }
+    
+    /**
+     * Compute the difference of the given polygons, namely the area that
+     * is covered by the first polygon, but not by the second.
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If one of the winding rules is 
+     * not valid, or the result is identical to one of the inputs
+     */
+    public static PackedPath difference(
+        PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, PackedPath result)
+    {
+        return compute(path0, windingRule0, path1, windingRule1, 
+            PolygonClipper.DIFFERENCE, result);
+    }
+    
+    /**
+     * Compute the exclusive or of the given polygons, namely the area 
+     * that is covered by exactly one of the polygons.
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If one of the winding rules is 
+     * not valid, or the result is identical to one of the inputs
+     */
+    public static PackedPath exclusiveOr(
+        PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, PackedPath result)
+    {
+        return compute(path0, windingRule0, path1, windingRule1, 
+            PolygonClipper.EXCLUSIVE_OR, result);
+    }
+    
+    /**
+     * Compute the result of the given operation for the given shapes
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @param operation The operation
+     * @return The result
+     */
+    private static Path2D compute(
+        Shape shape0, Shape shape1, double flatness, int operation)
+    {
+        PathIterator pi0 = shape0.getPathIterator(null);
+        PathIterator pi1 = shape1.getPathIterator(null);
+        PackedPath path0 = Shapes.computePackedPath(shape0, flatness, null);
+        PackedPath path1 = Shapes.computePackedPath(shape1, flatness, null);
+        PackedPath result = compute(path0, pi0.getWindingRule(), 
+            path1, pi1.getWindingRule(), operation, null);
+        return result.toPath();
+    }
+    
+    /**
+     * Compute the result of the given operation for the given polygons
+     * 
+     * @param path0 The first polygon
+     * @param windingRule0 The winding rule of the first polygon
+     * @param path1 The second polygon
+     * @param windingRule1 The winding rule of the second polygon
+     * @param operation The operation
+     * @param result The result
+     * @return The result
+     */
+    private static PackedPath compute(
+        PackedPath path0, int windingRule0, 
+        PackedPath path1, int windingRule1, 
+        int operation, PackedPath result)
+    {
+        if (result == path0 || result == path1)
+        {
+            throw new IllegalArgumentException(
+                "The result may not be identical to one of the inputs");
+        }
+        PackedPath r = PackedPath.prepare(result);
+        PolygonClipper.compute(
+            path0, windingRule0, path1, windingRule1, operation, r);
+        return r;
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private PolygonClipping()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.BasicStroke;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+
+/**
+ * Methods for computing offsets of polygons and buffers around 
+ * polylines.<br>
+ * <br>
+ * The {@link #offset(Shape, double, int, double, double) offset} of a 
+ * polygon is the region that is obtained by moving its boundary by a 
+ * certain distance to the outside (for positive distances) or to the 
+ * inside (for negative distances). The 
+ * {@link #buffer(Shape, double, int, int, double, double) buffer} of a
+ * polyline is the region that is covered by a stroke along the polyline,
+ * similar to the result of <code>BasicStroke#createStrokedShape</code>,
+ * but without the overlapping parts.<br>
+ * <br>
+ * The type of the joins and caps is given with the constants of the
+ * <code>BasicStroke</code> class. The offset curves are built in a 
+ * single pass over the vertices. These curves may intersect themselves,
+ * and are then resolved with the methods of the {@link PolygonClipping}
+ * class, so that the results are polygons whose outer boundaries are 
+ * oriented counterclockwise, and whose holes are oriented clockwise.
+ */
+public class PolygonOffsets
+{
+    /**
+     * Compute the offset of the given shape. The shape will be flattened
+     * with the given flatness, and interpreted as a polygon as described
+     * in {@link #offset(PackedPath, int, double, int, double, double, 
+     * PackedPath)}.
+     * 
+     * @param shape The shape
+     * @param distance The offset distance. Positive values will enlarge
+     * the shape, negative values will shrink it.
+     * @param join The type of the joins at the corners, one of the
+     * <code>BasicStroke.JOIN_*</code> constants
+     * @param miterLimit The limit for miter joins, relative to the 
+     * distance. Corners where the miter would be longer than this limit
+     * will receive a bevel join instead. 
+     * @param flatness The flatness for the path iterator, and the 
+     * maximum distance between the line segments of round joins and 
+     * the ideal arcs
+     * @return The offset shape
+     * @throws IllegalArgumentException If the join type is not valid,
+     * or the miter limit is smaller than 1
+     */
+    public static Path2D offset(Shape shape, double distance, 
+        int join, double miterLimit, double flatness)
+    {
+        PathIterator pi = shape.getPathIterator(null);
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        PackedPath result = offset(path, pi.getWindingRule(), 
+            distance, join, miterLimit, flatness, null);
+        return result.toPath();
+    }
+    
+    /**
+     * Compute the offset of the polygon that is given by the given path.
+     * The rings of the polygon are interpreted as described in
+     * {@link Triangulations#triangulate(PackedPath, int)}.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule of the path
+     * @param distance The offset distance. Positive values will enlarge
+     * the polygon, negative values will shrink it.
+     * @param join The type of the joins at the corners, one of the
+     * <code>BasicStroke.JOIN_*</code> constants
+     * @param miterLimit The limit for miter joins, relative to the 
+     * distance. Corners where the miter would be longer than this limit
+     * will receive a bevel join instead. 
+     * @param flatness The maximum distance between the line segments of
+     * round joins and the ideal arcs
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If the winding rule or the join 
+     * type is not valid, the miter limit is smaller than 1, or the 
+     * result is identical to the given path
+     */
+    public static PackedPath offset(PackedPath path, int windingRule,
+        double distance, int join, double miterLimit, double flatness,
+        PackedPath result)
+    {
+        validate(join, BasicStroke.CAP_BUTT, miterLimit);
+        PackedPath r = prepareResult(path, result);
+        PackedPath normalized = PolygonClipper.normalize(path, windingRule);
+        PackedPath raw = new PackedPath(normalized.getNumPoints() * 2);
+        PathOffsetter offsetter = new PathOffsetter(distance, join, 
+            BasicStroke.CAP_BUTT, miterLimit, flatness, raw);
+        double coordinates[] = normalized.getCoordinates();
+        for (int s = 0; s < normalized.getNumSubPaths(); s++)
+        {
+            offsetter.offsetRing(coordinates, 
+                normalized.getSubPathStart(s), normalized.getSubPathEnd(s), 
+                false);
+        }
+        PolygonClipper.computePositive(raw, r);
+        return r;
+    }
+    
+    /**
+     * Compute the buffer around the given shape. The shape will be 
+     * flattened with the given flatness, and interpreted as a set of
+     * polylines as described in {@link #buffer(PackedPath, double, 
+     * int, int, double, double, PackedPath)}.
+     * 
+     * @param shape The shape
+     * @param distance The distance. The absolute value of this distance
+     * is half of the width of the buffer.
+     * @param join The type of the joins at the corners, one of the
+     * <code>BasicStroke.JOIN_*</code> constants
+     * @param cap The type of the caps at the ends of open polylines,
+     * one of the <code>BasicStroke.CAP_*</code> constants
+     * @param miterLimit The limit for miter joins, relative to the 
+     * distance. Corners where the miter would be longer than this limit
+     * will receive a bevel join instead. 
+     * @param flatness The flatness for the path iterator, and the 
+     * maximum distance between the line segments of round joins and 
+     * caps and the ideal arcs
+     * @return The buffer shape
+     * @throws IllegalArgumentException If the join or cap type is not 
+     * valid, or the miter limit is smaller than 1
+     */
+    public static Path2D buffer(Shape shape, double distance, 
+        int join, int cap, double miterLimit, double flatness)
+    {
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        PackedPath result = buffer(path, 
+            distance, join, cap, miterLimit, flatness, null);
+        return result.toPath();
+    }
+    
+    /**
+     * Compute the buffer around the polylines that are given by the 
+     * sub-paths of the given path. Sub-paths that have been closed 
+     * are treated as closed polylines. All other sub-paths are treated
+     * as open polylines, and receive caps at their ends.
+     * 
+     * @param path The path
+     * @param distance The distance. The absolute value of this distance
+     * is half of the width of the buffer.
+     * @param join The type of the joins at the corners, one of the
+     * <code>BasicStroke.JOIN_*</code> constants
+     * @param cap The type of the caps at the ends of open polylines,
+     * one of the <code>BasicStroke.CAP_*</code> constants
+     * @param miterLimit The limit for miter joins, relative to the 
+     * distance. Corners where the miter would be longer than this limit
+     * will receive a bevel join instead. 
+     * @param flatness The maximum distance between the line segments of
+     * round joins and caps and the ideal arcs
+     * @param result The path that will store the result. If this is
+     * <code>null</code>, then a new path will be created and returned.
+     * @return The result
+     * @throws IllegalArgumentException If the join or cap type is not 
+     * valid, the miter limit is smaller than 1, or the result is 
+     * identical to the given path
+     */
+    public static PackedPath buffer(PackedPath path, double distance,
+        int join, int cap, double miterLimit, double flatness,
+        PackedPath result)
+    {
+        validate(join, cap, miterLimit);
+        PackedPath r = prepareResult(path, result);
+        if (distance == 0)
+        {
+            return r;
+        }
+        PackedPath raw = new PackedPath(path.getNumPoints() * 4);
+        PathOffsetter offsetter = new PathOffsetter(
+            distance, join, cap, miterLimit, flatness, raw);
+        double coordinates[] = path.getCoordinates();
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            offsetter.bufferPolyline(coordinates, 
+                path.getSubPathStart(s), path.getSubPathEnd(s), 
+                path.isSubPathClosed(s));
+        }
+        PolygonClipper.computePositive(raw, r);
+        return r;
+    }
+    
+    /**
+     * Make sure that the given parameters are valid
+     * 
+     * @param join The join type
+     * @param cap The cap type
+     * @param miterLimit The miter limit
+     * @throws IllegalArgumentException If any parameter is not valid
+     */
+    private static void validate(int join, int cap, double miterLimit)
+    {
+        if (join != BasicStroke.JOIN_MITER &&
+            join != BasicStroke.JOIN_ROUND &&
+            join != BasicStroke.JOIN_BEVEL)
+        {
+            throw new IllegalArgumentException("Invalid join type: " + join);
+        }
+        if (cap != BasicStroke.CAP_BUTT &&
+            cap != BasicStroke.CAP_ROUND &&
+            cap != BasicStroke.CAP_SQUARE)
+        {
+            throw new IllegalArgumentException("Invalid cap type: " + cap);
+        }
+        if (!(miterLimit >= 1))
+        {
+            throw new IllegalArgumentException(
+                "The miter limit must be at least 1, but is " + miterLimit);
+        }
+    }
+    
+    /**
+     * Returns the given result, cleared, or a new path if the given 
+     * result is <code>null</code>
+     * 
+     * @param input The input path
+     * @param result The result path
+     * @return The result
+     * @throws IllegalArgumentException If the result is identical to 
+     * the input
+     */
+    private static PackedPath prepareResult(
+        PackedPath input, PackedPath result)
+    {
+        if (result == input)
+        {
+            throw new IllegalArgumentException(
+                "The result may not be identical to the input");
+        }
+        return PackedPath.prepare(result);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private PolygonOffsets()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,707 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+
+/**
+ * A class for simplifying polylines and polygon rings, by removing
+ * points that do not contribute significantly to their shape.<br>
+ * <br>
+ * Two algorithms are offered:
+ * <ul>
+ *   <li>
+ *     The Douglas-Peucker algorithm, which keeps all points whose
+ *     distance to the simplified polyline would be larger than a
+ *     given tolerance
+ *   </li>
+ *   <li>
+ *     The Visvalingam-Whyatt algorithm, which removes points as long
+ *     as the area of the triangle that they form with their neighbors
+ *     is smaller than a given tolerance
+ *   </li>
+ * </ul>
+ * The implementations are not recursive. Instances of this class
+ * keep the internal scratch arrays that are required for the
+ * computations, so that simplifying many polylines with the same
+ * instance does not cause any allocations once the scratch arrays
+ * have reached the size of the largest input.<br>
+ * <br>
+ * This class is not thread-safe. Each thread should use its own
+ * instance.
+ */
+public final class PolylineSimplifier
+{
+    /**
+     * The flags indicating which points are kept
+     */
+    private boolean keep[];
+
+    /**
+     * The stack of index ranges for the Douglas-Peucker algorithm,
+     * and the heap for the Visvalingam-Whyatt algorithm
+     */
+    private int stack[];
+
+    /**
+     * The indices of the previous points, for the Visvalingam-Whyatt
+     * algorithm
+     */
+    private int prev[];
+
+    /**
+     * The indices of the next points, for the Visvalingam-Whyatt
+     * algorithm
+     */
+    private int next[];
+
+    /**
+     * The positions of the points in the heap, for the
+     * Visvalingam-Whyatt algorithm
+     */
+    private int heapPositions[];
+
+    /**
+     * The triangle areas of the points, for the Visvalingam-Whyatt
+     * algorithm
+     */
+    private double areas[];
+
+    /**
+     * The path that stores the flattened input shapes
+     */
+    private final PackedPath flattened;
+
+    /**
+     * Creates a new simplifier
+     */
+    public PolylineSimplifier()
+    {
+        this.keep = new boolean[0];
+        this.stack = new int[0];
+        this.prev = new int[0];
+        this.next = new int[0];
+        this.heapPositions = new int[0];
+        this.areas = new double[0];
+        this.flattened = new PackedPath();
+    }
+
+    /**
+     * Make sure that the scratch arrays can store the data for the
+     * given number of points
+     *
+     * @param n The number of points
+     */
+    private void ensureCapacity(int n)
+    {
+        if (keep.length < n)
+        {
+            int newLength = Math.max(n, keep.length * 2);
+            keep = new boolean[newLength];
+            stack = new int[newLength * 2];
+            prev = new int[newLength];
+            next = new int[newLength];
+            heapPositions = new int[newLength];
+            areas = new double[newLength];
+        }
+    }
+
+    /**
+     * Simplify the given shape with the Douglas-Peucker algorithm.
+     * The shape will be flattened with the given flatness, and each
+     * sub-path will be simplified individually.
+     *
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param tolerance The maximum distance that the points of the
+     * flattened shape may have from the simplified shape
+     * @return The simplified path
+     */
+    public Path2D simplifyDouglasPeucker(
+        Shape shape, double flatness, double tolerance)
+    {
+        Shapes.computePackedPath(shape, flatness, flattened);
+        return simplifyDouglasPeucker(flattened, tolerance, null).toPath();
+    }
+
+    /**
+     * Simplify the given path with the Douglas-Peucker algorithm.
+     * Each sub-path will be simplified individually. The start and
+     * end points of open sub-paths will always be kept, and closed
+     * sub-paths will keep at least three points.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path will
+     * be created and returned. Otherwise, the given result will be
+     * cleared, filled with the simplified path, and returned. The
+     * result may not be identical to the input.
+     *
+     * @param input The input path
+     * @param tolerance The maximum distance that the points of the
+     * input path may have from the simplified path
+     * @param result The result
+     * @return The result
+     * @throws IllegalArgumentException If the input and the result are
+     * identical
+     */
+    public PackedPath simplifyDouglasPeucker(
+        PackedPath input, double tolerance, PackedPath result)
+    {
+        result = prepareResult(input, result);
+        double coordinates[] = input.getCoordinates();
+        for (int s = 0; s < input.getNumSubPaths(); s++)
+        {
+            int start = input.getSubPathStart(s);
+            int n = input.getSubPathEnd(s) - start;
+            boolean closed = input.isSubPathClosed(s);
+            simplifyDouglasPeucker(
+                coordinates, start, n, closed, tolerance, result);
+        }
+        return result;
+    }
+
+    /**
+     * Simplify the specified polyline with the Douglas-Peucker
+     * algorithm, and append the result as a new sub-path to the given
+     * result. Closed rings are split at the point that is farthest
+     * from their first point, and keep at least three points.
+     *
+     * @param coordinates The coordinates, as consecutive
+     * <code>(x,y)</code> pairs
+     * @param start The index of the first point of the polyline
+     * @param n The number of points of the polyline
+     * @param closed Whether the polyline is a closed ring
+     * @param tolerance The tolerance
+     * @param result The result
+     */
+    public void simplifyDouglasPeucker(double coordinates[],
+        int start, int n, boolean closed, double tolerance,
+        PackedPath result)
+    {
+        if (n < 3)
+        {
+            append(coordinates, start, n, closed, null, result);
+            return;
+        }
+
+        // For closed rings, the first point is visited again at the end
+        int m = closed ? n + 1 : n;
+        ensureCapacity(m);
+        for (int i = 0; i < m; i++)
+        {
+            keep[i] = false;
+        }
+        keep[0] = true;
+        keep[m - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+        int stackSize = 0;
+        int farthest = -1;
+        if (closed)
+        {
+            farthest = findFarthest(coordinates, start, n);
+            keep[farthest] = true;
+            stack[stackSize++] = 0;
+            stack[stackSize++] = farthest;
+            stack[stackSize++] = farthest;
+            stack[stackSize++] = m - 1;
+        }
+        else
+        {
+            stack[stackSize++] = 0;
+            stack[stackSize++] = m - 1;
+        }
+        while (stackSize > 0)
+        {
+            int b = stack[--stackSize];
+            int a = stack[--stackSize];
+            int ia = start + (a % n);
+            int ib = start + (b % n);
+            double ax = coordinates[ia * 2 + 0];
+            double ay = coordinates[ia * 2 + 1];
+            double bx = coordinates[ib * 2 + 0];
+            double by = coordinates[ib * 2 + 1];
+            double maxDistanceSquared = -1;
+            int maxIndex = -1;
+            for (int i = a + 1; i < b; i++)
+            {
+                int ii = start + i;
+                double px = coordinates[ii * 2 + 0];
+                double py = coordinates[ii * 2 + 1];
+                double distanceSquared = 
+                    ptSegDistSq(ax, ay, bx, by, px, py);
+                if (distanceSquared > maxDistanceSquared)
+                {
+                    maxDistanceSquared = distanceSquared;
+                    maxIndex = i;
+                }
+            }
+            if (maxDistanceSquared > toleranceSquared)
+            {
+                keep[maxIndex] = true;
+                stack[stackSize++] = a;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = b;
+            }
+        }
+        if (closed)
+        {
+            keepThirdPoint(coordinates, start, n, farthest);
+        }
+        append(coordinates, start, n, closed, keep, result);
+    }
+
+    /**
+     * Returns the index (relative to the start index) of the point of 
+     * the specified polyline that has the largest distance to its 
+     * first point. 
+     * 
+     * @param coordinates The coordinates
+     * @param start The index of the first point of the polyline
+     * @param n The number of points of the polyline, at least 2
+     * @return The index of the farthest point
+     */
+    private static int findFarthest(double coordinates[], int start, int n)
+    {
+        double x0 = coordinates[start * 2 + 0];
+        double y0 = coordinates[start * 2 + 1];
+        double maxDistanceSquared = -1;
+        int maxIndex = -1;
+        for (int i = 1; i < n; i++)
+        {
+            int ii = start + i;
+            double dx = coordinates[ii * 2 + 0] - x0;
+            double dy = coordinates[ii * 2 + 1] - y0;
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared > maxDistanceSquared)
+            {
+                maxDistanceSquared = distanceSquared;
+                maxIndex = i;
+            }
+        }
+        return maxIndex;
+    }
+
+    /**
+     * Make sure that at least three points of the specified closed 
+     * ring are kept. If only the first point and the given farthest 
+     * point are kept, then the point with the largest distance to the 
+     * line segment between them will be kept as well.
+     * 
+     * @param coordinates The coordinates
+     * @param start The index of the first point of the ring
+     * @param n The number of points of the ring, at least 3
+     * @param farthest The index of the farthest point
+     */
+    private void keepThirdPoint(
+        double coordinates[], int start, int n, int farthest)
+    {
+        for (int i = 1; i < n; i++)
+        {
+            if (i != farthest && keep[i])
+            {
+                return;
+            }
+        }
+        double ax = coordinates[start * 2 + 0];
+        double ay = coordinates[start * 2 + 1];
+        int ib = start + farthest;
+        double bx = coordinates[ib * 2 + 0];
+        double by = coordinates[ib * 2 + 1];
+        double maxDistanceSquared = -1;
+        int maxIndex = -1;
+        for (int i = 1; i < n; i++)
+        {
+            if (i == farthest)
+            {
+                continue;
+            }
+            int ii = start + i;
+            double px = coordinates[ii * 2 + 0];
+            double py = coordinates[ii * 2 + 1];
+            double distanceSquared = ptSegDistSq(ax, ay, bx, by, px, py);
+            if (distanceSquared > maxDistanceSquared)
+            {
+                maxDistanceSquared = distanceSquared;
+                maxIndex = i;
+            }
+        }
+        keep[maxIndex] = true;
+    }
+
+    /**
+     * Simplify the given shape with the Visvalingam-Whyatt algorithm.
+     * The shape will be flattened with the given flatness, and each
+     * sub-path will be simplified individually.
+     *
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param tolerance The minimum area of the triangle that a point
+     * forms with its neighbors in order to be kept
+     * @return The simplified path
+     */
+    public Path2D simplifyVisvalingam(
+        Shape shape, double flatness, double tolerance)
+    {
+        Shapes.computePackedPath(shape, flatness, flattened);
+        return simplifyVisvalingam(flattened, tolerance, null).toPath();
+    }
+
+    /**
+     * Simplify the given path with the Visvalingam-Whyatt algorithm.
+     * Each sub-path will be simplified individually. The start and
+     * end points of open sub-paths will always be kept, and closed
+     * sub-paths will keep at least three points.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path will
+     * be created and returned. Otherwise, the given result will be
+     * cleared, filled with the simplified path, and returned. The
+     * result may not be identical to the input.
+     *
+     * @param input The input path
+     * @param tolerance The minimum area of the triangle that a point
+     * forms with its neighbors in order to be kept
+     * @param result The result
+     * @return The result
+     * @throws IllegalArgumentException If the input and the result are
+     * identical
+     */
+    public PackedPath simplifyVisvalingam(
+        PackedPath input, double tolerance, PackedPath result)
+    {
+        result = prepareResult(input, result);
+        double coordinates[] = input.getCoordinates();
+        for (int s = 0; s < input.getNumSubPaths(); s++)
+        {
+            int start = input.getSubPathStart(s);
+            int n = input.getSubPathEnd(s) - start;
+            boolean closed = input.isSubPathClosed(s);
+            simplifyVisvalingam(
+                coordinates, start, n, closed, tolerance, result);
+        }
+        return result;
+    }
+
+    /**
+     * Simplify the specified polyline with the Visvalingam-Whyatt
+     * algorithm, and append the result as a new sub-path to the given
+     * result.
+     *
+     * @param coordinates The coordinates, as consecutive
+     * <code>(x,y)</code> pairs
+     * @param start The index of the first point of the polyline
+     * @param n The number of points of the polyline
+     * @param closed Whether the polyline is a closed ring
+     * @param tolerance The tolerance
+     * @param result The result
+     */
+    public void simplifyVisvalingam(double coordinates[],
+        int start, int n, boolean closed, double tolerance,
+        PackedPath result)
+    {
+        int minRemaining = closed ? 3 : 2;
+        if (n <= minRemaining)
+        {
+            append(coordinates, start, n, closed, null, result);
+            return;
+        }
+        ensureCapacity(n);
+        int heap[] = stack;
+        for (int i = 0; i < n; i++)
+        {
+            keep[i] = true;
+            prev[i] = i - 1;
+            next[i] = i + 1;
+            heapPositions[i] = -1;
+        }
+        if (closed)
+        {
+            prev[0] = n - 1;
+            next[n - 1] = 0;
+        }
+        else
+        {
+            next[n - 1] = -1;
+        }
+
+        // Build the heap of all points that may be removed
+        int heapSize = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (prev[i] != -1 && next[i] != -1)
+            {
+                areas[i] = computeArea(coordinates, start, i);
+                heap[heapSize] = i;
+                heapPositions[i] = heapSize;
+                heapSize++;
+            }
+        }
+        for (int h = heapSize / 2 - 1; h >= 0; h--)
+        {
+            siftDown(heap, heapSize, h);
+        }
+
+        // Remove the points with the smallest areas
+        int remaining = n;
+        while (heapSize > 0 && remaining > minRemaining)
+        {
+            int i = heap[0];
+            if (areas[i] >= tolerance)
+            {
+                break;
+            }
+            heapSize--;
+            moveInHeap(heap, heap[heapSize], 0);
+            heapPositions[i] = -1;
+            siftDown(heap, heapSize, 0);
+
+            keep[i] = false;
+            remaining--;
+            int p = prev[i];
+            int q = next[i];
+            next[p] = q;
+            prev[q] = p;
+            heapSize = updateArea(coordinates, start, p, heap, heapSize);
+            heapSize = updateArea(coordinates, start, q, heap, heapSize);
+        }
+        append(coordinates, start, n, closed, keep, result);
+    }
+
+    /**
+     * Recompute the area of the given point after one of its neighbors
+     * was removed, and update its position in the heap
+     *
+     * @param coordinates The coordinates
+     * @param start The index of the first point of the polyline
+     * @param i The index of the point in the polyline
+     * @param heap The heap
+     * @param heapSize The heap size
+     * @return The heap size
+     */
+    private int updateArea(double coordinates[], int start, int i,
+        int heap[], int heapSize)
+    {
+        int h = heapPositions[i];
+        if (h == -1)
+        {
+            return heapSize;
+        }
+        areas[i] = computeArea(coordinates, start, i);
+        siftUp(heap, h);
+        siftDown(heap, heapSize, heapPositions[i]);
+        return heapSize;
+    }
+
+    /**
+     * Compute the area of the triangle that the given point forms with
+     * its current neighbors
+     *
+     * @param coordinates The coordinates
+     * @param start The index of the first point of the polyline
+     * @param i The index of the point in the polyline
+     * @return The area
+     */
+    private double computeArea(double coordinates[], int start, int i)
+    {
+        int i0 = start + prev[i];
+        int i1 = start + i;
+        int i2 = start + next[i];
+        double x0 = coordinates[i0 * 2 + 0];
+        double y0 = coordinates[i0 * 2 + 1];
+        double x1 = coordinates[i1 * 2 + 0];
+        double y1 = coordinates[i1 * 2 + 1];
+        double x2 = coordinates[i2 * 2 + 0];
+        double y2 = coordinates[i2 * 2 + 1];
+        double cross = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        return Math.abs(cross) * 0.5;
+    }
+
+    /**
+     * Move the element at the given heap position up in the heap, until
+     * the heap condition is fulfilled
+     *
+     * @param heap The heap
+     * @param h The heap position
+     */
+    private void siftUp(int heap[], int h)
+    {
+        int i = heap[h];
+        while (h > 0)
+        {
+            int parent = (h - 1) / 2;
+            int p = heap[parent];
+            if (areas[p] <= areas[i])
+            {
+                break;
+            }
+            moveInHeap(heap, p, h);
+            h = parent;
+        }
+        moveInHeap(heap, i, h);
+    }
+
+    /**
+     * Move the element at the given heap position down in the heap,
+     * until the heap condition is fulfilled
+     *
+     * @param heap The heap
+     * @param heapSize The heap size
+     * @param h The heap position
+     */
+    private void siftDown(int heap[], int heapSize, int h)
+    {
+        if (h >= heapSize)
+        {
+            return;
+        }
+        int i = heap[h];
+        while (true)
+        {
+            int child = 2 * h + 1;
+            if (child >= heapSize)
+            {
+                break;
+            }
+            if (child + 1 < heapSize && 
+                areas[heap[child + 1]] < areas[heap[child]])
+            {
+                child++;
+            }
+            int c = heap[child];
+            if (areas[i] <= areas[c])
+            {
+                break;
+            }
+            moveInHeap(heap, c, h);
+            h = child;
+        }
+        moveInHeap(heap, i, h);
+    }
+
+    /**
+     * Store the given point index at the given heap position
+     *
+     * @param heap The heap
+     * @param i The point index
+     * @param h The heap position
+     */
+    private void moveInHeap(int heap[], int i, int h)
+    {
+        heap[h] = i;
+        heapPositions[i] = h;
+    }
+
+    /**
+     * Append the specified points as a new sub-path to the given result
+     *
+     * @param coordinates The coordinates
+     * @param start The index of the first point
+     * @param n The number of points
+     * @param closed Whether the sub-path should be closed
+     * @param keep The flags indicating which points should be appended.
+     * If this is <code>null</code>, then all points are appended.
+     * @param result The result
+     */
+    private static void append(double coordinates[], int start, int n,
+        boolean closed, boolean keep[], PackedPath result)
+    {
+        boolean first = true;
+        for (int i = 0; i < n; i++)
+        {
+            if (keep != null && !keep[i])
+            {
+                continue;
+            }
+            int ii = start + i;
+            double x = coordinates[ii * 2 + 0];
+            double y = coordinates[ii * 2 + 1];
+            if (first)
+            {
+                result.moveTo(x, y);
+                first = false;
+            }
+            else
+            {
+                result.lineTo(x, y);
+            }
+        }
+        if (closed && !first)
+        {
+            result.closePath();
+        }
+    }
+
+    /**
+     * Returns the squared distance of the given point to the given line
+     * segment
+     *
+     * @param x0 The x-coordinate of the segment start
+     * @param y0 The y-coordinate of the segment start
+     * @param x1 The x-coordinate of the segment end
+     * @param y1 The y-coordinate of the segment end
+     * @param px The x-coordinate of the point
+     * @param py The y-coordinate of the point
+     * @return The squared distance
+     */
+    static double ptSegDistSq(double x0, double y0, 
+        double x1, double y1, double px, double py)
+    {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0)
+        {
+            t = ((px - x0) * dx + (py - y0) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double cx = x0 + t * dx - px;
+        double cy = y0 + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    /**
+     * Returns the given result, or a new packed path if the given result
+     * is <code>null</code>. The given result will be cleared.
+     *
+     * @param input The input
+     * @param result The result
+     * @return The result
+     * @throws IllegalArgumentException If the input and the result are
+     * identical
+     */
+    private static PackedPath prepareResult(
+        PackedPath input, PackedPath result)
+    {
+        if (result == input)
+        {
+            throw new IllegalArgumentException(
+                "The input and the result may not be identical");
+        }
+        return PackedPath.prepare(result);
+    }
+}
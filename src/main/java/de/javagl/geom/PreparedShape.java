@@ -0,0 +1,670 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A representation of a shape that allows fast, repeated point 
+ * containment queries.<br>
+ * <br>
+ * Instances of this class are created from a flattened version of a 
+ * shape. The edges of the flattened shape are sorted into a regular 
+ * grid. For each grid cell, the winding number at one corner of the 
+ * cell is computed in advance. A containment query then only has to
+ * examine the edges in the cell that contains the query point, instead
+ * of all edges of the shape.<br>
+ * <br>
+ * The results of the containment queries are the same as for the 
+ * flattened shape, according to its winding rule, except for points
+ * that are (numerically) on the boundary of the shape.<br>
+ * <br>
+ * Instances of this class are immutable, and may be used by multiple
+ * threads concurrently.
+ */
+public final class PreparedShape
+{
+    /**
+     * Creates a new prepared shape for the given shape
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @return The prepared shape
+     */
+    public static PreparedShape create(Shape shape, double flatness)
+    {
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        int windingRule = shape.getPathIterator(null).getWindingRule();
+        return new PreparedShape(path, windingRule);
+    }
+    
+    /**
+     * Creates a new prepared shape for the area that is covered by the
+     * given path, according to the given winding rule. Every sub-path 
+     * of the given path is considered to be closed.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule, either
+     * <code>PathIterator.WIND_EVEN_ODD</code> or
+     * <code>PathIterator.WIND_NON_ZERO</code>
+     * @return The prepared shape
+     */
+    public static PreparedShape create(PackedPath path, int windingRule)
+    {
+        return new PreparedShape(path, windingRule);
+    }
+    
+    /**
+     * The maximum number of grid cells in each direction
+     */
+    private static final int MAX_CELLS = 2048;
+    
+    /**
+     * Whether the even-odd winding rule is used
+     */
+    private final boolean evenOdd;
+    
+    /**
+     * The edges, as (x0, y0, x1, y1) quadruples
+     */
+    private final double edges[];
+    
+    /**
+     * The minimum x-coordinate of the bounding box of the shape
+     */
+    private final double minX;
+
+    /**
+     * The minimum y-coordinate of the bounding box of the shape
+     */
+    private final double minY;
+
+    /**
+     * The maximum x-coordinate of the bounding box of the shape
+     */
+    private final double maxX;
+
+    /**
+     * The maximum y-coordinate of the bounding box of the shape
+     */
+    private final double maxY;
+    
+    /**
+     * The number of grid columns
+     */
+    private final int cols;
+    
+    /**
+     * The number of grid rows
+     */
+    private final int rows;
+    
+    /**
+     * The width of one grid cell
+     */
+    private final double cellWidth;
+    
+    /**
+     * The height of one grid cell
+     */
+    private final double cellHeight;
+    
+    /**
+     * The start indices of the edge lists of each cell in the 
+     * {@link #cellEdges} array. The edges of cell <code>c</code>
+     * are stored between <code>cellStarts[c]</code> (inclusive)
+     * and <code>cellStarts[c+1]</code> (exclusive).
+     */
+    private final int cellStarts[];
+    
+    /**
+     * The indices of the edges of all cells
+     */
+    private final int cellEdges[];
+    
+    /**
+     * The winding numbers at the lower right corners of the cells
+     */
+    private final int cellWindings[];
+    
+    /**
+     * Creates a new prepared shape from the given packed path. Every
+     * sub-path is considered to be closed.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule
+     */
+    private PreparedShape(PackedPath path, int windingRule)
+    {
+        this.evenOdd = (windingRule == PathIterator.WIND_EVEN_ODD);
+        this.edges = createEdges(path);
+        int numEdges = edges.length / 4;
+        
+        double bMinX = Double.POSITIVE_INFINITY;
+        double bMinY = Double.POSITIVE_INFINITY;
+        double bMaxX = Double.NEGATIVE_INFINITY;
+        double bMaxY = Double.NEGATIVE_INFINITY;
+        for (int e = 0; e < numEdges; e++)
+        {
+            bMinX = Math.min(bMinX, edges[e * 4 + 0]);
+            bMinY = Math.min(bMinY, edges[e * 4 + 1]);
+            bMaxX = Math.max(bMaxX, edges[e * 4 + 0]);
+            bMaxY = Math.max(bMaxY, edges[e * 4 + 1]);
+        }
+        this.minX = bMinX;
+        this.minY = bMinY;
+        this.maxX = bMaxX;
+        this.maxY = bMaxY;
+        
+        // Choose the grid size so that there is roughly one cell per
+        // edge, and slightly enlarge the grid so that it safely covers 
+        // the bounding box despite rounding errors
+        double width = Math.max(bMaxX - bMinX, Geom.DOUBLE_EPSILON);
+        double height = Math.max(bMaxY - bMinY, Geom.DOUBLE_EPSILON);
+        double aspect = width / height;
+        int c = (int)Math.ceil(Math.sqrt(numEdges * aspect));
+        int r = (int)Math.ceil(Math.sqrt(numEdges / aspect));
+        this.cols = Math.max(1, Math.min(MAX_CELLS, c));
+        this.rows = Math.max(1, Math.min(MAX_CELLS, r));
+        this.cellWidth = width * (1.0 + 1e-9) / cols;
+        this.cellHeight = height * (1.0 + 1e-9) / rows;
+        
+        if (numEdges == 0)
+        {
+            this.cellStarts = new int[cols * rows + 1];
+            this.cellEdges = new int[0];
+            this.cellWindings = new int[cols * rows];
+            return;
+        }
+        
+        // Count the edges in each cell, then fill the edge lists
+        int counts[] = new int[cols * rows + 1];
+        for (int e = 0; e < numEdges; e++)
+        {
+            visitCells(e, counts, null);
+        }
+        this.cellStarts = new int[cols * rows + 1];
+        for (int i = 0; i < cols * rows; i++)
+        {
+            cellStarts[i + 1] = cellStarts[i] + counts[i];
+        }
+        this.cellEdges = new int[cellStarts[cols * rows]];
+        int fill[] = Arrays.copyOf(cellStarts, cols * rows);
+        for (int e = 0; e < numEdges; e++)
+        {
+            visitCells(e, fill, cellEdges);
+        }
+        this.cellWindings = computeCellWindings();
+    }
+    
+    /**
+     * Create the edges for the given path, as (x0, y0, x1, y1) 
+     * quadruples. Each sub-path is considered to be closed.
+     * 
+     * @param path The path
+     * @return The edges
+     */
+    private static double[] createEdges(PackedPath path)
+    {
+        double coordinates[] = path.getCoordinates();
+        int numEdges = 0;
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int n = path.getSubPathEnd(s) - path.getSubPathStart(s);
+            if (n >= 2)
+            {
+                numEdges += n;
+            }
+        }
+        double edges[] = new double[numEdges * 4];
+        int e = 0;
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            if (end - start < 2)
+            {
+                continue;
+            }
+            for (int i = start; i < end; i++)
+            {
+                int j = (i + 1 < end) ? i + 1 : start;
+                edges[e * 4 + 0] = coordinates[i * 2 + 0];
+                edges[e * 4 + 1] = coordinates[i * 2 + 1];
+                edges[e * 4 + 2] = coordinates[j * 2 + 0];
+                edges[e * 4 + 3] = coordinates[j * 2 + 1];
+                e++;
+            }
+        }
+        return edges;
+    }
+    
+    /**
+     * Visit all cells that the specified edge may touch. If the given 
+     * cell edges array is <code>null</code>, then the counter for each
+     * of these cells will be incremented. Otherwise, the edge will be
+     * written into the cell edges array at the position that is given
+     * by the counter, and the counter will be incremented.<br>
+     * <br>
+     * The set of cells that is visited is conservative: It contains 
+     * at least all cells that the edge touches, including their
+     * boundaries.
+     * 
+     * @param e The edge index
+     * @param counters The counters
+     * @param cellEdges The cell edges
+     */
+    private void visitCells(int e, int counters[], int cellEdges[])
+    {
+        double x0 = edges[e * 4 + 0];
+        double y0 = edges[e * 4 + 1];
+        double x1 = edges[e * 4 + 2];
+        double y1 = edges[e * 4 + 3];
+        double eMinY = Math.min(y0, y1);
+        double eMaxY = Math.max(y0, y1);
+        int r0 = clampRow(rowOf(eMinY) - 1);
+        int r1 = clampRow(rowOf(eMaxY) + 1);
+        double dy = y1 - y0;
+        for (int r = r0; r <= r1; r++)
+        {
+            // Compute the x-range of the edge inside this row
+            double rowMinY = Math.max(eMinY, minY + r * cellHeight);
+            double rowMaxY = Math.min(eMaxY, minY + (r + 1) * cellHeight);
+            if (rowMinY > rowMaxY)
+            {
+                continue;
+            }
+            double xa = x0;
+            double xb = x1;
+            if (dy != 0)
+            {
+                double invDy = 1.0 / dy;
+                xa = x0 + (rowMinY - y0) * (x1 - x0) * invDy;
+                xb = x0 + (rowMaxY - y0) * (x1 - x0) * invDy;
+            }
+            int c0 = clampCol(colOf(Math.min(xa, xb)) - 1);
+            int c1 = clampCol(colOf(Math.max(xa, xb)) + 1);
+            for (int c = c0; c <= c1; c++)
+            {
+                int cell = r * cols + c;
+                if (cellEdges != null)
+                {
+                    cellEdges[counters[cell]] = e;
+                }
+                counters[cell]++;
+            }
+        }
+    }
+    
+    /**
+     * Compute the winding numbers at the lower right corners of all 
+     * cells.<br>
+     * <br>
+     * For each row, the crossings of all edges with the lower boundary
+     * of the row are computed. The winding number at a corner is then
+     * determined by the number of upward and downward crossings that
+     * are right of the corner.
+     * 
+     * @return The winding numbers
+     */
+    private int[] computeCellWindings()
+    {
+        int numEdges = edges.length / 4;
+        
+        // Count the upward and downward crossings for each row
+        int upCounts[] = new int[rows + 1];
+        int downCounts[] = new int[rows + 1];
+        for (int e = 0; e < numEdges; e++)
+        {
+            double y0 = edges[e * 4 + 1];
+            double y1 = edges[e * 4 + 3];
+            if (y0 == y1)
+            {
+                continue;
+            }
+            int r0 = clampRow(rowOf(Math.min(y0, y1)) - 1);
+            int r1 = clampRow(rowOf(Math.max(y0, y1)) + 1);
+            for (int r = r0; r <= r1; r++)
+            {
+                double y = minY + r * cellHeight;
+                if (y0 <= y && y < y1)
+                {
+                    upCounts[r]++;
+                }
+                else if (y1 <= y && y < y0)
+                {
+                    downCounts[r]++;
+                }
+            }
+        }
+        int upStarts[] = new int[rows + 1];
+        int downStarts[] = new int[rows + 1];
+        for (int r = 0; r < rows; r++)
+        {
+            upStarts[r + 1] = upStarts[r] + upCounts[r];
+            downStarts[r + 1] = downStarts[r] + downCounts[r];
+        }
+        double ups[] = new double[upStarts[rows]];
+        double downs[] = new double[downStarts[rows]];
+        int upFill[] = Arrays.copyOf(upStarts, rows);
+        int downFill[] = Arrays.copyOf(downStarts, rows);
+        for (int e = 0; e < numEdges; e++)
+        {
+            double x0 = edges[e * 4 + 0];
+            double y0 = edges[e * 4 + 1];
+            double x1 = edges[e * 4 + 2];
+            double y1 = edges[e * 4 + 3];
+            if (y0 == y1)
+            {
+                continue;
+            }
+            int r0 = clampRow(rowOf(Math.min(y0, y1)) - 1);
+            int r1 = clampRow(rowOf(Math.max(y0, y1)) + 1);
+            for (int r = r0; r <= r1; r++)
+            {
+                double y = minY + r * cellHeight;
+                if (y0 <= y && y < y1)
+                {
+                    ups[upFill[r]++] = computeCrossingX(x0, y0, x1, y1, y);
+                }
+                else if (y1 <= y && y < y0)
+                {
+                    downs[downFill[r]++] = 
+                        computeCrossingX(x0, y0, x1, y1, y);
+                }
+            }
+        }
+        
+        // Sweep over each row from right to left
+        int windings[] = new int[rows * cols];
+        for (int r = 0; r < rows; r++)
+        {
+            Arrays.sort(ups, upStarts[r], upStarts[r + 1]);
+            Arrays.sort(downs, downStarts[r], downStarts[r + 1]);
+            int u = upStarts[r + 1];
+            int d = downStarts[r + 1];
+            for (int c = cols - 1; c >= 0; c--)
+            {
+                double x = minX + (c + 1) * cellWidth;
+                while (u > upStarts[r] && ups[u - 1] > x)
+                {
+                    u--;
+                }
+                while (d > downStarts[r] && downs[d - 1] > x)
+                {
+                    d--;
+                }
+                int numUpsRight = upStarts[r + 1] - u;
+                int numDownsRight = downStarts[r + 1] - d;
+                windings[r * cols + c] = numUpsRight - numDownsRight;
+            }
+        }
+        return windings;
+    }
+    
+    /**
+     * Returns whether the given point is contained in this shape
+     * 
+     * @param p The point
+     * @return Whether the point is contained in this shape
+     */
+    public boolean contains(Point2D p)
+    {
+        return contains(p.getX(), p.getY());
+    }
+    
+    /**
+     * Returns whether the given point is contained in this shape
+     * 
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return Whether the point is contained in this shape
+     */
+    public boolean contains(double x, double y)
+    {
+        int winding = computeWindingNumber(x, y);
+        if (evenOdd)
+        {
+            return (winding & 1) != 0;
+        }
+        return winding != 0;
+    }
+    
+    /**
+     * Check which of the given points are contained in this shape.<br>
+     * <br>
+     * The given coordinates are the coordinates of the points, as 
+     * consecutive <code>(x,y)</code> pairs. If the given result is 
+     * <code>null</code>, then a new bit set will be created and returned.
+     * Otherwise, the bits <code>0</code> to <code>numPoints-1</code> of 
+     * the given result will be set or cleared, and the result will be 
+     * returned. Bit <code>i</code> will be set if point <code>i</code> 
+     * is contained in this shape.
+     * 
+     * @param coordinates The coordinates of the points
+     * @param offset The index of the first point
+     * @param numPoints The number of points
+     * @param result The result
+     * @return The result
+     */
+    public BitSet contains(
+        double coordinates[], int offset, int numPoints, BitSet result)
+    {
+        if (result == null)
+        {
+            result = new BitSet(numPoints);
+        }
+        for (int i = 0; i < numPoints; i++)
+        {
+            int p = offset + i;
+            double x = coordinates[p * 2 + 0];
+            double y = coordinates[p * 2 + 1];
+            result.set(i, contains(x, y));
+        }
+        return result;
+    }
+    
+    /**
+     * Compute the winding number of this shape around the given point
+     * 
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return The winding number
+     */
+    int computeWindingNumber(double x, double y)
+    {
+        if (!(x >= minX && x <= maxX && y >= minY && y <= maxY))
+        {
+            return 0;
+        }
+        
+        // Find the cell that contains the point, making sure that
+        // the point is in the half-open interval of the cell
+        int c = clampCol(colOf(x));
+        int r = clampRow(rowOf(y));
+        while (c > 0 && x < minX + c * cellWidth)
+        {
+            c--;
+        }
+        while (c < cols - 1 && x > minX + (c + 1) * cellWidth)
+        {
+            c++;
+        }
+        while (r > 0 && y < minY + r * cellHeight)
+        {
+            r--;
+        }
+        while (r < rows - 1 && y >= minY + (r + 1) * cellHeight)
+        {
+            r++;
+        }
+        double cellMinY = minY + r * cellHeight;
+        double cellMaxX = minX + (c + 1) * cellWidth;
+        
+        // The winding number is computed from the winding number
+        // at the lower right corner of the cell, the crossings of 
+        // the edges with the right boundary of the cell (between the 
+        // corner and the height of the point), and the crossings 
+        // with a ray from the point to the right boundary of the cell
+        int cell = r * cols + c;
+        int winding = cellWindings[cell];
+        for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++)
+        {
+            int e = cellEdges[i];
+            double x0 = edges[e * 4 + 0];
+            double y0 = edges[e * 4 + 1];
+            double x1 = edges[e * 4 + 2];
+            double y1 = edges[e * 4 + 3];
+            
+            // Crossings of the ray from the point to the right boundary
+            if ((y0 <= y && y < y1) || (y1 <= y && y < y0))
+            {
+                double xc = computeCrossingX(x0, y0, x1, y1, y);
+                if (xc > x && xc <= cellMaxX)
+                {
+                    winding += (y1 > y0) ? 1 : -1;
+                }
+            }
+            
+            // Crossings of the right boundary, between the corner and
+            // the height of the point
+            if ((x0 <= cellMaxX && cellMaxX < x1) || 
+                (x1 <= cellMaxX && cellMaxX < x0))
+            {
+                if (passesAbove(x0, y0, x1, y1, cellMaxX, cellMinY) &&
+                    !passesAbove(x0, y0, x1, y1, cellMaxX, y))
+                {
+                    winding += (x1 > x0) ? 1 : -1;
+                }
+            }
+        }
+        return winding;
+    }
+    
+    /**
+     * Returns whether the given edge crosses the vertical line through
+     * the given point above this point. The edge must cross this 
+     * vertical line, meaning that the x-coordinate of the point must 
+     * be in the half-open x-range of the edge.<br>
+     * <br>
+     * When the point is in the half-open y-range of the edge, then this
+     * is decided based on the same crossing that is used for the 
+     * horizontal rays when computing winding numbers. This ensures that
+     * an edge that passes (numerically) through the point is either 
+     * counted as a crossing of the ray, or as a crossing of the vertical 
+     * line, but never as both or neither.
+     * 
+     * @param x0 The x-coordinate of the edge start
+     * @param y0 The y-coordinate of the edge start
+     * @param x1 The x-coordinate of the edge end
+     * @param y1 The y-coordinate of the edge end
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return Whether the edge passes above the point
+     */
+    private static boolean passesAbove(
+        double x0, double y0, double x1, double y1, double x, double y)
+    {
+        if (Math.min(y0, y1) > y)
+        {
+            return true;
+        }
+        if (Math.max(y0, y1) <= y)
+        {
+            return false;
+        }
+        boolean rightOfPoint = computeCrossingX(x0, y0, x1, y1, y) > x;
+        boolean positiveSlope = (y1 - y0) * (x1 - x0) > 0;
+        return positiveSlope != rightOfPoint;
+    }
+    
+    /**
+     * Compute the x-coordinate where the given (non-horizontal) edge 
+     * crosses the horizontal line at the given y-coordinate
+     * 
+     * @param x0 The x-coordinate of the edge start
+     * @param y0 The y-coordinate of the edge start
+     * @param x1 The x-coordinate of the edge end
+     * @param y1 The y-coordinate of the edge end
+     * @param y The y-coordinate
+     * @return The x-coordinate of the crossing
+     */
+    private static double computeCrossingX(
+        double x0, double y0, double x1, double y1, double y)
+    {
+        return x0 + (y - y0) * (x1 - x0) / (y1 - y0);
+    }
+    
+    /**
+     * Returns the (unclamped) column for the given x-coordinate
+     * 
+     * @param x The x-coordinate
+     * @return The column
+     */
+    private int colOf(double x)
+    {
+        return (int)Math.floor((x - minX) / cellWidth);
+    }
+    
+    /**
+     * Returns the (unclamped) row for the given y-coordinate
+     * 
+     * @param y The y-coordinate
+     * @return The row
+     */
+    private int rowOf(double y)
+    {
+        return (int)Math.floor((y - minY) / cellHeight);
+    }
+    
+    /**
+     * Clamp the given column to the valid range
+     * 
+     * @param c The column
+     * @return The clamped column
+     */
+    private int clampCol(int c)
+    {
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+
+    /**
+     * Clamp the given row to the valid range
+     * 
+     * @param r The row
+     * @return The clamped row
+     */
+    private int clampRow(int r)
+    {
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+    
+}
@@ -0,0 +1,551 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A package-private class summarizing information about the polygon 
+ * rings that are given by the sub-paths of a {@link PackedPath}.<br>
+ * <br>
+ * Each sub-path that consists of at least three points is treated as 
+ * a polygon ring, regardless of whether it was explicitly closed or not.
+ * Based on a winding rule, each ring is either classified as an 
+ * {@link #OUTER} boundary, as a {@link #HOLE}, or it is {@link #IGNORED}
+ * when it does not separate a filled region from an empty one. This 
+ * classification assumes that the rings do not intersect each other.
+ */
+final class Rings
+{
+    /**
+     * The type of a ring that does not separate a filled region from 
+     * an empty region
+     */
+    static final int IGNORED = 0;
+    
+    /**
+     * The type of a ring that has a filled region inside and an empty
+     * region outside
+     */
+    static final int OUTER = 1;
+    
+    /**
+     * The type of a ring that has an empty region inside and a filled
+     * region outside
+     */
+    static final int HOLE = 2;
+    
+    /**
+     * The maximum average number of grid cells that each ring may be 
+     * registered in
+     */
+    private static final int MAX_REGISTRATIONS_PER_RING = 16;
+    
+    /**
+     * The coordinates of the path
+     */
+    final double coordinates[];
+    
+    /**
+     * The number of rings
+     */
+    final int numRings;
+    
+    /**
+     * The indices of the first points of the rings (inclusive)
+     */
+    final int starts[];
+
+    /**
+     * The indices of the last points of the rings (exclusive)
+     */
+    final int ends[];
+    
+    /**
+     * The signed areas of the rings. These are positive for rings that
+     * are oriented counterclockwise.
+     */
+    final double areas[];
+    
+    /**
+     * The bounding boxes of the rings, as (minX, minY, maxX, maxY)
+     */
+    final double bounds[];
+    
+    /**
+     * The types of the rings
+     */
+    final int types[];
+    
+    /**
+     * The index of the smallest {@link #OUTER} ring that contains each
+     * {@link #HOLE}, or -1 for holes that are not contained in an outer 
+     * ring, and for all other rings
+     */
+    final int parents[];
+    
+    /**
+     * The number of cells of the grid along each axis
+     */
+    private int gridSize;
+    
+    /**
+     * The bounding box of the grid, as (minX, minY, maxX, maxY)
+     */
+    private final double gridBounds[] = new double[4];
+    
+    /**
+     * The start indices of the grid cells in the {@link #cellRings}: The
+     * indices of the rings that are registered in cell <code>c</code>
+     * are stored between <code>cellStarts[c]</code> (inclusive) and
+     * <code>cellStarts[c+1]</code> (exclusive). This is only used during
+     * the classification.
+     */
+    private int cellStarts[];
+    
+    /**
+     * The indices of the rings that are registered in the grid cells
+     */
+    private int cellRings[];
+    
+    /**
+     * Creates the ring information for the given path
+     * 
+     * @param path The path
+     * @param windingRule The winding rule
+     * @throws IllegalArgumentException If the winding rule is not valid
+     */
+    Rings(PackedPath path, int windingRule)
+    {
+        if (windingRule != PathIterator.WIND_EVEN_ODD &&
+            windingRule != PathIterator.WIND_NON_ZERO)
+        {
+            throw new IllegalArgumentException(
+                "Invalid winding rule: " + windingRule);
+        }
+        this.coordinates = path.getCoordinates();
+        int n = 0;
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            if (path.getSubPathEnd(s) - path.getSubPathStart(s) >= 3)
+            {
+                n++;
+            }
+        }
+        this.numRings = n;
+        this.starts = new int[numRings];
+        this.ends = new int[numRings];
+        this.areas = new double[numRings];
+        this.bounds = new double[numRings * 4];
+        this.types = new int[numRings];
+        this.parents = new int[numRings];
+        int r = 0;
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            if (end - start >= 3)
+            {
+                starts[r] = start;
+                ends[r] = end;
+                areas[r] = computeSignedArea(coordinates, start, end);
+                computeBounds(r);
+                r++;
+            }
+        }
+        classify(windingRule == PathIterator.WIND_EVEN_ODD);
+    }
+    
+    /**
+     * Classify the rings into outer rings and holes, based on whether 
+     * the region inside and outside of the ring is filled, and assign 
+     * each hole to the smallest outer ring that contains it.<br>
+     * <br>
+     * For the first point of each ring, only the rings that are 
+     * registered in the same cell of the {@link #buildGrid() grid} are
+     * tested. The rings are processed in the order of decreasing 
+     * absolute area: Since the rings do not intersect, every ring that
+     * contains another one has a larger area, and thus is already 
+     * classified when it is considered as the parent of the other one.
+     * 
+     * @param evenOdd Whether the even-odd winding rule is used
+     */
+    private void classify(boolean evenOdd)
+    {
+        buildGrid();
+        Integer order[] = new Integer[numRings];
+        for (int r = 0; r < numRings; r++)
+        {
+            order[r] = r;
+        }
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer r0, Integer r1)
+            {
+                return Double.compare(
+                    Math.abs(areas[r1]), Math.abs(areas[r0]));
+            }
+        });
+        for (int r : order)
+        {
+            double x = coordinates[starts[r] * 2 + 0];
+            double y = coordinates[starts[r] * 2 + 1];
+            int cell = computeCell(x, y);
+            int winding = 0;
+            int parent = -1;
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++)
+            {
+                int o = cellRings[i];
+                if (o == r || !boundsContain(o, x, y))
+                {
+                    continue;
+                }
+                int w = computeWindingNumber(
+                    coordinates, starts[o], ends[o], x, y);
+                if (evenOdd)
+                {
+                    winding += (w & 1);
+                }
+                else
+                {
+                    winding += w;
+                }
+                if (w != 0 && types[o] == OUTER && (parent == -1 || 
+                    Math.abs(areas[o]) < Math.abs(areas[parent])))
+                {
+                    parent = o;
+                }
+            }
+            boolean outsideFilled;
+            boolean insideFilled;
+            if (evenOdd)
+            {
+                outsideFilled = (winding & 1) != 0;
+                insideFilled = !outsideFilled;
+            }
+            else
+            {
+                int orientation = areas[r] > 0 ? 1 : -1;
+                outsideFilled = winding != 0;
+                insideFilled = (winding + orientation) != 0;
+            }
+            parents[r] = -1;
+            if (insideFilled && !outsideFilled)
+            {
+                types[r] = OUTER;
+            }
+            else if (!insideFilled && outsideFilled)
+            {
+                types[r] = HOLE;
+                parents[r] = parent;
+            }
+            else
+            {
+                types[r] = IGNORED;
+            }
+        }
+        cellStarts = null;
+        cellRings = null;
+    }
+    
+    /**
+     * Build the uniform grid over the bounding boxes of all rings, where
+     * each ring is registered in all cells that its bounding box 
+     * overlaps. The number of cells is about the number of rings. It is 
+     * reduced when the rings are so large that they would have to be 
+     * registered in many cells, for example, for many nested rings.
+     */
+    private void buildGrid()
+    {
+        gridBounds[0] = Double.POSITIVE_INFINITY;
+        gridBounds[1] = Double.POSITIVE_INFINITY;
+        gridBounds[2] = Double.NEGATIVE_INFINITY;
+        gridBounds[3] = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < numRings; r++)
+        {
+            gridBounds[0] = Math.min(gridBounds[0], bounds[r * 4 + 0]);
+            gridBounds[1] = Math.min(gridBounds[1], bounds[r * 4 + 1]);
+            gridBounds[2] = Math.max(gridBounds[2], bounds[r * 4 + 2]);
+            gridBounds[3] = Math.max(gridBounds[3], bounds[r * 4 + 3]);
+        }
+        gridSize = Math.max(1, (int) Math.ceil(Math.sqrt(numRings)));
+        while (gridSize > 1 && 
+            computeNumRegistrations() > MAX_REGISTRATIONS_PER_RING * numRings)
+        {
+            gridSize /= 2;
+        }
+        int numCells = gridSize * gridSize;
+        cellStarts = new int[numCells + 1];
+        for (int r = 0; r < numRings; r++)
+        {
+            int minCx = computeCellIndex(bounds[r * 4 + 0], 0);
+            int minCy = computeCellIndex(bounds[r * 4 + 1], 1);
+            int maxCx = computeCellIndex(bounds[r * 4 + 2], 0);
+            int maxCy = computeCellIndex(bounds[r * 4 + 3], 1);
+            for (int cy = minCy; cy <= maxCy; cy++)
+            {
+                for (int cx = minCx; cx <= maxCx; cx++)
+                {
+                    cellStarts[cy * gridSize + cx + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < numCells; c++)
+        {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        cellRings = new int[cellStarts[numCells]];
+        int fill[] = Arrays.copyOf(cellStarts, numCells);
+        for (int r = 0; r < numRings; r++)
+        {
+            int minCx = computeCellIndex(bounds[r * 4 + 0], 0);
+            int minCy = computeCellIndex(bounds[r * 4 + 1], 1);
+            int maxCx = computeCellIndex(bounds[r * 4 + 2], 0);
+            int maxCy = computeCellIndex(bounds[r * 4 + 3], 1);
+            for (int cy = minCy; cy <= maxCy; cy++)
+            {
+                for (int cx = minCx; cx <= maxCx; cx++)
+                {
+                    cellRings[fill[cy * gridSize + cx]++] = r;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Computes the total number of cells that the bounding boxes of all
+     * rings overlap, for the current grid size
+     * 
+     * @return The number of registrations
+     */
+    private long computeNumRegistrations()
+    {
+        long n = 0;
+        for (int r = 0; r < numRings; r++)
+        {
+            long sizeX = computeCellIndex(bounds[r * 4 + 2], 0) 
+                - computeCellIndex(bounds[r * 4 + 0], 0) + 1;
+            long sizeY = computeCellIndex(bounds[r * 4 + 3], 1) 
+                - computeCellIndex(bounds[r * 4 + 1], 1) + 1;
+            n += sizeX * sizeY;
+        }
+        return n;
+    }
+    
+    /**
+     * Returns the index of the grid cell that contains the given point
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The cell index
+     */
+    private int computeCell(double x, double y)
+    {
+        return computeCellIndex(y, 1) * gridSize + computeCellIndex(x, 0);
+    }
+    
+    /**
+     * Returns the index of the grid cell along the specified axis that 
+     * contains the given value, clamped to the valid range
+     * 
+     * @param value The value
+     * @param axis The axis, 0 for x and 1 for y
+     * @return The cell index along the axis
+     */
+    private int computeCellIndex(double value, int axis)
+    {
+        double min = gridBounds[axis];
+        double max = gridBounds[axis + 2];
+        if (!(max > min))
+        {
+            return 0;
+        }
+        int index = (int) ((value - min) / (max - min) * gridSize);
+        return Math.max(0, Math.min(gridSize - 1, index));
+    }
+    
+    /**
+     * Computes the polygons that are described by the rings. Each element
+     * of the returned array describes one polygon: The first element is 
+     * the index of an {@link #OUTER} ring, and the remaining elements are
+     * the indices of the {@link #HOLE} rings for which this outer ring is
+     * the smallest one that contains them. Holes that are not contained
+     * in any outer ring are omitted.
+     * 
+     * @return The polygons
+     */
+    int[][] computePolygons()
+    {
+        int counts[] = new int[numRings];
+        int numPolygons = 0;
+        for (int r = 0; r < numRings; r++)
+        {
+            if (types[r] == OUTER)
+            {
+                numPolygons++;
+            }
+            else if (parents[r] != -1)
+            {
+                counts[parents[r]]++;
+            }
+        }
+        int polygons[][] = new int[numPolygons][];
+        int polygonIndices[] = new int[numRings];
+        int p = 0;
+        for (int r = 0; r < numRings; r++)
+        {
+            if (types[r] == OUTER)
+            {
+                polygons[p] = new int[1 + counts[r]];
+                polygons[p][0] = r;
+                counts[r] = 1;
+                polygonIndices[r] = p;
+                p++;
+            }
+        }
+        for (int r = 0; r < numRings; r++)
+        {
+            int parent = parents[r];
+            if (parent != -1)
+            {
+                polygons[polygonIndices[parent]][counts[parent]] = r;
+                counts[parent]++;
+            }
+        }
+        return polygons;
+    }
+    
+    /**
+     * Computes the bounding box of the specified ring
+     * 
+     * @param r The ring index
+     */
+    private void computeBounds(int r)
+    {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = starts[r]; i < ends[r]; i++)
+        {
+            double x = coordinates[i * 2 + 0];
+            double y = coordinates[i * 2 + 1];
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        bounds[r * 4 + 0] = minX;
+        bounds[r * 4 + 1] = minY;
+        bounds[r * 4 + 2] = maxX;
+        bounds[r * 4 + 3] = maxY;
+    }
+    
+    /**
+     * Returns whether the bounding box of the specified ring contains 
+     * the given point
+     * 
+     * @param r The ring index
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return Whether the point is contained in the bounding box
+     */
+    private boolean boundsContain(int r, double x, double y)
+    {
+        return x >= bounds[r * 4 + 0] && y >= bounds[r * 4 + 1]
+            && x <= bounds[r * 4 + 2] && y <= bounds[r * 4 + 3];
+    }
+
+    /**
+     * Computes the signed area of the specified ring. The area will be 
+     * positive if the points are ordered counterclockwise, and negative 
+     * if they are ordered clockwise.
+     * 
+     * @param coordinates The coordinates
+     * @param start The start point index, inclusive
+     * @param end The end point index, exclusive
+     * @return The signed area
+     */
+    static double computeSignedArea(double coordinates[], int start, int end)
+    {
+        double sum = 0;
+        for (int i = start, j = end - 1; i < end; j = i, i++)
+        {
+            double xj = coordinates[j * 2 + 0];
+            double yj = coordinates[j * 2 + 1];
+            double xi = coordinates[i * 2 + 0];
+            double yi = coordinates[i * 2 + 1];
+            sum += xj * yi - xi * yj;
+        }
+        return 0.5 * sum;
+    }
+    
+    /**
+     * Computes the winding number of the specified ring around the
+     * given point. For a simple ring, this will be 1 if the point is
+     * inside of a counterclockwise ring, -1 if it is inside of a
+     * clockwise ring, and 0 if the point is outside of the ring.
+     * 
+     * @param coordinates The coordinates
+     * @param start The start point index, inclusive
+     * @param end The end point index, exclusive
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return The winding number
+     */
+    static int computeWindingNumber(
+        double coordinates[], int start, int end, double x, double y)
+    {
+        int winding = 0;
+        for (int i = start, j = end - 1; i < end; j = i, i++)
+        {
+            double x0 = coordinates[j * 2 + 0];
+            double y0 = coordinates[j * 2 + 1];
+            double x1 = coordinates[i * 2 + 0];
+            double y1 = coordinates[i * 2 + 1];
+            double side = (x1 - x0) * (y - y0) - (x - x0) * (y1 - y0);
+            if (y0 <= y)
+            {
+                if (y1 > y && side > 0)
+                {
+                    winding++;
+                }
+            }
+            else
+            {
+                if (y1 <= y && side < 0)
+                {
+                    winding--;
+                }
+            }
+        }
+        return winding;
+    }
+}
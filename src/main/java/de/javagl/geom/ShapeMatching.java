@@ -0,0 +1,599 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Methods for bringing two arbitrary shapes into a structurally 
+ * compatible form, so that they can be interpolated with 
+ * {@link Shapes#interpolate(Shape, Shape, double)} or a 
+ * {@link ShapeMorph}.<br>
+ * <br>
+ * Both shapes are flattened, and their sub-paths are paired, in 
+ * the order of their decreasing lengths. Sub-paths that do not have 
+ * a partner are paired with a degenerate sub-path that consists of 
+ * their center point. The sub-paths of each pair are resampled to 
+ * the same number of points, equidistantly by arc length. For pairs 
+ * of closed sub-paths, the orientations are made equal, and the 
+ * starting points are aligned, by choosing the cyclic shift of the
+ * points of the second sub-path that minimizes the sum of squared 
+ * distances to the points of the first (after moving both to their
+ * centers). This shift is computed with a cross-correlation via FFT,
+ * so that the overall time is <code>O(n log n)</code>.
+ */
+public class ShapeMatching
+{
+    /**
+     * Compute two shapes that approximate the given shapes and are 
+     * structurally equal, as described in the class documentation.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @param numPoints The number of points for each sub-path
+     * @return A list containing the two compatible shapes
+     * @throws IllegalArgumentException If the number of points is 
+     * smaller than 2
+     */
+    public static List<Shape> computeCompatibleShapes(
+        Shape shape0, Shape shape1, double flatness, int numPoints)
+    {
+        if (numPoints < 2)
+        {
+            throw new IllegalArgumentException(
+                "The number of points must be at least 2, but is " 
+                + numPoints);
+        }
+        PackedPath path0 = Shapes.computePackedPath(shape0, flatness, null);
+        PackedPath path1 = Shapes.computePackedPath(shape1, flatness, null);
+        Path2D result0 = new Path2D.Double(
+            shape0.getPathIterator(null).getWindingRule());
+        Path2D result1 = new Path2D.Double(
+            shape1.getPathIterator(null).getWindingRule());
+        
+        List<Integer> order0 = sortByLength(path0);
+        List<Integer> order1 = sortByLength(path1);
+        int numPairs = Math.max(order0.size(), order1.size());
+        double points0[] = new double[numPoints * 2];
+        double points1[] = new double[numPoints * 2];
+        Aligner aligner = new Aligner(numPoints);
+        for (int i = 0; i < numPairs; i++)
+        {
+            int s0 = i < order0.size() ? order0.get(i) : -1;
+            int s1 = i < order1.size() ? order1.get(i) : -1;
+            boolean closed;
+            if (s0 == -1)
+            {
+                closed = path1.isSubPathClosed(s1);
+                resample(path1, s1, closed, numPoints, points1);
+                collapse(points1, numPoints, points0);
+            }
+            else if (s1 == -1)
+            {
+                closed = path0.isSubPathClosed(s0);
+                resample(path0, s0, closed, numPoints, points0);
+                collapse(points0, numPoints, points1);
+            }
+            else
+            {
+                closed = path0.isSubPathClosed(s0) && 
+                    path1.isSubPathClosed(s1);
+                resample(path0, s0, closed, numPoints, points0);
+                resample(path1, s1, closed, numPoints, points1);
+                if (closed)
+                {
+                    aligner.alignClosed(points0, points1);
+                }
+                else
+                {
+                    alignOpen(points0, points1, numPoints);
+                }
+            }
+            addSubPath(result0, points0, numPoints, closed);
+            addSubPath(result1, points1, numPoints, closed);
+        }
+        List<Shape> result = new ArrayList<Shape>();
+        result.add(result0);
+        result.add(result1);
+        return result;
+    }
+    
+    /**
+     * Create a {@link ShapeMorph} between the 
+     * {@link #computeCompatibleShapes(Shape, Shape, double, int) 
+     * compatible shapes} that are computed for the given shapes. The
+     * returned morph is immutable, and may be cached for the given 
+     * pair of shapes.
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @param flatness The flatness for the path iterators
+     * @param numPoints The number of points for each sub-path
+     * @return The morph
+     * @throws IllegalArgumentException If the number of points is 
+     * smaller than 2
+     */
+    public static ShapeMorph createMorph(
+        Shape shape0, Shape shape1, double flatness, int numPoints)
+    {
+        List<Shape> shapes = 
+            computeCompatibleShapes(shape0, shape1, flatness, numPoints);
+        return ShapeMorph.create(shapes.get(0), shapes.get(1));
+    }
+    
+    /**
+     * Returns the indices of the sub-paths of the given path that 
+     * contain at least one point, sorted by their decreasing length
+     * 
+     * @param path The path
+     * @return The sorted indices
+     */
+    private static List<Integer> sortByLength(PackedPath path)
+    {
+        int n = path.getNumSubPaths();
+        final double lengths[] = new double[n];
+        List<Integer> order = new ArrayList<Integer>();
+        double c[] = path.getCoordinates();
+        for (int s = 0; s < n; s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            if (end > start)
+            {
+                lengths[s] = computeLength(
+                    c, start, end, path.isSubPathClosed(s));
+                order.add(s);
+            }
+        }
+        Collections.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer s0, Integer s1)
+            {
+                return Double.compare(lengths[s1], lengths[s0]);
+            }
+        });
+        return order;
+    }
+    
+    /**
+     * Compute the length of the specified polyline
+     * 
+     * @param c The coordinates
+     * @param start The index of the first point
+     * @param end The index after the last point
+     * @param closed Whether the polyline is closed
+     * @return The length
+     */
+    private static double computeLength(
+        double c[], int start, int end, boolean closed)
+    {
+        double length = 0;
+        for (int i = start + 1; i < end; i++)
+        {
+            length += Math.hypot(
+                c[i * 2 + 0] - c[i * 2 - 2], c[i * 2 + 1] - c[i * 2 - 1]);
+        }
+        if (closed)
+        {
+            int last = end - 1;
+            length += Math.hypot(
+                c[start * 2 + 0] - c[last * 2 + 0], 
+                c[start * 2 + 1] - c[last * 2 + 1]);
+        }
+        return length;
+    }
+    
+    /**
+     * Resample the specified sub-path to the given number of points, 
+     * which are equidistant in terms of arc length. For closed sub-paths,
+     * the last point will not be equal to the first one.
+     * 
+     * @param path The path
+     * @param subPath The sub-path index
+     * @param closed Whether the sub-path should be treated as closed
+     * @param numPoints The number of points
+     * @param result The array that stores the resulting points
+     */
+    private static void resample(PackedPath path, int subPath, 
+        boolean closed, int numPoints, double result[])
+    {
+        double c[] = path.getCoordinates();
+        int start = path.getSubPathStart(subPath);
+        int end = path.getSubPathEnd(subPath);
+        int n = end - start;
+        int numEdges = closed ? n : n - 1;
+        double length = computeLength(c, start, end, closed);
+        double step = length / (closed ? numPoints : numPoints - 1);
+        
+        int edge = 0;
+        double edgeStart = 0;
+        double edgeLength = numEdges > 0 ? edgeLength(c, start, n, 0) : 0;
+        for (int k = 0; k < numPoints; k++)
+        {
+            double s = k * step;
+            while (edge < numEdges - 1 && edgeStart + edgeLength < s)
+            {
+                edgeStart += edgeLength;
+                edge++;
+                edgeLength = edgeLength(c, start, n, edge);
+            }
+            int i0 = start + edge;
+            int i1 = start + (edge + 1) % n;
+            double t = edgeLength > 0 ? (s - edgeStart) / edgeLength : 0;
+            t = Math.max(0, Math.min(1, t));
+            if (numEdges == 0)
+            {
+                i1 = i0;
+            }
+            double x0 = c[i0 * 2 + 0];
+            double y0 = c[i0 * 2 + 1];
+            result[k * 2 + 0] = x0 + t * (c[i1 * 2 + 0] - x0);
+            result[k * 2 + 1] = y0 + t * (c[i1 * 2 + 1] - y0);
+        }
+    }
+    
+    /**
+     * Returns the length of the specified edge of a polyline
+     * 
+     * @param c The coordinates
+     * @param start The index of the first point
+     * @param n The number of points
+     * @param edge The edge index
+     * @return The length
+     */
+    private static double edgeLength(double c[], int start, int n, int edge)
+    {
+        int i0 = start + edge;
+        int i1 = start + (edge + 1) % n;
+        return Math.hypot(
+            c[i1 * 2 + 0] - c[i0 * 2 + 0], c[i1 * 2 + 1] - c[i0 * 2 + 1]);
+    }
+    
+    /**
+     * Fill the given result with the center of the given points
+     * 
+     * @param points The points
+     * @param numPoints The number of points
+     * @param result The result
+     */
+    private static void collapse(
+        double points[], int numPoints, double result[])
+    {
+        double cx = 0;
+        double cy = 0;
+        for (int k = 0; k < numPoints; k++)
+        {
+            cx += points[k * 2 + 0];
+            cy += points[k * 2 + 1];
+        }
+        cx /= numPoints;
+        cy /= numPoints;
+        for (int k = 0; k < numPoints; k++)
+        {
+            result[k * 2 + 0] = cx;
+            result[k * 2 + 1] = cy;
+        }
+    }
+    
+    /**
+     * Reverse the order of the second given points if this brings the 
+     * end points of both polylines closer together
+     * 
+     * @param points0 The first points
+     * @param points1 The second points
+     * @param numPoints The number of points
+     */
+    private static void alignOpen(
+        double points0[], double points1[], int numPoints)
+    {
+        int last = (numPoints - 1) * 2;
+        double same = 
+            Math.hypot(points0[0] - points1[0], points0[1] - points1[1]) + 
+            Math.hypot(points0[last] - points1[last], 
+                points0[last + 1] - points1[last + 1]);
+        double reversed = 
+            Math.hypot(points0[0] - points1[last], 
+                points0[1] - points1[last + 1]) + 
+            Math.hypot(points0[last] - points1[0], 
+                points0[last + 1] - points1[1]);
+        if (reversed < same)
+        {
+            reverse(points1, 0, numPoints);
+        }
+    }
+    
+    /**
+     * Reverse the order of the specified points in the given array
+     * 
+     * @param points The points
+     * @param from The index of the first point
+     * @param to The index after the last point
+     */
+    private static void reverse(double points[], int from, int to)
+    {
+        for (int i = from, j = to - 1; i < j; i++, j--)
+        {
+            double tx = points[i * 2 + 0];
+            double ty = points[i * 2 + 1];
+            points[i * 2 + 0] = points[j * 2 + 0];
+            points[i * 2 + 1] = points[j * 2 + 1];
+            points[j * 2 + 0] = tx;
+            points[j * 2 + 1] = ty;
+        }
+    }
+    
+    /**
+     * Add the given points as a sub-path to the given path
+     * 
+     * @param path The path
+     * @param points The points
+     * @param numPoints The number of points
+     * @param closed Whether the sub-path should be closed
+     */
+    private static void addSubPath(
+        Path2D path, double points[], int numPoints, boolean closed)
+    {
+        path.moveTo(points[0], points[1]);
+        for (int k = 1; k < numPoints; k++)
+        {
+            path.lineTo(points[k * 2 + 0], points[k * 2 + 1]);
+        }
+        if (closed)
+        {
+            path.closePath();
+        }
+    }
+    
+    /**
+     * A class for aligning the points of closed sub-paths, with 
+     * internal buffers that can be re-used for multiple sub-paths
+     * with the same number of points
+     */
+    private static class Aligner
+    {
+        /**
+         * The number of points
+         */
+        private final int numPoints;
+        
+        /**
+         * The FFT size
+         */
+        private final int size;
+        
+        /**
+         * The real parts of the first signal
+         */
+        private final double re0[];
+
+        /**
+         * The imaginary parts of the first signal
+         */
+        private final double im0[];
+        
+        /**
+         * The real parts of the second signal
+         */
+        private final double re1[];
+
+        /**
+         * The imaginary parts of the second signal
+         */
+        private final double im1[];
+        
+        /**
+         * A temporary buffer for the shifted points
+         */
+        private final double shifted[];
+        
+        /**
+         * Creates a new aligner
+         * 
+         * @param numPoints The number of points
+         */
+        Aligner(int numPoints)
+        {
+            this.numPoints = numPoints;
+            int s = 1;
+            while (s < 3 * numPoints)
+            {
+                s *= 2;
+            }
+            this.size = s;
+            this.re0 = new double[s];
+            this.im0 = new double[s];
+            this.re1 = new double[s];
+            this.im1 = new double[s];
+            this.shifted = new double[numPoints * 2];
+        }
+        
+        /**
+         * Make the orientation of the second points equal to that of 
+         * the first, and cyclically shift them so that the sum of 
+         * squared distances between the (centered) points is minimal.
+         * 
+         * @param points0 The first points
+         * @param points1 The second points
+         */
+        void alignClosed(double points0[], double points1[])
+        {
+            int n = numPoints;
+            double area0 = Rings.computeSignedArea(points0, 0, n);
+            double area1 = Rings.computeSignedArea(points1, 0, n);
+            if (area0 * area1 < 0)
+            {
+                reverse(points1, 1, n);
+            }
+            
+            // Compute the cross-correlation of the centered points,
+            // interpreted as complex numbers:
+            // c[r] = sum_k conj(a[k]) * b[k+r], with b repeated twice
+            double c0x = 0;
+            double c0y = 0;
+            double c1x = 0;
+            double c1y = 0;
+            for (int k = 0; k < n; k++)
+            {
+                c0x += points0[k * 2 + 0];
+                c0y += points0[k * 2 + 1];
+                c1x += points1[k * 2 + 0];
+                c1y += points1[k * 2 + 1];
+            }
+            c0x /= n;
+            c0y /= n;
+            c1x /= n;
+            c1y /= n;
+            Arrays.fill(re0, 0);
+            Arrays.fill(im0, 0);
+            Arrays.fill(re1, 0);
+            Arrays.fill(im1, 0);
+            for (int k = 0; k < n; k++)
+            {
+                re0[k] = points0[k * 2 + 0] - c0x;
+                im0[k] = points0[k * 2 + 1] - c0y;
+                re1[k] = points1[k * 2 + 0] - c1x;
+                im1[k] = points1[k * 2 + 1] - c1y;
+                re1[k + n] = re1[k];
+                im1[k + n] = im1[k];
+            }
+            fft(re0, im0, false);
+            fft(re1, im1, false);
+            for (int i = 0; i < size; i++)
+            {
+                // conj(A) * B
+                double ar = re0[i];
+                double ai = -im0[i];
+                double br = re1[i];
+                double bi = im1[i];
+                re1[i] = ar * br - ai * bi;
+                im1[i] = ar * bi + ai * br;
+            }
+            fft(re1, im1, true);
+            int best = 0;
+            for (int r = 1; r < n; r++)
+            {
+                if (re1[r] > re1[best])
+                {
+                    best = r;
+                }
+            }
+            if (best != 0)
+            {
+                for (int k = 0; k < n; k++)
+                {
+                    int j = (k + best) % n;
+                    shifted[k * 2 + 0] = points1[j * 2 + 0];
+                    shifted[k * 2 + 1] = points1[j * 2 + 1];
+                }
+                System.arraycopy(shifted, 0, points1, 0, n * 2);
+            }
+        }
+        
+        /**
+         * Compute the in-place FFT of the given complex signal, whose
+         * length must be a power of 2. The inverse transform is scaled
+         * with <code>1/length</code>.
+         * 
+         * @param re The real parts
+         * @param im The imaginary parts
+         * @param inverse Whether the inverse transform should be computed
+         */
+        private static void fft(double re[], double im[], boolean inverse)
+        {
+            int n = re.length;
+            for (int i = 1, j = 0; i < n; i++)
+            {
+                int bit = n >> 1;
+                for (; (j & bit) != 0; bit >>= 1)
+                {
+                    j ^= bit;
+                }
+                j ^= bit;
+                if (i < j)
+                {
+                    double t = re[i];
+                    re[i] = re[j];
+                    re[j] = t;
+                    t = im[i];
+                    im[i] = im[j];
+                    im[j] = t;
+                }
+            }
+            for (int length = 2; length <= n; length <<= 1)
+            {
+                double angle = 2 * Math.PI / length * (inverse ? 1 : -1);
+                double wr = Math.cos(angle);
+                double wi = Math.sin(angle);
+                for (int i = 0; i < n; i += length)
+                {
+                    double cr = 1;
+                    double ci = 0;
+                    int half = length >> 1;
+                    for (int k = 0; k < half; k++)
+                    {
+                        int a = i + k;
+                        int b = a + half;
+                        double xr = re[b] * cr - im[b] * ci;
+                        double xi = re[b] * ci + im[b] * cr;
+                        re[b] = re[a] - xr;
+                        im[b] = im[a] - xi;
+                        re[a] += xr;
+                        im[a] += xi;
+                        double ncr = cr * wr - ci * wi;
+                        ci = cr * wi + ci * wr;
+                        cr = ncr;
+                    }
+                }
+            }
+            if (inverse)
+            {
+                for (int i = 0; i < n; i++)
+                {
+                    re[i] /= n;
+                    im[i] /= n;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ShapeMatching()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A precompiled interpolation between two structurally equal shapes.<br>
+ * <br>
+ * The segments of both shapes are validated and extracted once, when
+ * the morph is {@link #create(Shape, Shape) created}. Afterwards, the 
+ * interpolated shape for any interpolation value can be computed into
+ * a reusable <code>Path2D</code> or a reusable coordinate array, 
+ * without iterating over the original shapes again.<br>
+ * <br>
+ * Instances of this class are immutable, and may be used by multiple
+ * threads concurrently.
+ */
+public final class ShapeMorph
+{
+    /**
+     * Creates a new morph between the given shapes
+     * 
+     * @param shape0 The first shape
+     * @param shape1 The second shape
+     * @return The morph
+     * @throws IllegalArgumentException If the given shapes do not consist
+     * of the same segments (that is, when they are not structurally equal)
+     */
+    public static ShapeMorph create(Shape shape0, Shape shape1)
+    {
+        PathIterator pi0 = shape0.getPathIterator(null);
+        PathIterator pi1 = shape1.getPathIterator(null);
+        byte types[] = new byte[16];
+        int numSegments = 0;
+        double coordinates0[] = new double[32];
+        double coordinates1[] = new double[32];
+        int numCoordinates = 0;
+        double coords0[] = new double[6];
+        double coords1[] = new double[6];
+        while (!pi0.isDone())
+        {
+            if (pi1.isDone())
+            {
+                throw new IllegalArgumentException(
+                    "Iterator 1 is done, but not iterator 0");
+            }
+            int segment0 = pi0.currentSegment(coords0);
+            int segment1 = pi1.currentSegment(coords1);
+            if (segment0 != segment1)
+            {
+                throw new IllegalArgumentException(
+                    "Incompatible segments: "+segment0+" vs. "+segment1);
+            }
+            if (numSegments == types.length)
+            {
+                types = Arrays.copyOf(types, numSegments * 2);
+            }
+            types[numSegments++] = (byte) segment0;
+            int n = PathIterators.getNumCoordinates(segment0);
+            if (numCoordinates + n > coordinates0.length)
+            {
+                int newLength = coordinates0.length * 2;
+                coordinates0 = Arrays.copyOf(coordinates0, newLength);
+                coordinates1 = Arrays.copyOf(coordinates1, newLength);
+            }
+            System.arraycopy(coords0, 0, coordinates0, numCoordinates, n);
+            System.arraycopy(coords1, 0, coordinates1, numCoordinates, n);
+            numCoordinates += n;
+            pi0.next();
+            pi1.next();
+        }
+        if (!pi1.isDone())
+        {
+            throw new IllegalArgumentException(
+                "Iterator 0 is done, but not iterator 1");
+        }
+        return new ShapeMorph(
+            pi0.getWindingRule(),
+            Arrays.copyOf(types, numSegments),
+            Arrays.copyOf(coordinates0, numCoordinates),
+            Arrays.copyOf(coordinates1, numCoordinates));
+    }
+    
+    /**
+     * Compute the coordinates of the given morphs for the given 
+     * interpolation value, in parallel.<br>
+     * <br>
+     * If the given result array is <code>null</code> or does not have
+     * the same length as the given list, then a new array will be 
+     * created and returned. Each element of the array is passed as 
+     * the result to {@link #computeCoordinates(double, double[])} of 
+     * the corresponding morph, and replaced with the return value.
+     * 
+     * @param morphs The morphs
+     * @param alpha The interpolation value, usually between 0.0 and 1.0
+     * @param result The optional result
+     * @return The result
+     */
+    public static double[][] computeCoordinates(
+        final List<? extends ShapeMorph> morphs, final double alpha, 
+        double result[][])
+    {
+        final double r[][] = (result != null && 
+            result.length == morphs.size()) ? result : 
+                new double[morphs.size()][];
+        IntStream.range(0, r.length).parallel().forEach(new IntConsumer()
+        {
+            @Override
+            public void accept(int i)
+            {
+                r[i] = morphs.get(i).computeCoordinates(alpha, r[i]);
+            }
+        });
+        return r;
+    }
+    
+    /**
+     * Compute the paths of the given morphs for the given interpolation
+     * value, in parallel.<br>
+     * <br>
+     * If the given result array is <code>null</code> or does not have
+     * the same length as the given list, then a new array will be 
+     * created and returned. Each element of the array is passed as 
+     * the result to {@link #computePath(double, Path2D)} of the 
+     * corresponding morph, and replaced with the return value.
+     * 
+     * @param morphs The morphs
+     * @param alpha The interpolation value, usually between 0.0 and 1.0
+     * @param result The optional result
+     * @return The result
+     */
+    public static Path2D[] computePaths(
+        final List<? extends ShapeMorph> morphs, final double alpha, 
+        Path2D result[])
+    {
+        final Path2D r[] = (result != null && 
+            result.length == morphs.size()) ? result : 
+                new Path2D[morphs.size()];
+        IntStream.range(0, r.length).parallel().forEach(new IntConsumer()
+        {
+            @Override
+            public void accept(int i)
+            {
+                r[i] = morphs.get(i).computePath(alpha, r[i]);
+            }
+        });
+        return r;
+    }
+    
+    /**
+     * The winding rule of the first shape
+     */
+    private final int windingRule;
+    
+    /**
+     * The segment types
+     */
+    private final byte types[];
+    
+    /**
+     * The coordinates of the first shape
+     */
+    private final double coordinates0[];
+
+    /**
+     * The coordinates of the second shape
+     */
+    private final double coordinates1[];
+    
+    /**
+     * Creates a new morph
+     * 
+     * @param windingRule The winding rule
+     * @param types The segment types
+     * @param coordinates0 The coordinates of the first shape
+     * @param coordinates1 The coordinates of the second shape
+     */
+    private ShapeMorph(int windingRule, byte types[], 
+        double coordinates0[], double coordinates1[])
+    {
+        this.windingRule = windingRule;
+        this.types = types;
+        this.coordinates0 = coordinates0;
+        this.coordinates1 = coordinates1;
+    }
+    
+    /**
+     * Returns the number of segments of the shapes
+     * 
+     * @return The number of segments
+     */
+    public int getNumSegments()
+    {
+        return types.length;
+    }
+    
+    /**
+     * Returns the type of the specified segment, as one of the 
+     * <code>PathIterator.SEG_*</code> constants
+     * 
+     * @param index The index of the segment
+     * @return The segment type
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than the {@link #getNumSegments() number of segments}
+     */
+    public int getSegmentType(int index)
+    {
+        return types[index];
+    }
+    
+    /**
+     * Returns the total number of coordinates of all segments
+     * 
+     * @return The number of coordinates
+     */
+    public int getNumCoordinates()
+    {
+        return coordinates0.length;
+    }
+    
+    /**
+     * Compute the coordinates of the interpolated shape for the given
+     * interpolation value. The coordinates of all segments (2 for
+     * <code>SEG_MOVETO</code> and <code>SEG_LINETO</code>, 4 for 
+     * <code>SEG_QUADTO</code>, 6 for <code>SEG_CUBICTO</code> and 
+     * none for <code>SEG_CLOSE</code>) are written consecutively into
+     * the result array.<br>
+     * <br>
+     * If the given result array is <code>null</code> or has fewer than
+     * {@link #getNumCoordinates()} elements, then a new array will be
+     * created and returned.
+     * 
+     * @param alpha The interpolation value, usually between 0.0 and 1.0
+     * @param result The optional result
+     * @return The result
+     */
+    public double[] computeCoordinates(double alpha, double result[])
+    {
+        int n = coordinates0.length;
+        double r[] = (result != null && result.length >= n) ? 
+            result : new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double c0 = coordinates0[i];
+            r[i] = c0 + (coordinates1[i] - c0) * alpha;
+        }
+        return r;
+    }
+    
+    /**
+     * Compute the interpolated shape for the given interpolation value.
+     * <br>
+     * If the given result is <code>null</code>, then a new path will be
+     * created and returned. Otherwise, the given path will be reset,
+     * filled with the segments of the interpolated shape, and returned.
+     * The winding rule of the path will be set to the winding rule of
+     * the first shape.
+     * 
+     * @param alpha The interpolation value, usually between 0.0 and 1.0
+     * @param result The optional result
+     * @return The result
+     */
+    public Path2D computePath(double alpha, Path2D result)
+    {
+        Path2D path = result;
+        if (path == null)
+        {
+            path = new Path2D.Double(windingRule, types.length);
+        }
+        else
+        {
+            path.reset();
+            path.setWindingRule(windingRule);
+        }
+        double c0[] = coordinates0;
+        double c1[] = coordinates1;
+        double a = alpha;
+        int c = 0;
+        for (int s = 0; s < types.length; s++)
+        {
+            switch (types[s])
+            {
+                case PathIterator.SEG_MOVETO:
+                    path.moveTo(
+                        c0[c + 0] + (c1[c + 0] - c0[c + 0]) * a, 
+                        c0[c + 1] + (c1[c + 1] - c0[c + 1]) * a);
+                    c += 2;
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    path.lineTo(
+                        c0[c + 0] + (c1[c + 0] - c0[c + 0]) * a, 
+                        c0[c + 1] + (c1[c + 1] - c0[c + 1]) * a);
+                    c += 2;
+                    break;
+                    
+                case PathIterator.SEG_QUADTO:
+                    path.quadTo(
+                        c0[c + 0] + (c1[c + 0] - c0[c + 0]) * a, 
+                        c0[c + 1] + (c1[c + 1] - c0[c + 1]) * a,
+                        c0[c + 2] + (c1[c + 2] - c0[c + 2]) * a, 
+                        c0[c + 3] + (c1[c + 3] - c0[c + 3]) * a);
+                    c += 4;
+                    break;
+                    
+                case PathIterator.SEG_CUBICTO:
+                    path.curveTo(
+                        c0[c + 0] + (c1[c + 0] - c0[c + 0]) * a, 
+                        c0[c + 1] + (c1[c + 1] - c0[c + 1]) * a,
+                        c0[c + 2] + (c1[c + 2] - c0[c + 2]) * a, 
+                        c0[c + 3] + (c1[c + 3] - c0[c + 3]) * a,
+                        c0[c + 4] + (c1[c + 4] - c0[c + 4]) * a, 
+                        c0[c + 5] + (c1[c + 5] - c0[c + 5]) * a);
+                    c += 6;
+                    break;
+                    
+                case PathIterator.SEG_CLOSE:
+                    path.closePath();
+                    break;
+                
+                default:
+                    throw new AssertionError("Unknown segment type");
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Methods for resampling shapes at a fixed maximum spacing, writing all 
+ * resulting points into a {@link PackedPath} in a single call.<br>
+ * <br>
+ * The points are the same as the ones that are provided by the path 
+ * iterator that is created with 
+ * {@link PathIterators#createCurveDeltaPathIterator(Shape, double)}: Each 
+ * segment of the shape, including quadratic and cubic curves, is divided
+ * into the smallest number of steps with equal arc length that are not 
+ * longer than the given delta. Each sub-path of the shape that contains
+ * at least one segment becomes one sub-path of the resulting packed 
+ * path. Closed sub-paths remain closed, and the point that is reached
+ * by the closing segment is not stored, because it is the first point
+ * of the sub-path.<br>
+ * <br>
+ * The {@link #resample(Shape, double, double, PackedPath)} method 
+ * instead provides the same points as the path iterator that is created
+ * with {@link PathIterators#createDeltaPathIterator(Shape, double, double)},
+ * by dividing the line segments of the flattened shape.
+ */
+public class ShapeResampling
+{
+    /**
+     * Resample the given shape.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param shape The shape
+     * @param maxDelta The maximum arc length between two points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given delta is not 
+     * positive
+     */
+    public static PackedPath resample(
+        Shape shape, double maxDelta, PackedPath result)
+    {
+        validate(maxDelta);
+        PackedPath path = PackedPath.prepare(result);
+        SubShapeList subShapes = new SubShapeList(shape);
+        CurveSampler sampler = new CurveSampler();
+        PathSink sink = PathSink.create(path);
+        for (int i = 0; i < subShapes.size(); i++)
+        {
+            resample(subShapes, i, maxDelta, sampler, sink);
+        }
+        return path;
+    }
+
+    /**
+     * Resample the given shape, after flattening it with the given 
+     * flatness.<br>
+     * <br>
+     * The points are the same as the ones that are provided by the path
+     * iterator that is created with 
+     * {@link PathIterators#createDeltaPathIterator(Shape, double, double)}:
+     * Each line segment of the flattened shape is divided into the 
+     * smallest number of steps with equal length that are not longer
+     * than the given delta. So in contrast to 
+     * {@link #resample(Shape, double, PackedPath)}, the points are 
+     * placed on the flattened shape, and not directly on its curves.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param maxDelta The maximum distance between two points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given delta is not 
+     * positive, or the flatness is negative
+     */
+    public static PackedPath resample(Shape shape, double flatness, 
+        double maxDelta, PackedPath result)
+    {
+        validate(maxDelta);
+        PathIterator pi = shape.getPathIterator(null, flatness);
+        PackedPath path = PackedPath.prepare(result);
+        double coords[] = new double[6];
+        double moveX = 0;
+        double moveY = 0;
+        double x = 0;
+        double y = 0;
+        while (!pi.isDone())
+        {
+            int segment = pi.currentSegment(coords);
+            switch (segment)
+            {
+                case PathIterator.SEG_MOVETO:
+                    path.moveTo(coords[0], coords[1]);
+                    moveX = coords[0];
+                    moveY = coords[1];
+                    x = moveX;
+                    y = moveY;
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    resampleLine(x, y, coords[0], coords[1], maxDelta, path);
+                    path.lineTo(coords[0], coords[1]);
+                    x = coords[0];
+                    y = coords[1];
+                    break;
+
+                case PathIterator.SEG_CLOSE:
+                    resampleLine(x, y, moveX, moveY, maxDelta, path);
+                    path.closePath();
+                    x = moveX;
+                    y = moveY;
+                    break;
+
+                default:
+                    // Should never happen for a flattening path iterator
+                    throw new IllegalStateException(
+                        "Invalid segment type in flattened path iterator: " 
+                        + segment);
+            }
+            pi.next();
+        }
+        return path;
+    }
+
+    /**
+     * Resample the given shape, processing the sub-paths of the shape in
+     * parallel. The result will be the same as for 
+     * {@link #resample(Shape, double, PackedPath)}. Note that only the 
+     * resampling of different sub-paths is parallelized, so this is 
+     * mainly beneficial for shapes that consist of many sub-paths.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param shape The shape
+     * @param maxDelta The maximum arc length between two points
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given delta is not 
+     * positive
+     */
+    public static PackedPath resampleParallel(
+        Shape shape, double maxDelta, PackedPath result)
+    {
+        validate(maxDelta);
+        PackedPath path = PackedPath.prepare(result);
+        final SubShapeList subShapes = new SubShapeList(shape);
+        final double delta = maxDelta;
+        final PackedPath parts[] = new PackedPath[subShapes.size()];
+        IntStream.range(0, parts.length).parallel().forEach(new IntConsumer()
+        {
+            @Override
+            public void accept(int i)
+            {
+                PackedPath part = new PackedPath();
+                resample(subShapes, i, delta, new CurveSampler(), 
+                    PathSink.create(part));
+                parts[i] = part;
+            }
+        });
+        for (PackedPath part : parts)
+        {
+            path.append(part);
+        }
+        return path;
+    }
+    
+    /**
+     * Resample the specified sub-shape, and pass the resulting points
+     * to the given sink
+     * 
+     * @param subShapes The sub-shapes
+     * @param subShape The sub-shape index
+     * @param maxDelta The maximum arc length between two points
+     * @param sampler The sampler
+     * @param sink The sink
+     */
+    private static void resample(SubShapeList subShapes, int subShape, 
+        double maxDelta, CurveSampler sampler, PathSink sink)
+    {
+        double startX = subShapes.getStartX(subShape);
+        double startY = subShapes.getStartY(subShape);
+        sink.moveTo(startX, startY);
+        double x = startX;
+        double y = startY;
+        double coords[] = new double[6];
+        double point[] = new double[2];
+        int c = subShapes.getCoordinateStart(subShape);
+        int segmentStart = subShapes.getSegmentStart(subShape);
+        int segmentEnd = subShapes.getSegmentEnd(subShape);
+        for (int s = segmentStart; s < segmentEnd; s++)
+        {
+            int type = subShapes.getType(s);
+            double endX = startX;
+            double endY = startY;
+            if (type == PathIterator.SEG_CLOSE)
+            {
+                sampler.setLine(x, y, startX, startY);
+            }
+            else
+            {
+                int n = PathIterators.getNumCoordinates(type);
+                for (int i = 0; i < n; i++)
+                {
+                    coords[i] = subShapes.getCoordinate(c + i);
+                }
+                c += n;
+                sampler.set(x, y, type, coords);
+                endX = coords[n - 2];
+                endY = coords[n - 1];
+            }
+            double length = sampler.getLength();
+            int numSteps = 1;
+            if (length > Geom.DOUBLE_EPSILON)
+            {
+                numSteps = (int)Math.ceil(length / maxDelta);
+            }
+            for (int i = 1; i < numSteps; i++)
+            {
+                double t = sampler.computeParameter(length * i / numSteps);
+                sampler.computePoint(t, point, 0);
+                sink.lineTo(point[0], point[1]);
+            }
+            if (type == PathIterator.SEG_CLOSE)
+            {
+                sink.closePath();
+            }
+            else
+            {
+                sink.lineTo(endX, endY);
+            }
+            x = endX;
+            y = endY;
+        }
+    }
+    
+    /**
+     * Add the points between the given start and end point to the given
+     * path, with the same steps as a <code>DeltaPathIterator</code>. The
+     * start and the end point themselves are not added.
+     * 
+     * @param x0 The x-coordinate of the start point
+     * @param y0 The y-coordinate of the start point
+     * @param x1 The x-coordinate of the end point
+     * @param y1 The y-coordinate of the end point
+     * @param maxDelta The maximum distance between two points
+     * @param path The path
+     */
+    private static void resampleLine(double x0, double y0, 
+        double x1, double y1, double maxDelta, PackedPath path)
+    {
+        double length = Point2D.distance(x0, y0, x1, y1);
+        double delta = maxDelta;
+        if (length > Geom.DOUBLE_EPSILON)
+        {
+            int numSteps = (int)Math.ceil(length / maxDelta);
+            delta = length / numSteps;
+        }
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double position = delta;
+        while (position < length - Geom.DOUBLE_EPSILON)
+        {
+            double relative = position / length;
+            path.lineTo(x0 + relative * dx, y0 + relative * dy);
+            position += delta;
+        }
+    }
+    
+    /**
+     * Make sure that the given delta is positive
+     * 
+     * @param maxDelta The delta
+     * @throws IllegalArgumentException If the delta is not positive
+     */
+    private static void validate(double maxDelta)
+    {
+        if (!(maxDelta > 0))
+        {
+            throw new IllegalArgumentException(
+                "The delta must be positive, but is " + maxDelta);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ShapeResampling()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
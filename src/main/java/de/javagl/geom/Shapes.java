@@ -34,6 +34,9 @@ import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility methods related to Shapes
@@ -169,7 +172,10 @@ public class Shapes
     
     /**
      * Create a shape that is created from interpolating between the 
-     * given shapes, according to the given interpolation value
+     * given shapes, according to the given interpolation value.<br>
+     * <br>
+     * For repeated interpolations between the same shapes, a 
+     * {@link ShapeMorph} should be used.
      * 
      * @param shape0 The first shape
      * @param shape1 The second shape
@@ -515,7 +521,124 @@ public class Shapes
         return result;
     }
     
+    /**
+     * Computes the list of sub-shapes of the given shape, in the same
+     * way as {@link #computeSubShapes(Shape)}, but without creating a
+     * new <code>Path2D</code> for each sub-shape.<br>
+     * <br>
+     * The segments of the given shape are read in a single pass, and 
+     * stored in packed arrays, together with the boundaries of the 
+     * segment ranges of the sub-shapes. The returned list is an 
+     * unmodifiable list of lightweight shapes that are created on demand,
+     * and that directly iterate over these packed arrays. A sub-shape 
+     * can be copied explicitly, for example, with 
+     * <code>new Path2D.Double(subShape)</code>.<br>
+     * <br>
+     * The path iterators of the returned shapes have the winding rule 
+     * of the given shape. Later modifications of the given shape are not
+     * reflected in the returned list. 
+     * 
+     * @param shape The input shape
+     * @return The sub-shapes
+     */
+    public static List<Shape> computeSubShapeViews(Shape shape)
+    {
+        return new SubShapeList(shape);
+    }
+
+    /**
+     * Creates a spliterator over the segments of the given shape.<br>
+     * <br>
+     * The segments of the given shape are read in a single pass, in the 
+     * same way as in {@link #computeSubShapeViews(Shape)}. The spliterator
+     * provides one {@link PathSegment} for each segment of each sub-shape,
+     * and it is only split at the boundaries of sub-shapes. So when it 
+     * is used in a parallel stream, then all segments of one sub-shape 
+     * are processed by the same thread, in their original order.<br>
+     * <br>
+     * The same {@link PathSegment} instance is passed to the consumer for
+     * all segments. See the {@link PathSegment} documentation for details.
+     * 
+     * @param shape The input shape
+     * @return The spliterator
+     */
+    public static Spliterator<PathSegment> createSegmentSpliterator(
+        Shape shape)
+    {
+        SubShapeList subShapes = new SubShapeList(shape);
+        return new PathSegmentSpliterator(subShapes, 0, subShapes.size());
+    }
     
+    /**
+     * Creates a stream of the segments of the given shape. See
+     * {@link #createSegmentSpliterator(Shape)} for details.<br>
+     * <br>
+     * Since the same {@link PathSegment} instance is passed to all 
+     * operations, the stream should directly be mapped to primitive 
+     * values. For example, the signed area of a shape can be computed
+     * with<br>
+     * <pre><code>
+     * double area = Shapes.createSegmentStream(shape, true)
+     *     .mapToDouble(PathSegment::computeSignedArea).sum();
+     * </code></pre>
+     * 
+     * @param shape The input shape
+     * @param parallel Whether the stream should be parallel
+     * @return The stream
+     */
+    public static Stream<PathSegment> createSegmentStream(
+        Shape shape, boolean parallel)
+    {
+        return StreamSupport.stream(
+            createSegmentSpliterator(shape), parallel);
+    }
+
+    /**
+     * Computes a {@link PackedPath} that contains the line segments that
+     * approximate the given shape. If the given result is <code>null</code>,
+     * then a new packed path will be created and returned. Otherwise, the
+     * given result will be {@link PackedPath#clear() cleared}, filled
+     * with the points of the shape, and returned.
+     *
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param result The result
+     * @return The result
+     */
+    public static PackedPath computePackedPath(
+        Shape shape, double flatness, PackedPath result)
+    {
+        result = PackedPath.prepare(result);
+        PathIterator pi = shape.getPathIterator(null, flatness);
+        double coords[] = new double[6];
+        while (!pi.isDone())
+        {
+            switch (pi.currentSegment(coords))
+            {
+                case PathIterator.SEG_MOVETO:
+                    result.moveTo(coords[0], coords[1]);
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    result.lineTo(coords[0], coords[1]);
+                    break;
+
+                case PathIterator.SEG_CLOSE:
+                    result.closePath();
+                    break;
+
+                case PathIterator.SEG_CUBICTO:
+                case PathIterator.SEG_QUADTO:
+                default:
+                    throw new AssertionError(
+                        "Invalid segment in flattened path");
+            }
+            pi.next();
+        }
+        return result;
+    }
+
+
     /**
      * Private constructor to prevent instantiation
      */
@@ -524,4 +647,4 @@ public class Shapes
         // Private constructor to prevent instantiation
     }
     
-}
\ No newline at end of file
+}
\ No newline at end of file
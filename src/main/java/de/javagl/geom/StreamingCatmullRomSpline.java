@@ -0,0 +1,456 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * An open Catmull-Rom-Spline that control points can be appended to.<br>
+ * <br>
+ * The interpolated points of a segment between two control points 
+ * depend on the control point before and the control point after the
+ * segment. So when a control point is appended, the segment that ends 
+ * at the previous control point is <i>finalized</i>: Its interpolated 
+ * points will not change any more, and are computed exactly once. The
+ * last segment of the spline is computed on demand with 
+ * {@link #computeTail(double[])}, using the same additional end point as 
+ * {@link CatmullRomSpline}. The finalized points, followed by the tail
+ * points, are the same as the interpolated points of a 
+ * {@link CatmullRomSpline} that is created with all control points.<br>
+ * <br>
+ * In the sliding window mode, only the interpolated points of the
+ * most recently finalized segments are retained, and the points of
+ * older segments are discarded.
+ */
+public class StreamingCatmullRomSpline
+{
+    /**
+     * Creates a new, empty streaming Catmull-Rom-Spline that retains
+     * all interpolated points.
+     * 
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value. For 0.0, the
+     * spline is uniform. For 0.5, the spline is centripetal. For
+     * 1.0, the spline is chordal.
+     * @return The spline
+     * @throws IllegalArgumentException If the number of steps is not
+     * positive
+     */
+    public static StreamingCatmullRomSpline create(
+        int stepsPerSegment, double alpha)
+    {
+        return new StreamingCatmullRomSpline(
+            stepsPerSegment, alpha, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Creates a new, empty streaming Catmull-Rom-Spline that only 
+     * retains the interpolated points of the given number of most 
+     * recently finalized segments.
+     * 
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value. For 0.0, the
+     * spline is uniform. For 0.5, the spline is centripetal. For
+     * 1.0, the spline is chordal.
+     * @param maxSegments The maximum number of finalized segments 
+     * whose interpolated points are retained
+     * @return The spline
+     * @throws IllegalArgumentException If the number of steps or the
+     * maximum number of segments is not positive
+     */
+    public static StreamingCatmullRomSpline create(
+        int stepsPerSegment, double alpha, int maxSegments)
+    {
+        if (maxSegments <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum number of segments must be positive, but is "
+                + maxSegments);
+        }
+        return new StreamingCatmullRomSpline(
+            stepsPerSegment, alpha, maxSegments);
+    }
+    
+    /**
+     * The alpha value determining the interpolation
+     */
+    private final double alpha;
+    
+    /**
+     * The number of interpolation points between two control points
+     */
+    private final int stepsPerSegment;
+    
+    /**
+     * The basis weights for the interpolation if the spline is uniform,
+     * or <code>null</code> otherwise
+     */
+    private final double uniformWeights[];
+    
+    /**
+     * The maximum number of finalized segments that are retained
+     */
+    private final int maxSegments;
+    
+    /**
+     * The coordinates of the last (up to) three control points, as
+     * (x,y) pairs, with the most recent one at the end
+     */
+    private final double lastControlCoordinates[];
+    
+    /**
+     * The number of control points that have been appended
+     */
+    private long numControlPoints;
+    
+    /**
+     * The coordinates of the retained interpolated points, as (x,y) 
+     * pairs, starting at {@link #coordinatesStart}
+     */
+    private double coordinates[];
+    
+    /**
+     * The index of the first coordinate of the retained points
+     */
+    private int coordinatesStart;
+    
+    /**
+     * The index after the last coordinate of the retained points
+     */
+    private int coordinatesEnd;
+    
+    /**
+     * The number of interpolated points that have been discarded
+     */
+    private long numDiscardedPoints;
+    
+    /**
+     * The control point coordinates for the computation of a segment
+     */
+    private final double segmentControlCoordinates[];
+    
+    /**
+     * The control point coordinates for the computation of the tail
+     */
+    private final double tailControlCoordinates[];
+    
+    /**
+     * Creates a new streaming spline
+     * 
+     * @param stepsPerSegment The number of interpolation steps per segment
+     * @param alpha The interpolation value
+     * @param maxSegments The maximum number of retained segments
+     * @throws IllegalArgumentException If the number of steps is not
+     * positive
+     */
+    private StreamingCatmullRomSpline(
+        int stepsPerSegment, double alpha, int maxSegments)
+    {
+        if (stepsPerSegment <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of steps must be positive, but is "
+                + stepsPerSegment);
+        }
+        this.stepsPerSegment = stepsPerSegment;
+        this.alpha = alpha;
+        this.uniformWeights = alpha == 0.0 ? 
+            CatmullRomSpline.computeUniformWeights(stepsPerSegment) : null;
+        this.maxSegments = maxSegments;
+        this.lastControlCoordinates = new double[6];
+        this.segmentControlCoordinates = new double[8];
+        this.tailControlCoordinates = new double[8];
+        int initialSegments = Math.min(maxSegments, 16);
+        this.coordinates = new double[initialSegments * stepsPerSegment * 2];
+    }
+    
+    /**
+     * Append the given control point to this spline
+     * 
+     * @param point The point
+     */
+    public void append(Point2D point)
+    {
+        append(point.getX(), point.getY());
+    }
+    
+    /**
+     * Append the given control point to this spline. If this spline 
+     * contained at least two control points, then this will finalize the
+     * segment that ends at the previous control point, and compute its 
+     * interpolated points.
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    public void append(double x, double y)
+    {
+        double c[] = lastControlCoordinates;
+        System.arraycopy(c, 2, c, 0, 4);
+        c[4] = x;
+        c[5] = y;
+        numControlPoints++;
+        if (numControlPoints < 3)
+        {
+            return;
+        }
+        double s[] = segmentControlCoordinates;
+        if (numControlPoints == 3)
+        {
+            // The first segment uses the additional start point, 
+            // computed in the same way as in CatmullRomSpline
+            s[0] = c[0] - (c[2] - c[0]);
+            s[1] = c[1] - (c[3] - c[1]);
+        }
+        else
+        {
+            s[0] = s[2];
+            s[1] = s[3];
+        }
+        System.arraycopy(c, 0, s, 2, 6);
+        ensureCapacity();
+        CatmullRomSpline.interpolateSegment(s, 0, alpha, 
+            stepsPerSegment, stepsPerSegment, uniformWeights, 
+            coordinates, coordinatesEnd);
+        coordinatesEnd += stepsPerSegment * 2;
+    }
+    
+    /**
+     * Make sure that the coordinates array can store the interpolated 
+     * points of one more segment, discarding the oldest segment if the
+     * maximum number of segments was reached.
+     */
+    private void ensureCapacity()
+    {
+        int segmentLength = stepsPerSegment * 2;
+        int retainedLength = coordinatesEnd - coordinatesStart;
+        if (retainedLength / segmentLength >= maxSegments)
+        {
+            coordinatesStart += segmentLength;
+            retainedLength -= segmentLength;
+            numDiscardedPoints += stepsPerSegment;
+        }
+        if (coordinatesEnd + segmentLength <= coordinates.length)
+        {
+            return;
+        }
+        if (coordinatesStart >= coordinates.length / 2)
+        {
+            // Move the retained points to the start of the array. In 
+            // the sliding window mode, the array will not grow beyond 
+            // twice the size of the window.
+            System.arraycopy(coordinates, coordinatesStart, 
+                coordinates, 0, retainedLength);
+        }
+        else
+        {
+            long maxLength = 2L * maxSegments * segmentLength;
+            int newLength = (int)Math.min(coordinates.length * 2L, maxLength);
+            newLength = Math.max(newLength, retainedLength + segmentLength);
+            double newCoordinates[] = new double[newLength];
+            System.arraycopy(coordinates, coordinatesStart, 
+                newCoordinates, 0, retainedLength);
+            coordinates = newCoordinates;
+        }
+        coordinatesStart = 0;
+        coordinatesEnd = retainedLength;
+    }
+    
+    /**
+     * Returns the number of control points that have been appended
+     * 
+     * @return The number of control points
+     */
+    public long getNumControlPoints()
+    {
+        return numControlPoints;
+    }
+    
+    /**
+     * Returns the number of retained interpolated points of the 
+     * finalized segments
+     * 
+     * @return The number of interpolated points
+     */
+    public int getNumInterpolatedPoints()
+    {
+        return (coordinatesEnd - coordinatesStart) / 2;
+    }
+    
+    /**
+     * Returns the number of interpolated points of the finalized segments
+     * that have been discarded in the sliding window mode. The point 
+     * with index <code>i</code> of the retained points is the point 
+     * with index <code>getNumDiscardedPoints()+i</code> of all 
+     * interpolated points of the spline.
+     * 
+     * @return The number of discarded points
+     */
+    public long getNumDiscardedPoints()
+    {
+        return numDiscardedPoints;
+    }
+    
+    /**
+     * Returns the specified retained interpolated point. If the given 
+     * result is <code>null</code>, then a new point will be created and 
+     * returned.
+     * 
+     * @param index The index of the point
+     * @param result The optional result
+     * @return The result
+     * @throws IndexOutOfBoundsException If the index is negative or not
+     * smaller than {@link #getNumInterpolatedPoints()}
+     */
+    public Point2D getInterpolatedPoint(int index, Point2D result)
+    {
+        int n = getNumInterpolatedPoints();
+        if (index < 0 || index >= n)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of interpolated "
+                + "points is " + n);
+        }
+        if (result == null)
+        {
+            result = new Point2D.Double();
+        }
+        int offset = coordinatesStart + index * 2;
+        result.setLocation(coordinates[offset], coordinates[offset + 1]);
+        return result;
+    }
+    
+    /**
+     * Copies the coordinates of the retained interpolated points of the
+     * finalized segments into the given array, as consecutive 
+     * <code>(x,y)</code> pairs. If the given result is <code>null</code>, 
+     * then a new array will be created and returned.
+     * 
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given array is not 
+     * <code>null</code> and has a length that is smaller than
+     * <code>2*getNumInterpolatedPoints()</code>
+     */
+    public double[] getInterpolatedCoordinates(double result[])
+    {
+        int length = coordinatesEnd - coordinatesStart;
+        if (result == null)
+        {
+            result = new double[length];
+        }
+        else if (result.length < length)
+        {
+            throw new IllegalArgumentException(
+                "The array must have a length of at least " + length
+                + ", but has a length of " + result.length);
+        }
+        System.arraycopy(coordinates, coordinatesStart, result, 0, length);
+        return result;
+    }
+    
+    /**
+     * Returns the number of points that are computed by 
+     * {@link #computeTail(double[])}. This is 
+     * <code>stepsPerSegment+1</code> if this spline contains at least
+     * two control points, 1 if it contains one control point, and 0 
+     * otherwise.
+     * 
+     * @return The number of tail points
+     */
+    public int getNumTailPoints()
+    {
+        if (numControlPoints >= 2)
+        {
+            return stepsPerSegment + 1;
+        }
+        return (int)numControlPoints;
+    }
+    
+    /**
+     * Computes the interpolated points of the last segment, which is not 
+     * finalized yet, and stores their coordinates in the given array, 
+     * as consecutive <code>(x,y)</code> pairs. The last point is the 
+     * last control point. If the given result is <code>null</code>, 
+     * then a new array will be created and returned.
+     * 
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the given array is not 
+     * <code>null</code> and has a length that is smaller than
+     * <code>2*getNumTailPoints()</code>
+     */
+    public double[] computeTail(double result[])
+    {
+        int length = getNumTailPoints() * 2;
+        if (result == null)
+        {
+            result = new double[length];
+        }
+        else if (result.length < length)
+        {
+            throw new IllegalArgumentException(
+                "The array must have a length of at least " + length
+                + ", but has a length of " + result.length);
+        }
+        double c[] = lastControlCoordinates;
+        if (numControlPoints == 1)
+        {
+            result[0] = c[4];
+            result[1] = c[5];
+        }
+        else if (numControlPoints >= 2)
+        {
+            double s[] = tailControlCoordinates;
+            System.arraycopy(c, 0, s, 0, 6);
+            if (numControlPoints == 2)
+            {
+                s[0] = c[2] - (c[4] - c[2]);
+                s[1] = c[3] - (c[5] - c[3]);
+            }
+            s[6] = c[4] + (c[4] - c[2]);
+            s[7] = c[5] + (c[5] - c[3]);
+            CatmullRomSpline.interpolateSegment(s, 0, alpha, 
+                stepsPerSegment + 1, stepsPerSegment, uniformWeights, 
+                result, 0);
+        }
+        return result;
+    }
+    
+    /**
+     * Removes all control points and interpolated points from this spline
+     */
+    public void clear()
+    {
+        Arrays.fill(lastControlCoordinates, 0.0);
+        numControlPoints = 0;
+        coordinatesStart = 0;
+        coordinatesEnd = 0;
+        numDiscardedPoints = 0;
+    }
+}
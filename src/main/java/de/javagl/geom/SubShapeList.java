@@ -0,0 +1,324 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of the sub-shapes of a shape, as they are 
+ * computed by {@link Shapes#computeSubShapeViews(Shape)}.<br>
+ * <br>
+ * The segments of all sub-shapes are stored in a single, packed array
+ * of segment types and a single, packed array of coordinates. For each
+ * sub-shape, only the start point and the index of its first segment 
+ * and its first coordinate are stored. The {@link SubShapeView} objects 
+ * that are returned by {@link #get(int)} are created on demand, and
+ * read their segments directly from the packed arrays.
+ */
+final class SubShapeList extends AbstractList<Shape> implements RandomAccess
+{
+    /**
+     * The winding rule of the original shape
+     */
+    private final int windingRule;
+    
+    /**
+     * The types of all segments (except for the initial SEG_MOVETO 
+     * segments of the sub-shapes)
+     */
+    private byte types[];
+    
+    /**
+     * The number of segments
+     */
+    private int numSegments;
+    
+    /**
+     * The coordinates of all segments
+     */
+    private double coordinates[];
+    
+    /**
+     * The number of coordinates
+     */
+    private int numCoordinates;
+    
+    /**
+     * The number of sub-shapes
+     */
+    private int numSubShapes;
+    
+    /**
+     * The index of the first segment of each sub-shape. The last
+     * element is the total number of segments.
+     */
+    private int segmentStarts[];
+    
+    /**
+     * The index of the first coordinate of each sub-shape. The last
+     * element is the total number of coordinates.
+     */
+    private int coordinateStarts[];
+    
+    /**
+     * The start points of the sub-shapes, as (x,y) pairs
+     */
+    private double startPoints[];
+    
+    /**
+     * Creates the sub-shape list for the given shape, in a single pass
+     * over its path iterator
+     * 
+     * @param shape The shape
+     */
+    SubShapeList(Shape shape)
+    {
+        PathIterator pi = shape.getPathIterator(null);
+        this.windingRule = pi.getWindingRule();
+        this.types = new byte[16];
+        this.coordinates = new double[32];
+        this.segmentStarts = new int[5];
+        this.coordinateStarts = new int[5];
+        this.startPoints = new double[8];
+        
+        double coords[] = new double[6];
+        double previousX = 0;
+        double previousY = 0;
+        double firstX = 0;
+        double firstY = 0;
+        boolean inSubShape = false;
+        while (!pi.isDone())
+        {
+            int segment = pi.currentSegment(coords);
+            switch (segment)
+            {
+                case PathIterator.SEG_MOVETO:
+                    inSubShape = false;
+                    previousX = coords[0];
+                    previousY = coords[1];
+                    firstX = coords[0];
+                    firstY = coords[1];
+                    break;
+                    
+                case PathIterator.SEG_CLOSE:
+                    if (inSubShape)
+                    {
+                        addSegment(segment, coords);
+                        inSubShape = false;
+                    }
+                    previousX = firstX;
+                    previousY = firstY;
+                    break;
+                    
+                case PathIterator.SEG_LINETO:
+                case PathIterator.SEG_QUADTO:
+                case PathIterator.SEG_CUBICTO:
+                    if (!inSubShape)
+                    {
+                        startSubShape(previousX, previousY);
+                        inSubShape = true;
+                    }
+                    addSegment(segment, coords);
+                    int n = PathIterators.getNumCoordinates(segment);
+                    previousX = coords[n - 2];
+                    previousY = coords[n - 1];
+                    break;
+                    
+                default:
+                    // Should never occur
+                    throw new AssertionError(
+                        "Invalid segment in path!");
+            }
+            pi.next();
+        }
+        segmentStarts[numSubShapes] = numSegments;
+        coordinateStarts[numSubShapes] = numCoordinates;
+        
+        // Release the unused parts of the arrays
+        types = Arrays.copyOf(types, numSegments);
+        coordinates = Arrays.copyOf(coordinates, numCoordinates);
+        segmentStarts = Arrays.copyOf(segmentStarts, numSubShapes + 1);
+        coordinateStarts = Arrays.copyOf(coordinateStarts, numSubShapes + 1);
+        startPoints = Arrays.copyOf(startPoints, numSubShapes * 2);
+    }
+    
+    /**
+     * Start a new sub-shape at the given point
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void startSubShape(double x, double y)
+    {
+        if (numSubShapes + 1 >= segmentStarts.length)
+        {
+            int newLength = segmentStarts.length * 2;
+            segmentStarts = Arrays.copyOf(segmentStarts, newLength);
+            coordinateStarts = Arrays.copyOf(coordinateStarts, newLength);
+            startPoints = Arrays.copyOf(startPoints, newLength * 2);
+        }
+        segmentStarts[numSubShapes] = numSegments;
+        coordinateStarts[numSubShapes] = numCoordinates;
+        startPoints[numSubShapes * 2 + 0] = x;
+        startPoints[numSubShapes * 2 + 1] = y;
+        numSubShapes++;
+    }
+    
+    /**
+     * Add the given segment to the current sub-shape
+     * 
+     * @param segment The segment type
+     * @param coords The coordinates
+     */
+    private void addSegment(int segment, double coords[])
+    {
+        if (numSegments == types.length)
+        {
+            types = Arrays.copyOf(types, numSegments * 2);
+        }
+        types[numSegments++] = (byte) segment;
+        int n = PathIterators.getNumCoordinates(segment);
+        if (numCoordinates + n > coordinates.length)
+        {
+            coordinates = Arrays.copyOf(coordinates, 
+                Math.max(numCoordinates + n, coordinates.length * 2));
+        }
+        System.arraycopy(coords, 0, coordinates, numCoordinates, n);
+        numCoordinates += n;
+    }
+    
+    @Override
+    public Shape get(int index)
+    {
+        if (index < 0 || index >= numSubShapes)
+        {
+            throw new IndexOutOfBoundsException(
+                "Index was " + index + ", but number of sub-shapes is "
+                + numSubShapes);
+        }
+        return new SubShapeView(this, index);
+    }
+
+    @Override
+    public int size()
+    {
+        return numSubShapes;
+    }
+    
+    /**
+     * Returns the winding rule of the original shape
+     * 
+     * @return The winding rule
+     */
+    int getWindingRule()
+    {
+        return windingRule;
+    }
+    
+    /**
+     * Returns the x-coordinate of the start point of the specified 
+     * sub-shape
+     * 
+     * @param subShape The sub-shape index
+     * @return The x-coordinate
+     */
+    double getStartX(int subShape)
+    {
+        return startPoints[subShape * 2 + 0];
+    }
+    
+    /**
+     * Returns the y-coordinate of the start point of the specified 
+     * sub-shape
+     * 
+     * @param subShape The sub-shape index
+     * @return The y-coordinate
+     */
+    double getStartY(int subShape)
+    {
+        return startPoints[subShape * 2 + 1];
+    }
+    
+    /**
+     * Returns the index of the first segment of the specified sub-shape
+     * 
+     * @param subShape The sub-shape index
+     * @return The segment index, inclusive
+     */
+    int getSegmentStart(int subShape)
+    {
+        return segmentStarts[subShape];
+    }
+    
+    /**
+     * Returns the index after the last segment of the specified sub-shape
+     * 
+     * @param subShape The sub-shape index
+     * @return The segment index, exclusive
+     */
+    int getSegmentEnd(int subShape)
+    {
+        return segmentStarts[subShape + 1];
+    }
+    
+    /**
+     * Returns the index of the first coordinate of the specified sub-shape
+     * 
+     * @param subShape The sub-shape index
+     * @return The coordinate index
+     */
+    int getCoordinateStart(int subShape)
+    {
+        return coordinateStarts[subShape];
+    }
+    
+    /**
+     * Returns the type of the specified segment
+     * 
+     * @param segment The segment index
+     * @return The segment type
+     */
+    int getType(int segment)
+    {
+        return types[segment];
+    }
+    
+    /**
+     * Returns the specified coordinate
+     * 
+     * @param index The coordinate index
+     * @return The coordinate
+     */
+    double getCoordinate(int index)
+    {
+        return coordinates[index];
+    }
+}
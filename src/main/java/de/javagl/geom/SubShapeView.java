@@ -0,0 +1,199 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A lightweight shape that is a view on one sub-shape in a 
+ * {@link SubShapeList}. It does not store any segments, but reads
+ * them from the packed arrays of the list.
+ */
+final class SubShapeView extends AbstractPathShape
+{
+    /**
+     * The list that this view refers to
+     */
+    private final SubShapeList list;
+    
+    /**
+     * The index of the sub-shape in the list
+     */
+    private final int index;
+    
+    /**
+     * Creates a new view on the specified sub-shape
+     * 
+     * @param list The list
+     * @param index The index of the sub-shape
+     */
+    SubShapeView(SubShapeList list, int index)
+    {
+        this.list = list;
+        this.index = index;
+    }
+
+    @Override
+    public Rectangle2D getBounds2D()
+    {
+        double minX = list.getStartX(index);
+        double minY = list.getStartY(index);
+        double maxX = minX;
+        double maxY = minY;
+        int c = list.getCoordinateStart(index);
+        int end = list.getSegmentEnd(index);
+        for (int s = list.getSegmentStart(index); s < end; s++)
+        {
+            int n = PathIterators.getNumCoordinates(list.getType(s));
+            for (int i = 0; i < n; i += 2)
+            {
+                double x = list.getCoordinate(c + i + 0);
+                double y = list.getCoordinate(c + i + 1);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            c += n;
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at)
+    {
+        return new SubShapeIterator(at);
+    }
+    
+    /**
+     * The path iterator for a {@link SubShapeView}
+     */
+    private final class SubShapeIterator implements PathIterator
+    {
+        /**
+         * The optional transform
+         */
+        private final AffineTransform at;
+        
+        /**
+         * The current segment index. The initial SEG_MOVETO has the 
+         * index <code>segmentStart-1</code>.
+         */
+        private int segment;
+        
+        /**
+         * The index of the first coordinate of the current segment
+         */
+        private int coordinate;
+        
+        /**
+         * The index after the last segment
+         */
+        private final int segmentEnd;
+        
+        /**
+         * Internal storage for the coordinates that are converted to
+         * <code>float</code> values
+         */
+        private final double doubleCoords[] = new double[6];
+        
+        /**
+         * Creates a new iterator
+         * 
+         * @param at The optional transform
+         */
+        SubShapeIterator(AffineTransform at)
+        {
+            this.at = at;
+            this.segment = list.getSegmentStart(index) - 1;
+            this.coordinate = list.getCoordinateStart(index);
+            this.segmentEnd = list.getSegmentEnd(index);
+        }
+
+        @Override
+        public int getWindingRule()
+        {
+            return list.getWindingRule();
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return segment >= segmentEnd;
+        }
+
+        @Override
+        public void next()
+        {
+            if (segment >= list.getSegmentStart(index))
+            {
+                coordinate += 
+                    PathIterators.getNumCoordinates(list.getType(segment));
+            }
+            segment++;
+        }
+
+        @Override
+        public int currentSegment(float[] coords)
+        {
+            int type = currentSegment(doubleCoords);
+            for (int i = 0; i < PathIterators.getNumCoordinates(type); i++)
+            {
+                coords[i] = (float) doubleCoords[i];
+            }
+            return type;
+        }
+
+        @Override
+        public int currentSegment(double[] coords)
+        {
+            if (segment < list.getSegmentStart(index))
+            {
+                coords[0] = list.getStartX(index);
+                coords[1] = list.getStartY(index);
+                if (at != null)
+                {
+                    at.transform(coords, 0, coords, 0, 1);
+                }
+                return SEG_MOVETO;
+            }
+            int type = list.getType(segment);
+            int n = PathIterators.getNumCoordinates(type);
+            for (int i = 0; i < n; i++)
+            {
+                coords[i] = list.getCoordinate(coordinate + i);
+            }
+            if (at != null && n > 0)
+            {
+                at.transform(coords, 0, coords, 0, n / 2);
+            }
+            return type;
+        }
+    }
+}
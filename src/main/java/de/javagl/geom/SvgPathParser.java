@@ -0,0 +1,581 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.io.Reader;
+
+/**
+ * Package-private class for parsing SVG path data, as it is given in the
+ * <code>d</code> attribute of an SVG <code>path</code> element, and 
+ * passing the resulting segments to a {@link PathSink}.<br>
+ * <br>
+ * All commands are supported, including the relative and shorthand 
+ * forms. Elliptical arcs are converted into cubic curves, with one 
+ * curve for each quarter of the ellipse at most.
+ */
+final class SvgPathParser extends TextParser
+{
+    /**
+     * The sink that receives the segments
+     */
+    private final PathSink sink;
+    
+    /**
+     * The x-coordinate of the current point
+     */
+    private double currentX;
+
+    /**
+     * The y-coordinate of the current point
+     */
+    private double currentY;
+    
+    /**
+     * The x-coordinate of the start of the current sub-path
+     */
+    private double startX;
+
+    /**
+     * The y-coordinate of the start of the current sub-path
+     */
+    private double startY;
+    
+    /**
+     * The x-coordinate of the last control point of the previous curve
+     */
+    private double controlX;
+
+    /**
+     * The y-coordinate of the last control point of the previous curve
+     */
+    private double controlY;
+    
+    /**
+     * The previous command
+     */
+    private int previousCommand;
+    
+    /**
+     * Whether the current sub-path was closed
+     */
+    private boolean closed;
+    
+    /**
+     * Creates a parser for the given character sequence
+     * 
+     * @param sequence The sequence
+     * @param sink The sink
+     */
+    SvgPathParser(CharSequence sequence, PathSink sink)
+    {
+        super(sequence);
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a parser for the given reader. IO errors from the reader
+     * will be passed to the caller as <code>UncheckedIOException</code>s
+     * 
+     * @param reader The reader
+     * @param sink The sink
+     */
+    SvgPathParser(Reader reader, PathSink sink)
+    {
+        super(reader);
+        this.sink = sink;
+    }
+    
+    /**
+     * Parse the path data from the input, passing the segments to the 
+     * sink
+     * 
+     * @throws IllegalArgumentException If the input is not valid SVG 
+     * path data
+     */
+    void parse()
+    {
+        skipSeparators();
+        if (peek() == -1)
+        {
+            return;
+        }
+        int command = read();
+        if (command != 'M' && command != 'm')
+        {
+            throw error("Path data must start with a moveto command");
+        }
+        while (true)
+        {
+            parseCommand(command);
+            skipSeparators();
+            int c = peek();
+            if (c == -1)
+            {
+                break;
+            }
+            if (isNumberStart(c))
+            {
+                // Repeated arguments without a command letter. For a 
+                // moveto, these are treated as lineto commands
+                if (command == 'M')
+                {
+                    command = 'L';
+                }
+                else if (command == 'm')
+                {
+                    command = 'l';
+                }
+                else if (command == 'Z' || command == 'z')
+                {
+                    throw error("Unexpected number");
+                }
+            }
+            else
+            {
+                command = read();
+            }
+        }
+    }
+    
+    /**
+     * Parse the arguments of the given command, and pass the resulting
+     * segments to the sink
+     * 
+     * @param command The command
+     */
+    private void parseCommand(int command)
+    {
+        boolean relative = command >= 'a' && command <= 'z';
+        double offsetX = relative ? currentX : 0;
+        double offsetY = relative ? currentY : 0;
+        switch (Character.toUpperCase(command))
+        {
+            case 'M':
+            {
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                sink.moveTo(x, y);
+                closed = false;
+                startX = x;
+                startY = y;
+                setCurrent(x, y);
+                break;
+            }
+            
+            case 'L':
+            {
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                lineTo(x, y);
+                break;
+            }
+
+            case 'H':
+                lineTo(offsetX + parseNumber(), currentY);
+                break;
+                
+            case 'V':
+                lineTo(currentX, offsetY + parseNumber());
+                break;
+
+            case 'C':
+            {
+                double x1 = offsetX + parseNumber();
+                double y1 = offsetY + parseNumber();
+                double x2 = offsetX + parseNumber();
+                double y2 = offsetY + parseNumber();
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                curveTo(x1, y1, x2, y2, x, y);
+                break;
+            }
+                
+            case 'S':
+            {
+                double x1 = currentX;
+                double y1 = currentY;
+                if (isPreviousCommand('C', 'S'))
+                {
+                    x1 = currentX * 2 - controlX;
+                    y1 = currentY * 2 - controlY;
+                }
+                double x2 = offsetX + parseNumber();
+                double y2 = offsetY + parseNumber();
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                curveTo(x1, y1, x2, y2, x, y);
+                break;
+            }
+                
+            case 'Q':
+            {
+                double x1 = offsetX + parseNumber();
+                double y1 = offsetY + parseNumber();
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                quadTo(x1, y1, x, y);
+                break;
+            }
+            
+            case 'T':
+            {
+                double x1 = currentX;
+                double y1 = currentY;
+                if (isPreviousCommand('Q', 'T'))
+                {
+                    x1 = currentX * 2 - controlX;
+                    y1 = currentY * 2 - controlY;
+                }
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                quadTo(x1, y1, x, y);
+                break;
+            }
+            
+            case 'A':
+            {
+                double rx = parseNumber();
+                double ry = parseNumber();
+                double angle = parseNumber();
+                boolean largeArc = parseFlag();
+                boolean sweep = parseFlag();
+                double x = offsetX + parseNumber();
+                double y = offsetY + parseNumber();
+                arcTo(rx, ry, angle, largeArc, sweep, x, y);
+                break;
+            }
+            
+            case 'Z':
+                sink.closePath();
+                closed = true;
+                setCurrent(startX, startY);
+                break;
+                
+            default:
+                throw error("Unknown command '" + (char)command + "'");
+        }
+        previousCommand = command;
+    }
+    
+    /**
+     * Returns whether the previous command was one of the given commands,
+     * in absolute or relative form
+     * 
+     * @param command0 The first command, in upper case
+     * @param command1 The second command, in upper case
+     * @return Whether the previous command was one of the given ones
+     */
+    private boolean isPreviousCommand(int command0, int command1)
+    {
+        int previous = Character.toUpperCase(previousCommand);
+        return previous == command0 || previous == command1;
+    }
+    
+    /**
+     * Set the current point
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void setCurrent(double x, double y)
+    {
+        currentX = x;
+        currentY = y;
+    }
+    
+    /**
+     * Start a new sub-path at the start of the previous one if the 
+     * previous one was closed, as it is defined for SVG paths
+     */
+    private void reopen()
+    {
+        if (closed)
+        {
+            sink.moveTo(startX, startY);
+            closed = false;
+        }
+    }
+    
+    /**
+     * Add a line to the given point
+     * 
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void lineTo(double x, double y)
+    {
+        reopen();
+        sink.lineTo(x, y);
+        setCurrent(x, y);
+    }
+    
+    /**
+     * Add a quadratic curve to the given point
+     * 
+     * @param x1 The x-coordinate of the control point
+     * @param y1 The y-coordinate of the control point
+     * @param x The x-coordinate of the end point
+     * @param y The y-coordinate of the end point
+     */
+    private void quadTo(double x1, double y1, double x, double y)
+    {
+        reopen();
+        sink.quadTo(x1, y1, x, y);
+        controlX = x1;
+        controlY = y1;
+        setCurrent(x, y);
+    }
+    
+    /**
+     * Add a cubic curve to the given point
+     * 
+     * @param x1 The x-coordinate of the first control point
+     * @param y1 The y-coordinate of the first control point
+     * @param x2 The x-coordinate of the second control point
+     * @param y2 The y-coordinate of the second control point
+     * @param x The x-coordinate of the end point
+     * @param y The y-coordinate of the end point
+     */
+    private void curveTo(double x1, double y1, double x2, double y2, 
+        double x, double y)
+    {
+        reopen();
+        sink.curveTo(x1, y1, x2, y2, x, y);
+        controlX = x2;
+        controlY = y2;
+        setCurrent(x, y);
+    }
+    
+    /**
+     * Add an elliptical arc to the given point, converted into cubic 
+     * curves. The computation of the center parameterization follows 
+     * the implementation notes of the SVG specification, including the
+     * correction of radii that are too small.
+     * 
+     * @param rx The x-radius
+     * @param ry The y-radius
+     * @param angleDeg The rotation of the ellipse, in degrees
+     * @param largeArc Whether the large arc should be chosen
+     * @param sweep Whether the arc should be drawn in the direction of
+     * increasing angles
+     * @param x The x-coordinate of the end point
+     * @param y The y-coordinate of the end point
+     */
+    private void arcTo(double rx, double ry, double angleDeg, 
+        boolean largeArc, boolean sweep, double x, double y)
+    {
+        double x0 = currentX;
+        double y0 = currentY;
+        if (x0 == x && y0 == y)
+        {
+            return;
+        }
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+        if (rx == 0 || ry == 0)
+        {
+            lineTo(x, y);
+            return;
+        }
+        double phi = Math.toRadians(angleDeg % 360.0);
+        double cos = Math.cos(phi);
+        double sin = Math.sin(phi);
+        double dx2 = (x0 - x) * 0.5;
+        double dy2 = (y0 - y) * 0.5;
+        double x1p = cos * dx2 + sin * dy2;
+        double y1p = -sin * dx2 + cos * dy2;
+        double lambda = (x1p * x1p) / (rx * rx) + (y1p * y1p) / (ry * ry);
+        if (lambda > 1)
+        {
+            double s = Math.sqrt(lambda);
+            rx *= s;
+            ry *= s;
+        }
+        double rx2 = rx * rx;
+        double ry2 = ry * ry;
+        double numerator = rx2 * ry2 - rx2 * y1p * y1p - ry2 * x1p * x1p;
+        double denominator = rx2 * y1p * y1p + ry2 * x1p * x1p;
+        double coefficient = Math.sqrt(Math.max(0, numerator / denominator));
+        if (largeArc == sweep)
+        {
+            coefficient = -coefficient;
+        }
+        double cxp = coefficient * rx * y1p / ry;
+        double cyp = -coefficient * ry * x1p / rx;
+        double cx = cos * cxp - sin * cyp + (x0 + x) * 0.5;
+        double cy = sin * cxp + cos * cyp + (y0 + y) * 0.5;
+        double theta = Math.atan2((y1p - cyp) / ry, (x1p - cxp) / rx);
+        double theta2 = Math.atan2((-y1p - cyp) / ry, (-x1p - cxp) / rx);
+        double deltaTheta = theta2 - theta;
+        if (!sweep && deltaTheta > 0)
+        {
+            deltaTheta -= 2 * Math.PI;
+        }
+        else if (sweep && deltaTheta < 0)
+        {
+            deltaTheta += 2 * Math.PI;
+        }
+        
+        int n = (int)Math.ceil(Math.abs(deltaTheta) / (Math.PI * 0.5) - 1e-7);
+        n = Math.max(1, n);
+        double delta = deltaTheta / n;
+        double k = 4.0 / 3.0 * Math.tan(delta * 0.25);
+        double cos0 = Math.cos(theta);
+        double sin0 = Math.sin(theta);
+        for (int i = 0; i < n; i++)
+        {
+            double cos1 = Math.cos(theta + delta);
+            double sin1 = Math.sin(theta + delta);
+            double u1 = cos0 - k * sin0;
+            double v1 = sin0 + k * cos0;
+            double u2 = cos1 + k * sin1;
+            double v2 = sin1 - k * cos1;
+            double ex = x;
+            double ey = y;
+            if (i < n - 1)
+            {
+                ex = cx + rx * cos1 * cos - ry * sin1 * sin;
+                ey = cy + rx * cos1 * sin + ry * sin1 * cos;
+            }
+            curveTo(
+                cx + rx * u1 * cos - ry * v1 * sin, 
+                cy + rx * u1 * sin + ry * v1 * cos, 
+                cx + rx * u2 * cos - ry * v2 * sin, 
+                cy + rx * u2 * sin + ry * v2 * cos, 
+                ex, ey);
+            theta += delta;
+            cos0 = cos1;
+            sin0 = sin1;
+        }
+    }
+    
+    /**
+     * Parse a number
+     * 
+     * @return The number
+     */
+    private double parseNumber()
+    {
+        skipSeparators();
+        bufferLength = 0;
+        int c = peek();
+        if (c == '+' || c == '-')
+        {
+            append((char)read());
+        }
+        boolean digits = appendDigits();
+        if (peek() == '.')
+        {
+            append((char)read());
+            digits |= appendDigits();
+        }
+        if (!digits)
+        {
+            throw error("Expected a number");
+        }
+        c = peek();
+        if (c == 'e' || c == 'E')
+        {
+            append((char)read());
+            c = peek();
+            if (c == '+' || c == '-')
+            {
+                append((char)read());
+            }
+            if (!appendDigits())
+            {
+                throw error("Invalid number");
+            }
+        }
+        return convertNumber();
+    }
+    
+    /**
+     * Append all following digits to the buffer
+     * 
+     * @return Whether at least one digit was appended
+     */
+    private boolean appendDigits()
+    {
+        boolean digits = false;
+        while (isDigit(peek()))
+        {
+            append((char)read());
+            digits = true;
+        }
+        return digits;
+    }
+    
+    /**
+     * Parse an arc flag, which is a single <code>0</code> or 
+     * <code>1</code> that does not have to be followed by a separator
+     * 
+     * @return The flag
+     */
+    private boolean parseFlag()
+    {
+        skipSeparators();
+        int c = read();
+        if (c == '0')
+        {
+            return false;
+        }
+        if (c == '1')
+        {
+            return true;
+        }
+        throw error("Expected a flag");
+    }
+    
+    /**
+     * Skip all whitespace characters and commas
+     */
+    private void skipSeparators()
+    {
+        while (true)
+        {
+            skipWhitespace();
+            if (peek() != ',')
+            {
+                break;
+            }
+            read();
+        }
+    }
+    
+    /**
+     * Returns whether the given character may be the first character of
+     * a number
+     * 
+     * @param c The character
+     * @return Whether the character may start a number
+     */
+    private static boolean isNumberStart(int c)
+    {
+        return isDigit(c) || c == '.' || c == '-' || c == '+';
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Methods for reading SVG path data, as it is given in the <code>d</code>
+ * attribute of an SVG <code>path</code> element.<br>
+ * <br>
+ * All path commands are supported, in their absolute and relative forms,
+ * including the shorthand curves (<code>S</code> and <code>T</code>) and
+ * elliptical arcs (<code>A</code>), which are converted into cubic curves.
+ * The input is processed character by character, and the segments are
+ * passed directly to the resulting path, without creating intermediate 
+ * objects. Invalid path data causes an 
+ * <code>IllegalArgumentException</code>, with a message containing the 
+ * position of the error.
+ */
+public class SvgPaths
+{
+    /**
+     * Read the given SVG path data into a path.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path with the
+     * <code>WIND_NON_ZERO</code> winding rule, which is the default fill
+     * rule of SVG, will be created and returned. Otherwise, the given 
+     * result will be reset, and the segments will be stored in the given 
+     * path.
+     * 
+     * @param pathData The path data
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the input is not valid SVG 
+     * path data
+     */
+    public static Path2D readPath(CharSequence pathData, Path2D result)
+    {
+        Path2D path = preparePath(result);
+        new SvgPathParser(pathData, PathSink.create(path)).parse();
+        return path;
+    }
+
+    /**
+     * Read the SVG path data from the given reader into a path. The 
+     * reader will be read character by character, so callers should pass
+     * a buffered reader. The reader will not be closed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path with the
+     * <code>WIND_NON_ZERO</code> winding rule, which is the default fill
+     * rule of SVG, will be created and returned. Otherwise, the given 
+     * result will be reset, and the segments will be stored in the given 
+     * path.
+     * 
+     * @param reader The reader
+     * @param result The optional result
+     * @return The result
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the input is not valid SVG 
+     * path data
+     */
+    public static Path2D readPath(Reader reader, Path2D result) 
+        throws IOException
+    {
+        Path2D path = preparePath(result);
+        try
+        {
+            new SvgPathParser(reader, PathSink.create(path)).parse();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        return path;
+    }
+    
+    /**
+     * Read the given SVG path data into a packed path. Curves will be 
+     * flattened with the given flatness while they are read.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param pathData The path data
+     * @param flatness The maximum distance that the line segments are 
+     * allowed to deviate from the curves
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the input is not valid SVG 
+     * path data
+     */
+    public static PackedPath readPackedPath(
+        CharSequence pathData, double flatness, PackedPath result)
+    {
+        PackedPath path = PackedPath.prepare(result);
+        new SvgPathParser(pathData, 
+            PathSink.create(path, flatness)).parse();
+        return path;
+    }
+    
+    /**
+     * Read the SVG path data from the given reader into a packed path. 
+     * Curves will be flattened with the given flatness while they are 
+     * read. The reader will be read character by character, so callers 
+     * should pass a buffered reader. The reader will not be closed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the points will be stored in the given packed path.
+     * 
+     * @param reader The reader
+     * @param flatness The maximum distance that the line segments are 
+     * allowed to deviate from the curves
+     * @param result The optional result
+     * @return The result
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the input is not valid SVG 
+     * path data
+     */
+    public static PackedPath readPackedPath(
+        Reader reader, double flatness, PackedPath result) 
+            throws IOException
+    {
+        PackedPath path = PackedPath.prepare(result);
+        try
+        {
+            new SvgPathParser(reader, 
+                PathSink.create(path, flatness)).parse();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        return path;
+    }
+    
+    /**
+     * Returns the given path after resetting it, or a new path with the
+     * <code>WIND_NON_ZERO</code> winding rule if it is <code>null</code>
+     * 
+     * @param result The optional result
+     * @return The path
+     */
+    private static Path2D preparePath(Path2D result)
+    {
+        if (result == null)
+        {
+            return new Path2D.Double(PathIterator.WIND_NON_ZERO);
+        }
+        result.reset();
+        return result;
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private SvgPaths()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Package-private base class for parsers of text formats. It reads the 
+ * input from a character sequence or a reader, character by character,
+ * and offers a reusable buffer for keywords and numbers, so that no 
+ * objects have to be created for the individual numbers. 
+ */
+abstract class TextParser
+{
+    /**
+     * The powers of 10 that can be represented exactly as a 
+     * <code>double</code> value
+     */
+    private static final double POWERS_OF_TEN[] = 
+    {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 
+        1e21, 1e22
+    };
+    
+    /**
+     * The maximum number of significant decimal digits for which the
+     * mantissa of a number can be represented exactly as a 
+     * <code>double</code> value
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    
+    /**
+     * The character sequence that is parsed. This is <code>null</code>
+     * if the input is read from a reader.
+     */
+    private final CharSequence sequence;
+    
+    /**
+     * The reader that the input is read from. This is <code>null</code>
+     * if the input is a character sequence.
+     */
+    private final Reader reader;
+    
+    /**
+     * The position of the next character in the input
+     */
+    private int position;
+    
+    /**
+     * The next character that was read from the reader, -1 for the end
+     * of the input, or -2 if no character was read yet
+     */
+    private int lookahead;
+    
+    /**
+     * The buffer for keywords and numbers
+     */
+    char buffer[];
+    
+    /**
+     * The number of characters in the buffer
+     */
+    int bufferLength;
+    
+    /**
+     * Creates a parser for the given character sequence
+     * 
+     * @param sequence The sequence
+     */
+    TextParser(CharSequence sequence)
+    {
+        this.sequence = sequence;
+        this.reader = null;
+        this.buffer = new char[32];
+        this.lookahead = -2;
+    }
+
+    /**
+     * Creates a parser for the given reader. IO errors from the reader
+     * will be passed to the caller as <code>UncheckedIOException</code>s
+     * 
+     * @param reader The reader
+     */
+    TextParser(Reader reader)
+    {
+        this.sequence = null;
+        this.reader = reader;
+        this.buffer = new char[32];
+        this.lookahead = -2;
+    }
+    
+    /**
+     * Converts the characters in the buffer into a number. If it has at 
+     * most {@link #MAX_EXACT_DIGITS} significant digits and a small 
+     * decimal exponent, then it will be computed directly. Otherwise, 
+     * the computation will be delegated to 
+     * <code>Double#parseDouble</code>.
+     * 
+     * @return The number
+     * @throws IllegalArgumentException If the characters do not 
+     * describe a valid number
+     */
+    double convertNumber()
+    {
+        char chars[] = buffer;
+        int length = bufferLength;
+        int i = 0;
+        boolean negative = false;
+        if (chars[i] == '-' || chars[i] == '+')
+        {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int numDigits = 0;
+        int numSignificantDigits = 0;
+        int exponent = 0;
+        while (i < length && isDigit(chars[i]))
+        {
+            mantissa = accumulate(mantissa, chars[i]);
+            if (mantissa != 0)
+            {
+                numSignificantDigits++;
+            }
+            numDigits++;
+            i++;
+        }
+        if (i < length && chars[i] == '.')
+        {
+            i++;
+            while (i < length && isDigit(chars[i]))
+            {
+                mantissa = accumulate(mantissa, chars[i]);
+                if (mantissa != 0)
+                {
+                    numSignificantDigits++;
+                }
+                exponent--;
+                numDigits++;
+                i++;
+            }
+        }
+        if (numDigits == 0)
+        {
+            throw error("Invalid number");
+        }
+        if (i < length && (chars[i] == 'e' || chars[i] == 'E'))
+        {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (chars[i] == '-' || chars[i] == '+'))
+            {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            if (i == length)
+            {
+                throw error("Invalid number");
+            }
+            int e = 0;
+            while (i < length && isDigit(chars[i]))
+            {
+                e = Math.min(e * 10 + (chars[i] - '0'), 100000);
+                i++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != length)
+        {
+            throw error("Invalid number");
+        }
+        if (numSignificantDigits <= MAX_EXACT_DIGITS && 
+            exponent >= -22 && exponent <= 22)
+        {
+            double value = mantissa;
+            if (exponent < 0)
+            {
+                value /= POWERS_OF_TEN[-exponent];
+            }
+            else
+            {
+                value *= POWERS_OF_TEN[exponent];
+            }
+            return negative ? -value : value;
+        }
+        try
+        {
+            return Double.parseDouble(new String(chars, 0, length));
+        }
+        catch (NumberFormatException e)
+        {
+            throw error("Invalid number");
+        }
+    }
+    
+    /**
+     * Append the given digit to the given mantissa. Digits that exceed 
+     * the range of the mantissa are ignored. These only occur for numbers 
+     * that are not computed from the mantissa anyhow.
+     * 
+     * @param mantissa The mantissa
+     * @param digit The digit character
+     * @return The new mantissa
+     */
+    private static long accumulate(long mantissa, char digit)
+    {
+        if (mantissa >= Long.MAX_VALUE / 10 - 1)
+        {
+            return mantissa;
+        }
+        return mantissa * 10 + (digit - '0');
+    }
+    
+    /**
+     * Append the given character to the buffer
+     * 
+     * @param c The character
+     */
+    void append(char c)
+    {
+        if (bufferLength == buffer.length)
+        {
+            char newBuffer[] = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, newBuffer, 0, bufferLength);
+            buffer = newBuffer;
+        }
+        buffer[bufferLength] = c;
+        bufferLength++;
+    }
+    
+    /**
+     * Skip all whitespace characters
+     */
+    void skipWhitespace()
+    {
+        while (true)
+        {
+            int c = peek();
+            if (c == -1 || !Character.isWhitespace(c))
+            {
+                break;
+            }
+            read();
+        }
+    }
+    
+    /**
+     * Returns the next character without consuming it, or -1 if the 
+     * end of the input was reached
+     * 
+     * @return The next character
+     */
+    int peek()
+    {
+        if (sequence != null)
+        {
+            if (position < sequence.length())
+            {
+                return sequence.charAt(position);
+            }
+            return -1;
+        }
+        if (lookahead == -2)
+        {
+            try
+            {
+                lookahead = reader.read();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lookahead;
+    }
+    
+    /**
+     * Consume and return the next character, or -1 if the end of the 
+     * input was reached
+     * 
+     * @return The next character
+     */
+    int read()
+    {
+        int c = peek();
+        if (c != -1)
+        {
+            position++;
+            lookahead = -2;
+        }
+        return c;
+    }
+    
+    /**
+     * Creates an exception for a parsing error at the current position
+     * 
+     * @param message The error message
+     * @return The exception
+     */
+    IllegalArgumentException error(String message)
+    {
+        return new IllegalArgumentException(
+            message + " at position " + position);
+    }
+    
+    /**
+     * Returns whether the given character is a decimal digit
+     * 
+     * @param c The character
+     * @return Whether the character is a digit
+     */
+    static boolean isDigit(int c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Returns whether the given character is an ASCII letter
+     * 
+     * @param c The character
+     * @return Whether the character is a letter
+     */
+    static boolean isLetter(int c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+
+/**
+ * Methods to compute triangulations of polygons and shapes.<br>
+ * <br>
+ * The triangulations are computed with an ear clipping algorithm
+ * that supports holes, and uses a z-order curve to quickly find
+ * ears in larger polygons. The results are given as index buffers,
+ * where each consecutive triple of indices describes one triangle.
+ * The orientation of the resulting triangles is not specified.
+ */
+public class Triangulations
+{
+    /**
+     * Compute a triangulation of the polygon that is given by the
+     * specified coordinates.<br>
+     * <br>
+     * The given coordinates are the coordinates of the outer ring,
+     * followed by the coordinates of all holes. The given hole indices
+     * are the indices of the vertices where the holes start. For
+     * example, for a polygon with an outer ring that has 4 vertices,
+     * and two holes with 3 vertices each, the coordinates array has
+     * a length of 20, and the hole indices are <code>{ 4, 7 }</code>.
+     * The orientations of the rings do not matter.
+     *
+     * @param coordinates The coordinates, as consecutive
+     * <code>(x,y)</code> pairs
+     * @param holeIndices The hole indices. This may be <code>null</code>
+     * or empty if there are no holes.
+     * @return The indices of the vertices of the triangles
+     */
+    public static int[] triangulate(
+        double coordinates[], int holeIndices[])
+    {
+        int numVertices = coordinates.length / 2;
+        int numHoles = holeIndices == null ? 0 : holeIndices.length;
+        IntArray triangles = new IntArray(numVertices * 3);
+        EarClipping.triangulate(
+            coordinates, numVertices, holeIndices, numHoles, triangles);
+        return triangles.toArray();
+    }
+
+    /**
+     * Compute a triangulation of the given shape.<br>
+     * <br>
+     * The shape will be flattened with the given flatness, and the
+     * resulting points will be stored in the given {@link PackedPath}.
+     * The returned indices refer to the points in this packed path.<br>
+     * <br>
+     * See {@link #triangulate(PackedPath, int)} for the details about
+     * how the sub-paths of the shape are interpreted.
+     *
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param vertices The packed path that will store the vertices.
+     * This may not be <code>null</code>.
+     * @return The indices of the vertices of the triangles
+     */
+    public static int[] triangulate(
+        Shape shape, double flatness, PackedPath vertices)
+    {
+        PathIterator pi = shape.getPathIterator(null);
+        int windingRule = pi.getWindingRule();
+        Shapes.computePackedPath(shape, flatness, vertices);
+        return triangulate(vertices, windingRule);
+    }
+
+    /**
+     * Compute a triangulation of the area that is covered by the
+     * given path, according to the given winding rule.<br>
+     * <br>
+     * Each sub-path of the given path that consists of at least three
+     * points is treated as a polygon ring, regardless of whether it was
+     * explicitly closed or not. Based on the winding rule, each ring is
+     * either classified as the outer boundary of a polygon, as a hole
+     * in the smallest outer boundary that contains it, or it is ignored
+     * when it does not separate a filled region from an empty one.<br>
+     * <br>
+     * This classification assumes that the rings do not intersect each
+     * other. The returned indices refer to the points of the given path.
+     *
+     * @param path The path
+     * @param windingRule The winding rule, either
+     * <code>PathIterator.WIND_EVEN_ODD</code> or
+     * <code>PathIterator.WIND_NON_ZERO</code>
+     * @return The indices of the vertices of the triangles
+     * @throws IllegalArgumentException If the winding rule is not valid
+     */
+    public static int[] triangulate(PackedPath path, int windingRule)
+    {
+        Rings rings = new Rings(path, windingRule);
+        int polygons[][] = rings.computePolygons();
+
+        // Triangulate each outer ring together with its holes
+        double coordinates[] = path.getCoordinates();
+        IntArray triangles = new IntArray(path.getNumPoints() * 3);
+        IntArray holeIndices = new IntArray(4);
+        IntArray localToGlobal = new IntArray(path.getNumPoints());
+        double localCoordinates[] = new double[0];
+        for (int polygon[] : polygons)
+        {
+            holeIndices.clear();
+            localToGlobal.clear();
+            int o = polygon[0];
+            addRange(localToGlobal, rings.starts[o], rings.ends[o]);
+            for (int i = 1; i < polygon.length; i++)
+            {
+                int r = polygon[i];
+                holeIndices.add(localToGlobal.size());
+                addRange(localToGlobal, rings.starts[r], rings.ends[r]);
+            }
+            int numLocal = localToGlobal.size();
+            if (localCoordinates.length < numLocal * 2)
+            {
+                localCoordinates = new double[numLocal * 2];
+            }
+            for (int i = 0; i < numLocal; i++)
+            {
+                int g = localToGlobal.get(i);
+                localCoordinates[i * 2 + 0] = coordinates[g * 2 + 0];
+                localCoordinates[i * 2 + 1] = coordinates[g * 2 + 1];
+            }
+            int sizeBefore = triangles.size();
+            int holes[] = holeIndices.toArray();
+            EarClipping.triangulate(localCoordinates, numLocal,
+                holes, holes.length, triangles);
+            for (int i = sizeBefore; i < triangles.size(); i++)
+            {
+                triangles.set(i, localToGlobal.get(triangles.get(i)));
+            }
+        }
+        return triangles.toArray();
+    }
+
+    /**
+     * Add the values from the given start (inclusive) to the given end
+     * (exclusive) to the given array
+     *
+     * @param array The array
+     * @param start The start
+     * @param end The end
+     */
+    private static void addRange(IntArray array, int start, int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            array.add(i);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Triangulations()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
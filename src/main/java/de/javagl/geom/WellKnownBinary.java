@@ -0,0 +1,573 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Methods for reading and writing geometries in the Well-Known Binary 
+ * (WKB) format.<br>
+ * <br>
+ * When reading, all geometry types of the Simple Features specification
+ * are supported, in the byte order that is given by each geometry. 
+ * Geometries with Z- or M-coordinates are supported, using the ISO type
+ * codes (for example, 1001 for a <code>POINT Z</code>) as well as the 
+ * extended type flags, including an optional SRID. Only the x- and 
+ * y-coordinates are used. The conversion of the geometries into paths 
+ * is the same as described for {@link WellKnownText}.<br>
+ * <br>
+ * When writing, the geometry types are chosen as described for
+ * {@link WellKnownText}, and the byte order of the target buffer is
+ * used.
+ */
+public class WellKnownBinary
+{
+    /**
+     * The WKB geometry type code for a point
+     */
+    private static final int POINT = 1;
+
+    /**
+     * The WKB geometry type code for a line string
+     */
+    private static final int LINE_STRING = 2;
+
+    /**
+     * The WKB geometry type code for a polygon
+     */
+    private static final int POLYGON = 3;
+
+    /**
+     * The WKB geometry type code for a multi-point
+     */
+    private static final int MULTI_POINT = 4;
+
+    /**
+     * The WKB geometry type code for a multi-line string
+     */
+    private static final int MULTI_LINE_STRING = 5;
+
+    /**
+     * The WKB geometry type code for a multi-polygon
+     */
+    private static final int MULTI_POLYGON = 6;
+
+    /**
+     * The WKB geometry type code for a geometry collection
+     */
+    private static final int GEOMETRY_COLLECTION = 7;
+    
+    /**
+     * The extended WKB flag indicating Z-coordinates
+     */
+    private static final int FLAG_Z = 0x80000000;
+
+    /**
+     * The extended WKB flag indicating M-coordinates
+     */
+    private static final int FLAG_M = 0x40000000;
+
+    /**
+     * The extended WKB flag indicating an SRID
+     */
+    private static final int FLAG_SRID = 0x20000000;
+    
+    /**
+     * The size of the header of a geometry, consisting of the byte 
+     * order and the type code
+     */
+    private static final int HEADER_SIZE = 5;
+    
+    /**
+     * The size of one point in the written geometries
+     */
+    private static final int POINT_SIZE = 16;
+    
+    /**
+     * Read the geometry from the given buffer into a path. The geometry 
+     * will be read starting at the current position of the buffer, and 
+     * the position will be advanced to the end of the geometry. The byte
+     * order of the buffer will not be changed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path with the
+     * <code>WIND_EVEN_ODD</code> winding rule will be created and 
+     * returned. Otherwise, the given result will be reset, and the 
+     * geometry will be stored in the given path.
+     * 
+     * @param buffer The buffer
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the buffer does not contain a
+     * valid WKB geometry
+     */
+    public static Path2D readPath(ByteBuffer buffer, Path2D result)
+    {
+        Path2D path = WellKnownText.preparePath(result);
+        read(buffer, PathSink.create(path));
+        return path;
+    }
+    
+    /**
+     * Read the geometry from the given buffer into a packed path. The 
+     * geometry will be read starting at the current position of the 
+     * buffer, and the position will be advanced to the end of the 
+     * geometry. The byte order of the buffer will not be changed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the geometry will be stored in the given packed path.
+     * 
+     * @param buffer The buffer
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the buffer does not contain a
+     * valid WKB geometry
+     */
+    public static PackedPath readPackedPath(
+        ByteBuffer buffer, PackedPath result)
+    {
+        PackedPath path = PackedPath.prepare(result);
+        read(buffer, PathSink.create(path));
+        return path;
+    }
+    
+    /**
+     * Read the geometry from the given buffer, passing the points to 
+     * the given sink, and restore the original byte order of the buffer
+     * 
+     * @param buffer The buffer
+     * @param sink The sink
+     * @throws IllegalArgumentException If the buffer does not contain a
+     * valid WKB geometry
+     */
+    private static void read(ByteBuffer buffer, PathSink sink)
+    {
+        ByteOrder byteOrder = buffer.order();
+        try
+        {
+            readGeometry(buffer, sink);
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IllegalArgumentException(
+                "Unexpected end of WKB data", e);
+        }
+        finally
+        {
+            buffer.order(byteOrder);
+        }
+    }
+    
+    /**
+     * Read a single geometry from the given buffer, passing the points
+     * to the given sink
+     * 
+     * @param buffer The buffer
+     * @param sink The sink
+     * @throws IllegalArgumentException If the buffer does not contain a
+     * valid WKB geometry
+     */
+    private static void readGeometry(ByteBuffer buffer, PathSink sink)
+    {
+        int byteOrder = buffer.get();
+        if (byteOrder == 0)
+        {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        }
+        else if (byteOrder == 1)
+        {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        else
+        {
+            throw new IllegalArgumentException(
+                "Invalid WKB byte order: " + byteOrder);
+        }
+        int typeCode = buffer.getInt();
+        int dimensions = 2;
+        if ((typeCode & FLAG_Z) != 0)
+        {
+            dimensions++;
+        }
+        if ((typeCode & FLAG_M) != 0)
+        {
+            dimensions++;
+        }
+        if ((typeCode & FLAG_SRID) != 0)
+        {
+            buffer.getInt();
+        }
+        int type = typeCode & 0x0FFFFFFF;
+        if (type >= 3000)
+        {
+            dimensions += 2;
+        }
+        else if (type >= 1000)
+        {
+            dimensions += 1;
+        }
+        type %= 1000;
+        switch (type)
+        {
+            case POINT:
+            {
+                double x = buffer.getDouble();
+                double y = buffer.getDouble();
+                skip(buffer, dimensions - 2);
+                // An empty point is written with NaN coordinates
+                if (!Double.isNaN(x) && !Double.isNaN(y))
+                {
+                    sink.moveTo(x, y);
+                    sink.lineTo(x, y);
+                }
+                break;
+            }
+            
+            case LINE_STRING:
+                readPoints(buffer, dimensions, false, sink);
+                break;
+                
+            case POLYGON:
+            {
+                int numRings = readCount(buffer, 4);
+                for (int i = 0; i < numRings; i++)
+                {
+                    readPoints(buffer, dimensions, true, sink);
+                }
+                break;
+            }
+            
+            case MULTI_POINT:
+            case MULTI_LINE_STRING:
+            case MULTI_POLYGON:
+            case GEOMETRY_COLLECTION:
+            {
+                int numGeometries = readCount(buffer, HEADER_SIZE);
+                for (int i = 0; i < numGeometries; i++)
+                {
+                    readGeometry(buffer, sink);
+                }
+                break;
+            }
+            
+            default:
+                throw new IllegalArgumentException(
+                    "Unsupported WKB geometry type: " + typeCode);
+        }
+    }
+    
+    /**
+     * Read a list of points from the given buffer, and pass them to the 
+     * given sink. If the points describe a ring, then the sub-path will 
+     * be closed, omitting the last point if it is equal to the first one.
+     * 
+     * @param buffer The buffer
+     * @param dimensions The number of coordinates per point
+     * @param ring Whether the points describe a ring
+     * @param sink The sink
+     */
+    private static void readPoints(
+        ByteBuffer buffer, int dimensions, boolean ring, PathSink sink)
+    {
+        int numPoints = readCount(buffer, dimensions * 8);
+        if (numPoints == 0)
+        {
+            return;
+        }
+        double firstX = buffer.getDouble();
+        double firstY = buffer.getDouble();
+        skip(buffer, dimensions - 2);
+        sink.moveTo(firstX, firstY);
+        for (int i = 1; i < numPoints; i++)
+        {
+            double x = buffer.getDouble();
+            double y = buffer.getDouble();
+            skip(buffer, dimensions - 2);
+            if (!ring || i < numPoints - 1 || x != firstX || y != firstY)
+            {
+                sink.lineTo(x, y);
+            }
+        }
+        if (ring)
+        {
+            sink.closePath();
+        }
+    }
+    
+    /**
+     * Read a count of elements from the given buffer, and check that 
+     * the buffer may contain this number of elements
+     * 
+     * @param buffer The buffer
+     * @param minElementSize The minimum size of each element, in bytes
+     * @return The count
+     * @throws IllegalArgumentException If the count is not valid
+     */
+    private static int readCount(ByteBuffer buffer, int minElementSize)
+    {
+        int count = buffer.getInt();
+        if (count < 0 || 
+            (long)count * minElementSize > buffer.remaining())
+        {
+            throw new IllegalArgumentException(
+                "Invalid WKB element count: " + count);
+        }
+        return count;
+    }
+    
+    /**
+     * Skip the given number of <code>double</code> values in the buffer
+     * 
+     * @param buffer The buffer
+     * @param n The number of values
+     */
+    private static void skip(ByteBuffer buffer, int n)
+    {
+        if (n > 0)
+        {
+            buffer.position(buffer.position() + n * 8);
+        }
+    }
+    
+    /**
+     * Write the given shape as WKB into the given buffer. The shape will
+     * be flattened with the given flatness. See 
+     * {@link #write(PackedPath, int, ByteBuffer)} for details.
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param result The optional result
+     * @return The result
+     * @throws BufferOverflowException If the given result does not have
+     * enough remaining space
+     */
+    public static ByteBuffer write(
+        Shape shape, double flatness, ByteBuffer result)
+    {
+        int windingRule = shape.getPathIterator(null).getWindingRule();
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        return write(path, windingRule, result);
+    }
+    
+    /**
+     * Write the given path as WKB into the given buffer. The choice of
+     * the geometry type is described in 
+     * {@link WellKnownText#write(PackedPath, int, java.io.Writer)}.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new, big-endian 
+     * buffer with the exact required size will be created, and returned
+     * with its position at the end of the geometry. Otherwise, the 
+     * geometry will be written at the current position of the given 
+     * buffer, using its byte order, and its position will be advanced 
+     * to the end of the geometry.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule, either
+     * <code>PathIterator.WIND_EVEN_ODD</code> or
+     * <code>PathIterator.WIND_NON_ZERO</code>
+     * @param result The optional result
+     * @return The result
+     * @throws BufferOverflowException If the given result does not have
+     * enough remaining space. Nothing will be written in this case.
+     * @throws IllegalArgumentException If the winding rule is not valid
+     */
+    public static ByteBuffer write(
+        PackedPath path, int windingRule, ByteBuffer result)
+    {
+        int numSubPaths = path.getNumSubPaths();
+        Rings rings = null;
+        int polygons[][] = null;
+        long size = HEADER_SIZE + 4;
+        boolean punctual = WellKnownText.isPunctual(path);
+        if (numSubPaths > 0 && punctual)
+        {
+            size += (long)numSubPaths * (HEADER_SIZE + POINT_SIZE);
+        }
+        else if (numSubPaths > 0 && WellKnownText.isPolygonal(path))
+        {
+            rings = new Rings(path, windingRule);
+            polygons = rings.computePolygons();
+            for (int polygon[] : polygons)
+            {
+                size += HEADER_SIZE + 4;
+                for (int r : polygon)
+                {
+                    int n = rings.ends[r] - rings.starts[r];
+                    size += 4 + (n + 1) * POINT_SIZE;
+                }
+            }
+        }
+        else
+        {
+            for (int s = 0; s < numSubPaths; s++)
+            {
+                size += HEADER_SIZE + 4 + computeNumPoints(path, s) 
+                    * POINT_SIZE;
+            }
+        }
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "The WKB size exceeds 2 GB: " + size);
+        }
+        ByteBuffer buffer = result;
+        if (buffer == null)
+        {
+            buffer = ByteBuffer.allocate((int)size);
+        }
+        else if (buffer.remaining() < size)
+        {
+            throw new BufferOverflowException();
+        }
+        if (numSubPaths == 0)
+        {
+            writeHeader(buffer, GEOMETRY_COLLECTION);
+            buffer.putInt(0);
+        }
+        else if (punctual)
+        {
+            writeHeader(buffer, MULTI_POINT);
+            buffer.putInt(numSubPaths);
+            for (int s = 0; s < numSubPaths; s++)
+            {
+                int index = path.getSubPathStart(s);
+                writeHeader(buffer, POINT);
+                buffer.putDouble(path.getX(index));
+                buffer.putDouble(path.getY(index));
+            }
+        }
+        else if (polygons != null)
+        {
+            writeHeader(buffer, MULTI_POLYGON);
+            buffer.putInt(polygons.length);
+            for (int polygon[] : polygons)
+            {
+                writeHeader(buffer, POLYGON);
+                buffer.putInt(polygon.length);
+                for (int i = 0; i < polygon.length; i++)
+                {
+                    int r = polygon[i];
+                    boolean counterclockwise = rings.areas[r] > 0;
+                    boolean reverse = (i == 0) != counterclockwise;
+                    writePoints(path, rings.starts[r], rings.ends[r], 
+                        true, reverse, buffer);
+                }
+            }
+        }
+        else
+        {
+            writeHeader(buffer, MULTI_LINE_STRING);
+            buffer.putInt(numSubPaths);
+            for (int s = 0; s < numSubPaths; s++)
+            {
+                writeHeader(buffer, LINE_STRING);
+                writePoints(path, path.getSubPathStart(s), 
+                    path.getSubPathEnd(s), path.isSubPathClosed(s), 
+                    false, buffer);
+            }
+        }
+        return buffer;
+    }
+    
+    /**
+     * Computes the number of points that will be written for the 
+     * specified sub-path of the given path, as a line string
+     * 
+     * @param path The path
+     * @param s The sub-path index
+     * @return The number of points
+     */
+    private static int computeNumPoints(PackedPath path, int s)
+    {
+        int n = path.getSubPathEnd(s) - path.getSubPathStart(s);
+        boolean closed = path.isSubPathClosed(s);
+        if (closed || n == 1)
+        {
+            return n + 1;
+        }
+        return n;
+    }
+    
+    /**
+     * Write the header of a geometry, consisting of the byte order of 
+     * the given buffer and the given type code
+     * 
+     * @param buffer The buffer
+     * @param type The type code
+     */
+    private static void writeHeader(ByteBuffer buffer, int type)
+    {
+        int byteOrder = buffer.order() == ByteOrder.LITTLE_ENDIAN ? 1 : 0;
+        buffer.put((byte)byteOrder);
+        buffer.putInt(type);
+    }
+
+    /**
+     * Write the specified points of the given path, preceded by their 
+     * number. If the points are closed, then the first point will be 
+     * repeated at the end.
+     * 
+     * @param path The path
+     * @param start The start index, inclusive
+     * @param end The end index, exclusive
+     * @param closed Whether the points are closed
+     * @param reverse Whether the points should be written in reverse
+     * @param buffer The buffer
+     */
+    private static void writePoints(PackedPath path, int start, int end, 
+        boolean closed, boolean reverse, ByteBuffer buffer)
+    {
+        int n = end - start;
+        boolean repeatFirst = closed || n == 1;
+        buffer.putInt(repeatFirst ? n + 1 : n);
+        for (int i = 0; i < n; i++)
+        {
+            int index = reverse ? end - 1 - i : start + i;
+            buffer.putDouble(path.getX(index));
+            buffer.putDouble(path.getY(index));
+        }
+        if (repeatFirst)
+        {
+            int index = reverse ? end - 1 : start;
+            buffer.putDouble(path.getX(index));
+            buffer.putDouble(path.getY(index));
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private WellKnownBinary()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Methods for reading and writing geometries in the Well-Known Text 
+ * (WKT) format.<br>
+ * <br>
+ * When reading, all geometry types of the Simple Features specification
+ * are supported: <code>POINT</code>, <code>LINESTRING</code>, 
+ * <code>POLYGON</code>, <code>MULTIPOINT</code>, 
+ * <code>MULTILINESTRING</code>, <code>MULTIPOLYGON</code> and 
+ * <code>GEOMETRYCOLLECTION</code>, including <code>EMPTY</code> 
+ * geometries, an optional <code>SRID=...;</code> prefix and 
+ * <code>Z</code>, <code>M</code> or <code>ZM</code> coordinates, where 
+ * only the x- and y-coordinates are used. The points are passed directly
+ * to the resulting path, without creating intermediate objects:
+ * <ul>
+ *   <li>
+ *     The points of line strings become open sub-paths
+ *   </li>
+ *   <li>
+ *     The rings of polygons become closed sub-paths, omitting the last 
+ *     point of the ring if it is equal to the first one
+ *   </li>
+ *   <li>
+ *     Points become sub-paths that consist of a line segment with 
+ *     length 0
+ *   </li>
+ * </ul>
+ * When writing, a shape is flattened, and written as a 
+ * <code>MULTIPOINT</code> if each of its sub-paths only consists of 
+ * a single point (possibly repeated), so that points are preserved 
+ * when they are read and written again. It is written as a 
+ * <code>MULTIPOLYGON</code> if all its sub-paths are closed rings. 
+ * The rings are grouped into polygons according to the winding rule 
+ * of the shape, and oriented so that outer rings are counterclockwise 
+ * and holes are clockwise. Otherwise, all sub-paths are written as a 
+ * <code>MULTILINESTRING</code>. The first point of each closed sub-path
+ * is repeated at its end, as required for rings.
+ */
+public class WellKnownText
+{
+    /**
+     * Read the geometry from the given WKT string into a path.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path with the
+     * <code>WIND_EVEN_ODD</code> winding rule will be created and 
+     * returned. Otherwise, the given result will be reset, and the 
+     * geometry will be stored in the given path.
+     * 
+     * @param wkt The WKT string
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the input is not valid WKT
+     */
+    public static Path2D readPath(CharSequence wkt, Path2D result)
+    {
+        Path2D path = preparePath(result);
+        new WktParser(wkt, PathSink.create(path)).parse();
+        return path;
+    }
+
+    /**
+     * Read the geometry from the given reader into a path. The reader 
+     * will be read character by character, so callers should pass a 
+     * buffered reader. The reader will not be closed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new path with the
+     * <code>WIND_EVEN_ODD</code> winding rule will be created and 
+     * returned. Otherwise, the given result will be reset, and the 
+     * geometry will be stored in the given path.
+     * 
+     * @param reader The reader
+     * @param result The optional result
+     * @return The result
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the input is not valid WKT
+     */
+    public static Path2D readPath(Reader reader, Path2D result) 
+        throws IOException
+    {
+        Path2D path = preparePath(result);
+        try
+        {
+            new WktParser(reader, PathSink.create(path)).parse();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        return path;
+    }
+    
+    /**
+     * Read the geometry from the given WKT string into a packed path.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the geometry will be stored in the given packed path.
+     * 
+     * @param wkt The WKT string
+     * @param result The optional result
+     * @return The result
+     * @throws IllegalArgumentException If the input is not valid WKT
+     */
+    public static PackedPath readPackedPath(
+        CharSequence wkt, PackedPath result)
+    {
+        PackedPath path = PackedPath.prepare(result);
+        new WktParser(wkt, PathSink.create(path)).parse();
+        return path;
+    }
+    
+    /**
+     * Read the geometry from the given reader into a packed path. The 
+     * reader will be read character by character, so callers should pass
+     * a buffered reader. The reader will not be closed.<br>
+     * <br>
+     * If the given result is <code>null</code>, then a new packed path 
+     * will be created and returned. Otherwise, the given result will be 
+     * cleared, and the geometry will be stored in the given packed path.
+     * 
+     * @param reader The reader
+     * @param result The optional result
+     * @return The result
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the input is not valid WKT
+     */
+    public static PackedPath readPackedPath(
+        Reader reader, PackedPath result) throws IOException
+    {
+        PackedPath path = PackedPath.prepare(result);
+        try
+        {
+            new WktParser(reader, PathSink.create(path)).parse();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        return path;
+    }
+    
+    /**
+     * Returns the given path after resetting it, or a new path with the
+     * <code>WIND_EVEN_ODD</code> winding rule if it is <code>null</code>
+     * 
+     * @param result The optional result
+     * @return The path
+     */
+    static Path2D preparePath(Path2D result)
+    {
+        if (result == null)
+        {
+            return new Path2D.Double(PathIterator.WIND_EVEN_ODD);
+        }
+        result.reset();
+        return result;
+    }
+
+    /**
+     * Creates a WKT string for the given shape. See 
+     * {@link #write(PackedPath, int, Writer)} for details.
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @return The WKT string
+     * @throws IllegalArgumentException If the flattened shape contains
+     * coordinates that are not finite
+     */
+    public static String createString(Shape shape, double flatness)
+    {
+        StringWriter writer = new StringWriter();
+        try
+        {
+            write(shape, flatness, writer);
+        }
+        catch (IOException e)
+        {
+            // Should not happen for a StringWriter
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+    
+    /**
+     * Write the given shape as WKT to the given writer. The shape will 
+     * be flattened with the given flatness. See 
+     * {@link #write(PackedPath, int, Writer)} for details.
+     * 
+     * @param shape The shape
+     * @param flatness The flatness for the path iterator
+     * @param writer The writer
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the flattened shape contains
+     * coordinates that are not finite
+     */
+    public static void write(Shape shape, double flatness, Writer writer) 
+        throws IOException
+    {
+        int windingRule = shape.getPathIterator(null).getWindingRule();
+        PackedPath path = Shapes.computePackedPath(shape, flatness, null);
+        write(path, windingRule, writer);
+    }
+    
+    /**
+     * Write the given path as WKT to the given writer.<br>
+     * <br>
+     * If the path does not contain any sub-paths, then
+     * <code>GEOMETRYCOLLECTION EMPTY</code> will be written. If each
+     * sub-path only consists of a single point, which may be repeated
+     * (as for the sub-paths that are created when reading a 
+     * <code>POINT</code>), then the path will be written as a 
+     * <code>MULTIPOINT</code>. If all sub-paths are closed and consist
+     * of at least three points, then the path will be written as a 
+     * <code>MULTIPOLYGON</code>, where the rings are grouped into 
+     * polygons according to the given winding rule. Otherwise, the path
+     * will be written as a <code>MULTILINESTRING</code>. Sub-paths that
+     * consist of a single point are then written as line strings with 
+     * two equal points. The numbers are written directly
+     * into the given writer, so callers should pass a buffered writer.
+     * The writer will not be closed.<br>
+     * <br>
+     * Infinite or NaN coordinates can not be represented in WKT. If 
+     * the path contains such a coordinate, then an exception is thrown
+     * before anything is written.
+     * 
+     * @param path The path
+     * @param windingRule The winding rule, either
+     * <code>PathIterator.WIND_EVEN_ODD</code> or
+     * <code>PathIterator.WIND_NON_ZERO</code>
+     * @param writer The writer
+     * @throws IOException If an IO error occurs
+     * @throws IllegalArgumentException If the winding rule is not valid,
+     * or the path contains coordinates that are not finite
+     */
+    public static void write(PackedPath path, int windingRule, 
+        Writer writer) throws IOException
+    {
+        validateFinite(path);
+        NumberWriter numberWriter = new NumberWriter(writer);
+        if (path.getNumSubPaths() == 0)
+        {
+            writer.write("GEOMETRYCOLLECTION EMPTY");
+        }
+        else if (isPunctual(path))
+        {
+            writer.write("MULTIPOINT (");
+            for (int s = 0; s < path.getNumSubPaths(); s++)
+            {
+                if (s > 0)
+                {
+                    writer.write(", ");
+                }
+                writer.write('(');
+                writePoint(path, path.getSubPathStart(s), numberWriter);
+                writer.write(')');
+            }
+            writer.write(')');
+        }
+        else if (isPolygonal(path))
+        {
+            Rings rings = new Rings(path, windingRule);
+            int polygons[][] = rings.computePolygons();
+            if (polygons.length == 0)
+            {
+                writer.write("MULTIPOLYGON EMPTY");
+                return;
+            }
+            writer.write("MULTIPOLYGON (");
+            for (int p = 0; p < polygons.length; p++)
+            {
+                if (p > 0)
+                {
+                    writer.write(", ");
+                }
+                writer.write('(');
+                int polygon[] = polygons[p];
+                for (int i = 0; i < polygon.length; i++)
+                {
+                    if (i > 0)
+                    {
+                        writer.write(", ");
+                    }
+                    int r = polygon[i];
+                    boolean counterclockwise = rings.areas[r] > 0;
+                    boolean reverse = (i == 0) != counterclockwise;
+                    writePoints(path, rings.starts[r], rings.ends[r], 
+                        true, reverse, numberWriter);
+                }
+                writer.write(')');
+            }
+            writer.write(')');
+        }
+        else
+        {
+            writer.write("MULTILINESTRING (");
+            for (int s = 0; s < path.getNumSubPaths(); s++)
+            {
+                if (s > 0)
+                {
+                    writer.write(", ");
+                }
+                writePoints(path, path.getSubPathStart(s), 
+                    path.getSubPathEnd(s), path.isSubPathClosed(s), 
+                    false, numberWriter);
+            }
+            writer.write(')');
+        }
+    }
+    
+    /**
+     * Ensure that all coordinates of the given path are finite
+     * 
+     * @param path The path
+     * @throws IllegalArgumentException If the path contains a coordinate
+     * that is infinite or NaN
+     */
+    private static void validateFinite(PackedPath path)
+    {
+        for (int i = 0; i < path.getNumPoints(); i++)
+        {
+            double x = path.getX(i);
+            double y = path.getY(i);
+            if (!Double.isFinite(x) || !Double.isFinite(y))
+            {
+                throw new IllegalArgumentException(
+                    "The coordinates must be finite, but point " + i 
+                    + " is (" + x + ", " + y + ")");
+            }
+        }
+    }
+    
+    /**
+     * Returns whether each sub-path of the given path only consists of
+     * points that are equal to its first point
+     * 
+     * @param path The path
+     * @return Whether the path only consists of points
+     */
+    static boolean isPunctual(PackedPath path)
+    {
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            int start = path.getSubPathStart(s);
+            int end = path.getSubPathEnd(s);
+            for (int i = start + 1; i < end; i++)
+            {
+                if (path.getX(i) != path.getX(start) || 
+                    path.getY(i) != path.getY(start))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether all sub-paths of the given path are closed and 
+     * consist of at least three points
+     * 
+     * @param path The path
+     * @return Whether the path is polygonal
+     */
+    static boolean isPolygonal(PackedPath path)
+    {
+        for (int s = 0; s < path.getNumSubPaths(); s++)
+        {
+            if (!path.isSubPathClosed(s) || 
+                path.getSubPathEnd(s) - path.getSubPathStart(s) < 3)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Write the specified points of the given path as a parenthesized
+     * list. If the points are closed, then the first point will be 
+     * repeated at the end.
+     * 
+     * @param path The path
+     * @param start The start index, inclusive
+     * @param end The end index, exclusive
+     * @param closed Whether the points are closed
+     * @param reverse Whether the points should be written in reverse
+     * @param numberWriter The number writer
+     * @throws IOException If an IO error occurs
+     */
+    private static void writePoints(PackedPath path, int start, int end, 
+        boolean closed, boolean reverse, NumberWriter numberWriter) 
+            throws IOException
+    {
+        Writer writer = numberWriter.writer;
+        int n = end - start;
+        writer.write('(');
+        for (int i = 0; i < n; i++)
+        {
+            int index = reverse ? end - 1 - i : start + i;
+            if (i > 0)
+            {
+                writer.write(", ");
+            }
+            writePoint(path, index, numberWriter);
+        }
+        if (closed || n == 1)
+        {
+            writer.write(", ");
+            writePoint(path, reverse ? end - 1 : start, numberWriter);
+        }
+        writer.write(')');
+    }
+
+    /**
+     * Write the specified point of the given path 
+     * 
+     * @param path The path
+     * @param index The point index
+     * @param numberWriter The number writer
+     * @throws IOException If an IO error occurs
+     */
+    private static void writePoint(PackedPath path, int index, 
+        NumberWriter numberWriter) throws IOException
+    {
+        numberWriter.write(path.getX(index));
+        numberWriter.writer.write(' ');
+        numberWriter.write(path.getY(index));
+    }
+    
+    /**
+     * A class for writing numbers to a writer, using reusable buffers
+     */
+    private static final class NumberWriter
+    {
+        /**
+         * The writer
+         */
+        private final Writer writer;
+        
+        /**
+         * The builder for the string representation of a number
+         */
+        private final StringBuilder sb;
+        
+        /**
+         * The buffer for the characters of a number
+         */
+        private final char chars[];
+        
+        /**
+         * Creates a new number writer
+         * 
+         * @param writer The writer
+         */
+        NumberWriter(Writer writer)
+        {
+            this.writer = writer;
+            this.sb = new StringBuilder(32);
+            this.chars = new char[32];
+        }
+        
+        /**
+         * Write the given value. Integral values will be written without
+         * a fractional part.
+         * 
+         * @param value The value
+         * @throws IOException If an IO error occurs
+         */
+        void write(double value) throws IOException
+        {
+            sb.setLength(0);
+            sb.append(value);
+            int length = sb.length();
+            if (length > 2 && sb.charAt(length - 2) == '.' && 
+                sb.charAt(length - 1) == '0')
+            {
+                length -= 2;
+            }
+            sb.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+        }
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private WellKnownText()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * www.javagl.de - Geom - Geometry utilities
+ *
+ * Copyright (c) 2013-2016 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.geom;
+
+import java.io.Reader;
+
+/**
+ * Package-private class for parsing geometries in the Well-Known Text 
+ * (WKT) format, and passing the resulting points to a {@link PathSink}.
+ * <br>
+ * <br>
+ * The input is processed character by character, and the numbers are 
+ * parsed from a reusable buffer, so that no objects are created for the
+ * individual points. 
+ */
+final class WktParser extends TextParser
+{
+    /**
+     * The keywords of the supported geometry types. The index of each
+     * keyword, plus 1, is the corresponding WKB geometry type code.
+     */
+    private static final String GEOMETRY_TYPES[] = 
+    {
+        "POINT", 
+        "LINESTRING", 
+        "POLYGON", 
+        "MULTIPOINT", 
+        "MULTILINESTRING", 
+        "MULTIPOLYGON", 
+        "GEOMETRYCOLLECTION"
+    };
+    
+    /**
+     * The sink that receives the points
+     */
+    private final PathSink sink;
+    
+    /**
+     * The x-coordinate of the most recently parsed point
+     */
+    private double x;
+
+    /**
+     * The y-coordinate of the most recently parsed point
+     */
+    private double y;
+    
+    /**
+     * Creates a parser for the given character sequence
+     * 
+     * @param sequence The sequence
+     * @param sink The sink
+     */
+    WktParser(CharSequence sequence, PathSink sink)
+    {
+        super(sequence);
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a parser for the given reader. IO errors from the reader
+     * will be passed to the caller as <code>UncheckedIOException</code>s
+     * 
+     * @param reader The reader
+     * @param sink The sink
+     */
+    WktParser(Reader reader, PathSink sink)
+    {
+        super(reader);
+        this.sink = sink;
+    }
+    
+    /**
+     * Parse the geometry from the input, passing the points to the sink.
+     * After the geometry, the input may only contain whitespace.
+     * 
+     * @throws IllegalArgumentException If the input is not valid WKT
+     */
+    void parse()
+    {
+        parseGeometry();
+        skipWhitespace();
+        if (peek() != -1)
+        {
+            throw error("Unexpected input after the geometry");
+        }
+    }
+    
+    /**
+     * Parse a single tagged geometry
+     */
+    private void parseGeometry()
+    {
+        readWord();
+        if (wordEquals("SRID"))
+        {
+            expect('=');
+            skipWhitespace();
+            while (isDigit(peek()))
+            {
+                read();
+            }
+            expect(';');
+            readWord();
+        }
+        int type = 0;
+        for (int i = 0; i < GEOMETRY_TYPES.length; i++)
+        {
+            if (wordEquals(GEOMETRY_TYPES[i]))
+            {
+                type = i + 1;
+                break;
+            }
+        }
+        if (type == 0)
+        {
+            throw error("Unknown geometry type");
+        }
+        if (parseEmpty(true))
+        {
+            return;
+        }
+        switch (type)
+        {
+            case 1:
+                expect('(');
+                parsePoint();
+                expect(')');
+                break;
+                
+            case 2:
+                parsePoints(false);
+                break;
+                
+            case 3:
+                parsePolygon();
+                break;
+                
+            case 4:
+                expect('(');
+                do
+                {
+                    parseMultiPointElement();
+                }
+                while (parseSeparator());
+                break;
+
+            case 5:
+                expect('(');
+                do
+                {
+                    if (!parseEmpty(false))
+                    {
+                        parsePoints(false);
+                    }
+                }
+                while (parseSeparator());
+                break;
+                
+            case 6:
+                expect('(');
+                do
+                {
+                    if (!parseEmpty(false))
+                    {
+                        parsePolygon();
+                    }
+                }
+                while (parseSeparator());
+                break;
+                
+            case 7:
+            default:
+                expect('(');
+                do
+                {
+                    parseGeometry();
+                }
+                while (parseSeparator());
+                break;
+        }
+    }
+    
+    /**
+     * Parse an optional <code>EMPTY</code> keyword. If dimensions are 
+     * allowed, then this will skip an optional dimension specifier,
+     * <code>Z</code>, <code>M</code> or <code>ZM</code>, before.
+     * 
+     * @param allowDimension Whether a dimension specifier is allowed
+     * @return Whether the <code>EMPTY</code> keyword was found
+     */
+    private boolean parseEmpty(boolean allowDimension)
+    {
+        skipWhitespace();
+        if (!isLetter(peek()))
+        {
+            return false;
+        }
+        readWord();
+        if (allowDimension && 
+            (wordEquals("Z") || wordEquals("M") || wordEquals("ZM")))
+        {
+            skipWhitespace();
+            if (!isLetter(peek()))
+            {
+                return false;
+            }
+            readWord();
+        }
+        if (!wordEquals("EMPTY"))
+        {
+            throw error("Expected EMPTY");
+        }
+        return true;
+    }
+    
+    /**
+     * Parse either a comma, returning <code>true</code>, or a closing 
+     * parenthesis, returning <code>false</code>
+     * 
+     * @return Whether a comma was found
+     */
+    private boolean parseSeparator()
+    {
+        skipWhitespace();
+        int c = read();
+        if (c == ',')
+        {
+            return true;
+        }
+        if (c == ')')
+        {
+            return false;
+        }
+        throw error("Expected ',' or ')'");
+    }
+    
+    /**
+     * Parse a polygon, consisting of a list of rings
+     */
+    private void parsePolygon()
+    {
+        expect('(');
+        do
+        {
+            parsePoints(true);
+        }
+        while (parseSeparator());
+    }
+    
+    /**
+     * Parse a single point of a multi-point, which may be enclosed in 
+     * parentheses or be <code>EMPTY</code>, and pass it to the sink
+     */
+    private void parseMultiPointElement()
+    {
+        skipWhitespace();
+        if (peek() == '(')
+        {
+            read();
+            parsePoint();
+            expect(')');
+        }
+        else if (!parseEmpty(false))
+        {
+            parsePoint();
+        }
+    }
+    
+    /**
+     * Parse a single point and pass it to the sink, as a sub-path that
+     * consists of a line segment with length 0
+     */
+    private void parsePoint()
+    {
+        parseCoordinates();
+        sink.moveTo(x, y);
+        sink.lineTo(x, y);
+    }
+    
+    /**
+     * Parse a parenthesized list of points, and pass them to the sink.
+     * If the points describe a ring, then the sub-path will be closed,
+     * omitting the last point if it is equal to the first one.
+     * 
+     * @param ring Whether the points describe a ring
+     */
+    private void parsePoints(boolean ring)
+    {
+        expect('(');
+        parseCoordinates();
+        double firstX = x;
+        double firstY = y;
+        sink.moveTo(firstX, firstY);
+        boolean pending = false;
+        double pendingX = 0;
+        double pendingY = 0;
+        while (parseSeparator())
+        {
+            if (pending)
+            {
+                sink.lineTo(pendingX, pendingY);
+            }
+            parseCoordinates();
+            pendingX = x;
+            pendingY = y;
+            pending = true;
+        }
+        if (pending && (!ring || pendingX != firstX || pendingY != firstY))
+        {
+            sink.lineTo(pendingX, pendingY);
+        }
+        if (ring)
+        {
+            sink.closePath();
+        }
+    }
+    
+    /**
+     * Parse the coordinates of a point, storing the x- and y-coordinate
+     * in the respective fields, and skipping further coordinates
+     */
+    private void parseCoordinates()
+    {
+        x = parseNumber();
+        y = parseNumber();
+        while (true)
+        {
+            skipWhitespace();
+            int c = peek();
+            if (c == ',' || c == ')' || c == -1)
+            {
+                break;
+            }
+            parseNumber();
+        }
+    }
+    
+    /**
+     * Parse a number
+     * 
+     * @return The number
+     */
+    private double parseNumber()
+    {
+        skipWhitespace();
+        bufferLength = 0;
+        while (true)
+        {
+            int c = peek();
+            if (isDigit(c) || c == '.' || c == '-' || c == '+' || 
+                c == 'e' || c == 'E')
+            {
+                append((char)read());
+            }
+            else
+            {
+                break;
+            }
+        }
+        if (bufferLength == 0)
+        {
+            throw error("Expected a number");
+        }
+        return convertNumber();
+    }
+    
+    /**
+     * Read a word, consisting of letters, into the buffer
+     */
+    private void readWord()
+    {
+        skipWhitespace();
+        bufferLength = 0;
+        while (isLetter(peek()))
+        {
+            append((char)read());
+        }
+        if (bufferLength == 0)
+        {
+            throw error("Expected a keyword");
+        }
+    }
+    
+    /**
+     * Returns whether the buffer contains the given keyword, ignoring 
+     * the case
+     * 
+     * @param keyword The keyword
+     * @return Whether the buffer contains the keyword
+     */
+    private boolean wordEquals(String keyword)
+    {
+        if (bufferLength != keyword.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < bufferLength; i++)
+        {
+            if (Character.toUpperCase(buffer[i]) != keyword.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Skip whitespace and read the given character
+     * 
+     * @param expected The expected character
+     * @throws IllegalArgumentException If the next character is not the
+     * expected one
+     */
+    private void expect(char expected)
+    {
+        skipWhitespace();
+        if (read() != expected)
+        {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+    
+}
@@ -0,0 +1,108 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ArcLengthTableTest
+{
+    @Test
+    public void testRectangle()
+    {
+        ArcLengthTable table = ArcLengthTable.create(
+            new Rectangle2D.Double(0, 0, 10, 20), 1.0);
+        assertEquals(60.0, table.getLength(), 0.0);
+        
+        Point2D p = table.computePoint(15, null);
+        assertEquals(10.0, p.getX(), 1e-12);
+        assertEquals(5.0, p.getY(), 1e-12);
+        Point2D t = table.computeTangent(15, null);
+        assertEquals(0.0, t.getX(), 1e-12);
+        assertEquals(1.0, t.getY(), 1e-12);
+        
+        // The closing segment, and clamping
+        table.computePoint(55, p);
+        assertEquals(0.0, p.getX(), 1e-12);
+        assertEquals(5.0, p.getY(), 1e-12);
+        table.computePoint(100, p);
+        assertEquals(0.0, p.getX(), 1e-12);
+        assertEquals(0.0, p.getY(), 1e-12);
+        table.computePoint(-1, p);
+        assertEquals(0.0, p.getX(), 1e-12);
+        assertEquals(0.0, p.getY(), 1e-12);
+    }
+    
+    @Test
+    public void testSubPaths()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.lineTo(10, 0);
+        path.lineTo(10, 0);
+        path.moveTo(100, 100);
+        path.lineTo(100, 110);
+        ArcLengthTable table = ArcLengthTable.create(path, 1.0);
+        assertEquals(20.0, table.getLength(), 0.0);
+        Point2D p = table.computePoint(12, null);
+        assertEquals(100.0, p.getX(), 1e-12);
+        assertEquals(102.0, p.getY(), 1e-12);
+        Point2D t = table.computeTangent(10, null);
+        assertEquals(1.0, t.getX(), 1e-12);
+        assertEquals(0.0, t.getY(), 1e-12);
+    }
+    
+    @Test
+    public void testEmpty()
+    {
+        ArcLengthTable table = ArcLengthTable.create(new Path2D.Double(), 1);
+        assertEquals(0.0, table.getLength(), 0.0);
+        double result[] = table.computePoints(new double[] { 0, 1 }, null);
+        assertEquals(4, result.length);
+        assertEquals(0.0, table.computeTangent(0, null).getX(), 0.0);
+    }
+    
+    @Test
+    public void testBatchEqualsSingle()
+    {
+        ArcLengthTable table = ArcLengthTable.create(
+            new Ellipse2D.Double(0, 0, 300, 100), 0.01);
+        Random random = new Random(0);
+        double distances[] = new double[1000];
+        for (int i = 0; i < distances.length; i++)
+        {
+            distances[i] = random.nextDouble() * table.getLength() * 1.2 
+                - 0.1 * table.getLength();
+        }
+        Arrays.sort(distances);
+        double points[] = table.computePoints(distances, null);
+        double tangents[] = table.computeTangents(distances, null);
+        Point2D p = new Point2D.Double();
+        Point2D t = new Point2D.Double();
+        for (int i = 0; i < distances.length; i++)
+        {
+            table.computePoint(distances[i], p);
+            table.computeTangent(distances[i], t);
+            assertEquals(p.getX(), points[i * 2 + 0], 0.0);
+            assertEquals(p.getY(), points[i * 2 + 1], 0.0);
+            assertEquals(t.getX(), tangents[i * 2 + 0], 0.0);
+            assertEquals(t.getY(), tangents[i * 2 + 1], 0.0);
+            assertEquals(1.0, Math.hypot(t.getX(), t.getY()), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedBatch()
+    {
+        ArcLengthTable table = ArcLengthTable.create(
+            new Rectangle2D.Double(0, 0, 10, 20), 1.0);
+        table.computePoints(new double[] { 2, 1 }, null);
+    }
+}
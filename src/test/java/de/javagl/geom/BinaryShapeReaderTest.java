@@ -0,0 +1,113 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.assertSameSegments;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.QuadCurve2D;
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class BinaryShapeReaderTest
+{
+    @Test
+    public void testEncodings() throws IOException
+    {
+        List<Shape> shapes = createShapes();
+        checkRoundTrip(shapes, BinaryShapeWriter.DOUBLE, 0.0, 0.0);
+        checkRoundTrip(shapes, BinaryShapeWriter.FLOAT, 0.0, 1e-4);
+        checkRoundTrip(shapes, BinaryShapeWriter.QUANTIZED, 1e-3, 0.5e-3);
+    }
+
+    @Test
+    public void testMappedFile() throws IOException
+    {
+        List<Shape> shapes = createShapes();
+        File file = File.createTempFile("shapes", ".bin");
+        file.deleteOnExit();
+        try (BinaryShapeWriter writer = new BinaryShapeWriter(
+            new FileOutputStream(file)))
+        {
+            for (Shape shape : shapes)
+            {
+                writer.write(shape);
+            }
+        }
+        BinaryShapeReader reader = BinaryShapeReader.open(file);
+        assertEquals(shapes.size(), reader.getNumShapes());
+        for (int i = 0; i < shapes.size(); i++)
+        {
+            Shape shape = reader.getShape(i);
+            assertEquals(shapes.get(i).getPathIterator(null).getWindingRule(),
+                shape.getPathIterator(null).getWindingRule());
+            assertSameSegments(shapes.get(i).getPathIterator(null), 
+                shape.getPathIterator(null), 0.0);
+            assertEquals(shapes.get(i).getBounds2D().isEmpty(), 
+                shape.getBounds2D().isEmpty());
+        }
+        AffineTransform at = AffineTransform.getScaleInstance(2, 3);
+        assertSameSegments(shapes.get(0).getPathIterator(at), 
+            reader.getPathIterator(0, at), 1e-12);
+        assertEquals(true, reader.getShape(0).contains(5, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidData()
+    {
+        BinaryShapeReader.create(ByteBuffer.wrap(new byte[100]));
+    }
+
+    private static List<Shape> createShapes()
+    {
+        List<Shape> shapes = new ArrayList<Shape>();
+        shapes.add(new Ellipse2D.Double(0, 0, 10, 20));
+        shapes.add(Stars.createStarShape(-100, 50, 10, 20, 17));
+        Area area = new Area(new Rectangle2D.Double(0, 0, 100, 100));
+        area.subtract(new Area(new Ellipse2D.Double(10, 10, 30, 30)));
+        shapes.add(area);
+        shapes.add(new Path2D.Double());
+        Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.append(new QuadCurve2D.Double(1, 2, 3, 4, 5, 6), false);
+        path.closePath();
+        shapes.add(path);
+        return shapes;
+    }
+
+    private static void checkRoundTrip(List<Shape> shapes, 
+        int encoding, double resolution, double epsilon) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (BinaryShapeWriter writer = 
+            new BinaryShapeWriter(baos, encoding, resolution))
+        {
+            for (Shape shape : shapes)
+            {
+                writer.write(shape);
+            }
+        }
+        BinaryShapeReader reader = 
+            BinaryShapeReader.create(ByteBuffer.wrap(baos.toByteArray()));
+        assertEquals(shapes.size(), reader.getNumShapes());
+        for (int i = 0; i < shapes.size(); i++)
+        {
+            PathIterator expected = shapes.get(i).getPathIterator(null);
+            PathIterator actual = reader.getShape(i).getPathIterator(null);
+            assertEquals(expected.getWindingRule(), actual.getWindingRule());
+            assertSameSegments(expected, actual, epsilon);
+        }
+    }
+}
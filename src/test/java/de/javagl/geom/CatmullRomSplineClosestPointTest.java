@@ -0,0 +1,74 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.CatmullRomSplineTestUtils.createPoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineClosestPointTest
+{
+    @Test
+    public void testClosestPointMatchesDenseSampling()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            Random random = new Random(c);
+            List<Point2D> controlPoints = createPoints(random, 50);
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(controlPoints, 4, 0.5, closed);
+            CatmullRomSpline dense = 
+                CatmullRomSpline.create(controlPoints, 1000, 0.5, closed);
+            List<Point2D> densePoints = dense.getInterpolatedPoints();
+            for (int i = 0; i < 200; i++)
+            {
+                Point2D q = new Point2D.Double(
+                    random.nextDouble() * 1100 - 50, 
+                    random.nextDouble() * 300 - 100);
+                double min = Double.MAX_VALUE;
+                for (Point2D p : densePoints)
+                {
+                    min = Math.min(min, p.distance(q));
+                }
+                Point2D closest = spline.computeClosestPoint(q, null);
+                double distance = closest.distance(q);
+                assertTrue(distance <= min + 1e-9);
+                assertEquals(min, distance, 0.5);
+            }
+        }
+    }
+    
+    @Test
+    public void testClosestPointOnSpline()
+    {
+        List<Point2D> controlPoints = createPoints(new Random(0), 10);
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(controlPoints, 4, 0.0);
+        double parameter = 4.37;
+        Point2D p = spline.computePoint(parameter, null);
+        assertEquals(parameter, 
+            spline.computeClosestParameter(p.getX(), p.getY()), 1e-8);
+        assertEquals(3.0, spline.computeClosestParameter(
+            controlPoints.get(3).getX(), controlPoints.get(3).getY()), 1e-8);
+    }
+    
+    @Test
+    public void testHierarchyIsUpdated()
+    {
+        List<Point2D> controlPoints = createPoints(new Random(0), 10);
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(controlPoints, 4, 0.5);
+        Point2D q = new Point2D.Double(5000, 5000);
+        double before = spline.computeClosestPoint(q, null).distance(q);
+        spline.updateControlPoint(5, new Point2D.Double(5000, 4990));
+        double after = spline.computeClosestPoint(q, null).distance(q);
+        assertTrue(after < before);
+        assertTrue(after <= 10.0);
+    }
+}
@@ -0,0 +1,105 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineCoordinatesTest
+{
+    @Test
+    public void testCoordinatesMatchPoints()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(createPoints(), 10, 0.5, closed);
+            int n = spline.getNumInterpolatedPoints();
+            assertEquals(closed ? 41 : 31, n);
+            
+            double coordinates[] = spline.getInterpolatedCoordinates(null);
+            DoubleBuffer view = spline.getInterpolatedCoordinatesView();
+            assertTrue(view.isReadOnly());
+            assertEquals(n * 2, view.remaining());
+            List<Point2D> points = spline.getInterpolatedPoints();
+            assertEquals(n, points.size());
+            Point2D point = new Point2D.Double();
+            for (int i = 0; i < n; i++)
+            {
+                spline.getInterpolatedPoint(i, point);
+                assertEquals(coordinates[i * 2 + 0], point.getX(), 0.0);
+                assertEquals(coordinates[i * 2 + 1], point.getY(), 0.0);
+                assertEquals(coordinates[i * 2 + 0], view.get(i * 2), 0.0);
+                assertEquals(coordinates[i * 2 + 1], 
+                    view.get(i * 2 + 1), 0.0);
+                assertEquals(point, points.get(i));
+            }
+            
+            // The first and last points are the first and last control 
+            // points (or the first one, for closed splines)
+            assertEquals(0.0, coordinates[0], 1e-12);
+            assertEquals(0.0, coordinates[1], 1e-12);
+            if (!closed)
+            {
+                assertEquals(30.0, coordinates[n * 2 - 2], 1e-12);
+                assertEquals(0.0, coordinates[n * 2 - 1], 1e-12);
+            }
+            else
+            {
+                assertEquals(0.0, coordinates[n * 2 - 2], 1e-12);
+                assertEquals(0.0, coordinates[n * 2 - 1], 1e-12);
+            }
+        }
+    }
+    
+    @Test
+    public void testPointsAndViewAreUpdated()
+    {
+        List<Point2D> controlPoints = createPoints();
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(controlPoints, 10, 0.0);
+        List<Point2D> points = spline.getInterpolatedPoints();
+        DoubleBuffer view = spline.getInterpolatedCoordinatesView();
+        
+        spline.updateControlPoint(3, new Point2D.Double(30, 50));
+        double coordinates[] = new double[100];
+        spline.getInterpolatedCoordinates(coordinates);
+        assertEquals(30.0, coordinates[60], 0.0);
+        assertEquals(50.0, coordinates[61], 0.0);
+        assertEquals(50.0, view.get(61), 0.0);
+        assertEquals(50.0, points.get(30).getY(), 0.0);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoordinatesArrayTooSmall()
+    {
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(createPoints(), 10, 0.0);
+        spline.getInterpolatedCoordinates(new double[61]);
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidPointIndex()
+    {
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(createPoints(), 10, 0.0);
+        spline.getInterpolatedPoint(31, null);
+    }
+    
+    private static List<Point2D> createPoints()
+    {
+        List<Point2D> points = new ArrayList<Point2D>();
+        points.add(new Point2D.Double(0, 0));
+        points.add(new Point2D.Double(10, 10));
+        points.add(new Point2D.Double(20, -10));
+        points.add(new Point2D.Double(30, 0));
+        return points;
+    }
+}
@@ -0,0 +1,109 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.CatmullRomSplineTestUtils.createPoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineDerivativesTest
+{
+    @Test
+    public void testPointsMatchInterpolatedPoints()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            int steps = 10;
+            CatmullRomSpline spline = CatmullRomSpline.create(
+                createPoints(new Random(c), 6), steps, 0.5, closed);
+            List<Point2D> points = spline.getInterpolatedPoints();
+            Point2D p = new Point2D.Double();
+            for (int i = 0; i < points.size(); i++)
+            {
+                spline.computePoint((double)i / steps, p);
+                assertEquals(points.get(i).getX(), p.getX(), 1e-9);
+                assertEquals(points.get(i).getY(), p.getY(), 1e-9);
+            }
+        }
+    }
+    
+    @Test
+    public void testDerivativesMatchFiniteDifferences()
+    {
+        for (int a = 0; a <= 2; a++)
+        {
+            double alpha = a * 0.5;
+            CatmullRomSpline spline = CatmullRomSpline.create(
+                createPoints(new Random(a), 6), 10, alpha);
+            double h = 1e-5;
+            Point2D p0 = new Point2D.Double();
+            Point2D p1 = new Point2D.Double();
+            Point2D d0 = new Point2D.Double();
+            Point2D d1 = new Point2D.Double();
+            Point2D d = new Point2D.Double();
+            Point2D dd = new Point2D.Double();
+            for (int i = 1; i < 100; i++)
+            {
+                // Avoid the control points, where the second 
+                // derivative is not continuous
+                double t = i * 0.05 + 0.0123;
+                spline.computePoint(t - h, p0);
+                spline.computePoint(t + h, p1);
+                spline.computeFirstDerivative(t, d);
+                double scale = Math.max(1.0, d.distance(0, 0));
+                assertEquals((p1.getX() - p0.getX()) / (2 * h), 
+                    d.getX(), 1e-4 * scale);
+                assertEquals((p1.getY() - p0.getY()) / (2 * h), 
+                    d.getY(), 1e-4 * scale);
+                
+                spline.computeFirstDerivative(t - h, d0);
+                spline.computeFirstDerivative(t + h, d1);
+                spline.computeSecondDerivative(t, dd);
+                scale = Math.max(1.0, dd.distance(0, 0));
+                assertEquals((d1.getX() - d0.getX()) / (2 * h), 
+                    dd.getX(), 1e-4 * scale);
+                assertEquals((d1.getY() - d0.getY()) / (2 * h), 
+                    dd.getY(), 1e-4 * scale);
+            }
+        }
+    }
+    
+    @Test
+    public void testArcLength()
+    {
+        List<Point2D> controlPoints = createPoints(new Random(0), 8);
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(controlPoints, 10, 0.5);
+        CatmullRomSpline dense = 
+            CatmullRomSpline.create(controlPoints, 10000, 0.5);
+        ArcLengthTable table = ArcLengthTable.create(Paths.fromPoints(
+            dense.getInterpolatedPoints(), false), 1.0);
+        double length = spline.computeLength();
+        assertEquals(table.getLength(), length, 1e-4);
+        
+        // Uniform arc length sampling
+        int n = 200;
+        Point2D expected = new Point2D.Double();
+        Point2D actual = new Point2D.Double();
+        double step = length / n;
+        for (int i = 0; i <= n; i++)
+        {
+            double parameter = spline.computeParameter(i * step);
+            spline.computePoint(parameter, actual);
+            table.computePoint(i * step, expected);
+            assertEquals(0.0, expected.distance(actual), 1e-3);
+        }
+        assertEquals(7.0, spline.computeParameter(length), 1e-9);
+        assertEquals(0.0, spline.computeParameter(-1.0), 0.0);
+        
+        // Modifications invalidate the lengths
+        spline.updateControlPoint(3, new Point2D.Double(500, 500));
+        assertTrue(spline.computeLength() > length + 100);
+    }
+}
@@ -0,0 +1,142 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.CatmullRomSplineTestUtils.createPoints;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineFlatteningTest
+{
+    @Test
+    public void testBezierSegmentsMatchInterpolation()
+    {
+        for (int a = 0; a <= 2; a++)
+        {
+            double alpha = a * 0.5;
+            List<Point2D> points = createPoints(new Random(a), 6);
+            int steps = 10;
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(points, steps, alpha);
+            double expected[] = spline.getInterpolatedCoordinates(null);
+            
+            double c[] = new double[16];
+            double b[] = new double[8];
+            for (int s = 0; s < points.size() - 1; s++)
+            {
+                for (int k = 0; k < 4; k++)
+                {
+                    Point2D p = controlPoint(points, s + k - 1);
+                    c[k * 2 + 0] = p.getX();
+                    c[k * 2 + 1] = p.getY();
+                }
+                CatmullRomSpline.computeBezierSegment(c, 0, alpha, b);
+                for (int i = 0; i <= steps; i++)
+                {
+                    double t = (double)i / steps;
+                    int index = (s * steps + i) * 2;
+                    assertEquals(expected[index + 0], 
+                        bezier(t, b[0], b[2], b[4], b[6]), 1e-9);
+                    assertEquals(expected[index + 1], 
+                        bezier(t, b[1], b[3], b[5], b[7]), 1e-9);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testFlatnessIsRespected()
+    {
+        List<Point2D> points = createPoints(new Random(0), 8);
+        CatmullRomSpline spline = CatmullRomSpline.create(points, 200, 0.5);
+        double flatness = 0.01;
+        PackedPath path = spline.computeFlattenedPath(flatness, null);
+        assertEquals(1, path.getNumSubPaths());
+        assertFalse(path.isSubPathClosed(0));
+        assertEquals(points.get(0).getX(), path.getX(0), 0.0);
+        int last = path.getNumPoints() - 1;
+        assertEquals(points.get(7).getY(), path.getY(last), 0.0);
+        
+        // Each densely interpolated point must be close to the polyline
+        for (Point2D p : spline.getInterpolatedPoints())
+        {
+            double min = Double.MAX_VALUE;
+            for (int i = 0; i < last; i++)
+            {
+                min = Math.min(min, Line2D.ptSegDist(
+                    path.getX(i), path.getY(i), 
+                    path.getX(i + 1), path.getY(i + 1), 
+                    p.getX(), p.getY()));
+            }
+            assertTrue(min <= flatness);
+        }
+        assertTrue(path.getNumPoints() < 
+            spline.getNumInterpolatedPoints() / 4);
+    }
+    
+    @Test
+    public void testStraightPartsUseFewPoints()
+    {
+        List<Point2D> points = new ArrayList<Point2D>();
+        for (int i = 0; i < 10; i++)
+        {
+            points.add(new Point2D.Double(i * 10, 0));
+        }
+        CatmullRomSpline spline = CatmullRomSpline.create(points, 20, 0.5);
+        PackedPath path = spline.computeFlattenedPath(0.1, null);
+        assertEquals(10, path.getNumPoints());
+    }
+    
+    @Test
+    public void testClosedSpline()
+    {
+        List<Point2D> points = createPoints(new Random(1), 5);
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(points, 10, 0.5, true);
+        PackedPath path = spline.computeFlattenedPath(0.1, new PackedPath());
+        assertEquals(1, path.getNumSubPaths());
+        assertTrue(path.isSubPathClosed(0));
+        int last = path.getNumPoints() - 1;
+        assertFalse(path.getX(0) == path.getX(last) 
+            && path.getY(0) == path.getY(last));
+    }
+    
+    private static Point2D controlPoint(List<Point2D> points, int index)
+    {
+        // The additional end points, as they are computed by the spline
+        int n = points.size();
+        if (index == -1)
+        {
+            Point2D p0 = points.get(0);
+            Point2D p1 = points.get(1);
+            return new Point2D.Double(
+                p0.getX() - (p1.getX() - p0.getX()), 
+                p0.getY() - (p1.getY() - p0.getY()));
+        }
+        if (index == n)
+        {
+            Point2D py = points.get(n - 2);
+            Point2D pz = points.get(n - 1);
+            return new Point2D.Double(
+                pz.getX() + (pz.getX() - py.getX()), 
+                pz.getY() + (pz.getY() - py.getY()));
+        }
+        return points.get(index);
+    }
+    
+    private static double bezier(
+        double t, double p0, double p1, double p2, double p3)
+    {
+        double u = 1 - t;
+        return p0 * u * u * u + 3 * p1 * u * u * t 
+            + 3 * p2 * u * t * t + p3 * t * t * t;
+    }
+}
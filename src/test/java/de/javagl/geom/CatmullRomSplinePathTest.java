@@ -0,0 +1,73 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.CatmullRomSplineTestUtils.createPoints;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplinePathTest
+{
+    @Test
+    public void testPathContainsInterpolatedPoints()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            List<Point2D> points = createPoints(new Random(c), 7);
+            int steps = 8;
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(points, steps, 0.5, closed);
+            double expected[] = spline.getInterpolatedCoordinates(null);
+            Path2D path = spline.toPath();
+            
+            PathIterator pi = path.getPathIterator(null);
+            double coords[] = new double[6];
+            assertEquals(PathIterator.SEG_MOVETO, pi.currentSegment(coords));
+            assertEquals(expected[0], coords[0], 1e-9);
+            assertEquals(expected[1], coords[1], 1e-9);
+            pi.next();
+            
+            double x0 = coords[0];
+            double y0 = coords[1];
+            int numCurves = 0;
+            while (!pi.isDone())
+            {
+                int type = pi.currentSegment(coords);
+                if (type == PathIterator.SEG_CLOSE)
+                {
+                    pi.next();
+                    continue;
+                }
+                assertEquals(PathIterator.SEG_CUBICTO, type);
+                for (int i = 0; i <= steps; i++)
+                {
+                    double t = (double)i / steps;
+                    double u = 1 - t;
+                    double b0 = u * u * u;
+                    double b1 = 3 * u * u * t;
+                    double b2 = 3 * u * t * t;
+                    double b3 = t * t * t;
+                    double x = b0 * x0 + b1 * coords[0] 
+                        + b2 * coords[2] + b3 * coords[4];
+                    double y = b0 * y0 + b1 * coords[1] 
+                        + b2 * coords[3] + b3 * coords[5];
+                    int index = (numCurves * steps + i) * 2;
+                    assertEquals(expected[index + 0], x, 1e-9);
+                    assertEquals(expected[index + 1], y, 1e-9);
+                }
+                x0 = coords[4];
+                y0 = coords[5];
+                numCurves++;
+                pi.next();
+            }
+            assertEquals(closed ? 7 : 6, numCurves);
+        }
+    }
+}
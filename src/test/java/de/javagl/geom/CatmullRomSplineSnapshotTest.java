@@ -0,0 +1,130 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineSnapshotTest
+{
+    @Test
+    public void testSnapshotMatchesSpline()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(createPoints(0), 10, 0.5, closed);
+            CatmullRomSplineSnapshot snapshot = spline.getSnapshot();
+            assertEquals(closed, snapshot.isClosed());
+            assertEquals(spline.getNumSegments(), snapshot.getNumSegments());
+            assertEquals(spline.getNumInterpolatedPoints(), 
+                snapshot.getNumInterpolatedPoints());
+            
+            double expected[] = spline.getInterpolatedCoordinates(null);
+            double actual[] = snapshot.getInterpolatedCoordinates(null);
+            for (int i = 0; i < expected.length; i++)
+            {
+                assertEquals(expected[i], actual[i], 0.0);
+            }
+            Point2D p0 = new Point2D.Double();
+            Point2D p1 = new Point2D.Double();
+            for (int i = 0; i <= 30; i++)
+            {
+                double t = i * 0.1;
+                spline.computeFirstDerivative(t, p0);
+                snapshot.computeFirstDerivative(t, p1);
+                assertEquals(p0, p1);
+            }
+        }
+    }
+    
+    @Test
+    public void testSnapshotIsNotAffectedByModifications()
+    {
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(createPoints(0), 10, 0.5);
+        CatmullRomSplineSnapshot snapshot = spline.getSnapshot();
+        assertSame(snapshot, spline.getSnapshot());
+        double before[] = snapshot.getInterpolatedCoordinates(null);
+        
+        spline.updateControlPoints(createPoints(5));
+        CatmullRomSplineSnapshot modified = spline.getSnapshot();
+        assertNotSame(snapshot, modified);
+        double after[] = snapshot.getInterpolatedCoordinates(null);
+        for (int i = 0; i < before.length; i++)
+        {
+            assertEquals(before[i], after[i], 0.0);
+        }
+        Point2D point = modified.getInterpolatedPoint(0, null);
+        assertEquals(5.0, point.getY(), 1e-12);
+    }
+    
+    @Test
+    public void testPublishedSnapshots() throws InterruptedException
+    {
+        final CatmullRomSpline spline = 
+            CatmullRomSpline.create(createPoints(0), 10, 0.5);
+        assertNull(spline.getPublishedSnapshot());
+        spline.publishSnapshot();
+        
+        // The reader checks that each published snapshot is consistent,
+        // meaning that all points have been shifted by the same offset
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> error = new AtomicReference<String>();
+        Thread reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Point2D point = new Point2D.Double();
+                while (!done.get())
+                {
+                    CatmullRomSplineSnapshot s = 
+                        spline.getPublishedSnapshot();
+                    double dy = s.getInterpolatedPoint(0, point).getY();
+                    s.getInterpolatedPoint(
+                        s.getNumInterpolatedPoints() - 1, point);
+                    if (Math.abs(point.getY() - dy) > 1e-9)
+                    {
+                        error.set("Inconsistent snapshot for " + dy);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 1; i <= 1000; i++)
+        {
+            spline.updateControlPoints(createPoints(i));
+            spline.publishSnapshot();
+        }
+        done.set(true);
+        reader.join();
+        assertNull(error.get());
+        
+        Point2D point = 
+            spline.getPublishedSnapshot().getInterpolatedPoint(0, null);
+        assertEquals(1000.0, point.getY(), 1e-12);
+        assertTrue(spline.getPublishedSnapshot() == spline.getSnapshot());
+    }
+    
+    private static List<Point2D> createPoints(double dy)
+    {
+        List<Point2D> points = new ArrayList<Point2D>();
+        points.add(new Point2D.Double(0, dy));
+        points.add(new Point2D.Double(10, dy + 10));
+        points.add(new Point2D.Double(20, dy - 10));
+        points.add(new Point2D.Double(30, dy));
+        return points;
+    }
+}
@@ -0,0 +1,34 @@
+package de.javagl.geom;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Utility methods for the tests of the {@link CatmullRomSpline} class
+ */
+@SuppressWarnings("javadoc")
+class CatmullRomSplineTestUtils
+{
+    /**
+     * Creates a list of random points with increasing x-coordinates,
+     * so that consecutive points are not too close to each other
+     */
+    static List<Point2D> createPoints(Random random, int n)
+    {
+        List<Point2D> points = new ArrayList<Point2D>();
+        for (int i = 0; i < n; i++)
+        {
+            points.add(new Point2D.Double(
+                i * 20 + random.nextDouble() * 10, 
+                random.nextDouble() * 100));
+        }
+        return points;
+    }
+    
+    private CatmullRomSplineTestUtils()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
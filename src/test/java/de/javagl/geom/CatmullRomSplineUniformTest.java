@@ -0,0 +1,88 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineUniformTest
+{
+    @Test
+    public void testUniformWeightsSumToOne()
+    {
+        double w[] = CatmullRomSpline.computeUniformWeights(7);
+        assertEquals(8 * 4, w.length);
+        for (int i = 0; i <= 7; i++)
+        {
+            double sum = w[i * 4 + 0] + w[i * 4 + 1] + 
+                w[i * 4 + 2] + w[i * 4 + 3];
+            assertEquals(1.0, sum, 1e-12);
+        }
+        
+        // The first and last parameters interpolate the inner points
+        assertEquals(1.0, w[1], 0.0);
+        assertEquals(1.0, w[7 * 4 + 2], 0.0);
+    }
+    
+    @Test
+    public void testWeightedSegmentMatchesGeneralInterpolation()
+    {
+        Random random = new Random(0);
+        double c[] = new double[8];
+        double weighted[] = new double[11 * 2];
+        double general[] = new double[11 * 2];
+        double w[] = CatmullRomSpline.computeUniformWeights(10);
+        for (int r = 0; r < 100; r++)
+        {
+            for (int i = 0; i < c.length; i++)
+            {
+                c[i] = random.nextDouble() * 100.0;
+            }
+            CatmullRomSpline.interpolateSegment(
+                c, 0, 0.0, 11, 10, w, weighted, 0);
+            CatmullRomSpline.interpolateSegment(
+                c, 0, 0.0, 11, 10, null, general, 0);
+            for (int i = 0; i < general.length; i++)
+            {
+                assertEquals(general[i], weighted[i], 1e-9);
+            }
+        }
+    }
+    
+    @Test
+    public void testUniformSplineMatchesPointEvaluation()
+    {
+        for (int c = 0; c < 2; c++)
+        {
+            boolean closed = (c == 1);
+            CatmullRomSpline spline = 
+                CatmullRomSpline.create(createPoints(), 8, 0.0, closed);
+            Point2D interpolated = new Point2D.Double();
+            Point2D expected = new Point2D.Double();
+            int n = spline.getNumInterpolatedPoints();
+            for (int i = 0; i < n; i++)
+            {
+                spline.getInterpolatedPoint(i, interpolated);
+                spline.computePoint(i / 8.0, expected);
+                assertEquals(expected.getX(), interpolated.getX(), 1e-9);
+                assertEquals(expected.getY(), interpolated.getY(), 1e-9);
+            }
+        }
+    }
+    
+    private static List<Point2D> createPoints()
+    {
+        List<Point2D> points = new ArrayList<Point2D>();
+        points.add(new Point2D.Double(0, 0));
+        points.add(new Point2D.Double(10, 20));
+        points.add(new Point2D.Double(25, 5));
+        points.add(new Point2D.Double(40, 30));
+        points.add(new Point2D.Double(45, 0));
+        return points;
+    }
+}
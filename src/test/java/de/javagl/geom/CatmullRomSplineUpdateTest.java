@@ -0,0 +1,96 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.CatmullRomSplineTestUtils.createPoints;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplineUpdateTest
+{
+    @Test
+    public void testUpdateOpenSpline()
+    {
+        checkUpdates(false, 0.0);
+        checkUpdates(false, 0.5);
+    }
+    
+    @Test
+    public void testUpdateClosedSpline()
+    {
+        checkUpdates(true, 0.0);
+        checkUpdates(true, 0.5);
+    }
+    
+    @Test
+    public void testUpdateSmallSplines()
+    {
+        for (int n = 2; n <= 4; n++)
+        {
+            checkUpdates(n, false, 0.5);
+            checkUpdates(n, true, 0.5);
+        }
+    }
+    
+    @Test
+    public void testSetInterpolation()
+    {
+        List<Point2D> points = createPoints(new Random(0), 10);
+        CatmullRomSpline spline = CatmullRomSpline.create(points, 8, 0.0);
+        spline.getInterpolatedPoints();
+        spline.setInterpolation(1.0);
+        assertPointsEqual(
+            CatmullRomSpline.create(points, 8, 1.0).getInterpolatedPoints(),
+            spline.getInterpolatedPoints());
+    }
+    
+    private static void checkUpdates(boolean closed, double alpha)
+    {
+        checkUpdates(12, closed, alpha);
+    }
+    
+    private static void checkUpdates(int n, boolean closed, double alpha)
+    {
+        Random random = new Random(0);
+        List<Point2D> points = createPoints(random, n);
+        CatmullRomSpline spline = 
+            CatmullRomSpline.create(points, 5, alpha, closed);
+        spline.getInterpolatedPoints();
+        for (int i = 0; i < n; i++)
+        {
+            Point2D p = points.get(i);
+            p.setLocation(random.nextDouble() * 100, 
+                random.nextDouble() * 100);
+            spline.updateControlPoint(i, p);
+            CatmullRomSpline expected = 
+                CatmullRomSpline.create(points, 5, alpha, closed);
+            assertPointsEqual(expected.getInterpolatedPoints(), 
+                spline.getInterpolatedPoints());
+        }
+        
+        // Multiple updates before the points are validated
+        points.get(0).setLocation(1, 2);
+        points.get(n - 1).setLocation(3, 4);
+        spline.updateControlPoint(0, points.get(0));
+        spline.updateControlPoint(n - 1, points.get(n - 1));
+        assertPointsEqual(
+            CatmullRomSpline.create(points, 5, alpha, closed)
+                .getInterpolatedPoints(),
+            spline.getInterpolatedPoints());
+    }
+    
+    private static void assertPointsEqual(
+        List<Point2D> expected, List<Point2D> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX(), 0.0);
+            assertEquals(expected.get(i).getY(), actual.get(i).getY(), 0.0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CatmullRomSplinesTest
+{
+    @Test
+    public void testEqualsCatmullRomSpline()
+    {
+        double alphas[] = { 0.0, 0.3, 0.5, 1.0 };
+        for (double alpha : alphas)
+        {
+            for (int c = 0; c < 2; c++)
+            {
+                boolean closed = (c == 1);
+                Random random = new Random(0);
+                int numSplines = 20;
+                int offsets[] = createOffsets(random, numSplines);
+                double coordinates[] = 
+                    createCoordinates(random, offsets[numSplines]);
+                int steps = 7;
+                double result[] = CatmullRomSplines.interpolate(
+                    coordinates, offsets, steps, alpha, closed, null);
+                int resultOffsets[] = CatmullRomSplines
+                    .computeInterpolatedOffsets(offsets, steps, closed);
+                assertEquals(resultOffsets[numSplines] * 2, result.length);
+                for (int s = 0; s < numSplines; s++)
+                {
+                    List<Point2D> points = new ArrayList<Point2D>();
+                    for (int i = offsets[s]; i < offsets[s + 1]; i++)
+                    {
+                        points.add(new Point2D.Double(
+                            coordinates[i * 2], coordinates[i * 2 + 1]));
+                    }
+                    double expected[] = CatmullRomSpline.create(
+                        points, steps, alpha, closed)
+                        .getInterpolatedCoordinates(null);
+                    assertEquals(expected.length, 
+                        (resultOffsets[s + 1] - resultOffsets[s]) * 2);
+                    for (int i = 0; i < expected.length; i++)
+                    {
+                        assertEquals(expected[i], 
+                            result[resultOffsets[s] * 2 + i], 0.0);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testParallelEqualsSequential()
+    {
+        Random random = new Random(1);
+        int numSplines = 5000;
+        int offsets[] = createOffsets(random, numSplines);
+        double coordinates[] = 
+            createCoordinates(random, offsets[numSplines]);
+        double expected[] = CatmullRomSplines.interpolate(
+            coordinates, offsets, 10, 0.5, false, null);
+        double actual[] = new double[expected.length + 10];
+        CatmullRomSplines.interpolateParallel(
+            coordinates, offsets, 10, 0.5, false, actual);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i], actual[i], 0.0);
+        }
+    }
+    
+    @Test
+    public void testInterpolatedOffsets()
+    {
+        int offsets[] = { 0, 2, 5, 9 };
+        assertArrayEquals(new int[] { 0, 5, 14, 27 }, CatmullRomSplines
+            .computeInterpolatedOffsets(offsets, 4, false));
+        assertArrayEquals(new int[] { 0, 9, 22, 39 }, CatmullRomSplines
+            .computeInterpolatedOffsets(offsets, 4, true));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewControlPoints()
+    {
+        int offsets[] = { 0, 2, 3 };
+        CatmullRomSplines.interpolate(
+            new double[6], offsets, 4, 0.0, false, null);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testResultTooSmall()
+    {
+        int offsets[] = { 0, 2 };
+        CatmullRomSplines.interpolate(
+            new double[4], offsets, 4, 0.0, false, new double[9]);
+    }
+    
+    private static int[] createOffsets(Random random, int numSplines)
+    {
+        int offsets[] = new int[numSplines + 1];
+        for (int i = 0; i < numSplines; i++)
+        {
+            offsets[i + 1] = offsets[i] + 2 + random.nextInt(8);
+        }
+        return offsets;
+    }
+    
+    private static double[] createCoordinates(Random random, int numPoints)
+    {
+        double coordinates[] = new double[numPoints * 2];
+        for (int i = 0; i < coordinates.length; i++)
+        {
+            coordinates[i] = random.nextDouble() * 100;
+        }
+        return coordinates;
+    }
+}
@@ -0,0 +1,62 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Polygon;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PackedPathTest
+{
+    @Test
+    public void testClosingPointIsNotStoredTwice()
+    {
+        PackedPath path = Shapes.computePackedPath(
+            new Rectangle2D.Double(0, 0, 10, 5), 1.0, null);
+        assertEquals(1, path.getNumSubPaths());
+        assertTrue(path.isSubPathClosed(0));
+        assertEquals(4, path.getNumPoints());
+        assertEquals(4, path.getSubPathEnd(0) - path.getSubPathStart(0));
+    }
+    
+    @Test
+    public void testClosingPointOfPolygonIsNotStoredTwice()
+    {
+        Polygon polygon = new Polygon(
+            new int[] { 0, 4, 4, 0 }, new int[] { 0, 0, 3, 0 }, 4);
+        PackedPath path = Shapes.computePackedPath(polygon, 1.0, null);
+        assertEquals(3, path.getNumPoints());
+        assertTrue(path.isSubPathClosed(0));
+    }
+    
+    @Test
+    public void testDistinctLastPointIsKeptOnClose()
+    {
+        PackedPath path = new PackedPath();
+        path.moveTo(0, 0);
+        path.lineTo(1, 0);
+        path.lineTo(1, 1);
+        path.closePath();
+        assertEquals(3, path.getNumPoints());
+    }
+    
+    @Test
+    public void testLineToAfterCloseStartsAtFirstPoint()
+    {
+        PackedPath path = new PackedPath();
+        path.moveTo(0, 0);
+        path.lineTo(1, 0);
+        path.lineTo(1, 1);
+        path.lineTo(0, 0);
+        path.closePath();
+        path.lineTo(2, 2);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(3, path.getSubPathEnd(0));
+        assertEquals(0.0, path.getX(3), 0.0);
+        assertEquals(0.0, path.getY(3), 0.0);
+        assertEquals(2.0, path.getX(4), 0.0);
+    }
+}
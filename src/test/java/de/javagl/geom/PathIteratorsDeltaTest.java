@@ -0,0 +1,118 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PathIteratorsDeltaTest
+{
+    @Test
+    public void testPolygonEqualsFlattenedDelta()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.lineTo(100, 0);
+        path.lineTo(100, 35);
+        path.closePath();
+        path.moveTo(200, 0);
+        path.lineTo(200, 10);
+        
+        List<double[]> expected = collect(
+            PathIterators.createDeltaPathIterator(path, 1.0, 10.0));
+        List<double[]> actual = collect(
+            PathIterators.createCurveDeltaPathIterator(path, 10.0));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            double e[] = expected.get(i);
+            double a[] = actual.get(i);
+            assertEquals(e[0], a[0], 0.0);
+            assertEquals(e[1], a[1], 1e-10);
+            assertEquals(e[2], a[2], 1e-10);
+        }
+    }
+    
+    @Test
+    public void testCubicIsSampledEquidistantly()
+    {
+        Shape curve = new CubicCurve2D.Double(
+            0, 0, 100, 300, 200, -300, 300, 0);
+        double length = ArcLengthTable.create(curve, 1e-5).getLength();
+        double maxDelta = 5.0;
+        List<double[]> points = collect(
+            PathIterators.createCurveDeltaPathIterator(curve, maxDelta));
+        int numSteps = (int)Math.ceil(length / maxDelta);
+        assertEquals(numSteps + 1, points.size());
+        
+        double step = length / numSteps;
+        for (int i = 1; i < points.size(); i++)
+        {
+            double p[] = points.get(i - 1);
+            double q[] = points.get(i);
+            assertEquals(PathIterator.SEG_LINETO, (int)q[0]);
+            double d = Math.hypot(q[1] - p[1], q[2] - p[2]);
+            assertTrue(d <= maxDelta);
+            assertEquals(step, d, 0.05);
+        }
+        double last[] = points.get(points.size() - 1);
+        assertEquals(300.0, last[1], 0.0);
+        assertEquals(0.0, last[2], 0.0);
+    }
+    
+    @Test
+    public void testPointsAreOnCurve()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.quadTo(50, 100, 100, 0);
+        path.closePath();
+        List<double[]> points = collect(
+            PathIterators.createCurveDeltaPathIterator(path, 3.0));
+        assertEquals(PathIterator.SEG_CLOSE, 
+            (int)points.get(points.size() - 1)[0]);
+        for (double p[] : points)
+        {
+            if (p[2] > 0)
+            {
+                // The quad is the parabola y = 2x - x^2/50
+                assertEquals(2 * p[1] - p[1] * p[1] / 50, p[2], 1e-9);
+            }
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroDeltaIsRejected()
+    {
+        PathIterators.createCurveDeltaPathIterator(
+            new CubicCurve2D.Double(0, 0, 1, 1, 2, 1, 3, 0), 0.0);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDeltaIsRejected()
+    {
+        PathIterators.createCurveDeltaPathIterator(
+            new CubicCurve2D.Double(0, 0, 1, 1, 2, 1, 3, 0), -1.0);
+    }
+    
+    private static List<double[]> collect(PathIterator pi)
+    {
+        List<double[]> result = new ArrayList<double[]>();
+        double coords[] = new double[6];
+        while (!pi.isDone())
+        {
+            int type = pi.currentSegment(coords);
+            result.add(new double[] { type, coords[0], coords[1] });
+            pi.next();
+        }
+        return result;
+    }
+}
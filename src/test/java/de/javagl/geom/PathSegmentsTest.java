@@ -0,0 +1,156 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PathSegmentsTest
+{
+    @Test
+    public void testSegmentsOfPolygon()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.lineTo(10, 0);
+        path.lineTo(10, 20);
+        path.closePath();
+        path.moveTo(100, 0);
+        path.quadTo(150, 50, 200, 0);
+        
+        final List<String> segments = new ArrayList<String>();
+        Shapes.createSegmentStream(path, false).forEach(
+            new Consumer<PathSegment>()
+        {
+            @Override
+            public void accept(PathSegment s)
+            {
+                int n = s.getNumPoints() - 1;
+                segments.add(s.getSubPathIndex() + ":" + s.getType() + ":"
+                    + s.getX(0) + "," + s.getY(0) + "-" 
+                    + s.getX(n) + "," + s.getY(n) + ":" 
+                    + s.isClosingImplicitly());
+            }
+        });
+        assertEquals(4, segments.size());
+        assertEquals("0:1:0.0,0.0-10.0,0.0:false", segments.get(0));
+        assertEquals("0:1:10.0,0.0-10.0,20.0:false", segments.get(1));
+        assertEquals("0:4:10.0,20.0-0.0,0.0:false", segments.get(2));
+        assertEquals("1:2:100.0,0.0-200.0,0.0:true", segments.get(3));
+    }
+    
+    @Test
+    public void testSignedArea()
+    {
+        Shape rectangle = new Rectangle2D.Double(10, 20, 30, 40);
+        double area = Shapes.createSegmentStream(rectangle, false)
+            .mapToDouble(PathSegment::computeSignedArea).sum();
+        assertEquals(Shapes.computeSignedArea(rectangle, 1.0), area, 1e-10);
+        
+        // Not closed explicitly, but closed implicitly, as for filling
+        Path2D triangle = new Path2D.Double();
+        triangle.moveTo(0, 0);
+        triangle.lineTo(10, 0);
+        triangle.lineTo(10, 10);
+        double triangleArea = Shapes.createSegmentStream(triangle, false)
+            .mapToDouble(PathSegment::computeSignedArea).sum();
+        assertEquals(50.0, triangleArea, 1e-10);
+        
+        // The area of the cubic approximation of the ellipse is exact 
+        // and close to the area of the ellipse
+        Shape ellipse = new Ellipse2D.Double(0, 0, 200, 100);
+        double ellipseArea = Shapes.createSegmentStream(ellipse, false)
+            .mapToDouble(PathSegment::computeSignedArea).sum();
+        assertEquals(Math.PI * 100 * 50, Math.abs(ellipseArea), 10.0);
+        assertEquals(Shapes.computeSignedArea(ellipse, 1e-6), 
+            ellipseArea, 1e-2);
+    }
+    
+    @Test
+    public void testParallelReductions()
+    {
+        Random random = new Random(0);
+        Path2D path = new Path2D.Double();
+        for (int i = 0; i < 500; i++)
+        {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            double w = 1 + random.nextDouble() * 100;
+            double h = 1 + random.nextDouble() * 100;
+            path.append(new Ellipse2D.Double(x, y, w, h), false);
+        }
+        double area = Shapes.createSegmentStream(path, false)
+            .mapToDouble(PathSegment::computeSignedArea).sum();
+        double parallelArea = Shapes.createSegmentStream(path, true)
+            .mapToDouble(PathSegment::computeSignedArea).sum();
+        assertEquals(area, parallelArea, 1e-6);
+        
+        double length = Shapes.createSegmentStream(path, false)
+            .mapToDouble(PathSegment::computeLength).sum();
+        double parallelLength = Shapes.createSegmentStream(path, true)
+            .mapToDouble(PathSegment::computeLength).sum();
+        assertEquals(length, parallelLength, 1e-6);
+        assertEquals(ArcLengthTable.create(path, 1e-5).getLength(), 
+            length, 1e-2);
+        
+        double minX = Shapes.createSegmentStream(path, true)
+            .mapToDouble(s -> s.getX(0)).min().getAsDouble();
+        assertEquals(path.getBounds2D().getMinX(), minX, 0.0);
+        
+        assertEquals(500 * 5, 
+            Shapes.createSegmentStream(path, true).count());
+    }
+    
+    @Test
+    public void testSplitAtSubPathBoundaries()
+    {
+        Path2D path = new Path2D.Double();
+        for (int i = 0; i < 4; i++)
+        {
+            path.append(new Rectangle2D.Double(i * 10, 0, 5, 5), false);
+        }
+        Spliterator<PathSegment> spliterator = 
+            Shapes.createSegmentSpliterator(path);
+        assertEquals(20, spliterator.estimateSize());
+        
+        // Consume one segment, so that the prefix starts in the middle
+        // of the first sub-path
+        assertTrue(spliterator.tryAdvance(s -> {}));
+        Spliterator<PathSegment> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(9, prefix.estimateSize());
+        assertEquals(10, spliterator.estimateSize());
+        
+        final List<Integer> indices = new ArrayList<Integer>();
+        prefix.forEachRemaining(s -> indices.add(s.getSubPathIndex()));
+        assertEquals(9, indices.size());
+        assertEquals(0, (int)indices.get(0));
+        assertEquals(1, (int)indices.get(8));
+        
+        Spliterator<PathSegment> second = spliterator.trySplit();
+        assertNotNull(second);
+        assertNull(spliterator.trySplit());
+        assertNull(second.trySplit());
+        assertTrue(spliterator.tryAdvance(s ->
+        {
+            assertEquals(3, s.getSubPathIndex());
+            assertEquals(PathIterator.SEG_LINETO, s.getType());
+            assertEquals(30.0, s.getX(0), 0.0);
+        }));
+    }
+}
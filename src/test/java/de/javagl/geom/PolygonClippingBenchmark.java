@@ -0,0 +1,46 @@
+package de.javagl.geom;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.Locale;
+
+/**
+ * A simple benchmark comparing the {@link PolygonClipping} operations
+ * with the operations of the <code>java.awt.geom.Area</code> class, 
+ * for star shapes with an increasing number of vertices
+ */
+@SuppressWarnings("javadoc")
+public class PolygonClippingBenchmark
+{
+    public static void main(String[] args)
+    {
+        int runs = 5;
+        for (int numRays = 100; numRays <= 800; numRays *= 2)
+        {
+            Shape s0 = Stars.createStarShape(0, 0, 40, 100, numRays);
+            Shape s1 = Stars.createStarShape(150, 20, 40, 100, numRays + 1);
+            Path2D p0 = Shapes.computePackedPath(s0, 0.1, null).toPath();
+            Path2D p1 = Shapes.computePackedPath(s1, 0.1, null).toPath();
+
+            long areaNs = Long.MAX_VALUE;
+            long clippingNs = Long.MAX_VALUE;
+            for (int r = 0; r < runs; r++)
+            {
+                long before = System.nanoTime();
+                Area a = new Area(p0);
+                a.add(new Area(p1));
+                long after = System.nanoTime();
+                areaNs = Math.min(areaNs, after - before);
+
+                before = System.nanoTime();
+                PolygonClipping.union(p0, p1, 0.1);
+                after = System.nanoTime();
+                clippingNs = Math.min(clippingNs, after - before);
+            }
+            System.out.printf(Locale.ENGLISH, 
+                "Vertices %6d: Area %10.3f ms, PolygonClipping %8.3f ms%n",
+                numRays * 2, areaNs / 1e6, clippingNs / 1e6);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.area;
+import static de.javagl.geom.ShapeTestUtils.createRegularPolygon;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PolygonClippingTest
+{
+    private static final double FLATNESS = 0.01;
+
+    @Test
+    public void testOverlappingRectangles()
+    {
+        Shape s0 = new Rectangle2D.Double(0, 0, 10, 10);
+        Shape s1 = new Rectangle2D.Double(5, 5, 10, 10);
+        assertEquals(175.0, 
+            area(PolygonClipping.union(s0, s1, FLATNESS)), 1e-9);
+        assertEquals(25.0, 
+            area(PolygonClipping.intersection(s0, s1, FLATNESS)), 1e-9);
+        assertEquals(75.0, 
+            area(PolygonClipping.difference(s0, s1, FLATNESS)), 1e-9);
+        assertEquals(150.0, 
+            area(PolygonClipping.exclusiveOr(s0, s1, FLATNESS)), 1e-9);
+    }
+
+    @Test
+    public void testCoincidentEdges()
+    {
+        Shape s0 = new Rectangle2D.Double(0, 0, 10, 10);
+        Shape s1 = new Rectangle2D.Double(10, 0, 10, 10);
+        Shape s2 = new Rectangle2D.Double(0, 0, 10, 5);
+        checkAgainstArea(s0, s1);
+        checkAgainstArea(s0, s2);
+        checkAgainstArea(s0, s0);
+
+        Path2D union = PolygonClipping.union(s0, s1, FLATNESS);
+        assertEquals(1, Shapes.computeRegions(union, FLATNESS).size());
+    }
+
+    @Test
+    public void testEllipses()
+    {
+        Shape s0 = new Ellipse2D.Double(0, 0, 100, 60);
+        Shape s1 = new Ellipse2D.Double(30, 20, 50, 90);
+        checkAgainstArea(s0, s1);
+    }
+
+    @Test
+    public void testStars()
+    {
+        Shape s0 = Stars.createStarShape(100, 100, 40, 90, 50);
+        Shape s1 = Stars.createStarShape(130, 110, 30, 80, 37);
+        checkAgainstArea(s0, s1);
+    }
+
+    @Test
+    public void testHoles()
+    {
+        Area a0 = new Area(new Rectangle2D.Double(0, 0, 100, 100));
+        a0.subtract(new Area(new Ellipse2D.Double(10, 10, 50, 50)));
+        Path2D p1 = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        p1.append(new Rectangle2D.Double(40, 40, 100, 30), false);
+        p1.append(new Rectangle2D.Double(90, 45, 20, 20), false);
+        checkAgainstArea(a0, p1);
+    }
+
+    @Test
+    public void testPackedPaths()
+    {
+        PackedPath p0 = new PackedPath();
+        p0.moveTo(0, 0);
+        p0.lineTo(4, 0);
+        p0.lineTo(4, 4);
+        p0.lineTo(0, 4);
+        PackedPath p1 = new PackedPath();
+        p1.moveTo(2, 2);
+        p1.lineTo(2, 6);
+        p1.lineTo(6, 6);
+        p1.lineTo(6, 2);
+        PackedPath result = PolygonClipping.intersection(
+            p0, PathIterator.WIND_NON_ZERO, p1, PathIterator.WIND_NON_ZERO, 
+            null);
+        assertEquals(1, result.getNumSubPaths());
+        assertEquals(4, result.getNumPoints());
+        assertEquals(4.0, area(result.toPath()), 1e-9);
+    }
+
+    @Test
+    public void testRegularPolygons()
+    {
+        Shape hexagon = createRegularPolygon(6, 0, 0, 25, 0);
+        for (int n = 3; n <= 12; n++)
+        {
+            for (int r = 0; r < 4; r++)
+            {
+                double angle = r * Math.PI / (4 * n);
+                Shape polygon = createRegularPolygon(n, 0, 0, 22, angle);
+                checkAgainstArea(hexagon, polygon);
+                Shape shifted = createRegularPolygon(n, 10, 5, 22, angle);
+                checkAgainstArea(hexagon, shifted);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomIntegerPolygons()
+    {
+        Random random = new Random(0);
+        for (int i = 0; i < 100; i++)
+        {
+            Shape s0 = createRandomIntegerPolygon(random);
+            Shape s1 = createRandomIntegerPolygon(random);
+            checkAgainstArea(s0, s1);
+        }
+    }
+
+    private static Shape createRandomIntegerPolygon(Random random)
+    {
+        Path2D polygon = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        int n = 3 + random.nextInt(6);
+        for (int j = 0; j < n; j++)
+        {
+            double x = random.nextInt(11);
+            double y = random.nextInt(11);
+            if (j == 0)
+            {
+                polygon.moveTo(x, y);
+            }
+            else
+            {
+                polygon.lineTo(x, y);
+            }
+        }
+        polygon.closePath();
+        return polygon;
+    }
+
+    private static void checkAgainstArea(Shape s0, Shape s1)
+    {
+        Area a0 = new Area(flatten(s0));
+        Area a1 = new Area(flatten(s1));
+
+        Area union = new Area(a0);
+        union.add(a1);
+        assertEquals(area(union), 
+            area(PolygonClipping.union(s0, s1, FLATNESS)), 1e-6);
+
+        Area intersection = new Area(a0);
+        intersection.intersect(a1);
+        assertEquals(area(intersection), 
+            area(PolygonClipping.intersection(s0, s1, FLATNESS)), 1e-6);
+
+        Area difference = new Area(a0);
+        difference.subtract(a1);
+        assertEquals(area(difference), 
+            area(PolygonClipping.difference(s0, s1, FLATNESS)), 1e-6);
+
+        Area exclusiveOr = new Area(a0);
+        exclusiveOr.exclusiveOr(a1);
+        assertEquals(area(exclusiveOr), 
+            area(PolygonClipping.exclusiveOr(s0, s1, FLATNESS)), 1e-6);
+    }
+
+    private static Path2D flatten(Shape shape)
+    {
+        Path2D path = Shapes.computePackedPath(shape, FLATNESS, null).toPath();
+        path.setWindingRule(shape.getPathIterator(null).getWindingRule());
+        return path;
+    }
+}
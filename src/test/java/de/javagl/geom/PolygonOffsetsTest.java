@@ -0,0 +1,169 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.area;
+import static de.javagl.geom.ShapeTestUtils.createRegularPolygon;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.BasicStroke;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PolygonOffsetsTest
+{
+    private static final double FLATNESS = 0.001;
+
+    @Test
+    public void testSquareJoins()
+    {
+        Shape square = new Rectangle2D.Double(0, 0, 10, 10);
+        assertEquals(144.0, area(PolygonOffsets.offset(
+            square, 1.0, BasicStroke.JOIN_MITER, 10.0, FLATNESS)), 1e-9);
+        assertEquals(142.0, area(PolygonOffsets.offset(
+            square, 1.0, BasicStroke.JOIN_BEVEL, 10.0, FLATNESS)), 1e-9);
+        assertEquals(140.0 + Math.PI, area(PolygonOffsets.offset(
+            square, 1.0, BasicStroke.JOIN_ROUND, 10.0, FLATNESS)), 1e-2);
+        assertEquals(142.0, area(PolygonOffsets.offset(
+            square, 1.0, BasicStroke.JOIN_MITER, 1.2, FLATNESS)), 1e-9);
+    }
+
+    @Test
+    public void testShrink()
+    {
+        Shape square = new Rectangle2D.Double(0, 0, 10, 10);
+        assertEquals(64.0, area(PolygonOffsets.offset(
+            square, -1.0, BasicStroke.JOIN_MITER, 10.0, FLATNESS)), 1e-9);
+        Path2D vanished = PolygonOffsets.offset(
+            square, -6.0, BasicStroke.JOIN_MITER, 10.0, FLATNESS);
+        assertEquals(0.0, area(vanished), 1e-9);
+    }
+
+    @Test
+    public void testStarAgainstArea()
+    {
+        Shape star = Stars.createStarShape(0, 0, 20, 50, 7);
+        double d = 3.0;
+        BasicStroke stroke = new BasicStroke((float)(2 * d), 
+            BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        Area border = new Area(stroke.createStrokedShape(star));
+
+        Area grown = new Area(star);
+        grown.add(border);
+        assertEquals(area(grown), area(PolygonOffsets.offset(
+            star, d, BasicStroke.JOIN_ROUND, 10.0, FLATNESS)), 0.1);
+
+        Area shrunk = new Area(star);
+        shrunk.subtract(border);
+        assertEquals(area(shrunk), area(PolygonOffsets.offset(
+            star, -d, BasicStroke.JOIN_ROUND, 10.0, FLATNESS)), 0.1);
+    }
+
+    @Test
+    public void testDiamondAgainstArea()
+    {
+        Path2D diamond = new Path2D.Double();
+        diamond.moveTo(10, 0);
+        diamond.lineTo(0, 10);
+        diamond.lineTo(-10, 0);
+        diamond.lineTo(0, -10);
+        diamond.closePath();
+        checkPolygon(diamond, 3.0, BasicStroke.JOIN_ROUND);
+        checkPolygon(diamond, 3.0, BasicStroke.JOIN_MITER);
+        checkPolygon(diamond, 3.0, BasicStroke.JOIN_BEVEL);
+        checkPolygon(diamond, -3.0, BasicStroke.JOIN_ROUND);
+    }
+
+    @Test
+    public void testRegularPolygonsAgainstArea()
+    {
+        for (int n = 3; n <= 8; n++)
+        {
+            for (int r = 0; r < 4; r++)
+            {
+                double angle = r * Math.PI / (4 * n);
+                Shape polygon = createRegularPolygon(n, 0, 0, 20, angle);
+                checkPolygon(polygon, 3.0, BasicStroke.JOIN_ROUND);
+                checkPolygon(polygon, 3.0, BasicStroke.JOIN_BEVEL);
+                checkPolygon(polygon, -3.0, BasicStroke.JOIN_ROUND);
+            }
+        }
+    }
+
+    @Test
+    public void testPolylineAgainstArea()
+    {
+        Path2D polyline = new Path2D.Double();
+        polyline.moveTo(0, 0);
+        polyline.lineTo(50, 0);
+        polyline.lineTo(10, 5);
+        polyline.lineTo(30, 40);
+        polyline.lineTo(20, -10);
+        checkPolyline(polyline, BasicStroke.JOIN_ROUND, BasicStroke.CAP_ROUND);
+        checkPolyline(polyline, BasicStroke.JOIN_BEVEL, BasicStroke.CAP_BUTT);
+        checkPolyline(polyline, 
+            BasicStroke.JOIN_MITER, BasicStroke.CAP_SQUARE);
+
+        Path2D closed = new Path2D.Double(polyline);
+        closed.closePath();
+        checkPolyline(closed, BasicStroke.JOIN_ROUND, BasicStroke.CAP_BUTT);
+    }
+
+    @Test
+    public void testSinglePoint()
+    {
+        PackedPath path = new PackedPath();
+        path.moveTo(5, 5);
+        PackedPath square = PolygonOffsets.buffer(path, 2.0, 
+            BasicStroke.JOIN_MITER, BasicStroke.CAP_SQUARE, 10.0, FLATNESS, 
+            null);
+        assertEquals(16.0, area(square.toPath()), 1e-9);
+        PackedPath none = PolygonOffsets.buffer(path, 2.0, 
+            BasicStroke.JOIN_MITER, BasicStroke.CAP_BUTT, 10.0, FLATNESS, 
+            null);
+        assertEquals(0, none.getNumPoints());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidJoin()
+    {
+        PolygonOffsets.offset(new Rectangle2D.Double(0, 0, 1, 1), 
+            1.0, 123, 10.0, FLATNESS);
+    }
+
+    private static void checkPolygon(Shape polygon, double d, int join)
+    {
+        float miterLimit = 10.0f;
+        BasicStroke stroke = new BasicStroke(
+            (float)(2 * Math.abs(d)), BasicStroke.CAP_ROUND, join, 
+            miterLimit);
+        Area border = new Area(stroke.createStrokedShape(polygon));
+        Area expected = new Area(polygon);
+        if (d > 0)
+        {
+            expected.add(border);
+        }
+        else
+        {
+            expected.subtract(border);
+        }
+        Path2D actual = PolygonOffsets.offset(
+            polygon, d, join, miterLimit, FLATNESS);
+        assertEquals(area(expected), area(actual), 0.1);
+    }
+
+    private static void checkPolyline(Shape polyline, int join, int cap)
+    {
+        double d = 2.5;
+        float miterLimit = 4.0f;
+        BasicStroke stroke = new BasicStroke(
+            (float)(2 * d), cap, join, miterLimit);
+        Area expected = new Area(stroke.createStrokedShape(polyline));
+        Path2D actual = PolygonOffsets.buffer(
+            polyline, d, join, cap, miterLimit, FLATNESS);
+        assertEquals(area(expected), area(actual), 0.1);
+    }
+}
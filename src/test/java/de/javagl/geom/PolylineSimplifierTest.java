@@ -0,0 +1,118 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PolylineSimplifierTest
+{
+    @Test
+    public void testCollinearPoints()
+    {
+        PackedPath input = new PackedPath();
+        input.moveTo(0, 0);
+        for (int i = 1; i <= 100; i++)
+        {
+            input.lineTo(i, 0);
+        }
+        PolylineSimplifier simplifier = new PolylineSimplifier();
+        PackedPath dp = simplifier.simplifyDouglasPeucker(input, 0.1, null);
+        assertEquals(2, dp.getNumPoints());
+        assertEquals(100.0, dp.getX(1), 0.0);
+        PackedPath vw = simplifier.simplifyVisvalingam(input, 0.1, null);
+        assertEquals(2, vw.getNumPoints());
+        assertEquals(100.0, vw.getX(1), 0.0);
+    }
+
+    @Test
+    public void testClosedRing()
+    {
+        // A square with additional points on each edge
+        PackedPath input = new PackedPath();
+        input.moveTo(0, 0);
+        input.lineTo(5, 0);
+        input.lineTo(10, 0);
+        input.lineTo(10, 5);
+        input.lineTo(10, 10);
+        input.lineTo(5, 10);
+        input.lineTo(0, 10);
+        input.lineTo(0, 5);
+        input.closePath();
+        PolylineSimplifier simplifier = new PolylineSimplifier();
+        PackedPath dp = simplifier.simplifyDouglasPeucker(input, 0.1, null);
+        assertEquals(4, dp.getNumPoints());
+        assertEquals(true, dp.isSubPathClosed(0));
+        PackedPath vw = simplifier.simplifyVisvalingam(input, 0.1, null);
+        assertEquals(4, vw.getNumPoints());
+        assertEquals(true, vw.isSubPathClosed(0));
+    }
+
+    @Test
+    public void testClosedRingKeepsThreePoints()
+    {
+        // A thin ring, where all points are within the tolerance of 
+        // the line between the first point and the farthest point
+        PackedPath input = new PackedPath();
+        input.moveTo(0, 0);
+        input.lineTo(5, 0.1);
+        input.lineTo(10, 0);
+        input.lineTo(5, -0.1);
+        input.closePath();
+        PolylineSimplifier simplifier = new PolylineSimplifier();
+        PackedPath dp = simplifier.simplifyDouglasPeucker(input, 1.0, null);
+        assertEquals(3, dp.getNumPoints());
+        assertEquals(true, dp.isSubPathClosed(0));
+        assertEquals(10.0, dp.getX(2), 0.0);
+        PackedPath vw = simplifier.simplifyVisvalingam(input, 1.0, null);
+        assertEquals(3, vw.getNumPoints());
+
+        // A circle that is much smaller than the tolerance
+        PackedPath circle = Shapes.computePackedPath(
+            new Ellipse2D.Double(0, 0, 1, 1), 0.001, null);
+        dp = simplifier.simplifyDouglasPeucker(circle, 10.0, null);
+        assertEquals(3, dp.getNumPoints());
+        assertEquals(true, dp.isSubPathClosed(0));
+    }
+
+    @Test
+    public void testToleranceIsRespected()
+    {
+        PolylineSimplifier simplifier = new PolylineSimplifier();
+        Ellipse2D circle = new Ellipse2D.Double(-100, -100, 200, 200);
+        PackedPath input = Shapes.computePackedPath(circle, 0.001, null);
+        PackedPath result = new PackedPath();
+        double tolerance = 1.0;
+        simplifier.simplifyDouglasPeucker(input, tolerance, result);
+        assertEquals(true, result.getNumPoints() < input.getNumPoints());
+        for (int i = 0; i < input.getNumPoints(); i++)
+        {
+            double distance = distanceToRing(
+                result, input.getX(i), input.getY(i));
+            assertEquals(true, distance <= tolerance + 1e-10);
+        }
+        Path2D path = 
+            simplifier.simplifyDouglasPeucker(circle, 0.001, tolerance);
+        assertEquals(
+            Shapes.computeSignedArea(circle, 0.001), 
+            Shapes.computeSignedArea(path, 0.001), 
+            0.02 * Math.PI * 100 * 100);
+    }
+
+    private static double distanceToRing(PackedPath ring, double x, double y)
+    {
+        double min = Double.POSITIVE_INFINITY;
+        int n = ring.getNumPoints();
+        for (int i = 0; i < n; i++)
+        {
+            int j = (i + 1) % n;
+            double d = PolylineSimplifier.ptSegDistSq(
+                ring.getX(i), ring.getY(i), ring.getX(j), ring.getY(j), x, y);
+            min = Math.min(min, d);
+        }
+        return Math.sqrt(min);
+    }
+}
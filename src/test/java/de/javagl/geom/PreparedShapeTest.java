@@ -0,0 +1,181 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.createRegularPolygon;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class PreparedShapeTest
+{
+    @Test
+    public void testStar()
+    {
+        Shape star = Stars.createStarShape(100, 100, 20, 90, 500);
+        checkAgainstFlattenedShape(star, 0.5);
+    }
+
+    @Test
+    public void testAreaWithHoles()
+    {
+        Area area = new Area(new Rectangle2D.Double(0, 0, 100, 100));
+        area.subtract(new Area(new Ellipse2D.Double(10, 10, 30, 30)));
+        area.subtract(new Area(new Rectangle2D.Double(50, 50, 20, 30)));
+        area.add(new Area(new Ellipse2D.Double(150, 20, 40, 60)));
+        checkAgainstFlattenedShape(area, 0.1);
+    }
+
+    @Test
+    public void testWindingRules()
+    {
+        Path2D path = new Path2D.Double();
+        path.append(new Rectangle2D.Double(0, 0, 10, 10), false);
+        path.append(new Rectangle2D.Double(2, 2, 10, 3), false);
+        path.append(new Ellipse2D.Double(4, 4, 4, 4), false);
+        path.setWindingRule(Path2D.WIND_EVEN_ODD);
+        checkAgainstFlattenedShape(path, 0.01);
+        path.setWindingRule(Path2D.WIND_NON_ZERO);
+        checkAgainstFlattenedShape(path, 0.01);
+    }
+
+    @Test
+    public void testBatch()
+    {
+        Shape shape = new Ellipse2D.Double(0, 0, 10, 10);
+        PreparedShape preparedShape = PreparedShape.create(shape, 0.01);
+        double coordinates[] = { 5, 5, -1, 5, 1, 1, 9, 5 };
+        BitSet result = preparedShape.contains(coordinates, 0, 4, null);
+        assertEquals(true, result.get(0));
+        assertEquals(false, result.get(1));
+        assertEquals(false, result.get(2));
+        assertEquals(true, result.get(3));
+    }
+
+    @Test
+    public void testEdgesThroughCellCorners()
+    {
+        Path2D triangle = new Path2D.Double();
+        triangle.moveTo(0, 0);
+        triangle.lineTo(7, 7);
+        triangle.lineTo(7, 1);
+        triangle.closePath();
+        PreparedShape preparedShape = PreparedShape.create(triangle, 0.0);
+        assertEquals(false, preparedShape.contains(1.1, 6.25));
+        checkGridAgainstShape(triangle, 70);
+    }
+    
+    @Test
+    public void testRegularPolygons()
+    {
+        for (int n = 3; n <= 12; n++)
+        {
+            for (int r = 0; r < 4; r++)
+            {
+                double angle = r * Math.PI / (4 * n);
+                Shape polygon = createRegularPolygon(n, 0, 0, 20, angle);
+                checkGridAgainstShape(polygon, 80);
+            }
+        }
+    }
+    
+    @Test
+    public void testRandomIntegerPolygons()
+    {
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++)
+        {
+            Path2D polygon = new Path2D.Double();
+            int n = 3 + random.nextInt(10);
+            for (int j = 0; j < n; j++)
+            {
+                double x = random.nextInt(11);
+                double y = random.nextInt(11);
+                if (j == 0)
+                {
+                    polygon.moveTo(x, y);
+                }
+                else
+                {
+                    polygon.lineTo(x, y);
+                }
+            }
+            polygon.closePath();
+            polygon.setWindingRule(
+                random.nextBoolean() ? Path2D.WIND_EVEN_ODD : 
+                    Path2D.WIND_NON_ZERO);
+            checkGridAgainstShape(polygon, 40);
+        }
+    }
+    
+    /**
+     * Compare the containment results for a grid of points that covers
+     * the given (polygonal) shape with the results of the shape itself,
+     * ignoring points that are very close to the boundary
+     */
+    private static void checkGridAgainstShape(Shape shape, int steps)
+    {
+        PreparedShape preparedShape = PreparedShape.create(shape, 0.0);
+        List<Line2D> lines = Shapes.computeLineSegments(shape, 0.0);
+        Rectangle2D bounds = shape.getBounds2D();
+        for (int iy = 0; iy <= steps; iy++)
+        {
+            for (int ix = 0; ix <= steps; ix++)
+            {
+                double x = bounds.getMinX() - 0.5 + 
+                    ix * (bounds.getWidth() + 1) / steps;
+                double y = bounds.getMinY() - 0.5 + 
+                    iy * (bounds.getHeight() + 1) / steps;
+                if (isNearBoundary(lines, x, y))
+                {
+                    continue;
+                }
+                assertEquals("At " + x + " " + y, 
+                    shape.contains(x, y), preparedShape.contains(x, y));
+            }
+        }
+    }
+    
+    private static boolean isNearBoundary(
+        List<Line2D> lines, double x, double y)
+    {
+        for (Line2D line : lines)
+        {
+            if (line.ptSegDistSq(x, y) < 1e-12)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static void checkAgainstFlattenedShape(
+        Shape shape, double flatness)
+    {
+        PreparedShape preparedShape = PreparedShape.create(shape, flatness);
+        Path2D flattened = 
+            Shapes.computePackedPath(shape, flatness, null).toPath();
+        flattened.setWindingRule(
+            shape.getPathIterator(null).getWindingRule());
+        Rectangle2D bounds = shape.getBounds2D();
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++)
+        {
+            double x = bounds.getMinX() - 1 + 
+                random.nextDouble() * (bounds.getWidth() + 2);
+            double y = bounds.getMinY() - 1 + 
+                random.nextDouble() * (bounds.getHeight() + 2);
+            assertEquals("At " + x + " " + y, 
+                flattened.contains(x, y), preparedShape.contains(x, y));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ShapeMatchingTest
+{
+    @Test
+    public void testIncompatibleShapes()
+    {
+        Shape shape0 = new Rectangle2D.Double(0, 0, 10, 10);
+        Shape shape1 = Stars.createStarShape(50, 50, 10, 20, 7);
+        List<Shape> shapes = 
+            ShapeMatching.computeCompatibleShapes(shape0, shape1, 0.1, 64);
+        assertEquals(2, shapes.size());
+
+        // Must not throw
+        Shapes.interpolate(shapes.get(0), shapes.get(1), 0.5);
+
+        assertEquals(100.0, Math.abs(
+            Shapes.computeSignedArea(shapes.get(0), 0.1)), 1e-9);
+        ShapeMorph morph = ShapeMatching.createMorph(shape0, shape1, 0.1, 64);
+        assertEquals(64 * 2, morph.getNumCoordinates());
+    }
+
+    @Test
+    public void testStartAlignment()
+    {
+        // The same ellipse, but with a path that has the opposite 
+        // orientation, or that starts at a different point
+        Shape shape0 = new Ellipse2D.Double(0, 0, 40, 20);
+        AffineTransform at = new AffineTransform();
+        at.translate(20, 10);
+        at.scale(1, -1);
+        at.translate(-20, -10);
+        checkAligned(shape0, new Path2D.Double(shape0, at));
+        checkAligned(shape0, new Path2D.Double(shape0, 
+            AffineTransform.getRotateInstance(Math.PI, 20, 10)));
+    }
+
+    private static void checkAligned(Shape shape0, Shape shape1)
+    {
+        List<Shape> shapes = 
+            ShapeMatching.computeCompatibleShapes(shape0, shape1, 0.01, 100);
+        double p0[] = coordinates(shapes.get(0));
+        double p1[] = coordinates(shapes.get(1));
+        assertEquals(p0.length, p1.length);
+        double maxDistance = 0;
+        for (int i = 0; i < p0.length; i += 2)
+        {
+            double d = Math.hypot(p0[i] - p1[i], p0[i + 1] - p1[i + 1]);
+            maxDistance = Math.max(maxDistance, d);
+        }
+        assertEquals(0.0, maxDistance, 0.2);
+    }
+
+    @Test
+    public void testDifferentNumberOfSubPaths()
+    {
+        Path2D shape0 = new Path2D.Double();
+        shape0.append(new Rectangle2D.Double(0, 0, 10, 10), false);
+        shape0.append(new Rectangle2D.Double(20, 0, 1, 1), false);
+        Shape shape1 = new Line2D.Double(0, 0, 10, 0);
+        List<Shape> shapes = 
+            ShapeMatching.computeCompatibleShapes(shape0, shape1, 0.1, 8);
+        assertEquals(16 * 2, coordinates(shapes.get(0)).length);
+
+        // The smaller square is paired with a single point. This is
+        // a closed sub-path, so its last point is not stored twice
+        double p1[] = coordinates(shapes.get(1));
+        assertEquals(15 * 2, p1.length);
+        assertEquals(20.5, p1[16], 1e-9);
+        assertEquals(0.5, p1[17], 1e-9);
+        assertEquals(20.5, p1[28], 1e-9);
+    }
+
+    private static double[] coordinates(Shape shape)
+    {
+        PackedPath path = Shapes.computePackedPath(shape, 0.1, null);
+        PathIterator pi = shape.getPathIterator(null);
+        assertEquals(false, pi.isDone());
+        return path.toCoordinates();
+    }
+}
@@ -0,0 +1,91 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.assertSameSegments;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ShapeMorphTest
+{
+    @Test
+    public void testSameAsInterpolate()
+    {
+        Shape shape0 = new Ellipse2D.Double(0, 0, 10, 20);
+        Shape shape1 = new Ellipse2D.Double(30, 10, 50, 5);
+        ShapeMorph morph = ShapeMorph.create(shape0, shape1);
+        Path2D path = null;
+        for (double alpha = -0.5; alpha <= 1.5; alpha += 0.25)
+        {
+            Shape expected = Shapes.interpolate(shape0, shape1, alpha);
+            path = morph.computePath(alpha, path);
+            assertSameSegments(expected.getPathIterator(null), 
+                path.getPathIterator(null), 1e-12);
+        }
+    }
+
+    @Test
+    public void testCoordinates()
+    {
+        Shape shape0 = new Rectangle2D.Double(0, 0, 10, 10);
+        Shape shape1 = new Rectangle2D.Double(10, 20, 30, 40);
+        ShapeMorph morph = ShapeMorph.create(shape0, shape1);
+        assertEquals(6, morph.getNumSegments());
+        assertEquals(10, morph.getNumCoordinates());
+        assertEquals(PathIterator.SEG_MOVETO, morph.getSegmentType(0));
+        assertEquals(PathIterator.SEG_CLOSE, morph.getSegmentType(5));
+        double buffer[] = new double[12];
+        double result[] = morph.computeCoordinates(0.5, buffer);
+        assertSame(buffer, result);
+        assertEquals(5.0, result[0], 0.0);
+        assertEquals(10.0, result[1], 0.0);
+        assertEquals(25.0, result[2], 0.0);
+    }
+
+    @Test
+    public void testBatch()
+    {
+        List<ShapeMorph> morphs = new ArrayList<ShapeMorph>();
+        for (int i = 0; i < 100; i++)
+        {
+            morphs.add(ShapeMorph.create(
+                new Ellipse2D.Double(i, 0, 10, 10), 
+                new Ellipse2D.Double(0, i, 20, 20)));
+        }
+        Path2D paths[] = ShapeMorph.computePaths(morphs, 0.3, null);
+        double coordinates[][] = 
+            ShapeMorph.computeCoordinates(morphs, 0.3, null);
+        Path2D previous[] = paths.clone();
+        Path2D reused[] = ShapeMorph.computePaths(morphs, 0.7, paths);
+        assertSame(paths, reused);
+        for (int i = 0; i < morphs.size(); i++)
+        {
+            assertSame(previous[i], reused[i]);
+            Shape expected = Shapes.interpolate(
+                new Ellipse2D.Double(i, 0, 10, 10), 
+                new Ellipse2D.Double(0, i, 20, 20), 0.7);
+            assertSameSegments(expected.getPathIterator(null), 
+                previous[i].getPathIterator(null), 1e-12);
+            assertEquals((i + 10) * 0.3 + 20 * 0.7, 
+                morphs.get(i).computeCoordinates(0.7, null)[0], 1e-9);
+            assertEquals(morphs.get(i).getNumCoordinates(), 
+                coordinates[i].length);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompatible()
+    {
+        ShapeMorph.create(new Rectangle2D.Double(0, 0, 1, 1), 
+            new Ellipse2D.Double(0, 0, 1, 1));
+    }
+}
@@ -0,0 +1,146 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ShapeResamplingTest
+{
+    @Test
+    public void testResampleEqualsDeltaPathIterator()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.quadTo(50, 100, 100, 0);
+        path.closePath();
+        path.moveTo(200, 0);
+        path.curveTo(250, 50, 300, -50, 350, 0);
+        
+        PackedPath packedPath = ShapeResampling.resample(path, 4.0, null);
+        assertEquals(2, packedPath.getNumSubPaths());
+        assertTrue(packedPath.isSubPathClosed(0));
+        assertFalse(packedPath.isSubPathClosed(1));
+        
+        PathIterator pi = PathIterators.createCurveDeltaPathIterator(path, 4.0);
+        double coords[] = new double[6];
+        int index = 0;
+        while (!pi.isDone())
+        {
+            int type = pi.currentSegment(coords);
+            if (type != PathIterator.SEG_CLOSE)
+            {
+                assertEquals(coords[0], packedPath.getX(index), 1e-12);
+                assertEquals(coords[1], packedPath.getY(index), 1e-12);
+                index++;
+            }
+            pi.next();
+        }
+        assertEquals(index, packedPath.getNumPoints());
+    }
+    
+    @Test
+    public void testFlattenedEqualsDeltaPathIterator()
+    {
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.quadTo(50, 100, 100, 0);
+        path.closePath();
+        path.moveTo(200, 0);
+        path.curveTo(250, 50, 300, -50, 350, 0);
+        path.append(new Ellipse2D.Double(400, 0, 50, 30), false);
+        
+        PackedPath packedPath = 
+            ShapeResampling.resample(path, 0.5, 4.0, null);
+        assertEquals(3, packedPath.getNumSubPaths());
+        
+        Path2D expected = new Path2D.Double();
+        expected.append(
+            PathIterators.createDeltaPathIterator(path, 0.5, 4.0), false);
+        PackedPath expectedPath = 
+            Shapes.computePackedPath(expected, 0.5, null);
+        assertEquals(expectedPath.getNumSubPaths(), 
+            packedPath.getNumSubPaths());
+        assertEquals(expectedPath.getNumPoints(), packedPath.getNumPoints());
+        for (int i = 0; i < expectedPath.getNumSubPaths(); i++)
+        {
+            assertEquals(expectedPath.getSubPathStart(i), 
+                packedPath.getSubPathStart(i));
+            assertEquals(expectedPath.isSubPathClosed(i), 
+                packedPath.isSubPathClosed(i));
+        }
+        for (int i = 0; i < expectedPath.getNumPoints(); i++)
+        {
+            assertEquals(expectedPath.getX(i), packedPath.getX(i), 0.0);
+            assertEquals(expectedPath.getY(i), packedPath.getY(i), 0.0);
+        }
+    }
+    
+    @Test
+    public void testSpacingIsLimited()
+    {
+        Shape shape = new Ellipse2D.Double(10, 20, 300, 100);
+        double maxDelta = 7.0;
+        PackedPath packedPath = 
+            ShapeResampling.resample(shape, maxDelta, null);
+        assertEquals(1, packedPath.getNumSubPaths());
+        assertTrue(packedPath.isSubPathClosed(0));
+        int n = packedPath.getNumPoints();
+        for (int i = 0; i < n; i++)
+        {
+            int j = (i + 1) % n;
+            double dx = packedPath.getX(j) - packedPath.getX(i);
+            double dy = packedPath.getY(j) - packedPath.getY(i);
+            assertTrue(Math.hypot(dx, dy) <= maxDelta);
+        }
+    }
+    
+    @Test
+    public void testParallelEqualsSequential()
+    {
+        Random random = new Random(0);
+        Path2D path = new Path2D.Double();
+        for (int i = 0; i < 200; i++)
+        {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            double w = 1 + random.nextDouble() * 100;
+            double h = 1 + random.nextDouble() * 100;
+            path.append(new Ellipse2D.Double(x, y, w, h), false);
+        }
+        PackedPath expected = ShapeResampling.resample(path, 2.0, null);
+        PackedPath actual = new PackedPath();
+        actual.moveTo(-1, -1);
+        ShapeResampling.resampleParallel(path, 2.0, actual);
+        
+        assertEquals(200, actual.getNumSubPaths());
+        assertEquals(expected.getNumSubPaths(), actual.getNumSubPaths());
+        assertEquals(expected.getNumPoints(), actual.getNumPoints());
+        for (int i = 0; i < expected.getNumSubPaths(); i++)
+        {
+            assertEquals(expected.getSubPathStart(i), 
+                actual.getSubPathStart(i));
+            assertEquals(expected.isSubPathClosed(i), 
+                actual.isSubPathClosed(i));
+        }
+        for (int i = 0; i < expected.getNumPoints(); i++)
+        {
+            assertEquals(expected.getX(i), actual.getX(i), 0.0);
+            assertEquals(expected.getY(i), actual.getY(i), 0.0);
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDelta()
+    {
+        ShapeResampling.resample(new Ellipse2D.Double(0, 0, 1, 1), 0, null);
+    }
+}
@@ -0,0 +1,84 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+
+/**
+ * Utility methods for tests that compare shapes
+ */
+@SuppressWarnings("javadoc")
+class ShapeTestUtils
+{
+    /**
+     * Assert that the given path iterators provide the same segments, 
+     * with coordinates that are equal up to the given epsilon. This also
+     * checks that the single precision coordinates of the actual iterator
+     * are the rounded double precision coordinates.
+     */
+    static void assertSameSegments(
+        PathIterator expected, PathIterator actual, double epsilon)
+    {
+        double ce[] = new double[6];
+        double ca[] = new double[6];
+        float fa[] = new float[6];
+        while (!expected.isDone())
+        {
+            assertEquals(false, actual.isDone());
+            int type = expected.currentSegment(ce);
+            assertEquals(type, actual.currentSegment(ca));
+            assertEquals(type, actual.currentSegment(fa));
+            int n = PathIterators.getNumCoordinates(type);
+            for (int i = 0; i < n; i++)
+            {
+                assertEquals(ce[i], ca[i], epsilon);
+                assertEquals((float)ca[i], fa[i], 0.0f);
+            }
+            expected.next();
+            actual.next();
+        }
+        assertEquals(true, actual.isDone());
+    }
+    
+    /**
+     * Returns the absolute value of the signed area of the given shape,
+     * flattened with a small flatness
+     */
+    static double area(Shape shape)
+    {
+        return Math.abs(Shapes.computeSignedArea(shape, 0.001));
+    }
+    
+    /**
+     * Creates a closed regular polygon with the given number of corners,
+     * center and radius, where the first corner is at the given angle
+     */
+    static Path2D createRegularPolygon(
+        int n, double cx, double cy, double radius, double angle)
+    {
+        Path2D polygon = new Path2D.Double();
+        for (int i = 0; i < n; i++)
+        {
+            double a = angle + i * 2 * Math.PI / n;
+            double x = cx + radius * Math.cos(a);
+            double y = cy + radius * Math.sin(a);
+            if (i == 0)
+            {
+                polygon.moveTo(x, y);
+            }
+            else
+            {
+                polygon.lineTo(x, y);
+            }
+        }
+        polygon.closePath();
+        return polygon;
+    }
+    
+    private ShapeTestUtils()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,72 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.assertSameSegments;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ShapesSubShapeViewsTest
+{
+    @Test
+    public void testSameAsSubShapes()
+    {
+        Path2D shape = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        shape.moveTo(10, 10);
+        shape.lineTo(50, 10);
+        shape.lineTo(50, 50);
+        shape.lineTo(10, 50);
+        shape.closePath();
+        shape.lineTo(0, 0);
+        shape.moveTo(60, 10);
+        shape.moveTo(60, 20);
+        shape.lineTo(70, 20);
+        shape.moveTo(60, 30);
+        shape.quadTo(80, 50, 90, 30);
+        shape.curveTo(100, 40, 110, 20, 120, 30);
+        shape.closePath();
+        shape.closePath();
+        shape.append(new Ellipse2D.Double(0, 100, 30, 20), false);
+
+        List<Shape> expected = Shapes.computeSubShapes(shape);
+        List<Shape> actual = Shapes.computeSubShapeViews(shape);
+        assertEquals(expected.size(), actual.size());
+        AffineTransform at = AffineTransform.getRotateInstance(0.3);
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Shape e = expected.get(i);
+            Shape a = actual.get(i);
+            assertSameSegments(e.getPathIterator(null), 
+                a.getPathIterator(null), 1e-12);
+            assertSameSegments(e.getPathIterator(at), 
+                a.getPathIterator(at), 1e-12);
+            assertSameSegments(e.getPathIterator(null, 0.1), 
+                a.getPathIterator(null, 0.1), 1e-12);
+            assertEquals(e.getBounds2D(), a.getBounds2D());
+            assertEquals(Path2D.WIND_EVEN_ODD, 
+                a.getPathIterator(null).getWindingRule());
+        }
+    }
+
+    @Test
+    public void testContains()
+    {
+        Path2D shape = new Path2D.Double();
+        shape.append(new Ellipse2D.Double(0, 0, 10, 10), false);
+        shape.append(new Ellipse2D.Double(20, 0, 10, 10), false);
+        List<Shape> subShapes = Shapes.computeSubShapeViews(shape);
+        assertEquals(2, subShapes.size());
+        assertEquals(true, subShapes.get(0).contains(5, 5));
+        assertEquals(false, subShapes.get(0).contains(25, 5));
+        assertEquals(true, subShapes.get(1).contains(25, 5));
+        assertEquals(true, subShapes.get(1).intersects(24, 4, 2, 2));
+        assertEquals(false, subShapes.get(1).contains(0, 0, 5, 5));
+    }
+}
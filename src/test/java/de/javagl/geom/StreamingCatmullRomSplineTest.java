@@ -0,0 +1,122 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class StreamingCatmullRomSplineTest
+{
+    @Test
+    public void testEqualsCatmullRomSpline()
+    {
+        for (int a = 0; a <= 2; a++)
+        {
+            double alpha = a * 0.5;
+            Random random = new Random(a);
+            StreamingCatmullRomSpline streaming = 
+                StreamingCatmullRomSpline.create(6, alpha);
+            List<Point2D> points = new ArrayList<Point2D>();
+            for (int n = 1; n <= 20; n++)
+            {
+                Point2D p = new Point2D.Double(
+                    random.nextDouble() * 100, random.nextDouble() * 100);
+                points.add(p);
+                streaming.append(p);
+                assertEquals(n, streaming.getNumControlPoints());
+                if (n == 1)
+                {
+                    assertEquals(0, streaming.getNumInterpolatedPoints());
+                    double tail[] = streaming.computeTail(null);
+                    assertEquals(2, tail.length);
+                    assertEquals(p.getX(), tail[0], 0.0);
+                    assertEquals(p.getY(), tail[1], 0.0);
+                    continue;
+                }
+                double expected[] = CatmullRomSpline.create(
+                    points, 6, alpha).getInterpolatedCoordinates(null);
+                double actual[] = concat(
+                    streaming.getInterpolatedCoordinates(null),
+                    streaming.computeTail(null));
+                assertEquals(expected.length, actual.length);
+                for (int i = 0; i < expected.length; i++)
+                {
+                    assertEquals(expected[i], actual[i], 0.0);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testSlidingWindow()
+    {
+        Random random = new Random(0);
+        StreamingCatmullRomSpline all = 
+            StreamingCatmullRomSpline.create(4, 0.5);
+        StreamingCatmullRomSpline window = 
+            StreamingCatmullRomSpline.create(4, 0.5, 3);
+        for (int n = 1; n <= 1000; n++)
+        {
+            double x = random.nextDouble() * 100;
+            double y = random.nextDouble() * 100;
+            all.append(x, y);
+            window.append(x, y);
+            
+            int numSegments = Math.max(0, n - 2);
+            int numRetained = Math.min(numSegments, 3) * 4;
+            assertEquals(numRetained, window.getNumInterpolatedPoints());
+            assertEquals(numSegments * 4 - numRetained, 
+                window.getNumDiscardedPoints());
+            
+            Point2D expected = new Point2D.Double();
+            Point2D actual = new Point2D.Double();
+            for (int i = 0; i < numRetained; i++)
+            {
+                int index = (int)window.getNumDiscardedPoints() + i;
+                all.getInterpolatedPoint(index, expected);
+                window.getInterpolatedPoint(i, actual);
+                assertEquals(expected, actual);
+            }
+        }
+    }
+    
+    @Test
+    public void testClear()
+    {
+        StreamingCatmullRomSpline spline = 
+            StreamingCatmullRomSpline.create(4, 0.0, 2);
+        for (int i = 0; i < 10; i++)
+        {
+            spline.append(i, i * i);
+        }
+        spline.clear();
+        assertEquals(0, spline.getNumControlPoints());
+        assertEquals(0, spline.getNumInterpolatedPoints());
+        assertEquals(0, spline.getNumTailPoints());
+        spline.append(1, 2);
+        spline.append(3, 4);
+        spline.append(5, 6);
+        assertEquals(4, spline.getNumInterpolatedPoints());
+        assertEquals(new Point2D.Double(1, 2), 
+            spline.getInterpolatedPoint(0, null));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWindowSize()
+    {
+        StreamingCatmullRomSpline.create(4, 0.0, 0);
+    }
+    
+    private static double[] concat(double a[], double b[])
+    {
+        double result[] = new double[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class SvgPathsTest
+{
+    @Test
+    public void testRelativeAndImplicitCommands()
+    {
+        Path2D expected = new Path2D.Double();
+        expected.moveTo(10, 10);
+        expected.lineTo(30, 10);
+        expected.lineTo(30, 30);
+        expected.lineTo(10, 30);
+        expected.closePath();
+        expected.moveTo(10, 10);
+        expected.lineTo(15, 12);
+        expected.lineTo(20, 14);
+        
+        assertSamePath(expected, SvgPaths.readPath(
+            "M10 10 h 20 v 20 H10 z l5,2 5 2", null));
+        assertSamePath(expected, SvgPaths.readPath(
+            "m10,10 20,0 0,20 -20,0Z L15 12 l5 2", null));
+    }
+    
+    @Test
+    public void testCompactNumbers()
+    {
+        Path2D expected = new Path2D.Double();
+        expected.moveTo(0, 0);
+        expected.lineTo(10, -5.5);
+        expected.lineTo(0.5, 0.5);
+        expected.lineTo(1e-3, -2e2);
+        assertSamePath(expected, SvgPaths.readPath(
+            "M0,0L10-5.5.5.5 1e-3-2E+2", null));
+    }
+    
+    @Test
+    public void testShorthandCurves()
+    {
+        Path2D expected = new Path2D.Double();
+        expected.moveTo(0, 0);
+        expected.curveTo(0, 10, 10, 10, 10, 0);
+        expected.curveTo(10, -10, 20, -10, 20, 0);
+        expected.quadTo(25, 10, 30, 0);
+        expected.quadTo(35, -10, 40, 0);
+        expected.quadTo(45, 10, 50, 0);
+        expected.lineTo(60, 0);
+        expected.quadTo(60, 0, 70, 0);
+        assertSamePath(expected, SvgPaths.readPath(
+            "M0 0C0 10 10 10 10 0s10-10 10 0q5 10 10 0t10 0T50 0" 
+            + "L60 0T70 0", null));
+    }
+    
+    @Test
+    public void testArcs()
+    {
+        Path2D circle = SvgPaths.readPath(
+            "M0 50 A50 50 0 0 0 100 50 A50 50 0 0 0 0 50 Z", null);
+        assertEquals(Math.PI * 2500, 
+            Math.abs(Shapes.computeSignedArea(circle, 0.01)), 2.0);
+        
+        // Compact flags, and radii that are too small for the endpoints
+        Path2D half = SvgPaths.readPath("M0 0a1 1 0 00100 0z", null);
+        assertEquals(Math.PI * 2500 / 2, 
+            Math.abs(Shapes.computeSignedArea(half, 0.01)), 1.0);
+        assertEquals(50.0, half.getBounds2D().getHeight(), 0.1);
+        
+        // Large arc with sweep: Three quarters of a circle
+        Path2D large = SvgPaths.readPath(
+            "M10 0 A10 10 0 1 1 0 -10", null);
+        assertEquals(10.0, large.getBounds2D().getMaxY(), 1e-6);
+        assertEquals(-10.0, large.getBounds2D().getMinX(), 1e-6);
+    }
+    
+    @Test
+    public void testPackedPath() throws IOException
+    {
+        String d = "M0 50 A50 50 0 0 0 100 50 A50 50 0 0 0 0 50 Z "
+            + "M40 50 h20 v10 h-20 z";
+        PackedPath packed = SvgPaths.readPackedPath(d, 0.01, null);
+        assertEquals(2, packed.getNumSubPaths());
+        assertTrue(packed.isSubPathClosed(1));
+        Shape expected = SvgPaths.readPath(d, null);
+        assertEquals(Shapes.computeSignedArea(expected, 0.01), 
+            Shapes.computeSignedArea(packed.toPath(), 1.0), 1.0);
+        for (int i = packed.getSubPathStart(0); 
+            i < packed.getSubPathEnd(0); i++)
+        {
+            double dx = packed.getX(i) - 50;
+            double dy = packed.getY(i) - 50;
+            assertEquals(50.0, Math.hypot(dx, dy), 0.02);
+        }
+        
+        PackedPath fromReader = SvgPaths.readPackedPath(
+            new BufferedReader(new StringReader(d)), 0.01, null);
+        assertEquals(packed.getNumPoints(), fromReader.getNumPoints());
+    }
+    
+    @Test
+    public void testEmpty()
+    {
+        assertTrue(SvgPaths.readPath("  ", null).getBounds2D().isEmpty());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingMoveTo()
+    {
+        SvgPaths.readPath("L 10 10", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingArgument()
+    {
+        SvgPaths.readPath("M 10 10 L 20", null);
+    }
+    
+    private static void assertSamePath(Shape expected, Shape actual)
+    {
+        PathIterator pe = expected.getPathIterator(null);
+        PathIterator pa = actual.getPathIterator(null);
+        double ce[] = new double[6];
+        double ca[] = new double[6];
+        while (!pe.isDone())
+        {
+            assertTrue(!pa.isDone());
+            int type = pe.currentSegment(ce);
+            assertEquals(type, pa.currentSegment(ca));
+            for (int i = 0; i < 6; i++)
+            {
+                assertEquals(ce[i], ca[i], 1e-10);
+            }
+            pe.next();
+            pa.next();
+        }
+        assertTrue(pa.isDone());
+    }
+}
@@ -0,0 +1,137 @@
+package de.javagl.geom;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TriangulationsTest
+{
+    @Test
+    public void testSquareWithHole()
+    {
+        double coordinates[] = {
+            0, 0, 10, 0, 10, 10, 0, 10,
+            2, 2, 2, 8, 8, 8, 8, 2
+        };
+        int indices[] = Triangulations.triangulate(
+            coordinates, new int[] { 4 });
+        assertEquals(8 * 3, indices.length);
+        assertEquals(100 - 36, 
+            computeArea(coordinates, indices), 1e-8);
+    }
+
+    @Test
+    public void testLargePolygon()
+    {
+        // A star with many vertices, which uses the z-order hashing
+        Shape star = Stars.createStarShape(0, 0, 50, 100, 200);
+        PackedPath vertices = new PackedPath();
+        int indices[] = Triangulations.triangulate(star, 1.0, vertices);
+        assertEquals(Math.abs(Shapes.computeSignedArea(star, 1.0)), 
+            computeArea(vertices.getCoordinates(), indices), 1e-6);
+    }
+
+    @Test
+    public void testShapeWithHoles()
+    {
+        final double flatness = 0.1;
+        Area area = new Area(new Rectangle2D.Double(0, 0, 100, 100));
+        area.subtract(new Area(new Ellipse2D.Double(10, 10, 30, 30)));
+        area.subtract(new Area(new Rectangle2D.Double(50, 50, 20, 30)));
+        PackedPath vertices = new PackedPath();
+        int indices[] = Triangulations.triangulate(area, flatness, vertices);
+        assertEquals(Math.abs(Shapes.computeSignedArea(area, flatness)), 
+            computeArea(vertices.getCoordinates(), indices), 1e-6);
+    }
+
+    @Test
+    public void testWindingRules()
+    {
+        // Two nested squares with the same orientation
+        Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.lineTo(10, 0);
+        path.lineTo(10, 10);
+        path.lineTo(0, 10);
+        path.closePath();
+        path.moveTo(2, 2);
+        path.lineTo(8, 2);
+        path.lineTo(8, 8);
+        path.lineTo(2, 8);
+        path.closePath();
+
+        PackedPath vertices = new PackedPath();
+        path.setWindingRule(Path2D.WIND_EVEN_ODD);
+        int evenOdd[] = Triangulations.triangulate(path, 1.0, vertices);
+        assertEquals(64, computeArea(vertices.getCoordinates(), evenOdd), 
+            1e-8);
+
+        path.setWindingRule(Path2D.WIND_NON_ZERO);
+        int nonZero[] = Triangulations.triangulate(path, 1.0, vertices);
+        assertEquals(100, computeArea(vertices.getCoordinates(), nonZero), 
+            1e-8);
+    }
+
+    @Test
+    public void testManyHoles()
+    {
+        int n = 40;
+        Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.append(new Rectangle2D.Double(0, 0, n * 10 + 10, n * 10 + 10), 
+            false);
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = 0; j < n; j++)
+            {
+                path.append(new Rectangle2D.Double(
+                    10 + i * 10, 10 + j * 10, 5, 5), false);
+            }
+        }
+        PackedPath vertices = new PackedPath();
+        int indices[] = Triangulations.triangulate(path, 1.0, vertices);
+        int polygons[][] = 
+            new Rings(vertices, Path2D.WIND_EVEN_ODD).computePolygons();
+        assertEquals(1, polygons.length);
+        assertEquals(1 + n * n, polygons[0].length);
+        double size = n * 10 + 10;
+        assertEquals(size * size - n * n * 25, 
+            computeArea(vertices.getCoordinates(), indices), 1e-6);
+    }
+
+    @Test
+    public void testIslandInHole()
+    {
+        Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.append(new Rectangle2D.Double(0, 0, 30, 30), false);
+        path.append(new Rectangle2D.Double(10, 10, 10, 10), false);
+        path.append(new Rectangle2D.Double(12, 12, 6, 6), false);
+        PackedPath vertices = new PackedPath();
+        int indices[] = Triangulations.triangulate(path, 1.0, vertices);
+        assertEquals((8 + 2) * 3, indices.length);
+        assertEquals(900 - 100 + 36, 
+            computeArea(vertices.getCoordinates(), indices), 1e-8);
+    }
+
+    private static double computeArea(double coordinates[], int indices[])
+    {
+        double sum = 0;
+        for (int i = 0; i < indices.length; i += 3)
+        {
+            double x0 = coordinates[indices[i + 0] * 2 + 0];
+            double y0 = coordinates[indices[i + 0] * 2 + 1];
+            double x1 = coordinates[indices[i + 1] * 2 + 0];
+            double y1 = coordinates[indices[i + 1] * 2 + 1];
+            double x2 = coordinates[indices[i + 2] * 2 + 0];
+            double y2 = coordinates[indices[i + 2] * 2 + 1];
+            sum += Math.abs((x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0));
+        }
+        return sum * 0.5;
+    }
+}
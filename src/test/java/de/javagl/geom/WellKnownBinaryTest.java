@@ -0,0 +1,151 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.area;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class WellKnownBinaryTest
+{
+    @Test
+    public void testReadLittleEndianPointZ()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 24);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte)1);
+        buffer.putInt(1001);
+        buffer.putDouble(1.0);
+        buffer.putDouble(2.0);
+        buffer.putDouble(3.0);
+        buffer.flip();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        
+        PackedPath path = WellKnownBinary.readPackedPath(buffer, null);
+        assertEquals(1, path.getNumSubPaths());
+        assertEquals(1.0, path.getX(0), 0.0);
+        assertEquals(2.0, path.getY(0), 0.0);
+        assertEquals(0, buffer.remaining());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+    
+    @Test
+    public void testReadExtendedPolygon()
+    {
+        // A big-endian polygon with an SRID, and a little-endian point
+        // inside a geometry collection
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put((byte)0);
+        buffer.putInt(7);
+        buffer.putInt(2);
+        buffer.put((byte)0);
+        buffer.putInt(3 | 0x20000000);
+        buffer.putInt(4326);
+        buffer.putInt(1);
+        buffer.putInt(4);
+        double coordinates[] = { 0, 0, 4, 0, 4, 3, 0, 0 };
+        for (double c : coordinates)
+        {
+            buffer.putDouble(c);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte)1);
+        buffer.putInt(1);
+        buffer.putDouble(5);
+        buffer.putDouble(6);
+        buffer.flip();
+        
+        PackedPath path = WellKnownBinary.readPackedPath(buffer, null);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(3, path.getSubPathEnd(0));
+        assertEquals(6.0, area(path.toPath()), 1e-10);
+        assertEquals(5.0, path.getX(3), 0.0);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadTruncated()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(9);
+        buffer.put((byte)0);
+        buffer.putInt(2);
+        buffer.putInt(10);
+        buffer.flip();
+        WellKnownBinary.readPath(buffer, null);
+    }
+    
+    @Test
+    public void testRoundTrip()
+    {
+        Area area = new Area(new Ellipse2D.Double(0, 0, 100, 60));
+        area.subtract(new Area(new Ellipse2D.Double(20, 20, 30, 20)));
+        area.add(new Area(new Rectangle2D.Double(200, 0, 10, 10)));
+        Shape flat = Shapes.computePackedPath(area, 0.1, null).toPath();
+        
+        ByteBuffer big = WellKnownBinary.write(area, 0.1, null);
+        assertEquals(big.capacity(), big.position());
+        big.flip();
+        Path2D path = WellKnownBinary.readPath(big, null);
+        assertEquals(area(flat), 
+            area(path), 1e-8);
+
+        ByteBuffer little = ByteBuffer.allocateDirect(big.capacity())
+            .order(ByteOrder.LITTLE_ENDIAN);
+        WellKnownBinary.write(area, 0.1, little);
+        little.flip();
+        PackedPath packed = WellKnownBinary.readPackedPath(little, null);
+        assertEquals(3, packed.getNumSubPaths());
+        assertEquals(area(flat), 
+            area(packed.toPath()), 1e-8);
+        
+        String wkt = WellKnownText.createString(area, 0.1);
+        assertEquals(wkt, WellKnownText.createString(path, 0.1));
+    }
+    
+    @Test
+    public void testWriteOpenPath()
+    {
+        Path2D open = new Path2D.Double();
+        open.moveTo(0, 0);
+        open.lineTo(1, 2);
+        open.moveTo(3, 4);
+        ByteBuffer buffer = WellKnownBinary.write(open, 1.0, null);
+        assertEquals(9 + (9 + 32) + (9 + 32), buffer.capacity());
+        buffer.flip();
+        assertEquals("MULTILINESTRING ((0 0, 1 2), (3 4, 3 4))", 
+            WellKnownText.createString(
+                WellKnownBinary.readPath(buffer, null), 1.0));
+    }
+    
+    @Test
+    public void testPointsRoundTrip()
+    {
+        PackedPath input = WellKnownText.readPackedPath(
+            "MULTIPOINT ((1 2), (3.5 -4))", null);
+        ByteBuffer buffer = WellKnownBinary.write(
+            input, Path2D.WIND_EVEN_ODD, null);
+        assertEquals(9 + 2 * (5 + 16), buffer.capacity());
+        buffer.flip();
+        assertEquals(4, buffer.getInt(1));
+        PackedPath path = WellKnownBinary.readPackedPath(buffer, null);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(3.5, path.getX(path.getSubPathStart(1)), 0.0);
+        assertEquals("MULTIPOINT ((1 2), (3.5 -4))", 
+            WellKnownText.createString(path.toPath(), 1.0));
+    }
+    
+    @Test(expected = BufferOverflowException.class)
+    public void testWriteOverflow()
+    {
+        WellKnownBinary.write(new Rectangle2D.Double(0, 0, 1, 1), 1.0,
+            ByteBuffer.allocate(20));
+    }
+}
@@ -0,0 +1,188 @@
+package de.javagl.geom;
+
+import static de.javagl.geom.ShapeTestUtils.area;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class WellKnownTextTest
+{
+    @Test
+    public void testReadPolygonWithHole()
+    {
+        String wkt = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), "
+            + "(2 2, 2 4, 4 4, 4 2, 2 2))";
+        PackedPath path = WellKnownText.readPackedPath(wkt, null);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(8, path.getNumPoints());
+        assertTrue(path.isSubPathClosed(0));
+        assertTrue(path.isSubPathClosed(1));
+        
+        Path2D p = WellKnownText.readPath(wkt, null);
+        assertEquals(96.0, area(p), 1e-10);
+    }
+    
+    @Test
+    public void testReadVariants()
+    {
+        PackedPath path = WellKnownText.readPackedPath(
+            "srid=4326;linestring z (1.5 -2e1 7, +3 .25 8)", null);
+        assertEquals(1, path.getNumSubPaths());
+        assertEquals(1.5, path.getX(0), 0.0);
+        assertEquals(-20.0, path.getY(0), 0.0);
+        assertEquals(3.0, path.getX(1), 0.0);
+        assertEquals(0.25, path.getY(1), 0.0);
+        
+        WellKnownText.readPackedPath(
+            "MULTIPOINT ((1 2), 3 4, EMPTY)", path);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(3.0, path.getX(2), 0.0);
+        
+        WellKnownText.readPackedPath("GEOMETRYCOLLECTION ("
+            + "POINT (1 2), LINESTRING EMPTY, "
+            + "MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), EMPTY))", path);
+        assertEquals(2, path.getNumSubPaths());
+        
+        WellKnownText.readPackedPath("POLYGON EMPTY", path);
+        assertEquals(0, path.getNumSubPaths());
+    }
+    
+    @Test
+    public void testReadNumbers()
+    {
+        String values[] = 
+        {
+            "0.1", "123456.789012", "1.7976931348623157E308", 
+            "4.9E-324", "0.30000000000000004", "-0", "1e-7", 
+            "12345678901234567890"
+        };
+        for (String value : values)
+        {
+            PackedPath path = WellKnownText.readPackedPath(
+                "POINT (" + value + " 0)", null);
+            assertEquals(Double.parseDouble(value), path.getX(0), 0.0);
+        }
+    }
+    
+    @Test
+    public void testReadFromReader() throws IOException
+    {
+        String wkt = "MULTILINESTRING ((0 0, 1 1), (2 2, 3 3, 4 4))";
+        PackedPath path = WellKnownText.readPackedPath(
+            new BufferedReader(new StringReader(wkt)), null);
+        assertEquals(2, path.getNumSubPaths());
+        assertEquals(5, path.getNumPoints());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadInvalid()
+    {
+        WellKnownText.readPath("POLYGON ((0 0, 1 0, 1 1)", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadTrailingInput()
+    {
+        WellKnownText.readPath("POINT (0 0) POINT (1 1)", null);
+    }
+    
+    @Test
+    public void testWrite()
+    {
+        assertEquals("MULTIPOLYGON (((0 0, 10 0, 10 10, 0 10, 0 0)))", 
+            WellKnownText.createString(
+                new Rectangle2D.Double(0, 0, 10, 10), 1.0));
+        
+        Path2D open = new Path2D.Double();
+        open.moveTo(0, 0);
+        open.lineTo(1.5, 2);
+        assertEquals("MULTILINESTRING ((0 0, 1.5 2))", 
+            WellKnownText.createString(open, 1.0));
+        
+        assertEquals("GEOMETRYCOLLECTION EMPTY", 
+            WellKnownText.createString(new Path2D.Double(), 1.0));
+    }
+    
+    @Test
+    public void testPointsRoundTrip()
+    {
+        PackedPath point = WellKnownText.readPackedPath("POINT (1 2)", null);
+        String wkt = WellKnownText.createString(point.toPath(), 1.0);
+        assertEquals("MULTIPOINT ((1 2))", wkt);
+        PackedPath path = WellKnownText.readPackedPath(wkt, null);
+        assertEquals(1, path.getNumSubPaths());
+        assertEquals(1.0, path.getX(0), 0.0);
+        assertEquals(2.0, path.getY(0), 0.0);
+        
+        String multi = "MULTIPOINT ((1 2), (3.5 -4))";
+        assertEquals(multi, WellKnownText.createString(
+            WellKnownText.readPath(multi, null), 1.0));
+    }
+    
+    @Test
+    public void testWriteOrientation()
+    {
+        // Outer ring is clockwise, hole is counterclockwise
+        Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.moveTo(0, 0);
+        path.lineTo(0, 10);
+        path.lineTo(10, 10);
+        path.lineTo(10, 0);
+        path.closePath();
+        path.moveTo(2, 2);
+        path.lineTo(4, 2);
+        path.lineTo(4, 4);
+        path.lineTo(2, 4);
+        path.closePath();
+        assertEquals("MULTIPOLYGON (((10 0, 10 10, 0 10, 0 0, 10 0), "
+            + "(2 4, 4 4, 4 2, 2 2, 2 4)))", 
+            WellKnownText.createString(path, 1.0));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteInfinite() throws IOException
+    {
+        PackedPath path = new PackedPath();
+        path.moveTo(0, 0);
+        path.lineTo(Double.POSITIVE_INFINITY, 1);
+        WellKnownText.write(path, Path2D.WIND_NON_ZERO, new StringWriter());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteNaN() throws IOException
+    {
+        PackedPath path = new PackedPath();
+        path.moveTo(0, 0);
+        path.lineTo(1, Double.NaN);
+        WellKnownText.write(path, Path2D.WIND_NON_ZERO, new StringWriter());
+    }
+    
+    @Test
+    public void testRoundTrip()
+    {
+        Area area = new Area(new Ellipse2D.Double(0, 0, 100, 60));
+        area.subtract(new Area(new Ellipse2D.Double(20, 20, 30, 20)));
+        area.add(new Area(new Rectangle2D.Double(200, 0, 10, 10)));
+        Shape flat = Shapes.computePackedPath(area, 0.1, null).toPath();
+        
+        String wkt = WellKnownText.createString(area, 0.1);
+        Path2D path = WellKnownText.readPath(wkt, null);
+        assertEquals(area(flat), 
+            area(path), 1e-8);
+        assertEquals(3, WellKnownText.readPackedPath(wkt, null)
+            .getNumSubPaths());
+        assertEquals(wkt, WellKnownText.createString(path, 0.1));
+    }
+}